@@ -14,6 +14,13 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 import com.tgboyles.frugalfox.expense.CsvImportException;
 import com.tgboyles.frugalfox.expense.ExpenseNotFoundException;
+import com.tgboyles.frugalfox.expense.ExportJobNotFoundException;
+import com.tgboyles.frugalfox.expense.ExportJobNotReadyException;
+import com.tgboyles.frugalfox.expense.ExportRejectedException;
+import com.tgboyles.frugalfox.expense.ImportErrorReportNotFoundException;
+import com.tgboyles.frugalfox.expense.ImportJobNotFoundException;
+import com.tgboyles.frugalfox.expense.ImportRejectedException;
+import com.tgboyles.frugalfox.expense.UploadSessionNotFoundException;
 
 /**
  * Global exception handler for the application.
@@ -36,6 +43,101 @@ public ResponseEntity<ErrorResponse> handleExpenseNotFound(ExpenseNotFoundExcept
 	return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
 }
 
+/**
+* Handles ImportJobNotFoundException.
+*
+* @param ex the exception
+* @return error response with 404 status
+*/
+@ExceptionHandler(ImportJobNotFoundException.class)
+public ResponseEntity<ErrorResponse> handleImportJobNotFound(ImportJobNotFoundException ex) {
+	ErrorResponse error =
+		new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Not Found", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+}
+
+/**
+* Handles UploadSessionNotFoundException.
+*
+* @param ex the exception
+* @return error response with 404 status
+*/
+@ExceptionHandler(UploadSessionNotFoundException.class)
+public ResponseEntity<ErrorResponse> handleUploadSessionNotFound(
+	UploadSessionNotFoundException ex) {
+	ErrorResponse error =
+		new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Not Found", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+}
+
+/**
+* Handles ImportErrorReportNotFoundException.
+*
+* @param ex the exception
+* @return error response with 404 status
+*/
+@ExceptionHandler(ImportErrorReportNotFoundException.class)
+public ResponseEntity<ErrorResponse> handleImportErrorReportNotFound(
+	ImportErrorReportNotFoundException ex) {
+	ErrorResponse error =
+		new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Not Found", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+}
+
+/**
+* Handles imports rejected because the import queue is full.
+*
+* @param ex the exception
+* @return error response with 429 status
+*/
+@ExceptionHandler(ImportRejectedException.class)
+public ResponseEntity<ErrorResponse> handleImportRejected(ImportRejectedException ex) {
+	ErrorResponse error =
+		new ErrorResponse(
+			HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+}
+
+/**
+* Handles ExportJobNotFoundException.
+*
+* @param ex the exception
+* @return error response with 404 status
+*/
+@ExceptionHandler(ExportJobNotFoundException.class)
+public ResponseEntity<ErrorResponse> handleExportJobNotFound(ExportJobNotFoundException ex) {
+	ErrorResponse error =
+		new ErrorResponse(HttpStatus.NOT_FOUND.value(), "Not Found", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
+}
+
+/**
+* Handles downloads of export jobs that have not completed.
+*
+* @param ex the exception
+* @return error response with 409 status
+*/
+@ExceptionHandler(ExportJobNotReadyException.class)
+public ResponseEntity<ErrorResponse> handleExportJobNotReady(ExportJobNotReadyException ex) {
+	ErrorResponse error =
+		new ErrorResponse(HttpStatus.CONFLICT.value(), "Conflict", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+}
+
+/**
+* Handles exports rejected because the export queue is full.
+*
+* @param ex the exception
+* @return error response with 429 status
+*/
+@ExceptionHandler(ExportRejectedException.class)
+public ResponseEntity<ErrorResponse> handleExportRejected(ExportRejectedException ex) {
+	ErrorResponse error =
+		new ErrorResponse(
+			HttpStatus.TOO_MANY_REQUESTS.value(), "Too Many Requests", ex.getMessage());
+	return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(error);
+}
+
 /**
 * Handles validation errors from @Valid annotation.
 *
@@ -0,0 +1,42 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+
+/** Writes expenses as CSV in the import format: date,merchant,amount,bank,category. */
+class CsvExpenseExportWriter implements ExpenseExportWriter {
+
+private final CSVPrinter csvPrinter;
+
+CsvExpenseExportWriter(OutputStream out) throws IOException {
+	this.csvPrinter =
+		new CSVPrinter(
+			new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8)),
+			CSVFormat.DEFAULT.builder()
+				.setHeader("date", "merchant", "amount", "bank", "category")
+				.build());
+}
+
+@Override
+public void write(ExpenseView expense) throws IOException {
+	csvPrinter.printRecord(
+		expense.date(),
+		expense.merchant(),
+		expense.amount(),
+		expense.bank(),
+		expense.category()
+	);
+}
+
+@Override
+public void finish() throws IOException {
+	// Not closed: the stream belongs to the caller
+	csvPrinter.flush();
+}
+}
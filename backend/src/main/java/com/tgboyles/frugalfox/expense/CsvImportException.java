@@ -3,23 +3,49 @@ package com.tgboyles.frugalfox.expense;
 /**
  * Exception thrown when CSV import validation fails.
  *
- * <p>This exception includes details about where in the CSV file the error occurred.
+ * <p>This exception includes details about where in the CSV file the error occurred. Exceptions for
+ * a single row also carry the {@link ImportErrorType} the row is counted under; exceptions that fail
+ * the whole file have none.
  */
 public class CsvImportException extends RuntimeException {
 
 private final String details;
+private final ImportErrorType errorType;
 
 public CsvImportException(String message) {
 	super(message);
 	this.details = message;
+	this.errorType = null;
 }
 
 public CsvImportException(String message, Throwable cause) {
 	super(message, cause);
 	this.details = message;
+	this.errorType = null;
+}
+
+public CsvImportException(ImportErrorType errorType, String message) {
+	super(message);
+	this.details = message;
+	this.errorType = errorType;
+}
+
+public CsvImportException(ImportErrorType errorType, String message, Throwable cause) {
+	super(message, cause);
+	this.details = message;
+	this.errorType = errorType;
 }
 
 public String getDetails() {
 	return details;
 }
+
+/**
+* Returns the type of row-level error.
+*
+* @return the error type, or null if the exception concerns the whole file
+*/
+public ImportErrorType getErrorType() {
+	return errorType;
+}
 }
@@ -0,0 +1,17 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.List;
+
+/**
+ * A page of results from keyset pagination.
+ *
+ * <p>Unlike a {@link org.springframework.data.domain.Page}, it has no total count and no page
+ * number: the next page is requested with {@code nextCursor}.
+ *
+ * @param content the results on this page
+ * @param size the requested page size
+ * @param hasNext whether there are more results
+ * @param nextCursor the opaque cursor of the next page, or null on the last page
+ * @param <T> the type of the results
+ */
+public record CursorPage<T>(List<T> content, int size, boolean hasNext, String nextCursor) {}
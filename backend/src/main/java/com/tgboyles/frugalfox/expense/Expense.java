@@ -74,6 +74,16 @@ private LocalDateTime createdAt;
 @Column(name = "updated_at", nullable = false)
 private LocalDateTime updatedAt;
 
+/** See {@link ExpenseFingerprint}; set by {@link ExpenseService} and the import. */
+@JsonIgnore
+@Column(length = 64)
+private String fingerprint;
+
+/** Inserted by an import that skipped duplicates; see {@link ExpenseBulkWriter}. */
+@JsonIgnore
+@Column(nullable = false)
+private boolean deduplicated;
+
 /** Default constructor for JPA. */
 public Expense() {}
 
@@ -179,6 +189,22 @@ public LocalDateTime getUpdatedAt() {
 	return updatedAt;
 }
 
+public String getFingerprint() {
+	return fingerprint;
+}
+
+public void setFingerprint(String fingerprint) {
+	this.fingerprint = fingerprint;
+}
+
+public boolean isDeduplicated() {
+	return deduplicated;
+}
+
+public void setDeduplicated(boolean deduplicated) {
+	this.deduplicated = deduplicated;
+}
+
 @Override
 public boolean equals(Object o) {
 	if (this == o) {
@@ -0,0 +1,387 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Writes batches of imported expenses straight to the {@code expenses} table.
+ *
+ * <p>On PostgreSQL each batch is streamed through {@code COPY ... FROM STDIN}, which loads the
+ * whole batch in a single round trip. Other databases (H2 in tests) fall back to a plain JDBC
+ * batch insert. Both paths bypass Hibernate, so imported rows never become managed entities and
+ * the {@code IDENTITY} id generation of {@link Expense} no longer forces one INSERT per row.
+ *
+ * <p>Every row is stored with its {@link ExpenseFingerprint}. {@link #insertSkippingDuplicates}
+ * leaves out rows whose fingerprint the user already has, and repeats within the batch, with an
+ * anti-join against the {@code (user_id, fingerprint)} index; that index is not unique, because
+ * plain imports and the API may store true duplicates. On PostgreSQL the batch is first copied
+ * into a session-local staging table and then moved over with a single {@code INSERT ... SELECT
+ * ... WHERE NOT EXISTS}, so duplicates are found by one index probe per row inside the database
+ * instead of a query per row. Elsewhere the batch's existing fingerprints are looked up with one
+ * query and only the new rows are inserted.
+ *
+ * <p>Rows inserted this way are flagged {@code deduplicated}. On PostgreSQL a partial unique index
+ * covers those rows and the insert ends in {@code ON CONFLICT DO NOTHING}, so two imports of
+ * overlapping files, even on different application instances, cannot both insert the same row.
+ * H2 has no partial indexes and relies on the anti-join alone.
+ *
+ * <p>Dry runs write nothing. They collect the fingerprints of the file in memory and look them up
+ * once the whole file has been read ({@link #countExisting}).
+ *
+ * <p>The connection is obtained through {@link JdbcTemplate}, so writes participate in the
+ * caller's transaction and failures surface as {@link org.springframework.dao.DataAccessException}.
+ */
+@Component
+public class ExpenseBulkWriter {
+
+private static final String COLUMNS =
+	"user_id, expense_date, merchant, amount, bank, category, created_at, updated_at";
+
+private static final String COPY_SQL =
+	"COPY expenses (" + COLUMNS + ", fingerprint) FROM STDIN WITH (FORMAT csv)";
+
+private static final String INSERT_SQL =
+	"INSERT INTO expenses (" + COLUMNS + ", fingerprint, deduplicated) "
+		+ "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+private static final String STAGING_TABLE = "expense_import_staging";
+
+private static final String CREATE_STAGING_SQL =
+	"CREATE TEMPORARY TABLE IF NOT EXISTS " + STAGING_TABLE + " ("
+		+ "user_id BIGINT, expense_date DATE, merchant VARCHAR(255), amount NUMERIC(12, 2), "
+		+ "bank VARCHAR(100), category VARCHAR(100), created_at TIMESTAMP, updated_at TIMESTAMP, "
+		+ "fingerprint VARCHAR(64), batch_row INTEGER) ON COMMIT DELETE ROWS";
+
+private static final String COPY_STAGING_SQL =
+	"COPY " + STAGING_TABLE + " (" + COLUMNS + ", fingerprint, batch_row) FROM STDIN WITH (FORMAT csv)";
+
+/**
+* Inserts the first row of every new fingerprint, in file order. A row that another transaction
+* inserted with the same fingerprint since the anti-join ran is skipped by the unique index over
+* deduplicated rows.
+*/
+private static final String MERGE_STAGING_SQL =
+	"INSERT INTO expenses (" + COLUMNS + ", fingerprint, deduplicated) SELECT " + COLUMNS
+		+ ", fingerprint, TRUE FROM (SELECT DISTINCT ON (fingerprint) * FROM " + STAGING_TABLE
+		+ " staged WHERE NOT EXISTS (SELECT 1 FROM expenses existing "
+		+ "WHERE existing.user_id = staged.user_id AND existing.fingerprint = staged.fingerprint) "
+		+ "ORDER BY fingerprint, batch_row) fresh ORDER BY batch_row "
+		+ "ON CONFLICT (user_id, fingerprint) WHERE deduplicated DO NOTHING";
+
+private static final String CLEAR_STAGING_SQL = "TRUNCATE " + STAGING_TABLE;
+
+private static final String FIND_FINGERPRINTS_SQL =
+	"SELECT fingerprint FROM expenses WHERE user_id = ? AND fingerprint IN (";
+
+private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+/** Fingerprints looked up per statement by {@link #countExisting}. */
+private static final int LOOKUP_CHUNK_SIZE = 1000;
+
+private final JdbcTemplate jdbcTemplate;
+
+public ExpenseBulkWriter(JdbcTemplate jdbcTemplate) {
+	this.jdbcTemplate = jdbcTemplate;
+}
+
+/**
+* Inserts a batch of validated expenses for the given user.
+*
+* @param expenses the expenses to insert
+* @param user the user who owns the expenses
+* @return the number of rows inserted
+*/
+public int insert(List<Expense> expenses, User user) {
+	if (expenses.isEmpty()) {
+		return 0;
+	}
+
+	Long userId = user.getId();
+	LocalDateTime now = LocalDateTime.now();
+	List<String> fingerprints = fingerprints(expenses, userId);
+
+	Integer inserted =
+		jdbcTemplate.execute(
+			(ConnectionCallback<Integer>)
+				connection -> {
+					if (connection.isWrapperFor(PGConnection.class)) {
+						return copy(
+							connection.unwrap(PGConnection.class), COPY_SQL, expenses, userId, now, fingerprints, false);
+					}
+					return batchInsert(connection, expenses, userId, now, fingerprints, false);
+				});
+	return inserted != null ? inserted : 0;
+}
+
+/**
+* Inserts a batch of validated expenses for the given user, skipping every expense whose
+* fingerprint the user already has, including duplicates within the batch itself.
+*
+* @param expenses the expenses to insert
+* @param user the user who owns the expenses
+* @return the number of rows inserted; the remaining rows were duplicates
+*/
+public int insertSkippingDuplicates(List<Expense> expenses, User user) {
+	if (expenses.isEmpty()) {
+		return 0;
+	}
+
+	Long userId = user.getId();
+	LocalDateTime now = LocalDateTime.now();
+	List<String> fingerprints = fingerprints(expenses, userId);
+
+	Integer inserted =
+		jdbcTemplate.execute(
+			(ConnectionCallback<Integer>)
+				connection -> {
+					if (connection.isWrapperFor(PGConnection.class)) {
+						return copyAndMerge(connection, expenses, userId, now, fingerprints);
+					}
+					return insertNew(connection, expenses, userId, now, fingerprints);
+				});
+	return inserted != null ? inserted : 0;
+}
+
+/**
+* Counts how many of the given distinct fingerprints the user already has. They are looked up in
+* chunks of {@value #LOOKUP_CHUNK_SIZE} over one connection, so each statement stays small however
+* many rows the file had.
+*
+* @param fingerprints the distinct fingerprints to look up
+* @param user the user who owns the expenses
+* @return the number of fingerprints that match an existing expense
+*/
+public int countExisting(Iterable<String> fingerprints, User user) {
+	Long userId = user.getId();
+	Integer existing =
+		jdbcTemplate.execute(
+			(ConnectionCallback<Integer>)
+				connection -> {
+					int count = 0;
+					List<String> chunk = new ArrayList<>(LOOKUP_CHUNK_SIZE);
+					for (String fingerprint : fingerprints) {
+						chunk.add(fingerprint);
+						if (chunk.size() == LOOKUP_CHUNK_SIZE) {
+							count += findExistingFingerprints(connection, chunk, userId).size();
+							chunk.clear();
+						}
+					}
+					if (!chunk.isEmpty()) {
+						count += findExistingFingerprints(connection, chunk, userId).size();
+					}
+					return count;
+				});
+	return existing != null ? existing : 0;
+}
+
+private static Set<String> findExistingFingerprints(
+	Connection connection, Collection<String> fingerprints, Long userId) throws SQLException {
+	StringBuilder sql = new StringBuilder(FIND_FINGERPRINTS_SQL);
+	for (int i = 0; i < fingerprints.size(); i++) {
+		sql.append(i == 0 ? "?" : ", ?");
+	}
+	sql.append(')');
+
+	try (PreparedStatement statement = connection.prepareStatement(sql.toString())) {
+		statement.setLong(1, userId);
+		int index = 2;
+		for (String fingerprint : fingerprints) {
+			statement.setString(index++, fingerprint);
+		}
+		Set<String> existing = new HashSet<>();
+		try (ResultSet resultSet = statement.executeQuery()) {
+			while (resultSet.next()) {
+				existing.add(resultSet.getString(1));
+			}
+		}
+		return existing;
+	}
+}
+
+/**
+* Inserts the rows of the batch whose fingerprint the user does not have yet, and only the first
+* of any repeats within the batch.
+*/
+private static int insertNew(
+	Connection connection,
+	List<Expense> expenses,
+	Long userId,
+	LocalDateTime now,
+	List<String> fingerprints)
+	throws SQLException {
+	Set<String> seen = findExistingFingerprints(connection, new HashSet<>(fingerprints), userId);
+	List<Expense> fresh = new ArrayList<>(expenses.size());
+	List<String> freshFingerprints = new ArrayList<>(expenses.size());
+	for (int i = 0; i < expenses.size(); i++) {
+		if (seen.add(fingerprints.get(i))) {
+			fresh.add(expenses.get(i));
+			freshFingerprints.add(fingerprints.get(i));
+		}
+	}
+	return fresh.isEmpty() ? 0 : batchInsert(connection, fresh, userId, now, freshFingerprints, true);
+}
+
+/**
+* Copies the batch into the staging table and moves the rows that are not duplicates into
+* {@code expenses} with one statement.
+*/
+private int copyAndMerge(
+	Connection connection,
+	List<Expense> expenses,
+	Long userId,
+	LocalDateTime now,
+	List<String> fingerprints)
+	throws SQLException {
+	try (Statement statement = connection.createStatement()) {
+		statement.execute(CREATE_STAGING_SQL);
+		// The table outlives the transaction when the caller's transaction spans several batches
+		statement.execute(CLEAR_STAGING_SQL);
+		copy(
+			connection.unwrap(PGConnection.class), COPY_STAGING_SQL, expenses, userId, now, fingerprints, true);
+		int inserted = statement.executeUpdate(MERGE_STAGING_SQL);
+		statement.execute(CLEAR_STAGING_SQL);
+		return inserted;
+	}
+}
+
+/**
+* Streams the batch into PostgreSQL using the COPY protocol in CSV format, followed by the
+* fingerprint column and, if {@code withPosition}, the index of the row in the batch.
+*/
+private static int copy(
+	PGConnection connection,
+	String sql,
+	List<Expense> expenses,
+	Long userId,
+	LocalDateTime now,
+	List<String> fingerprints,
+	boolean withPosition)
+	throws SQLException {
+	String timestamp = Timestamp.valueOf(now).toString();
+	PGCopyOutputStream copyStream = new PGCopyOutputStream(connection, sql, COPY_BUFFER_SIZE);
+	try {
+		Writer writer =
+			new BufferedWriter(new OutputStreamWriter(copyStream, StandardCharsets.UTF_8));
+		for (int i = 0; i < expenses.size(); i++) {
+			Expense expense = expenses.get(i);
+			writer.write(userId.toString());
+			writer.write(',');
+			writer.write(expense.getDate().toString());
+			writer.write(',');
+			writeQuoted(writer, expense.getMerchant());
+			writer.write(',');
+			writer.write(expense.getAmount().toPlainString());
+			writer.write(',');
+			writeQuoted(writer, expense.getBank());
+			writer.write(',');
+			writeQuoted(writer, expense.getCategory());
+			writer.write(',');
+			writer.write(timestamp);
+			writer.write(',');
+			writer.write(timestamp);
+			writer.write(',');
+			writer.write(fingerprints.get(i));
+			if (withPosition) {
+				writer.write(',');
+				writer.write(Integer.toString(i));
+			}
+			writer.write('\n');
+		}
+		writer.flush();
+		return (int) copyStream.endCopy();
+	} catch (IOException e) {
+		if (e.getCause() instanceof SQLException sqlException) {
+			throw sqlException;
+		}
+		throw new SQLException("Failed to stream expenses to COPY: " + e.getMessage(), e);
+	} finally {
+		if (copyStream.isActive()) {
+			copyStream.cancelCopy();
+		}
+	}
+}
+
+/**
+* Inserts the batch with a single JDBC batch statement, flagging the rows as {@code deduplicated}
+* if they were checked for duplicates.
+*/
+private static int batchInsert(
+	Connection connection,
+	List<Expense> expenses,
+	Long userId,
+	LocalDateTime now,
+	List<String> fingerprints,
+	boolean deduplicated)
+	throws SQLException {
+	try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+		for (int i = 0; i < expenses.size(); i++) {
+			Expense expense = expenses.get(i);
+			statement.setLong(1, userId);
+			statement.setObject(2, expense.getDate());
+			statement.setString(3, expense.getMerchant());
+			statement.setBigDecimal(4, expense.getAmount());
+			statement.setString(5, expense.getBank());
+			statement.setString(6, expense.getCategory());
+			statement.setObject(7, now);
+			statement.setObject(8, now);
+			statement.setString(9, fingerprints.get(i));
+			statement.setBoolean(10, deduplicated);
+			statement.addBatch();
+		}
+
+		int inserted = 0;
+		for (int count : statement.executeBatch()) {
+			inserted += count == Statement.SUCCESS_NO_INFO ? 1 : count;
+		}
+		return inserted;
+	}
+}
+
+private static List<String> fingerprints(List<Expense> expenses, Long userId) {
+	ExpenseFingerprint fingerprint = new ExpenseFingerprint(userId);
+	List<String> fingerprints = new ArrayList<>(expenses.size());
+	for (Expense expense : expenses) {
+		fingerprints.add(fingerprint.of(expense));
+	}
+	return fingerprints;
+}
+
+/**
+* Writes a CSV field wrapped in double quotes, doubling any embedded quotes.
+*/
+private static void writeQuoted(Writer writer, String value) throws IOException {
+	writer.write('"');
+	int start = 0;
+	int quote;
+	while ((quote = value.indexOf('"', start)) >= 0) {
+		writer.write(value, start, quote + 1 - start);
+		writer.write('"');
+		start = quote + 1;
+	}
+	writer.write(value, start, value.length() - start);
+	writer.write('"');
+}
+}
@@ -1,19 +1,25 @@
 package com.tgboyles.frugalfox.expense;
 
 import java.io.IOException;
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.WebDataBinder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.InitBinder;
+import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
@@ -25,6 +31,8 @@ import org.springframework.web.multipart.MultipartFile;
 
 import com.tgboyles.frugalfox.user.User;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -36,13 +44,73 @@ import jakarta.validation.Valid;
 @RequestMapping("/expenses")
 public class ExpenseController {
 
-@Value("${spring.servlet.multipart.max-file-size}")
-private DataSize maxFileSize;
+/** Media type of Excel (.xlsx) spreadsheets. */
+private static final String XLSX_CONTENT_TYPE =
+	"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
+/**
+* Content types accepted for import files. gzip and zstd files are decompressed on the fly, and
+* the actual format (CSV or XLSX) is detected from the content. Browsers send files they have no
+* type for, such as {@code .zst} and sometimes {@code .gz}, as {@code application/octet-stream}.
+*/
+private static final Set<String> IMPORT_CONTENT_TYPES =
+	Set.of(
+		"text/csv",
+		"application/csv",
+		"application/vnd.ms-excel",
+		XLSX_CONTENT_TYPE,
+		"application/gzip",
+		"application/x-gzip",
+		"application/zstd",
+		"application/octet-stream");
+
+/** Buffer size of the gzip stream for compressed exports. */
+private static final int GZIP_BUFFER_SIZE = 8 * 1024;
 
 private final ExpenseService expenseService;
+private final ImportJobService importJobService;
+private final ExportJobService exportJobService;
+private final ImportErrorReportService errorReportService;
+private final ImportScheduler importScheduler;
+private final ImportProperties importProperties;
+private final ExpenseValidator expenseValidator;
 
-public ExpenseController(ExpenseService expenseService) {
+public ExpenseController(
+	ExpenseService expenseService,
+	ImportJobService importJobService,
+	ExportJobService exportJobService,
+	ImportErrorReportService errorReportService,
+	ImportScheduler importScheduler,
+	ImportProperties importProperties,
+	ExpenseValidator expenseValidator) {
 	this.expenseService = expenseService;
+	this.importJobService = importJobService;
+	this.exportJobService = exportJobService;
+	this.errorReportService = errorReportService;
+	this.importScheduler = importScheduler;
+	this.importProperties = importProperties;
+	this.expenseValidator = expenseValidator;
+}
+
+/**
+* Validates {@code @Valid} expense request bodies with {@link ExpenseValidator} instead of the
+* reflective Bean Validation validator. Field errors and messages are the same.
+*/
+@InitBinder("expense")
+void initExpenseBinder(WebDataBinder binder) {
+	binder.setValidator(expenseValidator);
+}
+
+/**
+* Binds the optional filters of search and export requests from the {@code category} and
+* {@code bank} (exact match), {@code merchant} (partial match, case-insensitive),
+* {@code startDate}, {@code endDate}, {@code minAmount} and {@code maxAmount} (inclusive)
+* parameters. The full-text query is only taken from {@code q}, by the handlers that support it.
+*/
+@InitBinder("expenseSearchCriteria")
+void initCriteriaBinder(WebDataBinder binder) {
+	binder.setAllowedFields(
+		"category", "bank", "merchant", "startDate", "endDate", "minAmount", "maxAmount");
 }
 
 /**
@@ -66,49 +134,174 @@ public ResponseEntity<Expense> createExpense(
 *
 * <p>Expected CSV format: date,merchant,amount,bank,category
 *
-* <p>The file must not exceed the configured maximum size (spring.servlet.multipart.max-file-size)
-* or 1000 rows. Returns statistics about the import operation including any validation errors
-* encountered.
+* <p>The file may also be an Excel spreadsheet (.xlsx), whose first worksheet is read as a stream
+* with the same columns. The file may be gzip or zstd compressed; it is decompressed while it is
+* read. The file must not exceed the user's import quota for size and rows (see
+* {@link ImportProperties}); the size quota applies to both the compressed and the decompressed
+* file. Returns statistics about the import operation including any validation errors
+* encountered. If the file turns out to be malformed or over the quota after some rows have been
+* saved, the import stops and returns a result marked {@code aborted}. Large files should be
+* imported with {@code async=true}, which returns a job to poll instead of holding the request
+* open. Like background jobs, the import waits for a slot from the {@link ImportScheduler}.
+*
+* <p>With {@code skipDuplicates=true}, rows matching an existing expense (same date, merchant,
+* amount and bank) are skipped and counted in {@code duplicatesSkipped}, so overlapping statement
+* exports can be re-uploaded safely.
+*
+* <p>With {@code dryRun=true}, the whole file is parsed and validated but nothing is saved. The
+* result lists every error the import would report, and counts the rows it would insert and the
+* duplicates it would skip with {@code skipDuplicates=true}, so a file can be fixed before any of
+* it is committed.
 *
 * @param file the CSV file to import
+* @param skipDuplicates whether to skip rows that match an existing expense
+* @param dryRun whether to only validate the file and check it for duplicates
 * @param user the authenticated user
 * @return import result with statistics and any errors (200 status)
 * @throws CsvImportException if the file is malformed, exceeds size limit, or exceeds row limit
-*     (400 status)
+*     before any rows were saved (400 status)
+* @throws ImportRejectedException if the user already has an import running, or no import slot
+*     became free in time (429 status)
 */
 @PostMapping("/import")
 public ResponseEntity<ImportResult> importExpenses(
-	@RequestParam("file") MultipartFile file, @AuthenticationPrincipal User user)
+	@RequestParam("file") MultipartFile file,
+	@RequestParam(defaultValue = "false") boolean skipDuplicates,
+	@RequestParam(defaultValue = "false") boolean dryRun,
+	@AuthenticationPrincipal User user)
 	throws IOException {
+	validateImportFile(file, user);
 
-	// Validate file is present
-	if (file.isEmpty()) {
-	throw new CsvImportException("File is required and cannot be empty");
+	try (ImportScheduler.Slot slot = importScheduler.acquire(user)) {
+		ImportResult result =
+			expenseService.importExpenses(
+				file.getInputStream(),
+				user,
+				new ImportOptions(skipDuplicates, dryRun),
+				ImportProgress.NONE);
+		return ResponseEntity.ok(result);
 	}
+}
 
-	// Validate file size to prevent memory exhaustion attacks
-	long maxFileSizeBytes = maxFileSize.toBytes();
-	if (file.getSize() > maxFileSizeBytes) {
-	throw new CsvImportException(
-		String.format(
-			"File size exceeds maximum limit of %d bytes. File size: %d bytes",
-			maxFileSizeBytes, file.getSize()));
+/**
+* Imports expenses from a CSV request body for the authenticated user.
+*
+* <p>The body is the CSV file itself ({@code Content-Type: text/csv}), optionally compressed with
+* {@code Content-Encoding: gzip} or {@code zstd} (or sent as an {@code application/gzip} or
+* {@code application/zstd} file). Unlike a multipart upload, the body is not buffered or spooled
+* by the servlet container: rows are read from the request stream and imported while the upload
+* is still arriving. Quotas, validation and the result are the same as for the multipart import;
+* the size quota applies to both the compressed and the uncompressed CSV. Accepts
+* {@code skipDuplicates} and {@code dryRun} like the multipart import.
+*
+* @param skipDuplicates whether to skip rows that match an existing expense
+* @param dryRun whether to only validate the file and check it for duplicates
+* @param user the authenticated user
+* @param request the request whose body is read
+* @return import result with statistics and any errors (200 status)
+* @throws CsvImportException if the body is empty, exceeds the size or row limit, uses an
+*     unsupported content encoding or is malformed (400 status)
+* @throws ImportRejectedException if the user already has an import running, or no import slot
+*     became free in time (429 status)
+*/
+@PostMapping(
+	value = "/import",
+	consumes = {
+		"text/csv",
+		"application/csv",
+		XLSX_CONTENT_TYPE,
+		"application/gzip",
+		"application/zstd"
+	})
+public ResponseEntity<ImportResult> importExpensesFromBody(
+	@RequestParam(defaultValue = "false") boolean skipDuplicates,
+	@RequestParam(defaultValue = "false") boolean dryRun,
+	@AuthenticationPrincipal User user,
+	HttpServletRequest request)
+	throws IOException {
+	InputStream body = openImportBody(request, user);
+	try (ImportScheduler.Slot slot = importScheduler.acquire(user)) {
+		ImportResult result =
+			expenseService.importExpenses(
+				body, user, new ImportOptions(skipDuplicates, dryRun), ImportProgress.NONE);
+		return ResponseEntity.ok(result);
 	}
+}
 
-	// Validate content type (allow common CSV MIME types across platforms)
-	String contentType = file.getContentType();
-	if (contentType == null) {
-	throw new CsvImportException("Invalid file type. Could not determine content type.");
-	}
-	if (!(contentType.equals("text/csv")
-		|| contentType.equals("application/csv")
-		|| contentType.equals("application/vnd.ms-excel"))) {
-	throw new CsvImportException(
-		"Invalid file type. Expected a CSV file, but got: " + contentType);
-	}
+/**
+* Starts an asynchronous import of a CSV file for the authenticated user.
+*
+* <p>The upload is spooled and processed in the background; poll the returned job (see the
+* {@code Location} header) for progress and the final result. Accepts {@code skipDuplicates} and
+* {@code dryRun} like the synchronous import.
+*
+* @param file the CSV file to import
+* @param skipDuplicates whether to skip rows that match an existing expense
+* @param dryRun whether to only validate the file and check it for duplicates
+* @param user the authenticated user
+* @return the queued import job (202 status)
+* @throws CsvImportException if the file is empty, exceeds the size limit or is not a CSV file
+*     (400 status)
+* @throws ImportRejectedException if too many imports are in progress (429 status)
+*/
+@PostMapping(value = "/import", params = "async=true")
+public ResponseEntity<ImportJob> startImport(
+	@RequestParam("file") MultipartFile file,
+	@RequestParam(defaultValue = "false") boolean skipDuplicates,
+	@RequestParam(defaultValue = "false") boolean dryRun,
+	@AuthenticationPrincipal User user) {
+	validateImportFile(file, user);
 
-	ImportResult result = expenseService.importExpenses(file.getInputStream(), user);
-	return ResponseEntity.ok(result);
+	ImportJob job = importJobService.submit(file, user, new ImportOptions(skipDuplicates, dryRun));
+	return ResponseEntity.status(HttpStatus.ACCEPTED)
+		.header("Location", "/expenses/import/" + job.getJobId())
+		.body(job);
+}
+
+/**
+* Downloads the error report of an import, listing every failed row with its row number, error
+* type and message. The report is streamed from disk.
+*
+* @param reportId the report ID from {@link ImportResult#getErrorReportId()}
+* @param user the authenticated user
+* @return the report as a CSV file download (200 status)
+*/
+@GetMapping("/import/errors/{reportId}")
+public ResponseEntity<Resource> getImportErrorReport(
+	@PathVariable String reportId, @AuthenticationPrincipal User user) {
+	ImportErrorReport report = errorReportService.getReport(reportId, user);
+	return ResponseEntity.ok()
+		.header("Content-Type", "text/csv")
+		.header("Content-Disposition", "attachment; filename=\"import-errors.csv\"")
+		.body(new FileSystemResource(report.getFile()));
+}
+
+/**
+* Retrieves the progress of an asynchronous import for the authenticated user.
+*
+* @param jobId the import job ID
+* @param user the authenticated user
+* @return the import job with rows parsed, saved and failed so far, and the result once finished
+*     (200 status)
+*/
+@GetMapping("/import/{jobId}")
+public ResponseEntity<ImportJob> getImportJob(
+	@PathVariable String jobId, @AuthenticationPrincipal User user) {
+	return ResponseEntity.ok(importJobService.getJob(jobId, user));
+}
+
+/**
+* Cancels an asynchronous import for the authenticated user. Rows saved before the import stops
+* are kept.
+*
+* @param jobId the import job ID
+* @param user the authenticated user
+* @return the import job (202 status)
+*/
+@DeleteMapping("/import/{jobId}")
+public ResponseEntity<ImportJob> cancelImportJob(
+	@PathVariable String jobId, @AuthenticationPrincipal User user) {
+	return ResponseEntity.status(HttpStatus.ACCEPTED).body(importJobService.cancel(jobId, user));
 }
 
 /**
@@ -159,85 +352,340 @@ public ResponseEntity<Void> deleteExpense(
 /**
 * Searches for expenses with optional filters, scoped to the authenticated user.
 *
-* @param category optional category filter (exact match)
-* @param bank optional bank filter (exact match)
-* @param merchant optional merchant filter (partial match, case-insensitive)
-* @param startDate optional start date filter (inclusive)
-* @param endDate optional end date filter (inclusive)
-* @param minAmount optional minimum amount filter (inclusive)
-* @param maxAmount optional maximum amount filter (inclusive)
+* <p>With {@code q}, results are ranked by relevance to the query and the {@code sort} parameter
+* is ignored.
+*
+* @param criteria optional filters (see {@link #initCriteriaBinder})
+* @param q optional full-text query over merchant, category and bank; results are ordered by
+*     relevance
 * @param pageable pagination and sorting parameters
 * @param user the authenticated user
 * @return a page of expenses with 200 status
 */
 @GetMapping
-public ResponseEntity<Page<Expense>> searchExpenses(
-	@RequestParam(required = false) String category,
-	@RequestParam(required = false) String bank,
-	@RequestParam(required = false) String merchant,
-	@RequestParam(required = false) LocalDate startDate,
-	@RequestParam(required = false) LocalDate endDate,
-	@RequestParam(required = false) BigDecimal minAmount,
-	@RequestParam(required = false) BigDecimal maxAmount,
+public ResponseEntity<Page<ExpenseView>> searchExpenses(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String q,
+	@PageableDefault(size = 20, sort = "date") Pageable pageable,
+	@AuthenticationPrincipal User user) {
+
+	criteria.setQuery(q);
+
+	Page<ExpenseView> expenses = expenseService.searchExpenses(criteria, user, pageable);
+	return ResponseEntity.ok(expenses);
+}
+
+/**
+* Searches for expenses with optional filters without counting them, scoped to the authenticated
+* user.
+*
+* <p>Selected with {@code pagination=slice}. The response has the page's content and whether there
+* is a next page ({@code last}), but no {@code totalElements} or {@code totalPages}, which saves
+* the count query of a regular search.
+*
+* @param criteria optional filters (see {@link #initCriteriaBinder})
+* @param q optional full-text query over merchant, category and bank; results are ordered by
+*     relevance
+* @param pageable pagination and sorting parameters
+* @param user the authenticated user
+* @return a slice of expenses with 200 status
+*/
+@GetMapping(params = "pagination=slice")
+public ResponseEntity<Slice<ExpenseView>> searchExpensesSlice(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String q,
+	@PageableDefault(size = 20, sort = "date") Pageable pageable,
+	@AuthenticationPrincipal User user) {
+
+	criteria.setQuery(q);
+
+	Slice<ExpenseView> expenses = expenseService.searchExpensesSlice(criteria, user, pageable);
+	return ResponseEntity.ok(expenses);
+}
+
+/**
+* Searches for expenses with optional filters with an estimated total, scoped to the authenticated
+* user.
+*
+* <p>Selected with {@code pagination=estimated}. The response has the same shape as a regular
+* search, but {@code totalElements} and {@code totalPages} are estimates except on the last page.
+*
+* @param criteria optional filters (see {@link #initCriteriaBinder})
+* @param q optional full-text query over merchant, category and bank; results are ordered by
+*     relevance
+* @param pageable pagination and sorting parameters
+* @param user the authenticated user
+* @return a page of expenses with an estimated total, with 200 status
+*/
+@GetMapping(params = "pagination=estimated")
+public ResponseEntity<Page<ExpenseView>> searchExpensesWithEstimatedCount(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String q,
 	@PageableDefault(size = 20, sort = "date") Pageable pageable,
 	@AuthenticationPrincipal User user) {
 
-	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
-	criteria.setCategory(category);
-	criteria.setBank(bank);
-	criteria.setMerchant(merchant);
-	criteria.setStartDate(startDate);
-	criteria.setEndDate(endDate);
-	criteria.setMinAmount(minAmount);
-	criteria.setMaxAmount(maxAmount);
+	criteria.setQuery(q);
 
-	Page<Expense> expenses = expenseService.searchExpenses(criteria, user, pageable);
+	Page<ExpenseView> expenses =
+		expenseService.searchExpensesWithEstimatedCount(criteria, user, pageable);
 	return ResponseEntity.ok(expenses);
 }
 
 /**
- * Exports expenses to CSV format with optional filters, scoped to the authenticated user.
+* Searches for expenses with optional filters using keyset pagination, scoped to the authenticated
+* user.
+*
+* <p>Selected with {@code pagination=cursor}. The response has no total count; the next page is
+* requested with the {@code nextCursor} of the previous response and the same filters and sort.
+* Each page continues after the last row of the previous one instead of skipping rows, so deep
+* pages are as fast as the first. The {@code page} parameter is ignored.
+*
+* @param criteria optional filters (see {@link #initCriteriaBinder})
+* @param q full-text query; not supported with cursor pagination and rejected with 400
+* @param cursor the cursor of the page to fetch; omit for the first page
+* @param pageable page size and sorting parameters
+* @param user the authenticated user
+* @return a page of expenses with the cursor of the next page, with 200 status
+*/
+@GetMapping(params = "pagination=cursor")
+public ResponseEntity<CursorPage<ExpenseView>> searchExpensesByCursor(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String q,
+	@RequestParam(required = false) String cursor,
+	@PageableDefault(size = 20, sort = "date") Pageable pageable,
+	@AuthenticationPrincipal User user) {
+
+	criteria.setQuery(q);
+
+	CursorPage<ExpenseView> expenses =
+		expenseService.searchExpenses(
+			criteria, user, pageable.getSort(), pageable.getPageSize(), cursor);
+	return ResponseEntity.ok(expenses);
+}
+
+/**
+ * Exports expenses as CSV or NDJSON with optional filters, scoped to the authenticated user.
+ *
+ * <p>The CSV format is: date,merchant,amount,bank,category. NDJSON
+ * ({@code application/x-ndjson}) has one compact JSON object per expense and line. The format
+ * is chosen with the {@code format} parameter or, without it, the {@code Accept} header; CSV is
+ * the default.
  *
- * <p>The CSV format is: date,merchant,amount,bank,category
+ * <p>The export is written to the response while the expenses are read from the database, so
+ * large exports are not held in memory. If the request accepts gzip, the response is compressed
+ * as it is written. An error after the first rows have been sent ends the response early instead
+ * of returning an error status.
  *
- * @param category optional category filter (exact match)
- * @param bank optional bank filter (exact match)
- * @param merchant optional merchant filter (partial match, case-insensitive)
- * @param startDate optional start date filter (inclusive)
- * @param endDate optional end date filter (inclusive)
- * @param minAmount optional minimum amount filter (inclusive)
- * @param maxAmount optional maximum amount filter (inclusive)
+ * @param criteria optional filters (see {@link #initCriteriaBinder})
+ * @param format optional export format ({@code csv} or {@code ndjson})
  * @param pageable pagination and sorting parameters (pagination ignored for export, only sorting used)
  * @param user the authenticated user
- * @return CSV file download with 200 status
- * @throws IOException if there is an error generating the CSV
+ * @param request the request, for the Accept and Accept-Encoding headers
+ * @param response the response to write the file download to
+ * @throws IOException if there is an error writing the export
  */
 @GetMapping("/export")
-public ResponseEntity<String> exportExpenses(
-	@RequestParam(required = false) String category,
-	@RequestParam(required = false) String bank,
-	@RequestParam(required = false) String merchant,
-	@RequestParam(required = false) LocalDate startDate,
-	@RequestParam(required = false) LocalDate endDate,
-	@RequestParam(required = false) BigDecimal minAmount,
-	@RequestParam(required = false) BigDecimal maxAmount,
+public void exportExpenses(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String format,
 	@PageableDefault(size = 20, sort = "date") Pageable pageable,
-	@AuthenticationPrincipal User user) throws IOException {
+	@AuthenticationPrincipal User user,
+	HttpServletRequest request,
+	HttpServletResponse response) throws IOException {
 
-	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
-	criteria.setCategory(category);
-	criteria.setBank(bank);
-	criteria.setMerchant(merchant);
-	criteria.setStartDate(startDate);
-	criteria.setEndDate(endDate);
-	criteria.setMinAmount(minAmount);
-	criteria.setMaxAmount(maxAmount);
+	ExportFormat exportFormat = ExportFormat.resolve(format, request.getHeader(HttpHeaders.ACCEPT));
 
-	String csvContent = expenseService.exportExpensesToCsv(criteria, user, pageable);
+	response.setStatus(HttpStatus.OK.value());
+	response.setHeader("Content-Type", exportFormat.getContentType());
+	response.setHeader(
+		"Content-Disposition",
+		"attachment; filename=\"expenses." + exportFormat.getExtension() + "\"");
+	response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
 
-	return ResponseEntity.ok()
-		.header("Content-Type", "text/csv")
-		.header("Content-Disposition", "attachment; filename=\"expenses.csv\"")
-		.body(csvContent);
+	if (!acceptsGzip(request)) {
+		expenseService.exportExpenses(
+			criteria, user, pageable.getSort(), exportFormat, response.getOutputStream());
+		return;
+	}
+	response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+	GZIPOutputStream gzip = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE);
+	expenseService.exportExpenses(criteria, user, pageable.getSort(), exportFormat, gzip);
+	gzip.finish();
+}
+
+/**
+ * Starts a background export of the authenticated user's expenses with optional filters.
+ *
+ * <p>The export is written to a file on the server; poll the returned job (see the
+ * {@code Location} header) until it has completed, then download the file from
+ * {@code /expenses/export/{jobId}/download}. Takes the same filters, {@code format} and
+ * {@code sort} parameters as the direct export.
+ *
+ * @param criteria optional filters (see {@link #initCriteriaBinder})
+ * @param format optional export format ({@code csv} or {@code ndjson}, default csv)
+ * @param pageable sorting parameters (pagination is ignored)
+ * @param user the authenticated user
+ * @return the queued export job (202 status)
+ * @throws ExportRejectedException if too many exports are in progress (429 status)
+ */
+@PostMapping("/export")
+public ResponseEntity<ExportJob> startExport(
+	@ModelAttribute ExpenseSearchCriteria criteria,
+	@RequestParam(required = false) String format,
+	@PageableDefault(size = 20, sort = "date") Pageable pageable,
+	@AuthenticationPrincipal User user) {
+
+	ExportFormat exportFormat = ExportFormat.resolve(format, null);
+
+	ExportJob job = exportJobService.submit(criteria, user, pageable.getSort(), exportFormat);
+	return ResponseEntity.status(HttpStatus.ACCEPTED)
+		.header("Location", "/expenses/export/" + job.getJobId())
+		.body(job);
+}
+
+/**
+* Retrieves the state of a background export for the authenticated user.
+*
+* @param jobId the export job ID
+* @param user the authenticated user
+* @return the export job, with the row count and file size once it has completed (200 status)
+*/
+@GetMapping("/export/{jobId}")
+public ResponseEntity<ExportJob> getExportJob(
+	@PathVariable String jobId, @AuthenticationPrincipal User user) {
+	return ResponseEntity.ok(exportJobService.getJob(jobId, user));
+}
+
+/**
+* Downloads the file of a completed background export. Supports single {@code Range} requests
+* (with {@code If-Range} against the returned {@code ETag}) so that interrupted downloads can be
+* resumed, and can be downloaded repeatedly until the job expires.
+*
+* @param jobId the export job ID
+* @param user the authenticated user
+* @param request the request, for the Range headers
+* @param response the response to write the file to (200 or 206 status, 416 for ranges outside
+*     the file)
+* @throws ExportJobNotReadyException if the export has not completed or has failed (409 status)
+* @throws IOException if the file cannot be sent
+*/
+@GetMapping("/export/{jobId}/download")
+public void downloadExport(
+	@PathVariable String jobId,
+	@AuthenticationPrincipal User user,
+	HttpServletRequest request,
+	HttpServletResponse response) throws IOException {
+	ExportJob job = exportJobService.getCompletedJob(jobId, user);
+	ExportFormat exportFormat = job.getFormat();
+
+	response.setHeader("Content-Type", exportFormat.getContentType());
+	response.setHeader(
+		"Content-Disposition",
+		"attachment; filename=\"expenses." + exportFormat.getExtension() + "\"");
+	ExportFileSender.send(
+		job.getFile(), job.getSize(), "\"" + job.getJobId() + "\"", request, response);
+}
+
+/**
+* Validates an uploaded import file before any rows are read.
+*
+* @param file the uploaded file
+* @param user the authenticated user
+* @throws CsvImportException if the file is empty, exceeds the user's size quota or has a content
+*     type that is not accepted for imports
+*/
+private void validateImportFile(MultipartFile file, User user) {
+	// Validate file is present
+	if (file.isEmpty()) {
+	throw new CsvImportException("File is required and cannot be empty");
+	}
+
+	// Validate file size against the user's quota before reading any rows
+	validateImportSize(file.getSize(), user);
+
+	// Validate content type (allow common CSV, XLSX and compressed MIME types across platforms)
+	String contentType = file.getContentType();
+	if (contentType == null) {
+	throw new CsvImportException("Invalid file type. Could not determine content type.");
+	}
+	if (!IMPORT_CONTENT_TYPES.contains(contentType)) {
+	throw new CsvImportException(
+		"Invalid file type. Expected a CSV or XLSX file, optionally gzip or zstd compressed, but got: "
+			+ contentType);
+	}
+}
+
+/**
+* Opens the body of a raw CSV import. The declared length is checked against the user's quota
+* before any rows are read, and a declared content encoding must match the body. Decompression
+* and the quota on the decompressed size are handled by the import pipeline.
+*/
+private InputStream openImportBody(HttpServletRequest request, User user) throws IOException {
+	long contentLength = request.getContentLengthLong();
+	if (contentLength == 0) {
+	throw new CsvImportException("File is required and cannot be empty");
+	}
+
+	validateImportSize(contentLength, user);
+
+	String contentEncoding = request.getHeader(HttpHeaders.CONTENT_ENCODING);
+	if (contentEncoding == null || contentEncoding.equalsIgnoreCase("identity")) {
+	return request.getInputStream();
+	}
+	if (contentEncoding.equalsIgnoreCase("gzip") || contentEncoding.equalsIgnoreCase("x-gzip")) {
+	return ImportCompression.require(request.getInputStream(), ImportCompression.Format.GZIP);
+	}
+	if (contentEncoding.equalsIgnoreCase("zstd")) {
+	return ImportCompression.require(request.getInputStream(), ImportCompression.Format.ZSTD);
+	}
+	throw new CsvImportException(
+	"Unsupported Content-Encoding: " + contentEncoding + ". Expected gzip, zstd or none");
+}
+
+/**
+* Returns whether the Accept-Encoding header lists gzip (or x-gzip) with a quality above zero.
+*/
+private static boolean acceptsGzip(HttpServletRequest request) {
+	String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+	if (acceptEncoding == null) {
+		return false;
+	}
+	for (String coding : acceptEncoding.split(",")) {
+		String[] parts = coding.split(";");
+		String name = parts[0].trim();
+		if (!name.equalsIgnoreCase("gzip") && !name.equalsIgnoreCase("x-gzip")) {
+			continue;
+		}
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.startsWith("q=") && isZeroQuality(parameter.substring(2))) {
+				return false;
+			}
+		}
+		return true;
+	}
+	return false;
+}
+
+private static boolean isZeroQuality(String quality) {
+	try {
+		return Double.parseDouble(quality.trim()) == 0;
+	} catch (NumberFormatException e) {
+		return false;
+	}
+}
+
+/**
+* Validates the size of an upload against the user's quota. Unknown sizes (negative) pass, as
+* the quota is also enforced while the file is read.
+*/
+private void validateImportSize(long size, User user) {
+	long maxFileSizeBytes = importProperties.quotaFor(user).maxBytes();
+	if (size > maxFileSizeBytes) {
+	throw new CsvImportException(
+		String.format(
+			"File size exceeds maximum limit of %d bytes. File size: %d bytes",
+			maxFileSizeBytes, size));
+	}
 }
 }
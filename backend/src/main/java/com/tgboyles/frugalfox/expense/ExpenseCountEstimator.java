@@ -0,0 +1,189 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Estimates how many expenses match a search, for result pages that show an approximate total
+ * instead of running a {@code COUNT(*)} over the matching rows.
+ *
+ * <p>Searches without filters use a per-user row count. It is loaded with one count the first time
+ * it is needed and cached until {@link ExpenseService} creates, deletes or imports expenses for the
+ * user, so the next estimate counts again once the writing transaction has finished. A count that
+ * was being loaded while such a write finished is not cached, because it may have missed the
+ * write. The cache holds the {@value #MAX_CACHED_USERS} most recently used counts, each for at most
+ * {@link #COUNT_TTL}, so counts of idle users do not pile up and a write made through another
+ * instance of the application is picked up eventually. Filtered searches on
+ * PostgreSQL use the planner's row estimate for the same conditions, which {@code EXPLAIN} computes
+ * from table statistics without reading any rows. Other databases (H2 in tests) fall back to an
+ * exact count.
+ */
+@Component
+public class ExpenseCountEstimator {
+
+/** Estimated row count of the top plan node in {@code EXPLAIN} output. */
+private static final Pattern PLAN_ROWS = Pattern.compile("rows=(\\d+)");
+
+/** Number of users whose count is cached. */
+static final int MAX_CACHED_USERS = 10_000;
+
+/** How long a cached count is used before it is loaded again. */
+static final Duration COUNT_TTL = Duration.ofMinutes(5);
+
+private final ExpenseRepository expenseRepository;
+private final JdbcTemplate jdbcTemplate;
+
+/** Cached counts by user ID, least recently used first. Guarded by itself. */
+private final Map<Long, CachedCount> userCounts =
+	new LinkedHashMap<>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Long, CachedCount> eldest) {
+			return size() > MAX_CACHED_USERS;
+		}
+	};
+
+public ExpenseCountEstimator(ExpenseRepository expenseRepository, JdbcTemplate jdbcTemplate) {
+	this.expenseRepository = expenseRepository;
+	this.jdbcTemplate = jdbcTemplate;
+}
+
+/**
+* Estimates the number of expenses matching a search.
+*
+* @param criteria the search criteria
+* @param user the user the search is scoped to
+* @param spec the specification built from the criteria, for the exact count fallback
+* @return the estimated number of matching expenses
+*/
+public long estimate(ExpenseSearchCriteria criteria, User user, Specification<Expense> spec) {
+	if (!criteria.hasFilters()) {
+		return countForUser(user);
+	}
+	Long planned =
+		jdbcTemplate.execute(
+			(ConnectionCallback<Long>)
+				connection ->
+					connection.isWrapperFor(PGConnection.class) ? explain(connection, criteria, user) : null);
+	return planned != null ? planned : expenseRepository.count(spec);
+}
+
+/**
+* Records that expenses were added for a user, invalidating the user's cached count once the
+* current transaction has finished.
+*
+* @param user the user
+* @param count the number of expenses added
+*/
+public void expensesAdded(User user, long count) {
+	invalidate(user.getId(), count);
+}
+
+/**
+* Records that expenses were removed for a user, invalidating the user's cached count once the
+* current transaction has finished.
+*
+* @param user the user
+* @param count the number of expenses removed
+*/
+public void expensesRemoved(User user, long count) {
+	invalidate(user.getId(), count);
+}
+
+private long countForUser(User user) {
+	Long userId = user.getId();
+	long now = System.nanoTime();
+	CachedCount loading = new CachedCount(null, now);
+	synchronized (userCounts) {
+		CachedCount cached = userCounts.get(userId);
+		if (cached != null && cached.count() != null && now - cached.expiresAt() < 0) {
+			return cached.count();
+		}
+		userCounts.put(userId, loading);
+	}
+
+	long count = expenseRepository.countByUser(user);
+	synchronized (userCounts) {
+		// A write that finished meanwhile removed the marker, and may be missing from the count
+		if (userCounts.get(userId) == loading) {
+			userCounts.put(userId, new CachedCount(count, now + COUNT_TTL.toNanos()));
+		}
+	}
+	return count;
+}
+
+private void invalidate(Long userId, long count) {
+	if (count == 0) {
+		return;
+	}
+	if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+		remove(userId);
+		return;
+	}
+	// After commit the next count sees the write. A count loaded inside the transaction may have
+	// seen it too, so rolled back writes invalidate the cache as well.
+	TransactionSynchronizationManager.registerSynchronization(
+		new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				remove(userId);
+			}
+		});
+}
+
+private void remove(Long userId) {
+	synchronized (userCounts) {
+		userCounts.remove(userId);
+	}
+}
+
+/**
+* Returns the planner's estimate of the rows matching the criteria.
+*/
+private static Long explain(Connection connection, ExpenseSearchCriteria criteria, User user)
+	throws SQLException {
+	List<Object> parameters = new ArrayList<>();
+	String sql = "EXPLAIN SELECT 1 FROM expenses WHERE " + ExpenseSqlConditions.of(criteria, user, parameters);
+
+	try (PreparedStatement statement = connection.prepareStatement(sql)) {
+		for (int i = 0; i < parameters.size(); i++) {
+			statement.setObject(i + 1, parameters.get(i));
+		}
+		try (ResultSet resultSet = statement.executeQuery()) {
+			if (resultSet.next()) {
+				Matcher matcher = PLAN_ROWS.matcher(resultSet.getString(1));
+				if (matcher.find()) {
+					return Long.parseLong(matcher.group(1));
+				}
+			}
+		}
+	}
+	return null;
+}
+
+/**
+* A cached count, or a marker for a count being loaded if {@code count} is null.
+*
+* @param count the number of expenses of the user
+* @param expiresAt the {@link System#nanoTime()} after which the count is loaded again
+*/
+private record CachedCount(Long count, long expiresAt) {}
+}
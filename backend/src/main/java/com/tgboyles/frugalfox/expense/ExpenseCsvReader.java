@@ -0,0 +1,212 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV reader specialized for the expense import format ({@code date,merchant,amount,bank,category}).
+ *
+ * <p>Reads straight from a byte buffer into {@link RowChunk}s instead of going through a
+ * {@code Reader}, a general-purpose CSV parser and per-field Strings. It follows the same rules as
+ * the commons-csv format the import used before:
+ *
+ * <ul>
+ *   <li>fields are separated by commas (or the delimiter given to the constructor, see
+ *       {@link ImportLayoutDetector#detectDelimiter}) and records by LF, CR or CRLF;
+ *   <li>a field starting with a double quote is quoted: it may contain commas, line breaks and
+ *       doubled quotes, and only whitespace may follow the closing quote;
+ *   <li>fields are trimmed, empty lines are skipped and the first record is a header that is
+ *       ignored;
+ *   <li>a leading UTF-8 byte order mark is ignored.
+ * </ul>
+ *
+ * <p>Row numbers count data records from 1, so they match the numbers reported by earlier
+ * imports.
+ */
+public class ExpenseCsvReader implements ImportRecordReader {
+
+/** Message for structurally invalid CSV, such as an unterminated quoted field. */
+static final String MALFORMED_MESSAGE =
+	"Failed to parse CSV file. Please ensure it is a valid CSV with columns: date,merchant,amount,bank,category";
+
+private static final int BUFFER_SIZE = 64 * 1024;
+
+private final InputStream in;
+private final int delimiter;
+private final byte[] buffer = new byte[BUFFER_SIZE];
+private int position;
+private int limit;
+private boolean started;
+private int recordNumber;
+private List<String> header = List.of();
+
+public ExpenseCsvReader(InputStream in) {
+	this(in, ',');
+}
+
+/**
+* Creates a reader for a file with the given field delimiter.
+*
+* @param in the file
+* @param delimiter the field delimiter, an ASCII character other than a quote or line break
+*/
+public ExpenseCsvReader(InputStream in, char delimiter) {
+	this.in = in;
+	this.delimiter = delimiter;
+}
+
+/**
+* Reads the next data record into a chunk.
+*
+* @param chunk the chunk to append the record to
+* @return false if the end of the file has been reached
+* @throws IOException if reading fails
+* @throws CsvImportException if the file is not valid CSV
+*/
+@Override
+public boolean readRecord(RowChunk chunk) throws IOException {
+	if (!started) {
+		started = true;
+		skipByteOrderMark();
+
+		// The header is not validated; it only helps to detect the column order
+		RowChunk headerRow = new RowChunk(1);
+		if (!parseRecord(headerRow, 0)) {
+			return false;
+		}
+		header = new ArrayList<>(headerRow.fieldCount(0));
+		for (int field = 0; field < headerRow.fieldCount(0); field++) {
+			header.add(headerRow.text(0, field));
+		}
+	}
+	if (!parseRecord(chunk, recordNumber + 1)) {
+		return false;
+	}
+	recordNumber++;
+	return true;
+}
+
+/**
+* Returns the number of data records read so far.
+*
+* @return the record count
+*/
+@Override
+public int getRecordNumber() {
+	return recordNumber;
+}
+
+@Override
+public List<String> getHeader() {
+	return header;
+}
+
+@Override
+public void close() throws IOException {
+	in.close();
+}
+
+private boolean parseRecord(RowChunk chunk, int rowNumber) throws IOException {
+	int c = read();
+
+	// Skip empty lines
+	while (c == '\n' || c == '\r') {
+		c = read();
+	}
+	if (c == -1) {
+		return false;
+	}
+
+	chunk.startRow(rowNumber);
+	while (true) {
+		chunk.startField();
+		if (c == '"') {
+			c = readQuoted(chunk);
+		} else {
+			while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+				chunk.append(c);
+				c = read();
+			}
+		}
+		chunk.endField();
+
+		if (c == delimiter) {
+			c = read();
+			continue;
+		}
+		if (c == '\r' && peek() == '\n') {
+			position++;
+		}
+		chunk.endRow();
+		return true;
+	}
+}
+
+/**
+* Reads the rest of a quoted field after its opening quote.
+*
+* @return the first character after the field (a delimiter, a line break or -1)
+*/
+private int readQuoted(RowChunk chunk) throws IOException {
+	while (true) {
+		int c = read();
+		if (c == -1) {
+			throw new CsvImportException(MALFORMED_MESSAGE);
+		}
+		if (c == '"') {
+			if (peek() == '"') {
+				position++;
+				chunk.append('"');
+				continue;
+			}
+
+			// Closing quote: only whitespace may come before the next delimiter or line break
+			c = read();
+			while (c != delimiter && c != '\n' && c != '\r' && c != -1) {
+				if (!Character.isWhitespace(c)) {
+					throw new CsvImportException(MALFORMED_MESSAGE);
+				}
+				c = read();
+			}
+			return c;
+		}
+		chunk.append(c);
+	}
+}
+
+private void skipByteOrderMark() throws IOException {
+	// A partial match only consumes bytes of the header, which is ignored anyway
+	if (peek() == 0xEF) {
+		position++;
+		if (peek() == 0xBB) {
+			position++;
+			if (peek() == 0xBF) {
+				position++;
+			}
+		}
+	}
+}
+
+private int read() throws IOException {
+	if (position == limit && !fill()) {
+		return -1;
+	}
+	return buffer[position++] & 0xff;
+}
+
+private int peek() throws IOException {
+	if (position == limit && !fill()) {
+		return -1;
+	}
+	return buffer[position] & 0xff;
+}
+
+private boolean fill() throws IOException {
+	int read = in.read(buffer, 0, buffer.length);
+	position = 0;
+	limit = Math.max(read, 0);
+	return limit > 0;
+}
+}
@@ -0,0 +1,196 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.math.BigDecimal;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+
+/**
+ * Continuation tokens for keyset ("seek") pagination of expenses.
+ *
+ * <p>A page is sorted by the requested properties with {@code id} appended as a tiebreaker, so
+ * every row has a unique position. The token records the sort keys of the last row of a page;
+ * the next page is the rows strictly after that position, found with a seek predicate such as
+ * {@code date > :date OR (date = :date AND id > :id)} instead of an {@code OFFSET}. With an index
+ * on the sort keys (such as {@code idx_expenses_user_date}), a page costs the same however deep
+ * it is.
+ *
+ * <p>Tokens are opaque to clients: URL-safe Base64 of the sort keys and their values. A token is
+ * only valid with the sort it was issued for.
+ */
+final class ExpenseCursor {
+
+/** Properties that can be sorted on, with the parser for their values in a token. */
+private static final Map<String, Function<String, Comparable<?>>> SORT_KEYS =
+	Map.of(
+		"date", LocalDate::parse,
+		"amount", BigDecimal::new,
+		"merchant", value -> value,
+		"bank", value -> value,
+		"category", value -> value,
+		"id", Long::valueOf);
+
+private ExpenseCursor() {}
+
+/**
+* Returns the sort used for keyset pagination: the requested sort followed by {@code id}, in the
+* direction of the last requested property.
+*
+* @param sort the requested sort
+* @return the sort with a unique order
+* @throws IllegalArgumentException if a property cannot be used for keyset pagination
+*/
+static Sort keysetSort(Sort sort) {
+	Sort.Direction tiebreak = Sort.Direction.ASC;
+	boolean hasId = false;
+	for (Sort.Order order : sort) {
+		if (!SORT_KEYS.containsKey(order.getProperty())) {
+			throw new IllegalArgumentException(
+				"Cannot sort by '" + order.getProperty() + "' with cursor pagination. Expected one of "
+					+ String.join(", ", SORT_KEYS.keySet().stream().sorted().toList()));
+		}
+		if (order.isIgnoreCase()) {
+			throw new IllegalArgumentException("Cursor pagination does not support case-insensitive sorting");
+		}
+		tiebreak = order.getDirection();
+		hasId |= order.getProperty().equals("id");
+	}
+	return hasId ? sort : sort.and(Sort.by(tiebreak, "id"));
+}
+
+/**
+* Creates the token pointing after an expense.
+*
+* @param keysetSort the sort of the page, as returned by {@link #keysetSort}
+* @param last the last expense of the page
+* @return the token
+*/
+static String encode(Sort keysetSort, ExpenseView last) {
+	StringBuilder token = new StringBuilder();
+	for (Sort.Order order : keysetSort) {
+		if (!token.isEmpty()) {
+			token.append('&');
+		}
+		token
+			.append(order.getProperty())
+			.append('.')
+			.append(order.isAscending() ? "asc" : "desc")
+			.append('=')
+			.append(URLEncoder.encode(String.valueOf(value(last, order.getProperty())), StandardCharsets.UTF_8));
+	}
+	return Base64.getUrlEncoder()
+		.withoutPadding()
+		.encodeToString(token.toString().getBytes(StandardCharsets.UTF_8));
+}
+
+/**
+* Returns the seek predicate selecting the rows after a token.
+*
+* @param keysetSort the sort of the page, as returned by {@link #keysetSort}
+* @param token the token of the previous page
+* @return the predicate
+* @throws IllegalArgumentException if the token is malformed or was issued for another sort
+*/
+static Specification<Expense> after(Sort keysetSort, String token) {
+	List<Sort.Order> orders = keysetSort.toList();
+	List<Comparable<?>> values = decode(orders, token);
+
+	return (root, query, criteriaBuilder) -> {
+		// (k1 > v1) OR (k1 = v1 AND k2 > v2) OR ... with > or < depending on the direction
+		List<Predicate> alternatives = new ArrayList<>();
+		List<Predicate> equalPrefix = new ArrayList<>();
+		for (int i = 0; i < orders.size(); i++) {
+			Path<Comparable<Object>> path = root.get(orders.get(i).getProperty());
+			Comparable<Object> value = comparable(values.get(i));
+
+			List<Predicate> alternative = new ArrayList<>(equalPrefix);
+			alternative.add(beyond(criteriaBuilder, path, value, orders.get(i).isAscending()));
+			alternatives.add(criteriaBuilder.and(alternative.toArray(new Predicate[0])));
+			equalPrefix.add(criteriaBuilder.equal(path, value));
+		}
+
+		// Redundant bound on the leading key, so the index range scan starts at the cursor
+		Path<Comparable<Object>> first = root.get(orders.get(0).getProperty());
+		Comparable<Object> firstValue = comparable(values.get(0));
+		Predicate bound =
+			orders.get(0).isAscending()
+				? criteriaBuilder.greaterThanOrEqualTo(first, firstValue)
+				: criteriaBuilder.lessThanOrEqualTo(first, firstValue);
+
+		return criteriaBuilder.and(bound, criteriaBuilder.or(alternatives.toArray(new Predicate[0])));
+	};
+}
+
+private static List<Comparable<?>> decode(List<Sort.Order> orders, String token) {
+	String decoded;
+	try {
+		decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+	} catch (IllegalArgumentException e) {
+		throw invalid();
+	}
+
+	String[] parts = decoded.split("&", -1);
+	if (parts.length != orders.size()) {
+		throw invalid();
+	}
+	List<Comparable<?>> values = new ArrayList<>(parts.length);
+	for (int i = 0; i < parts.length; i++) {
+		Sort.Order order = orders.get(i);
+		String key = order.getProperty() + "." + (order.isAscending() ? "asc" : "desc") + "=";
+		if (!parts[i].startsWith(key)) {
+			throw invalid();
+		}
+		try {
+			String value = URLDecoder.decode(parts[i].substring(key.length()), StandardCharsets.UTF_8);
+			values.add(SORT_KEYS.get(order.getProperty()).apply(value));
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw invalid();
+		}
+	}
+	return values;
+}
+
+private static IllegalArgumentException invalid() {
+	return new IllegalArgumentException(
+		"Invalid cursor. A cursor is only valid with the sort of the request that returned it");
+}
+
+private static Predicate beyond(
+	CriteriaBuilder criteriaBuilder,
+	Path<Comparable<Object>> path,
+	Comparable<Object> value,
+	boolean ascending) {
+	return ascending ? criteriaBuilder.greaterThan(path, value) : criteriaBuilder.lessThan(path, value);
+}
+
+@SuppressWarnings("unchecked")
+private static Comparable<Object> comparable(Comparable<?> value) {
+	return (Comparable<Object>) value;
+}
+
+private static Object value(ExpenseView expense, String property) {
+	return switch (property) {
+		case "date" -> expense.date();
+		case "amount" -> expense.amount();
+		case "merchant" -> expense.merchant();
+		case "bank" -> expense.bank();
+		case "category" -> expense.category();
+		case "id" -> expense.id();
+		default -> throw new IllegalArgumentException("Unsupported sort property: " + property);
+	};
+}
+}
@@ -0,0 +1,26 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+
+/**
+ * Writes expenses to an export file one at a time, without keeping them.
+ *
+ * @see ExportFormat#open
+ */
+interface ExpenseExportWriter {
+
+/**
+* Writes one expense.
+*
+* @param expense the expense
+* @throws IOException if writing fails
+*/
+void write(ExpenseView expense) throws IOException;
+
+/**
+* Writes any buffered output to the underlying stream, which is left open.
+*
+* @throws IOException if writing fails
+*/
+void finish() throws IOException;
+}
@@ -0,0 +1,73 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Computes the fingerprint that identifies an expense for duplicate detection on import.
+ *
+ * <p>The fingerprint is the hex-encoded SHA-256 of the user ID, date, merchant, amount and bank.
+ * Migration {@code V4__add_expense_fingerprint.sql} computes the same value in SQL for existing
+ * rows; the two must be changed together. The amount is rounded to the scale of the {@code amount} column first, so {@code 12.5} and
+ * {@code 12.50} produce the same fingerprint. The category is not part of it, since users often
+ * recategorise imported expenses.
+ *
+ * <p>Instances reuse a single {@link MessageDigest} and are not thread-safe; create one per batch.
+ */
+final class ExpenseFingerprint {
+
+/** Scale of the {@code expenses.amount} column. */
+private static final int AMOUNT_SCALE = 2;
+
+/** Separates the fields so that e.g. merchant "ab" + bank "c" differs from "a" + "bc". */
+private static final char SEPARATOR = '\u001f';
+
+private static final HexFormat HEX = HexFormat.of();
+
+private final String userId;
+private final MessageDigest digest;
+private final StringBuilder key = new StringBuilder(128);
+
+ExpenseFingerprint(Long userId) {
+	this.userId = userId.toString();
+	try {
+		this.digest = MessageDigest.getInstance("SHA-256");
+	} catch (NoSuchAlgorithmException e) {
+		// Every Java platform is required to support SHA-256
+		throw new IllegalStateException("SHA-256 is not available", e);
+	}
+}
+
+/**
+* Returns the fingerprint of an expense.
+*
+* @param expense the expense
+* @return the 64 character lowercase hex fingerprint
+*/
+String of(Expense expense) {
+	return HEX.formatHex(digest(expense));
+}
+
+/**
+* Returns the fingerprint of an expense as the raw SHA-256 digest.
+*
+* @param expense the expense
+* @return the 32 byte digest
+*/
+byte[] digest(Expense expense) {
+	key.setLength(0);
+	key.append(userId)
+		.append(SEPARATOR)
+		.append(expense.getDate())
+		.append(SEPARATOR)
+		.append(expense.getMerchant())
+		.append(SEPARATOR)
+		.append(expense.getAmount().setScale(AMOUNT_SCALE, RoundingMode.HALF_UP).toPlainString())
+		.append(SEPARATOR)
+		.append(expense.getBank());
+	return digest.digest(key.toString().getBytes(StandardCharsets.UTF_8));
+}
+}
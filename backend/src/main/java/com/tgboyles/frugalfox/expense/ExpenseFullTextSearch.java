@@ -0,0 +1,186 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.postgresql.PGConnection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Ranked full-text search over the merchant, category and bank of expenses.
+ *
+ * <p>On PostgreSQL the query is matched against the generated {@code search_vector} column with
+ * {@code websearch_to_tsquery}, so it accepts quoted phrases, {@code or} and {@code -word}, and
+ * results are ordered by {@code ts_rank}. Merchant words weigh most, then category, then bank. The
+ * GIN index {@code idx_expenses_user_search} serves the match together with the user filter.
+ *
+ * <p>Other databases (H2 in tests) have no text search; there every word of the query must occur
+ * in the merchant, category or bank, and results are ranked by where the words occur, with the
+ * same weights.
+ *
+ * <p>Each page is one SQL query that selects the columns of {@link ExpenseView}; the other search
+ * filters apply as usual. Ties in relevance are broken by date, newest first.
+ */
+@Component
+public class ExpenseFullTextSearch {
+
+private static final String TEXT_SEARCH_CONFIG = "english";
+
+/** Weights of matches in the merchant, category and bank for the fallback ranking. */
+private static final int MERCHANT_WEIGHT = 10;
+private static final int CATEGORY_WEIGHT = 4;
+private static final int BANK_WEIGHT = 2;
+
+private static final String VIEW_COLUMNS =
+	"id, expense_date, merchant, amount, bank, category, created_at, updated_at";
+
+private static final RowMapper<ExpenseView> VIEW_MAPPER =
+	(resultSet, rowNumber) ->
+		new ExpenseView(
+			resultSet.getLong("id"),
+			resultSet.getObject("expense_date", LocalDate.class),
+			resultSet.getString("merchant"),
+			resultSet.getBigDecimal("amount"),
+			resultSet.getString("bank"),
+			resultSet.getString("category"),
+			resultSet.getObject("created_at", LocalDateTime.class),
+			resultSet.getObject("updated_at", LocalDateTime.class));
+
+private final JdbcTemplate jdbcTemplate;
+
+private volatile Boolean postgres;
+
+public ExpenseFullTextSearch(JdbcTemplate jdbcTemplate) {
+	this.jdbcTemplate = jdbcTemplate;
+}
+
+/**
+* Searches for expenses matching the criteria and its full-text query, most relevant first.
+*
+* @param criteria the search criteria, with a query
+* @param user the user the search is scoped to
+* @param pageable the page to fetch; its sort is ignored
+* @return the page of expenses
+*/
+public Page<ExpenseView> search(ExpenseSearchCriteria criteria, User user, Pageable pageable) {
+	List<ExpenseView> content = find(criteria, user, pageable.getOffset(), pageable.getPageSize());
+	return PageableExecutionUtils.getPage(content, pageable, () -> count(criteria, user));
+}
+
+/**
+* Searches for expenses matching the criteria and its full-text query, most relevant first,
+* without counting the matches.
+*
+* @param criteria the search criteria, with a query
+* @param user the user the search is scoped to
+* @param pageable the page to fetch; its sort is ignored
+* @return the slice of expenses
+*/
+public Slice<ExpenseView> searchSlice(
+	ExpenseSearchCriteria criteria, User user, Pageable pageable) {
+	List<ExpenseView> content =
+		find(criteria, user, pageable.getOffset(), pageable.getPageSize() + 1);
+	boolean hasNext = content.size() > pageable.getPageSize();
+	if (hasNext) {
+		content = content.subList(0, pageable.getPageSize());
+	}
+	return new SliceImpl<>(content, pageable, hasNext);
+}
+
+private List<ExpenseView> find(ExpenseSearchCriteria criteria, User user, long offset, int limit) {
+	List<Object> parameters = new ArrayList<>();
+	StringBuilder sql = new StringBuilder();
+	if (isPostgres()) {
+		parameters.add(criteria.getQuery());
+		sql.append("SELECT ")
+			.append(VIEW_COLUMNS)
+			.append(" FROM expenses, websearch_to_tsquery('")
+			.append(TEXT_SEARCH_CONFIG)
+			.append("', ?) query WHERE search_vector @@ query AND ")
+			.append(ExpenseSqlConditions.of(criteria, user, parameters))
+			.append(" ORDER BY ts_rank(search_vector, query) DESC");
+	} else {
+		sql.append("SELECT ")
+			.append(VIEW_COLUMNS)
+			.append(" FROM expenses WHERE ")
+			.append(ExpenseSqlConditions.of(criteria, user, parameters));
+		List<String> patterns = fallbackPatterns(criteria.getQuery());
+		appendFallbackMatch(sql, parameters, patterns);
+		sql.append(" ORDER BY (0");
+		for (String pattern : patterns) {
+			sql.append(" + CASE WHEN LOWER(merchant) LIKE ? ESCAPE '\\' THEN ")
+				.append(MERCHANT_WEIGHT)
+				.append(" ELSE 0 END + CASE WHEN LOWER(category) LIKE ? ESCAPE '\\' THEN ")
+				.append(CATEGORY_WEIGHT)
+				.append(" ELSE 0 END + CASE WHEN LOWER(bank) LIKE ? ESCAPE '\\' THEN ")
+				.append(BANK_WEIGHT)
+				.append(" ELSE 0 END");
+			parameters.addAll(List.of(pattern, pattern, pattern));
+		}
+		sql.append(") DESC");
+	}
+	sql.append(", expense_date DESC, id DESC LIMIT ? OFFSET ?");
+	parameters.add(limit);
+	parameters.add(offset);
+
+	return jdbcTemplate.query(sql.toString(), VIEW_MAPPER, parameters.toArray());
+}
+
+private long count(ExpenseSearchCriteria criteria, User user) {
+	List<Object> parameters = new ArrayList<>();
+	StringBuilder sql = new StringBuilder("SELECT COUNT(*) FROM expenses WHERE ");
+	if (isPostgres()) {
+		parameters.add(criteria.getQuery());
+		sql.append("search_vector @@ websearch_to_tsquery('")
+			.append(TEXT_SEARCH_CONFIG)
+			.append("', ?) AND ")
+			.append(ExpenseSqlConditions.of(criteria, user, parameters));
+	} else {
+		sql.append(ExpenseSqlConditions.of(criteria, user, parameters));
+		appendFallbackMatch(sql, parameters, fallbackPatterns(criteria.getQuery()));
+	}
+	Long count = jdbcTemplate.queryForObject(sql.toString(), Long.class, parameters.toArray());
+	return count != null ? count : 0;
+}
+
+/** Appends the condition that every word occurs in the merchant, category or bank. */
+private static void appendFallbackMatch(
+	StringBuilder sql, List<Object> parameters, List<String> patterns) {
+	for (String pattern : patterns) {
+		sql.append(
+			" AND (LOWER(merchant) LIKE ? ESCAPE '\\' OR LOWER(category) LIKE ? ESCAPE '\\'"
+				+ " OR LOWER(bank) LIKE ? ESCAPE '\\')");
+		parameters.addAll(List.of(pattern, pattern, pattern));
+	}
+}
+
+private static List<String> fallbackPatterns(String query) {
+	return Arrays.stream(query.trim().split("\\s+"))
+		.map(ExpenseSearchCriteria::containsPattern)
+		.toList();
+}
+
+private boolean isPostgres() {
+	Boolean result = postgres;
+	if (result == null) {
+		result =
+			jdbcTemplate.execute(
+				(ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class));
+		postgres = result;
+	}
+	return Boolean.TRUE.equals(result);
+}
+}
@@ -0,0 +1,365 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.springframework.stereotype.Component;
+
+import com.tgboyles.frugalfox.user.User;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Staged pipeline that reads, validates and hands over CSV rows for an import.
+ *
+ * <p>The stages are:
+ *
+ * <ol>
+ *   <li>A reader thread decompresses gzip or zstd files ({@link ImportCompression}), splits the
+ *       file into raw rows with {@link ExpenseCsvReader} (or {@link ExpenseXlsxReader} for
+ *       spreadsheets), enforces the user's row and size quota and cuts the rows into chunks of
+ *       {@code frugalfox.import.batch-size} rows. The file's {@link ImportLayout} (delimiter,
+ *       column order, date and number format) is detected once, from the header and the first
+ *       chunk, by {@link ImportLayoutDetector}.
+ *   <li>A shared pool of validator threads ({@code frugalfox.import.pipeline.validator-threads})
+ *       turns each chunk into {@link ImportRow}s with {@link ExpenseRowParser}, decoding every row
+ *       with the detected layout. Bank and category values are shared through one
+ *       {@link ValueInterner} per import.
+ *   <li>The calling thread receives the rows in file order and writes them, so the writer keeps
+ *       the caller's transaction and security context.
+ * </ol>
+ *
+ * <p>Chunks are handed from the reader to the writer through a bounded queue in file order; the
+ * reader blocks when {@code frugalfox.import.pipeline.chunks-in-flight} chunks are waiting, so a
+ * slow database throttles parsing instead of letting rows pile up in memory. Because rows are
+ * delivered in order, row numbers and error ordering are the same as for a sequential import.
+ */
+@Component
+public class ExpenseImportPipeline {
+
+private static final int SNIFF_BUFFER_SIZE = 8 * 1024;
+
+private static final long READER_POLL_MILLIS = 50;
+
+private final ExpenseRowParser rowParser;
+private final ImportProperties importProperties;
+private final ExecutorService readerPool;
+private final ExecutorService validatorPool;
+
+public ExpenseImportPipeline(ExpenseRowParser rowParser, ImportProperties importProperties) {
+	this.rowParser = rowParser;
+	this.importProperties = importProperties;
+	this.readerPool = Executors.newCachedThreadPool(daemonThreads("import-reader-"));
+	this.validatorPool =
+		Executors.newFixedThreadPool(
+			importProperties.getPipeline().getValidatorThreads(), daemonThreads("import-validator-"));
+}
+
+/**
+* Reads and validates a CSV file, passing every row to {@code writer} on the calling thread in
+* file order.
+*
+* <p>The reader stops before the next row once {@link ImportProgress#isCancelled()} returns
+* true, and the pipeline stops as soon as {@code writer} returns false.
+*
+* @param inputStream the CSV file input stream; closed before this method returns
+* @param user the user who owns the expenses
+* @param progress listener notified of every row read and polled for cancellation
+* @param writer receives each row; returns false to stop the import
+* @return the last row passed to the writer and whether every row of the file was passed
+* @throws CsvImportException if the file is malformed or exceeds the user's row or size quota
+*/
+public Outcome run(
+	InputStream inputStream, User user, ImportProgress progress, Predicate<ImportRow> writer) {
+	BlockingQueue<Future<Chunk>> chunks =
+		new ArrayBlockingQueue<>(importProperties.getPipeline().getChunksInFlight());
+	Reader reader = new Reader(() -> read(inputStream, user, progress, chunks));
+	readerPool.execute(reader);
+
+	int lastRow = 0;
+	try {
+		while (true) {
+			Chunk chunk = await(chunks.take());
+			for (ImportRow row : chunk.rows()) {
+				lastRow = row.rowNumber();
+				if (!writer.test(row)) {
+					return new Outcome(lastRow, false);
+				}
+			}
+			if (chunk.last()) {
+				return new Outcome(lastRow, chunk.endOfFile());
+			}
+		}
+	} catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new CsvImportException("Import was interrupted", e);
+	} finally {
+		// Stop the reader if the writer finished early. A read from a servlet request ignores the
+		// interrupt, so close the stream to unblock it, then wait for the reader to let go of it
+		// before the caller releases the request.
+		reader.stop();
+		closeQuietly(inputStream);
+		awaitReader(reader, chunks);
+	}
+}
+
+@PreDestroy
+void shutdown() {
+	readerPool.shutdownNow();
+	validatorPool.shutdownNow();
+}
+
+/** Reader stage: splits records, enforces the quota and queues chunks for validation. */
+private void read(
+	InputStream inputStream,
+	User user,
+	ImportProgress progress,
+	BlockingQueue<Future<Chunk>> chunks) {
+	ImportQuota quota = importProperties.quotaFor(user);
+	int chunkSize = importProperties.getBatchSize();
+	ValueInterner interner = new ValueInterner();
+
+	try (ImportRecordReader recordReader = openReader(inputStream, quota)) {
+
+		RowChunk rows = new RowChunk(chunkSize);
+		ImportLayout layout = null;
+		boolean endOfFile = false;
+		while (!progress.isCancelled()) {
+			if (!recordReader.readRecord(rows)) {
+				endOfFile = true;
+				break;
+			}
+			int recordCount = recordReader.getRecordNumber();
+			progress.rowParsed();
+
+			// Check row limit during parsing to fail fast
+			if (recordCount > quota.maxRows()) {
+				throw new CsvImportException(
+					"File exceeds maximum row limit of " + quota.maxRows() + ". Found at least " + recordCount + " rows.");
+			}
+
+			if (rows.size() >= chunkSize) {
+				if (layout == null) {
+					layout = ImportLayoutDetector.detect(recordReader.getHeader(), rows);
+				}
+				chunks.put(validate(rows, user, interner, layout, false, false));
+				rows = new RowChunk(chunkSize);
+			}
+		}
+
+		if (layout == null) {
+			layout = ImportLayoutDetector.detect(recordReader.getHeader(), rows);
+		}
+		chunks.put(validate(rows, user, interner, layout, true, endOfFile));
+	} catch (InterruptedException e) {
+		// Cancelled by the writer; nobody is waiting for more chunks
+		Thread.currentThread().interrupt();
+	} catch (CsvImportException e) {
+		fail(chunks, e);
+	} catch (IOException e) {
+		fail(chunks, new CsvImportException("Failed to read CSV file: " + e.getMessage(), e));
+	} catch (Exception e) {
+		fail(chunks, new CsvImportException(ExpenseCsvReader.MALFORMED_MESSAGE, e));
+	}
+}
+
+/**
+* Opens the reader for an upload: an {@link ExpenseXlsxReader} for spreadsheets, otherwise an
+* {@link ExpenseCsvReader} over the (decompressed) CSV, limited to the user's size quota and
+* split on the delimiter detected from its first lines.
+*/
+private ImportRecordReader openReader(InputStream inputStream, ImportQuota quota)
+	throws IOException {
+	BufferedInputStream buffered = new BufferedInputStream(inputStream, SNIFF_BUFFER_SIZE);
+	if (ExpenseXlsxReader.isSpreadsheet(buffered)) {
+		return ExpenseXlsxReader.open(buffered, importProperties.getSpoolDirectory(), quota.maxBytes());
+	}
+	BufferedInputStream csv =
+		new BufferedInputStream(
+			new LimitedInputStream(
+				ImportCompression.decompress(
+					buffered, quota.maxBytes(), importProperties.getMaxCompressionRatio()),
+				quota.maxBytes()),
+			ImportLayoutDetector.DELIMITER_SAMPLE_BYTES);
+	return new ExpenseCsvReader(csv, ImportLayoutDetector.detectDelimiter(csv));
+}
+
+/** Validator stage: parses and validates a chunk of rows on the validator pool. */
+private Future<Chunk> validate(
+	RowChunk chunk,
+	User user,
+	ValueInterner interner,
+	ImportLayout layout,
+	boolean last,
+	boolean endOfFile) {
+	return validatorPool.submit(
+		() -> {
+			List<ImportRow> rows = new ArrayList<>(chunk.size());
+			for (int row = 0; row < chunk.size(); row++) {
+				int rowNumber = chunk.rowNumber(row);
+				try {
+					rows.add(ImportRow.valid(rowNumber, rowParser.parse(chunk, row, user, interner, layout)));
+				} catch (CsvImportException e) {
+					ImportErrorType type =
+						e.getErrorType() != null ? e.getErrorType() : ImportErrorType.UNEXPECTED;
+					rows.add(ImportRow.failed(rowNumber, type, e.getMessage()));
+				} catch (Exception e) {
+					rows.add(
+						ImportRow.failed(
+							rowNumber,
+							ImportErrorType.UNEXPECTED,
+							String.format("Row %d: Unexpected error: %s", rowNumber, e.getMessage())));
+				}
+			}
+			return new Chunk(rows, last, endOfFile);
+		});
+}
+
+/**
+* Waits for a stopped reader, dropping the chunks it had read ahead and any it still queues, so it
+* never waits for room in the queue. The caller's interrupt is kept for afterwards.
+*/
+private static void awaitReader(Reader reader, BlockingQueue<Future<Chunk>> chunks) {
+	boolean interrupted = false;
+	while (true) {
+		discard(chunks);
+		try {
+			if (reader.await(READER_POLL_MILLIS)) {
+				break;
+			}
+		} catch (InterruptedException e) {
+			interrupted = true;
+		}
+	}
+	discard(chunks);
+	if (interrupted) {
+		Thread.currentThread().interrupt();
+	}
+}
+
+/** Cancels the chunks read ahead of the writer. */
+private static void discard(BlockingQueue<Future<Chunk>> chunks) {
+	List<Future<Chunk>> pending = new ArrayList<>();
+	chunks.drainTo(pending);
+	pending.forEach(future -> future.cancel(true));
+}
+
+private static void closeQuietly(InputStream inputStream) {
+	try {
+		inputStream.close();
+	} catch (IOException e) {
+		// The reader fails with its own error, if it was still reading
+	}
+}
+
+/** Queues a failure behind the chunks already read, so the writer sees it in file order. */
+private void fail(BlockingQueue<Future<Chunk>> chunks, CsvImportException e) {
+	try {
+		chunks.put(CompletableFuture.failedFuture(e));
+	} catch (InterruptedException interrupted) {
+		Thread.currentThread().interrupt();
+	}
+}
+
+private Chunk await(Future<Chunk> future) throws InterruptedException {
+	try {
+		return future.get();
+	} catch (ExecutionException e) {
+		if (e.getCause() instanceof RuntimeException cause) {
+			throw cause;
+		}
+		throw new CsvImportException("Failed to process CSV file: " + e.getCause().getMessage(), e);
+	}
+}
+
+private static ThreadFactory daemonThreads(String prefix) {
+	AtomicInteger count = new AtomicInteger();
+	return runnable -> {
+		Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	};
+}
+
+/**
+ * How far an import got through its file.
+ *
+ * @param lastRow the number of the last row passed to the writer, or 0 if there were none
+ * @param endOfFile whether every row of the file was passed to the writer; false if the import
+ *     was cancelled or the writer stopped it
+ */
+public record Outcome(int lastRow, boolean endOfFile) {}
+
+/**
+ * Validated rows handed from the validator pool to the writer. The last chunk tells whether the
+ * reader reached the end of the file or was cancelled.
+ */
+private record Chunk(List<ImportRow> rows, boolean last, boolean endOfFile) {}
+
+/**
+ * The reader stage of one import, which the writer can interrupt and wait for.
+ *
+ * <p>Unlike {@link Future#cancel(boolean)}, stopping does not let the writer return while the
+ * reader is still using the stream, and a reader stopped before it started never runs.
+ */
+private static final class Reader implements Runnable {
+
+	private final Runnable stage;
+	private final CountDownLatch done = new CountDownLatch(1);
+	private Thread thread;
+	private boolean stopped;
+
+	Reader(Runnable stage) {
+		this.stage = stage;
+	}
+
+	@Override
+	public void run() {
+		synchronized (this) {
+			if (stopped) {
+				done.countDown();
+				return;
+			}
+			thread = Thread.currentThread();
+		}
+		try {
+			stage.run();
+		} finally {
+			synchronized (this) {
+				thread = null;
+				// Do not pass an interrupt from stop() on to the next task of the pooled thread
+				Thread.interrupted();
+			}
+			done.countDown();
+		}
+	}
+
+	/** Interrupts the reader if it is running, or keeps it from starting. */
+	synchronized void stop() {
+		stopped = true;
+		if (thread != null) {
+			thread.interrupt();
+		}
+	}
+
+	/** Waits up to the given time for the reader to finish, and returns whether it has. */
+	boolean await(long millis) throws InterruptedException {
+		return done.await(millis, TimeUnit.MILLISECONDS);
+	}
+}
+}
@@ -6,6 +6,8 @@ import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.tgboyles.frugalfox.user.User;
@@ -17,7 +19,7 @@ import com.tgboyles.frugalfox.user.User;
  */
 @Repository
 public interface ExpenseRepository
-	extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense> {
+	extends JpaRepository<Expense, Long>, JpaSpecificationExecutor<Expense>, ExpenseRepositoryCustom {
 
 /**
 * Finds an expense by ID and user.
@@ -64,4 +66,21 @@ List<Expense> findByUserAndDateBetween(User user, LocalDate startDate, LocalDate
 * @return list of expenses
 */
 List<Expense> findByUserAndMerchantContainingIgnoreCase(User user, String merchant);
+
+/**
+* Counts the expenses of a user.
+*
+* @param user the user
+* @return the number of expenses
+*/
+long countByUser(User user);
+
+/**
+* Finds the years in which a user has expenses.
+*
+* @param user the user
+* @return the years, in ascending order
+*/
+@Query("select distinct year(e.date) from Expense e where e.user = :user order by year(e.date)")
+List<Integer> findExpenseYearsByUser(@Param("user") User user);
 }
@@ -0,0 +1,61 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+/**
+ * Custom query methods for {@link ExpenseRepository} that derived queries cannot express.
+ *
+ * <p>They read {@link ExpenseView}s rather than entities, selecting only the columns of the view.
+ */
+public interface ExpenseRepositoryCustom {
+
+/**
+* Finds a page of the expenses matching a specification, with the total count.
+*
+* @param spec the specification to filter by
+* @param pageable the page to fetch and the order of the results
+* @return the page
+*/
+Page<ExpenseView> findViews(Specification<Expense> spec, Pageable pageable);
+
+/**
+* Finds a page of the expenses matching a specification, without counting the matches.
+*
+* <p>One row more than the page size is fetched to tell whether there is a next page.
+*
+* @param spec the specification to filter by
+* @param pageable the page to fetch and the order of the results
+* @return the page
+*/
+Slice<ExpenseView> findViewSlice(Specification<Expense> spec, Pageable pageable);
+
+/**
+* Finds the first expenses matching a specification, without counting the matches.
+*
+* @param spec the specification to filter by
+* @param sort the order of the results
+* @param limit the maximum number of results
+* @return the matching expenses, at most {@code limit}
+*/
+List<ExpenseView> findTopViews(Specification<Expense> spec, Sort sort, int limit);
+
+/**
+* Streams the expenses matching a specification from a forward-only cursor.
+*
+* <p>Rows are fetched from the database {@value ExpenseRepositoryCustomImpl#FETCH_SIZE} at a time
+* as the stream is consumed, so the result set is never held in memory. The stream must be
+* consumed inside a transaction and closed afterwards.
+*
+* @param spec the specification to filter by
+* @param sort the order of the results
+* @return the matching expenses
+*/
+Stream<ExpenseView> streamViews(Specification<Expense> spec, Sort sort);
+}
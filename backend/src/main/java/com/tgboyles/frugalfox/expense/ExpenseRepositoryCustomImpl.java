@@ -0,0 +1,112 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+
+/**
+ * Implementation of {@link ExpenseRepositoryCustom}.
+ *
+ * <p>Queries are built with the Criteria API so the same {@link Specification}s as the paged
+ * search can be used. They select the columns of {@link ExpenseView} with a constructor
+ * expression, so Hibernate creates no managed entities. Streams run with a fixed JDBC fetch size;
+ * PostgreSQL only honours the fetch size inside a transaction, outside one the driver reads the
+ * whole result set at once.
+ */
+class ExpenseRepositoryCustomImpl implements ExpenseRepositoryCustom {
+
+/** Number of rows fetched per round trip when streaming. */
+static final int FETCH_SIZE = 500;
+
+@PersistenceContext private EntityManager entityManager;
+
+@Override
+public Page<ExpenseView> findViews(Specification<Expense> spec, Pageable pageable) {
+	TypedQuery<ExpenseView> query = createQuery(spec, pageable.getSort());
+	if (pageable.isPaged()) {
+		query.setFirstResult(Math.toIntExact(pageable.getOffset())).setMaxResults(pageable.getPageSize());
+	}
+	return PageableExecutionUtils.getPage(query.getResultList(), pageable, () -> count(spec));
+}
+
+@Override
+public Slice<ExpenseView> findViewSlice(Specification<Expense> spec, Pageable pageable) {
+	List<ExpenseView> content =
+		createQuery(spec, pageable.getSort())
+			.setFirstResult(Math.toIntExact(pageable.getOffset()))
+			.setMaxResults(pageable.getPageSize() + 1)
+			.getResultList();
+
+	boolean hasNext = content.size() > pageable.getPageSize();
+	if (hasNext) {
+		content = content.subList(0, pageable.getPageSize());
+	}
+	return new SliceImpl<>(content, pageable, hasNext);
+}
+
+@Override
+public List<ExpenseView> findTopViews(Specification<Expense> spec, Sort sort, int limit) {
+	return createQuery(spec, sort).setMaxResults(limit).getResultList();
+}
+
+@Override
+public Stream<ExpenseView> streamViews(Specification<Expense> spec, Sort sort) {
+	return createQuery(spec, sort)
+		.setHint(HibernateHints.HINT_FETCH_SIZE, FETCH_SIZE)
+		.getResultStream();
+}
+
+private TypedQuery<ExpenseView> createQuery(Specification<Expense> spec, Sort sort) {
+	CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+	CriteriaQuery<ExpenseView> query = criteriaBuilder.createQuery(ExpenseView.class);
+	Root<Expense> root = query.from(Expense.class);
+
+	query.select(
+		criteriaBuilder.construct(
+			ExpenseView.class,
+			root.get("id"),
+			root.get("date"),
+			root.get("merchant"),
+			root.get("amount"),
+			root.get("bank"),
+			root.get("category"),
+			root.get("createdAt"),
+			root.get("updatedAt")));
+	Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+	if (predicate != null) {
+		query.where(predicate);
+	}
+	query.orderBy(QueryUtils.toOrders(sort, root, criteriaBuilder));
+	return entityManager.createQuery(query);
+}
+
+private long count(Specification<Expense> spec) {
+	CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+	CriteriaQuery<Long> query = criteriaBuilder.createQuery(Long.class);
+	Root<Expense> root = query.from(Expense.class);
+
+	query.select(criteriaBuilder.count(root));
+	Predicate predicate = spec.toPredicate(root, query, criteriaBuilder);
+	if (predicate != null) {
+		query.where(predicate);
+	}
+	return entityManager.createQuery(query).getSingleResult();
+}
+}
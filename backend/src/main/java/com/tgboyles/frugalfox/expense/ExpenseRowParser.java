@@ -0,0 +1,304 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Turns a raw CSV row into a validated {@link Expense}.
+ *
+ * <p>Fields are taken from the columns of the file's {@link ImportLayout}. Dates in the layout's
+ * format and decimal amounts with the layout's separators are decoded directly from the row's
+ * bytes; ISO dates and plain amounts the fast path does not handle fall back to
+ * {@link LocalDate#parse} and {@link BigDecimal}'s String constructor, so for the standard layout
+ * the accepted values and error messages are unchanged. Strings are only created
+ * for the merchant, and bank and category go through a {@link ValueInterner}.
+ *
+ * <p>Stateless and thread-safe, so import pipelines can parse and validate rows on several
+ * threads at once.
+ */
+@Component
+public class ExpenseRowParser {
+
+/** Longest unscaled amount, in digits, that always fits in a long. */
+private static final int MAX_FAST_AMOUNT_DIGITS = 18;
+
+private final ExpenseValidator validator;
+
+public ExpenseRowParser(ExpenseValidator validator) {
+	this.validator = validator;
+}
+
+/**
+* Parses and validates a single CSV row in the standard layout.
+*
+* @param chunk the chunk holding the row (date,merchant,amount,bank,category)
+* @param row the index of the row in the chunk
+* @param user the user who owns the expense
+* @param interner interner for the bank and category values
+* @return the parsed expense
+* @throws CsvImportException if the row is incomplete, cannot be parsed or fails validation
+*/
+public Expense parse(RowChunk chunk, int row, User user, ValueInterner interner) {
+	return parse(chunk, row, user, interner, ImportLayout.DEFAULT);
+}
+
+/**
+* Parses and validates a single row in the given layout.
+*
+* @param chunk the chunk holding the row
+* @param row the index of the row in the chunk
+* @param user the user who owns the expense
+* @param interner interner for the bank and category values
+* @param layout the column order and value formats of the file
+* @return the parsed expense
+* @throws CsvImportException if the row is incomplete, cannot be parsed or fails validation
+*/
+public Expense parse(
+	RowChunk chunk, int row, User user, ValueInterner interner, ImportLayout layout) {
+	int rowNumber = chunk.rowNumber(row);
+	int dateColumn = layout.dateColumn();
+	int amountColumn = layout.amountColumn();
+
+	// Validate required fields are present
+	if (chunk.fieldCount(row) < layout.columnCount()) {
+		throw new CsvImportException(
+			ImportErrorType.COLUMN_COUNT,
+			String.format(
+				"Row %d: Expected %d columns (%s) but found %d",
+				rowNumber, layout.columnCount(), columnNames(layout), chunk.fieldCount(row)));
+	}
+
+	// Validate non-null and non-empty
+	if (isBlank(chunk, row, dateColumn)
+		|| isBlank(chunk, row, layout.merchantColumn())
+		|| isBlank(chunk, row, amountColumn)
+		|| isBlank(chunk, row, layout.bankColumn())
+		|| isBlank(chunk, row, layout.categoryColumn())) {
+		throw new CsvImportException(
+			ImportErrorType.MISSING_VALUE,
+			String.format("Row %d: All fields are required and cannot be null or blank", rowNumber));
+	}
+
+	byte[] data = chunk.data();
+
+	// Parse date
+	LocalDate date;
+	try {
+		date = parseDate(data, chunk.start(row, dateColumn), chunk.end(row, dateColumn), layout);
+	} catch (DateTimeException e) {
+		throw new CsvImportException(
+			ImportErrorType.INVALID_DATE,
+			String.format(
+				"Row %d: Invalid date format '%s'. Expected %s",
+				rowNumber, chunk.text(row, dateColumn), expectedDate(layout)),
+			e);
+	}
+
+	// Parse amount
+	BigDecimal amount;
+	try {
+		amount =
+			parseAmount(data, chunk.start(row, amountColumn), chunk.end(row, amountColumn), layout);
+	} catch (NumberFormatException e) {
+		throw new CsvImportException(
+			ImportErrorType.INVALID_AMOUNT,
+			String.format(
+				"Row %d: Invalid amount '%s'. Expected numeric value",
+				rowNumber, chunk.text(row, amountColumn)),
+			e);
+	}
+
+	String merchant = chunk.text(row, layout.merchantColumn());
+	int bankColumn = layout.bankColumn();
+	int categoryColumn = layout.categoryColumn();
+	String bank = interner.intern(data, chunk.start(row, bankColumn), chunk.end(row, bankColumn));
+	String category =
+		interner.intern(data, chunk.start(row, categoryColumn), chunk.end(row, categoryColumn));
+
+	// Create expense object
+	Expense expense = new Expense(user, date, merchant, amount, bank, category);
+
+	// Validate the Expense constraints; valid rows do not allocate
+	if (!validator.isValid(expense)) {
+		List<String> violationMessages = validator.violationMessages(expense);
+		throw new CsvImportException(
+			ImportErrorType.VALIDATION,
+			String.format(
+				"Row %d: Validation failed: %s", rowNumber, String.join(", ", violationMessages)));
+	}
+
+	return expense;
+}
+
+/**
+* Returns whether a (trimmed) field is blank in the sense of {@link String#isBlank()}. Fields
+* starting with an ASCII character are decided without decoding them.
+*/
+private static boolean isBlank(RowChunk chunk, int row, int field) {
+	int start = chunk.start(row, field);
+	if (start == chunk.end(row, field)) {
+		return true;
+	}
+	if (chunk.data()[start] >= 0) {
+		// Trimmed, so the first byte is a printable ASCII character
+		return false;
+	}
+	return chunk.text(row, field).isBlank();
+}
+
+/**
+* Decodes a date in the layout's format. ISO dates that are not in {@code YYYY-MM-DD} form fall
+* back to {@link LocalDate#parse}.
+*
+* @throws DateTimeException if the value is not a valid date in that format
+*/
+private static LocalDate parseDate(byte[] data, int start, int end, ImportLayout layout) {
+	if (layout.dateFormat() == ImportLayout.DateFormat.ISO) {
+		LocalDate date = parseDate(data, start, end);
+		return date != null ? date : LocalDate.parse(text(data, start, end));
+	}
+	LocalDate date = layout.dateFormat().decode(data, start, end);
+	if (date == null) {
+		throw new DateTimeException("Not in format " + layout.dateFormat().pattern());
+	}
+	return date;
+}
+
+/**
+* Decodes an amount with the layout's separators. Values the byte-level decoder does not handle
+* fall back to {@link BigDecimal}'s String constructor after normalizing the separators.
+*
+* @throws NumberFormatException if the value is not a number
+*/
+private static BigDecimal parseAmount(byte[] data, int start, int end, ImportLayout layout) {
+	if (layout.plainAmounts()) {
+		BigDecimal amount = parseAmount(data, start, end);
+		return amount != null ? amount : new BigDecimal(text(data, start, end));
+	}
+	BigDecimal amount =
+		parseAmount(
+			data, start, end, (byte) layout.decimalSeparator(), (byte) layout.groupingSeparator());
+	if (amount != null) {
+		return amount;
+	}
+	String value = text(data, start, end);
+	if (layout.groupingSeparator() != 0) {
+		value = value.replace(String.valueOf(layout.groupingSeparator()), "");
+	}
+	return new BigDecimal(value.replace(layout.decimalSeparator(), '.'));
+}
+
+private static String columnNames(ImportLayout layout) {
+	if (layout.equals(ImportLayout.DEFAULT)) {
+		return ImportLayout.STANDARD_COLUMNS;
+	}
+	String[] names = new String[layout.columnCount()];
+	Arrays.fill(names, "");
+	names[layout.dateColumn()] = "date";
+	names[layout.merchantColumn()] = "merchant";
+	names[layout.amountColumn()] = "amount";
+	names[layout.bankColumn()] = "bank";
+	names[layout.categoryColumn()] = "category";
+	return String.join(",", names);
+}
+
+private static String expectedDate(ImportLayout layout) {
+	return layout.dateFormat() == ImportLayout.DateFormat.ISO
+		? "ISO format (YYYY-MM-DD)"
+		: "format " + layout.dateFormat().pattern();
+}
+
+private static String text(byte[] data, int start, int end) {
+	return new String(data, start, end - start, StandardCharsets.UTF_8);
+}
+
+/**
+* Parses a date in {@code YYYY-MM-DD} form.
+*
+* @return the date, or null if the value is not in that form and needs the full ISO parser
+* @throws DateTimeException if the value is in that form but is not a valid date
+*/
+static LocalDate parseDate(byte[] data, int start, int end) {
+	if (end - start != 10 || data[start + 4] != '-' || data[start + 7] != '-') {
+		return null;
+	}
+	int year = digits(data, start, 4);
+	int month = digits(data, start + 5, 2);
+	int day = digits(data, start + 8, 2);
+	if (year < 0 || month < 0 || day < 0) {
+		return null;
+	}
+	return LocalDate.of(year, month, day);
+}
+
+/**
+* Parses a plain decimal amount (optional sign, digits and at most one decimal point).
+*
+* @return the amount, or null if the value needs the full {@link BigDecimal} parser
+*/
+static BigDecimal parseAmount(byte[] data, int start, int end) {
+	return parseAmount(data, start, end, (byte) '.', (byte) 0);
+}
+
+/**
+* Parses a decimal amount with the given separators (optional sign, digits, grouping separators
+* before the decimal separator and at most one decimal separator).
+*
+* @param groupingSeparator the thousands separator, or 0 if amounts are not grouped
+* @return the amount, or null if the value needs the full {@link BigDecimal} parser
+*/
+static BigDecimal parseAmount(
+	byte[] data, int start, int end, byte decimalSeparator, byte groupingSeparator) {
+	int i = start;
+	boolean negative = false;
+	if (i < end && (data[i] == '-' || data[i] == '+')) {
+		negative = data[i] == '-';
+		i++;
+	}
+
+	long unscaled = 0;
+	int digits = 0;
+	int scale = 0;
+	boolean decimalPoint = false;
+	for (; i < end; i++) {
+		byte b = data[i];
+		if (b >= '0' && b <= '9') {
+			if (++digits > MAX_FAST_AMOUNT_DIGITS) {
+				return null;
+			}
+			unscaled = unscaled * 10 + (b - '0');
+			if (decimalPoint) {
+				scale++;
+			}
+		} else if (b == decimalSeparator && !decimalPoint) {
+			decimalPoint = true;
+		} else if (b != groupingSeparator || groupingSeparator == 0 || decimalPoint || digits == 0) {
+			return null;
+		}
+	}
+	if (digits == 0) {
+		return null;
+	}
+	return BigDecimal.valueOf(negative ? -unscaled : unscaled, scale);
+}
+
+private static int digits(byte[] data, int start, int count) {
+	int value = 0;
+	for (int i = start; i < start + count; i++) {
+		byte b = data[i];
+		if (b < '0' || b > '9') {
+			return -1;
+		}
+		value = value * 10 + (b - '0');
+	}
+	return value;
+}
+}
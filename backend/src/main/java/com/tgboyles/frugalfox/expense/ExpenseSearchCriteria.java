@@ -2,6 +2,7 @@ package com.tgboyles.frugalfox.expense;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Locale;
 
 /**
  * Search criteria for filtering expenses.
@@ -10,6 +11,9 @@ import java.time.LocalDate;
  */
 public class ExpenseSearchCriteria {
 
+/** Escape character of {@link #merchantPattern()}. */
+static final char LIKE_ESCAPE = '\\';
+
 private String category;
 private String bank;
 private String merchant;
@@ -17,6 +21,7 @@ private LocalDate startDate;
 private LocalDate endDate;
 private BigDecimal minAmount;
 private BigDecimal maxAmount;
+private String query;
 
 public ExpenseSearchCriteria() {}
 
@@ -77,4 +82,68 @@ public BigDecimal getMaxAmount() {
 public void setMaxAmount(BigDecimal maxAmount) {
 	this.maxAmount = maxAmount;
 }
+
+public String getQuery() {
+	return query;
+}
+
+public void setQuery(String query) {
+	this.query = query;
+}
+
+/**
+* Returns whether a full-text query is set.
+*
+* @return true if the search is ranked by relevance to {@link #getQuery()}
+*/
+public boolean hasQuery() {
+	return query != null && !query.isBlank();
+}
+
+/**
+* Returns the LIKE pattern for the merchant filter, to be matched against the lower-cased merchant
+* with {@link #LIKE_ESCAPE} as escape character. {@code %} and {@code _} in the filter match
+* themselves instead of acting as wildcards.
+*
+* @return the pattern, e.g. {@code %whole foods%}
+*/
+String merchantPattern() {
+	return containsPattern(merchant);
+}
+
+/**
+* Returns the LIKE pattern matching lower-cased values that contain a term, ignoring case, with
+* {@link #LIKE_ESCAPE} as escape character.
+*
+* @param value the term
+* @return the pattern
+*/
+static String containsPattern(String value) {
+	String term = value.toLowerCase(Locale.ROOT);
+	StringBuilder pattern = new StringBuilder(term.length() + 2).append('%');
+	for (int i = 0; i < term.length(); i++) {
+		char c = term.charAt(i);
+		if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+			pattern.append(LIKE_ESCAPE);
+		}
+		pattern.append(c);
+	}
+	return pattern.append('%').toString();
+}
+
+/**
+* Returns whether any filter is set. Empty strings do not filter.
+*
+* @return true if the search is narrower than all of the user's expenses
+*/
+public boolean hasFilters() {
+	return (category != null && !category.isEmpty())
+		|| (bank != null && !bank.isEmpty())
+		|| (merchant != null && !merchant.isEmpty())
+		|| startDate != null
+		|| endDate != null
+		|| minAmount != null
+		|| maxAmount != null
+		|| hasQuery();
+}
 }
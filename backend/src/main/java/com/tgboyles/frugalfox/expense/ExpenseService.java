@@ -2,33 +2,29 @@ package com.tgboyles.frugalfox.expense;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
-import java.io.StringWriter;
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
-import java.time.LocalDate;
-import java.time.format.DateTimeParseException;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
+import java.util.stream.Stream;
 
-import org.apache.commons.csv.CSVFormat;
-import org.apache.commons.csv.CSVParser;
-import org.apache.commons.csv.CSVPrinter;
-import org.apache.commons.csv.CSVRecord;
 import org.springframework.dao.DataAccessException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.tgboyles.frugalfox.user.User;
 
+import jakarta.persistence.EntityManager;
 import jakarta.persistence.criteria.Predicate;
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
 
 /**
  * Service layer for expense operations.
@@ -39,15 +35,38 @@ import jakarta.validation.Validator;
 @Transactional
 public class ExpenseService {
 
-private static final int MAX_IMPORT_ROWS = 1000;
-private static final int BATCH_SIZE = 100;
-
 private final ExpenseRepository expenseRepository;
-private final Validator validator;
-
-public ExpenseService(ExpenseRepository expenseRepository, Validator validator) {
+private final ExpenseBulkWriter expenseBulkWriter;
+private final ExpenseImportPipeline importPipeline;
+private final ImportProperties importProperties;
+private final ImportErrorReportService errorReportService;
+private final ImportConnectionBudget connectionBudget;
+private final ExpenseCountEstimator countEstimator;
+private final ExpenseFullTextSearch fullTextSearch;
+private final EntityManager entityManager;
+private final TransactionTemplate batchTransaction;
+
+public ExpenseService(
+	ExpenseRepository expenseRepository,
+	ExpenseBulkWriter expenseBulkWriter,
+	ExpenseImportPipeline importPipeline,
+	ImportProperties importProperties,
+	ImportErrorReportService errorReportService,
+	ImportConnectionBudget connectionBudget,
+	ExpenseCountEstimator countEstimator,
+	ExpenseFullTextSearch fullTextSearch,
+	EntityManager entityManager,
+	PlatformTransactionManager transactionManager) {
 	this.expenseRepository = expenseRepository;
-	this.validator = validator;
+	this.expenseBulkWriter = expenseBulkWriter;
+	this.importPipeline = importPipeline;
+	this.importProperties = importProperties;
+	this.errorReportService = errorReportService;
+	this.connectionBudget = connectionBudget;
+	this.countEstimator = countEstimator;
+	this.fullTextSearch = fullTextSearch;
+	this.entityManager = entityManager;
+	this.batchTransaction = new TransactionTemplate(transactionManager);
 }
 
 /**
@@ -59,7 +78,11 @@ public ExpenseService(ExpenseRepository expenseRepository, Validator validator)
 */
 public Expense createExpense(Expense expense, User user) {
 	expense.setUser(user);
-	return expenseRepository.save(expense);
+	// Fingerprinted like imported rows, so importing a statement later skips it as a duplicate
+	expense.setFingerprint(new ExpenseFingerprint(user.getId()).of(expense));
+	Expense saved = expenseRepository.save(expense);
+	countEstimator.expensesAdded(user, 1);
+	return saved;
 }
 
 /**
@@ -94,6 +117,12 @@ public Expense updateExpense(Long id, Expense expenseDetails, User user) {
 	expense.setAmount(expenseDetails.getAmount());
 	expense.setBank(expenseDetails.getBank());
 	expense.setCategory(expenseDetails.getCategory());
+	String fingerprint = new ExpenseFingerprint(user.getId()).of(expense);
+	if (!fingerprint.equals(expense.getFingerprint())) {
+		// The edited row may now match another deduplicated row, which the unique index forbids
+		expense.setDeduplicated(false);
+	}
+	expense.setFingerprint(fingerprint);
 
 	return expenseRepository.save(expense);
 }
@@ -108,21 +137,131 @@ public Expense updateExpense(Long id, Expense expenseDetails, User user) {
 public void deleteExpense(Long id, User user) {
 	Expense expense = getExpenseById(id, user);
 	expenseRepository.delete(expense);
+	countEstimator.expensesRemoved(user, 1);
 }
 
 /**
 * Searches for expenses using dynamic criteria, scoped to the given user.
 *
+* <p>Results are read-only {@link ExpenseView}s. With a full-text query, results are ordered by
+* relevance (see {@link ExpenseFullTextSearch}) and the sort of {@code pageable} is ignored.
+*
 * @param criteria the search criteria
 * @param user the user
 * @param pageable the pagination information
 * @return a page of expenses
 */
 @Transactional(readOnly = true)
-public Page<Expense> searchExpenses(
+public Page<ExpenseView> searchExpenses(
+	ExpenseSearchCriteria criteria, User user, Pageable pageable) {
+	if (criteria.hasQuery()) {
+		return fullTextSearch.search(criteria, user, pageable);
+	}
+	Specification<Expense> spec = buildSpecification(criteria, user);
+	return expenseRepository.findViews(spec, pageable);
+}
+
+/**
+* Searches for expenses using dynamic criteria without counting the matches, scoped to the given
+* user.
+*
+* <p>Whether there is a next page is found by fetching one extra row, so the search runs a single
+* query instead of a query and a {@code COUNT(*)}.
+*
+* @param criteria the search criteria
+* @param user the user
+* @param pageable the pagination information
+* @return a slice of expenses
+*/
+@Transactional(readOnly = true)
+public Slice<ExpenseView> searchExpensesSlice(
 	ExpenseSearchCriteria criteria, User user, Pageable pageable) {
+	if (criteria.hasQuery()) {
+		return fullTextSearch.searchSlice(criteria, user, pageable);
+	}
 	Specification<Expense> spec = buildSpecification(criteria, user);
-	return expenseRepository.findAll(spec, pageable);
+	return expenseRepository.findViewSlice(spec, pageable);
+}
+
+/**
+* Searches for expenses using dynamic criteria with an estimated total, scoped to the given user.
+*
+* <p>The page is fetched like {@link #searchExpensesSlice}. On the last page the total is exact;
+* otherwise it comes from {@link ExpenseCountEstimator} and is at least one more than the rows up
+* to and including this page, so clients can still tell that there is a next page. Full-text
+* searches are counted exactly, as the count uses the same index as the search.
+*
+* @param criteria the search criteria
+* @param user the user
+* @param pageable the pagination information
+* @return a page of expenses whose total may be approximate
+*/
+@Transactional(readOnly = true)
+public Page<ExpenseView> searchExpensesWithEstimatedCount(
+	ExpenseSearchCriteria criteria, User user, Pageable pageable) {
+	if (criteria.hasQuery()) {
+		return fullTextSearch.search(criteria, user, pageable);
+	}
+	Specification<Expense> spec = buildSpecification(criteria, user);
+	Slice<ExpenseView> slice = expenseRepository.findViewSlice(spec, pageable);
+
+	long seen = pageable.getOffset() + slice.getNumberOfElements();
+	if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+		return new PageImpl<>(slice.getContent(), pageable, seen);
+	}
+	long estimate = countEstimator.estimate(criteria, user, spec);
+	return new PageImpl<>(
+		slice.getContent(), pageable, slice.hasNext() ? Math.max(estimate, seen + 1) : estimate);
+}
+
+/**
+* Searches for expenses using dynamic criteria with keyset pagination, scoped to the given user.
+*
+* <p>Instead of skipping {@code page * size} rows, each page continues after the last row of the
+* previous one, identified by the cursor, and no count query is run. Every page therefore costs
+* the same, however deep it is. The sort is extended with {@code id} so that the order is unique.
+*
+* @param criteria the search criteria
+* @param user the user
+* @param sort the order of the results
+* @param size the maximum number of expenses on the page
+* @param cursor the cursor returned with the previous page, or null for the first page
+* @return a page of expenses, with the cursor of the next page if there is one
+* @throws IllegalArgumentException if the sort cannot be used with keyset pagination, the cursor
+*     is invalid, or the criteria have a full-text query
+*/
+@Transactional(readOnly = true)
+public CursorPage<ExpenseView> searchExpenses(
+	ExpenseSearchCriteria criteria, User user, Sort sort, int size, String cursor) {
+	if (criteria.hasQuery()) {
+		throw new IllegalArgumentException(
+			"Full-text search (q) is ordered by relevance and cannot be used with cursor pagination");
+	}
+	Sort keysetSort = ExpenseCursor.keysetSort(sort);
+	Specification<Expense> spec = buildSpecification(criteria, user);
+	if (cursor != null && !cursor.isBlank()) {
+		spec = spec.and(ExpenseCursor.after(keysetSort, cursor));
+	}
+
+	// One extra row tells whether there is a next page without counting
+	List<ExpenseView> expenses = expenseRepository.findTopViews(spec, keysetSort, size + 1);
+	if (expenses.size() <= size) {
+		return new CursorPage<>(expenses, size, false, null);
+	}
+	List<ExpenseView> content = expenses.subList(0, size);
+	return new CursorPage<>(
+		List.copyOf(content), size, true, ExpenseCursor.encode(keysetSort, content.get(size - 1)));
+}
+
+/**
+* Returns the years in which the given user has expenses.
+*
+* @param user the user
+* @return the years, in ascending order
+*/
+@Transactional(readOnly = true)
+public List<Integer> findExpenseYears(User user) {
+	return expenseRepository.findExpenseYearsByUser(user);
 }
 
 /**
@@ -130,15 +269,32 @@ public Page<Expense> searchExpenses(
 *
 * <p>Expected CSV format: date,merchant,amount,bank,category
 *
-* <p>Validates the file has no more than 1000 rows and that all rows are well-formed.
+* <p>The file is streamed through {@link ExpenseImportPipeline}: rows are parsed and validated on
+* a pool of worker threads while earlier batches are written on the calling thread, and the
+* persistence context is cleared after every batch, so memory use does not grow with the size of
+* the file. Rows are written and errors reported in file order. The number of rows and bytes read
+* is limited by the user's {@link ImportQuota} (see {@link ImportProperties}).
 *
-* <p><strong>Transaction Behavior:</strong> This method processes expenses in batches of 100 rows
-* to provide better fault tolerance and memory efficiency. Each batch is saved independently in
-* a separate transaction using {@link ExpenseRepository#saveAll(Iterable)}. Rows that fail
-* validation or parsing are recorded as errors and excluded from the save operation. If a batch
-* save operation fails (e.g., database constraint violation), only that batch is rolled back;
-* previously saved batches remain committed. This allows partial imports to succeed, reducing
-* the need to re-upload the entire file in case of errors.
+* <p><strong>Transaction Behavior:</strong> This method processes expenses in batches (100 rows by
+* default) to provide better fault tolerance and memory efficiency. The import itself does not
+* run in a transaction; each batch is saved in its own short transaction using
+* {@link ExpenseBulkWriter}, which loads the whole batch in one round trip ({@code COPY} on
+* PostgreSQL, a JDBC batch insert elsewhere), so connections and row locks are only held while a
+* batch is written. Batch writes draw on the {@link ImportConnectionBudget}, so imports never hold
+* more than their share of the connection pool. Rows that fail validation or parsing are recorded
+* as errors and excluded from the save operation. Only the first
+* {@code frugalfox.import.errors.max-messages} error messages are returned in the result; every
+* failed row is counted by {@link ImportErrorType} and listed in an error report on disk (see
+* {@link ImportErrorReportService}). If a batch save operation fails (e.g., database constraint
+* violation), only that batch is rolled back; previously saved batches remain committed. This
+* allows partial imports to succeed, reducing the need to re-upload the entire file in case of
+* errors. When called inside an existing transaction, the batches join that transaction instead.
+*
+* <p>If the file turns out to be malformed or over the quota after some batches have been saved,
+* the import stops there and returns a result that is {@link ImportResult#isAborted() aborted},
+* with the reason and the rows saved so far, instead of failing. The rows of the file up to
+* {@link ImportResult#getTotalRows()} have been saved or have failed; later rows have not been
+* imported. If nothing has been saved yet, the import fails with a {@link CsvImportException}.
 *
 * <p>Note: Leading and trailing whitespace is automatically trimmed from all CSV fields during
 * parsing. Fields containing only whitespace are treated as blank and will fail validation.
@@ -146,154 +302,250 @@ public Page<Expense> searchExpenses(
 * @param inputStream the CSV file input stream
 * @param user the user who owns the expenses
 * @return import result with statistics and any errors
-* @throws CsvImportException if the file is malformed or exceeds row limit
+* @throws CsvImportException if the file is malformed or exceeds the user's row or size quota
+*     before any rows were saved
 */
+@Transactional(propagation = Propagation.SUPPORTS)
 public ImportResult importExpenses(InputStream inputStream, User user) {
-	ImportResult result = new ImportResult();
-	List<Expense> currentBatch = new ArrayList<>();
-	List<Integer> currentBatchRowNumbers = new ArrayList<>();
-	int rowNumber = 0;
-
-	try (Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
-		CSVParser csvParser =
-			new CSVParser(
-				reader,
-				CSVFormat.DEFAULT
-					.builder()
-					.setHeader("date", "merchant", "amount", "bank", "category")
-					.setSkipHeaderRecord(true)
-					.setIgnoreEmptyLines(true)
-					.setTrim(true)
-					.build())) {
-
-	int recordCount = 0;
-
-	// Iterate through records, counting and validating row limit during parsing
-	for (CSVRecord record : csvParser) {
-		recordCount++;
-		rowNumber = (int) record.getRecordNumber();
-
-		// Check row limit during parsing to fail fast
-		if (recordCount > MAX_IMPORT_ROWS) {
-		throw new CsvImportException(
-			"File exceeds maximum row limit of " + MAX_IMPORT_ROWS + ". Found at least " + recordCount + " rows.");
-		}
-
-		try {
-		// Validate required fields are present
-		if (record.size() < 5) {
-			throw new CsvImportException(
-				String.format(
-					"Row %d: Expected 5 columns (date,merchant,amount,bank,category) but found %d",
-					rowNumber, record.size()));
-		}
-
-		// Parse fields
-		String dateStr = record.get("date");
-		String merchant = record.get("merchant");
-		String amountStr = record.get("amount");
-		String bank = record.get("bank");
-		String category = record.get("category");
-
-		// Validate non-null and non-empty
-		if (dateStr == null || dateStr.isBlank()
-			|| merchant == null || merchant.isBlank()
-			|| amountStr == null || amountStr.isBlank()
-			|| bank == null || bank.isBlank()
-			|| category == null || category.isBlank()) {
-			throw new CsvImportException(
-				String.format("Row %d: All fields are required and cannot be null or blank", rowNumber));
-		}
-
-		// Parse date
-		LocalDate date;
-		try {
-			date = LocalDate.parse(dateStr);
-		} catch (DateTimeParseException e) {
-			throw new CsvImportException(
-				String.format(
-					"Row %d: Invalid date format '%s'. Expected ISO format (YYYY-MM-DD)",
-					rowNumber, dateStr),
-				e);
-		}
+	return importExpenses(inputStream, user, ImportProgress.NONE);
+}
 
-		// Parse amount
-		BigDecimal amount;
-		try {
-			amount = new BigDecimal(amountStr);
-		} catch (NumberFormatException e) {
-			throw new CsvImportException(
-				String.format("Row %d: Invalid amount '%s'. Expected numeric value", rowNumber, amountStr),
-				e);
-		}
+/**
+* Imports expenses from a CSV file for the given user, reporting progress as rows are processed.
+*
+* <p>Behaves like {@link #importExpenses(InputStream, User)}. In addition, every parsed, saved and
+* failed row is reported to {@code progress}, and the import stops before the next row once
+* {@link ImportProgress#isCancelled()} returns true. Batches saved before cancellation stay
+* committed; the partially filled batch is discarded.
+*
+* @param inputStream the CSV file input stream
+* @param user the user who owns the expenses
+* @param progress listener notified of progress and polled for cancellation
+* @return import result with statistics and any errors
+* @throws CsvImportException if the file is malformed or exceeds the user's row or size quota
+*     before any rows were saved
+*/
+@Transactional(propagation = Propagation.SUPPORTS)
+public ImportResult importExpenses(InputStream inputStream, User user, ImportProgress progress) {
+	return importExpenses(inputStream, user, ImportOptions.DEFAULT, progress);
+}
 
-		// Create expense object
-		Expense expense = new Expense(user, date, merchant, amount, bank, category);
+/**
+* Imports expenses from a CSV file for the given user with the given options.
+*
+* <p>Behaves like {@link #importExpenses(InputStream, User, ImportProgress)}. Every expense is
+* stored with its {@link ExpenseFingerprint}, however it was created. With
+* {@link ImportOptions#skipDuplicates()}, rows whose fingerprint the user already has, or that
+* repeat an earlier row of the batch, are left out by the database instead of inserted; they are
+* counted in {@link ImportResult#getDuplicatesSkipped()}. Without the option every row is
+* inserted, duplicates included.
+*
+* <p>With {@link ImportOptions#dryRun()}, the whole file is still read and validated by the
+* pipeline, but nothing is written to the database: the fingerprints of the valid rows are
+* collected in memory instead (see {@link #fingerprintBatch} and {@link FingerprintSet}), which
+* the user's row quota bounds. Once the file has been read, they are looked up in one pass, and
+* the result counts the rows an import with {@code skipDuplicates} would insert and skip,
+* including repeats within the file. The saved and skipped rows are reported to {@code progress}
+* at that point.
+*
+* @param inputStream the CSV file input stream
+* @param user the user who owns the expenses
+* @param options the import options
+* @param progress listener notified of progress and polled for cancellation
+* @return import result with statistics and any errors
+* @throws CsvImportException if the file is malformed or exceeds the user's row or size quota
+*     before any rows were saved
+*/
+@Transactional(propagation = Propagation.SUPPORTS)
+public ImportResult importExpenses(
+	InputStream inputStream, User user, ImportOptions options, ImportProgress progress) {
+	int batchSize = importProperties.getBatchSize();
+	ImportResult result = new ImportResult();
+	ImportErrorLog errors = errorReportService.newLog(result, user);
+	List<Expense> currentBatch = new ArrayList<>(batchSize);
+	List<Integer> currentBatchRowNumbers = new ArrayList<>(batchSize);
+	FingerprintSet dryRunFingerprints = options.dryRun() ? new FingerprintSet() : null;
+	result.setDryRun(options.dryRun());
 
-		// Validate using Bean Validation
-		Set<ConstraintViolation<Expense>> violations = validator.validate(expense);
-		if (!violations.isEmpty()) {
-			List<String> violationMessages = new ArrayList<>();
-			for (ConstraintViolation<Expense> violation : violations) {
-			violationMessages.add(violation.getMessage());
+	try {
+		// Rows are read and validated in parallel, but arrive here in file order
+		ExpenseImportPipeline.Outcome outcome =
+			importPipeline.run(
+				inputStream,
+				user,
+				progress,
+				row -> {
+					if (!row.isValid()) {
+						errors.rowFailed(row.rowNumber(), row.errorType(), row.error());
+						result.setFailedImports(result.getFailedImports() + 1);
+						progress.rowsFailed(1);
+						if (currentBatch.isEmpty()) {
+							result.setTotalRows(row.rowNumber());
+						}
+						return true;
+					}
+
+					currentBatch.add(row.expense());
+					currentBatchRowNumbers.add(row.rowNumber());
+
+					// Save batch when it reaches the batch size
+					if (currentBatch.size() >= batchSize) {
+						if (progress.isCancelled()) {
+							return false;
+						}
+						processBatch(
+							currentBatch,
+							currentBatchRowNumbers,
+							user,
+							options,
+							dryRunFingerprints,
+							result,
+							errors,
+							progress);
+						currentBatch.clear();
+						currentBatchRowNumbers.clear();
+						// Every row up to here has been saved or has failed
+						result.setTotalRows(row.rowNumber());
+					}
+					return true;
+				});
+
+		if (outcome.endOfFile()) {
+			// Set total rows after processing all records
+			result.setTotalRows(outcome.lastRow());
+
+			// Save any remaining expenses in the last batch, even if a cancellation arrived after the
+			// whole file had been read
+			if (!currentBatch.isEmpty()) {
+				processBatch(
+					currentBatch,
+					currentBatchRowNumbers,
+					user,
+					options,
+					dryRunFingerprints,
+					result,
+					errors,
+					progress);
 			}
-			throw new CsvImportException(
-				String.format(
-					"Row %d: Validation failed: %s", rowNumber, String.join(", ", violationMessages)));
+		} else {
+			// Cancelled partway through the file; the partially filled batch is discarded, so the total
+			// stays at the last row handled by a committed batch
+			result.setCancelled(true);
 		}
-
-		currentBatch.add(expense);
-		currentBatchRowNumbers.add(rowNumber);
-
-		// Save batch when it reaches the batch size
-		if (currentBatch.size() >= BATCH_SIZE) {
-			saveBatch(currentBatch, currentBatchRowNumbers, result);
-			currentBatch.clear();
-			currentBatchRowNumbers.clear();
+		if (dryRunFingerprints != null) {
+			countDryRun(dryRunFingerprints, user, result, progress);
 		}
+		errors.finish();
 
-		} catch (CsvImportException e) {
-		result.addError(e.getMessage());
-		result.setFailedImports(result.getFailedImports() + 1);
-		} catch (Exception e) {
-		result.addError(String.format("Row %d: Unexpected error: %s", rowNumber, e.getMessage()));
-		result.setFailedImports(result.getFailedImports() + 1);
+	} catch (Exception e) {
+	CsvImportException failure =
+		e instanceof CsvImportException csvImportException
+			? csvImportException
+			: new CsvImportException(
+				"Failed to parse CSV file. Please ensure it is a valid CSV with columns: date,merchant,amount,bank,category",
+				e);
+	if (options.dryRun() || result.getSuccessfulImports() == 0) {
+		// Nothing was saved, so the import failed as a whole
+		errors.discard();
+		if (e instanceof DataAccessException dataAccessException) {
+			// The database failed while looking up a dry run's fingerprints, not the file
+			throw dataAccessException;
 		}
+		throw failure;
+	}
+	// Earlier batches have committed. Report what they saved rather than failing, so the rows
+	// already in the database are not imported again; the partially filled batch is discarded.
+	result.setAborted(true);
+	result.setAbortReason(failure.getMessage());
+	errors.finish();
 	}
 
-	// Set total rows after processing all records
-	result.setTotalRows(rowNumber);
+	return result;
+}
 
-	// Save any remaining expenses in the last batch
-	if (!currentBatch.isEmpty()) {
-		saveBatch(currentBatch, currentBatchRowNumbers, result);
+/** Saves a batch of expenses, or only collects its fingerprints in a dry run. */
+private void processBatch(
+	List<Expense> batch,
+	List<Integer> rowNumbers,
+	User user,
+	ImportOptions options,
+	FingerprintSet dryRunFingerprints,
+	ImportResult result,
+	ImportErrorLog errors,
+	ImportProgress progress) {
+	if (options.dryRun()) {
+		fingerprintBatch(batch, user, dryRunFingerprints, result);
+	} else {
+		saveBatch(batch, rowNumbers, user, options, result, errors, progress);
 	}
+}
 
-	} catch (CsvImportException e) {
-	// Re-throw validation exceptions
-	throw e;
-	} catch (IOException e) {
-	throw new CsvImportException("Failed to read CSV file: " + e.getMessage(), e);
-	} catch (Exception e) {
-	throw new CsvImportException(
-		"Failed to parse CSV file. Please ensure it is a valid CSV with columns: date,merchant,amount,bank,category",
-		e);
+/**
+ * Adds the fingerprints of a batch of valid expenses to a dry run, without saving the expenses.
+ *
+ * <p>Until {@link #countDryRun} runs at the end of the file, the rows are counted in
+ * {@link ImportResult#getSuccessfulImports()}.
+ *
+ * @param batch the list of expenses
+ * @param user the user who owns the expenses
+ * @param fingerprints the fingerprints collected by the dry run so far
+ * @param result the import result to update with the rows of the batch
+ */
+private void fingerprintBatch(
+	List<Expense> batch, User user, FingerprintSet fingerprints, ImportResult result) {
+	ExpenseFingerprint fingerprint = new ExpenseFingerprint(user.getId());
+	for (Expense expense : batch) {
+		fingerprints.add(fingerprint.digest(expense));
 	}
+	result.setSuccessfulImports(result.getSuccessfulImports() + batch.size());
+}
 
-	return result;
+/**
+ * Looks up the distinct fingerprints of a dry run among the user's expenses, and splits the
+ * valid rows into the rows an import with {@code skipDuplicates} would insert and the duplicates
+ * it would skip.
+ */
+private void countDryRun(
+	FingerprintSet fingerprints, User user, ImportResult result, ImportProgress progress) {
+	int valid = result.getSuccessfulImports();
+	if (valid == 0) {
+		return;
+	}
+	int existing =
+		connectionBudget.call(
+			() ->
+				batchTransaction.execute(
+					status -> expenseBulkWriter.countExisting(fingerprints, user)));
+	int fresh = fingerprints.size() - existing;
+	result.setSuccessfulImports(fresh);
+	result.setDuplicatesSkipped(valid - fresh);
+	progress.rowsSaved(fresh);
+	progress.rowsSkipped(valid - fresh);
 }
 
 /**
- * Saves a batch of expenses and updates the import result.
+ * Saves a batch of expenses in its own transaction and updates the import result.
  *
- * <p>If saving fails, the error is caught and recorded in the result for the
- * corresponding batch of rows.
+ * <p>If saving fails, the batch is rolled back and the error is recorded in the result for the
+ * corresponding batch of rows. The persistence context is flushed and cleared before the batch
+ * commits so that nothing loaded during the import stays managed for the rest of the file.
  *
  * @param batch the list of expenses to save
  * @param rowNumbers the row numbers corresponding to each expense in the batch
+ * @param user the user who owns the expenses
+ * @param options the import options
  * @param result the import result to update with success/failure statistics
+ * @param errors the error log recording the rows of a failed batch
+ * @param progress listener notified of saved and failed rows
  */
-protected void saveBatch(List<Expense> batch, List<Integer> rowNumbers, ImportResult result) {
+protected void saveBatch(
+	List<Expense> batch,
+	List<Integer> rowNumbers,
+	User user,
+	ImportOptions options,
+	ImportResult result,
+	ImportErrorLog errors,
+	ImportProgress progress) {
 	if (batch.isEmpty()) {
 		return;
 	}
@@ -305,8 +557,26 @@ protected void saveBatch(List<Expense> batch, List<Integer> rowNumbers, ImportRe
 	}
 
 	try {
-		expenseRepository.saveAll(batch);
-		result.setSuccessfulImports(result.getSuccessfulImports() + batch.size());
+		int inserted =
+			connectionBudget.call(
+				() ->
+					batchTransaction.execute(
+						status -> {
+							int count =
+								options.skipDuplicates()
+									? expenseBulkWriter.insertSkippingDuplicates(batch, user)
+									: expenseBulkWriter.insert(batch, user);
+							entityManager.flush();
+							entityManager.clear();
+							countEstimator.expensesAdded(user, count);
+							return count;
+						}));
+		result.setSuccessfulImports(result.getSuccessfulImports() + inserted);
+		progress.rowsSaved(inserted);
+		if (options.skipDuplicates()) {
+			result.setDuplicatesSkipped(result.getDuplicatesSkipped() + batch.size() - inserted);
+			progress.rowsSkipped(batch.size() - inserted);
+		}
 	} catch (DataAccessException e) {
 		// Database error occurred during batch save
 		int firstRow = rowNumbers.get(0);
@@ -323,8 +593,9 @@ protected void saveBatch(List<Expense> batch, List<Integer> rowNumbers, ImportRe
 			firstRow,
 			lastRow,
 			errorMessage);
-		result.addError(errorMsg);
+		errors.batchFailed(rowNumbers, errorMsg);
 		result.setFailedImports(result.getFailedImports() + batch.size());
+		progress.rowsFailed(batch.size());
 	}
 }
 
@@ -352,12 +623,14 @@ private Specification<Expense> buildSpecification(ExpenseSearchCriteria criteria
 		predicates.add(criteriaBuilder.equal(root.get("bank"), criteria.getBank()));
 	}
 
-	// Merchant filter (partial match, case-insensitive)
+	// Merchant filter (partial match, case-insensitive); lower(merchant) LIKE matches the
+	// trigram index on PostgreSQL
 	if (criteria.getMerchant() != null && !criteria.getMerchant().isEmpty()) {
 		predicates.add(
 			criteriaBuilder.like(
 				criteriaBuilder.lower(root.get("merchant")),
-				"%" + criteria.getMerchant().toLowerCase() + "%"));
+				criteria.merchantPattern(),
+				ExpenseSearchCriteria.LIKE_ESCAPE));
 	}
 
 	// Date range filter
@@ -384,42 +657,39 @@ private Specification<Expense> buildSpecification(ExpenseSearchCriteria criteria
 }
 
 /**
- * Exports expenses to CSV format based on search criteria.
+ * Exports expenses based on search criteria.
  *
- * <p>The CSV format matches the import format: date,merchant,amount,bank,category
+ * <p>The CSV format matches the import format: date,merchant,amount,bank,category. NDJSON has
+ * one JSON object per expense and line.
+ *
+ * <p>Expenses are read from a database cursor as {@link ExpenseView}s and written to {@code out}
+ * one at a time, so memory use does not depend on how many expenses match and the persistence
+ * context stays empty.
  *
  * @param criteria the search criteria to filter expenses
  * @param user the user to scope results to
- * @param pageable the pagination information (note: export will fetch ALL matching results)
- * @return CSV content as a string
- * @throws IOException if there is an error generating the CSV
+ * @param sort the order to export expenses in
+ * @param format the file format to write
+ * @param out the stream to write the export to; it is flushed but not closed
+ * @return the number of expenses written
+ * @throws IOException if there is an error writing the export
  */
 @Transactional(readOnly = true)
-public String exportExpensesToCsv(ExpenseSearchCriteria criteria, User user, Pageable pageable) throws IOException {
+public long exportExpenses(
+	ExpenseSearchCriteria criteria, User user, Sort sort, ExportFormat format, OutputStream out)
+	throws IOException {
 	Specification<Expense> spec = buildSpecification(criteria, user);
 
-	// Fetch all matching expenses (ignoring pagination for export)
-	List<Expense> expenses = expenseRepository.findAll(spec, pageable.getSort());
-
-	StringWriter writer = new StringWriter();
-	try (CSVPrinter csvPrinter = new CSVPrinter(writer,
-			CSVFormat.DEFAULT.builder()
-				.setHeader("date", "merchant", "amount", "bank", "category")
-				.build())) {
-
-		for (Expense expense : expenses) {
-			csvPrinter.printRecord(
-				expense.getDate(),
-				expense.getMerchant(),
-				expense.getAmount(),
-				expense.getBank(),
-				expense.getCategory()
-			);
+	ExpenseExportWriter writer = format.open(out);
+	long count = 0;
+	try (Stream<ExpenseView> expenses = expenseRepository.streamViews(spec, sort)) {
+		Iterator<ExpenseView> iterator = expenses.iterator();
+		while (iterator.hasNext()) {
+			writer.write(iterator.next());
+			count++;
 		}
-
-		csvPrinter.flush();
 	}
-
-	return writer.toString();
+	writer.finish();
+	return count;
 }
 }
@@ -0,0 +1,59 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.List;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * The filters of an {@link ExpenseSearchCriteria} as an SQL condition on the {@code expenses}
+ * table, for queries run over JDBC instead of through the JPA specification built by
+ * {@link ExpenseService}. The conditions must stay the same as the specification's. The full-text
+ * {@link ExpenseSearchCriteria#getQuery() query} is not included.
+ */
+final class ExpenseSqlConditions {
+
+private ExpenseSqlConditions() {}
+
+/**
+* Returns the condition for the criteria and appends its parameters, in order.
+*
+* @param criteria the search criteria
+* @param user the user the search is scoped to
+* @param parameters the list to append the JDBC parameters to
+* @return the condition, always starting with {@code user_id = ?}
+*/
+static String of(ExpenseSearchCriteria criteria, User user, List<Object> parameters) {
+	StringBuilder sql = new StringBuilder("user_id = ?");
+	parameters.add(user.getId());
+
+	if (criteria.getCategory() != null && !criteria.getCategory().isEmpty()) {
+		sql.append(" AND category = ?");
+		parameters.add(criteria.getCategory());
+	}
+	if (criteria.getBank() != null && !criteria.getBank().isEmpty()) {
+		sql.append(" AND bank = ?");
+		parameters.add(criteria.getBank());
+	}
+	if (criteria.getMerchant() != null && !criteria.getMerchant().isEmpty()) {
+		sql.append(" AND LOWER(merchant) LIKE ? ESCAPE '\\'");
+		parameters.add(criteria.merchantPattern());
+	}
+	if (criteria.getStartDate() != null) {
+		sql.append(" AND expense_date >= ?");
+		parameters.add(criteria.getStartDate());
+	}
+	if (criteria.getEndDate() != null) {
+		sql.append(" AND expense_date <= ?");
+		parameters.add(criteria.getEndDate());
+	}
+	if (criteria.getMinAmount() != null) {
+		sql.append(" AND amount >= ?");
+		parameters.add(criteria.getMinAmount());
+	}
+	if (criteria.getMaxAmount() != null) {
+		sql.append(" AND amount <= ?");
+		parameters.add(criteria.getMaxAmount());
+	}
+	return sql.toString();
+}
+}
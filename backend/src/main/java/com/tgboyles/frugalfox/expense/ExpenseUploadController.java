@@ -0,0 +1,137 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.tgboyles.frugalfox.user.User;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * REST controller for resumable chunked uploads of import files.
+ *
+ * <p>A client opens an upload with the file size, sends the chunks (in any order, retrying any
+ * that fail), checks which chunks are missing after an interruption, and completes the upload to
+ * start an asynchronous import. All endpoints require authentication and are scoped to the
+ * authenticated user.
+ */
+@RestController
+@RequestMapping("/expenses/uploads")
+public class ExpenseUploadController {
+
+/** Header carrying the hex-encoded SHA-256 of a chunk. */
+public static final String CHUNK_CHECKSUM_HEADER = "X-Chunk-SHA256";
+
+private final UploadSessionService uploadSessionService;
+
+public ExpenseUploadController(UploadSessionService uploadSessionService) {
+	this.uploadSessionService = uploadSessionService;
+}
+
+/**
+* Opens an upload session for the authenticated user.
+*
+* @param size the size of the complete CSV file in bytes
+* @param skipDuplicates whether the import should skip rows that match an existing expense
+* @param dryRun whether the import should only validate the file and check it for duplicates
+* @param user the authenticated user
+* @return the session with its chunk size and chunk count (201 status)
+* @throws CsvImportException if the size is not positive or exceeds the user's quota (400
+*     status)
+* @throws ImportRejectedException if the user has too many open uploads (429 status)
+*/
+@PostMapping
+public ResponseEntity<UploadSession> openUpload(
+	@RequestParam long size,
+	@RequestParam(defaultValue = "false") boolean skipDuplicates,
+	@RequestParam(defaultValue = "false") boolean dryRun,
+	@AuthenticationPrincipal User user) {
+	UploadSession session =
+		uploadSessionService.open(size, user, new ImportOptions(skipDuplicates, dryRun));
+	return ResponseEntity.status(HttpStatus.CREATED)
+		.header("Location", "/expenses/uploads/" + session.getUploadId())
+		.body(session);
+}
+
+/**
+* Retrieves an upload session, including the chunks received so far and those still missing.
+*
+* @param uploadId the upload ID
+* @param user the authenticated user
+* @return the session (200 status)
+*/
+@GetMapping("/{uploadId}")
+public ResponseEntity<UploadSession> getUpload(
+	@PathVariable String uploadId, @AuthenticationPrincipal User user) {
+	return ResponseEntity.ok(uploadSessionService.getSession(uploadId, user));
+}
+
+/**
+* Stores one chunk of an upload. The request body is the raw chunk content.
+*
+* @param uploadId the upload ID
+* @param index the zero-based chunk index
+* @param checksum the hex-encoded SHA-256 of the chunk ({@value #CHUNK_CHECKSUM_HEADER} header)
+* @param user the authenticated user
+* @param request the request whose body is the chunk
+* @return the session (200 status)
+* @throws CsvImportException if the index, length or checksum is wrong (400 status)
+*/
+@PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+public ResponseEntity<UploadSession> uploadChunk(
+	@PathVariable String uploadId,
+	@PathVariable int index,
+	@RequestHeader(value = CHUNK_CHECKSUM_HEADER, required = false) String checksum,
+	@AuthenticationPrincipal User user,
+	HttpServletRequest request)
+	throws IOException {
+	return ResponseEntity.ok(
+		uploadSessionService.writeChunk(uploadId, index, request.getInputStream(), checksum, user));
+}
+
+/**
+* Completes an upload and starts importing the assembled file in the background.
+*
+* @param uploadId the upload ID
+* @param user the authenticated user
+* @return the queued import job (202 status); poll it under {@code /expenses/import/{jobId}}
+* @throws CsvImportException if chunks are still missing (400 status)
+* @throws ImportRejectedException if too many imports are in progress; the upload is kept and
+*     can be completed later (429 status)
+*/
+@PostMapping("/{uploadId}/complete")
+public ResponseEntity<ImportJob> completeUpload(
+	@PathVariable String uploadId, @AuthenticationPrincipal User user) {
+	ImportJob job = uploadSessionService.complete(uploadId, user);
+	return ResponseEntity.status(HttpStatus.ACCEPTED)
+		.header("Location", "/expenses/import/" + job.getJobId())
+		.body(job);
+}
+
+/**
+* Cancels an upload and discards the chunks received so far.
+*
+* @param uploadId the upload ID
+* @param user the authenticated user
+* @return 204 status
+*/
+@DeleteMapping("/{uploadId}")
+public ResponseEntity<Void> cancelUpload(
+	@PathVariable String uploadId, @AuthenticationPrincipal User user) {
+	uploadSessionService.cancel(uploadId, user);
+	return ResponseEntity.noContent().build();
+}
+}
@@ -0,0 +1,32 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Read-only view of an expense, as returned by searches and written by exports.
+ *
+ * <p>Views are selected column by column into this record ({@code select new ...}), so unlike
+ * {@link Expense} entities they are not tracked by the persistence context: no dirty-checking
+ * snapshot, no lazy {@code User} proxy and nothing to detach. Serializes to the same JSON as
+ * {@link Expense}.
+ *
+ * @param id the expense ID
+ * @param date the date of the expense
+ * @param merchant the merchant or description
+ * @param amount the amount
+ * @param bank the bank or payment source
+ * @param category the expense category
+ * @param createdAt when the expense was created
+ * @param updatedAt when the expense was last updated
+ */
+public record ExpenseView(
+	Long id,
+	LocalDate date,
+	String merchant,
+	BigDecimal amount,
+	String bank,
+	String category,
+	LocalDateTime createdAt,
+	LocalDateTime updatedAt) {}
@@ -0,0 +1,369 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.SAXException;
+
+/**
+ * Reader for expense imports from Excel spreadsheets (XLSX).
+ *
+ * <p>The first worksheet is read with a StAX pull parser straight from the zip entry, one row at a
+ * time, so the workbook is never loaded into memory the way POI's {@code XSSFWorkbook} would load
+ * it. Only the shared strings table and the cell styles are held in memory. Each row is written
+ * into a {@link RowChunk} as text, the same way {@link ExpenseCsvReader} writes CSV fields, so
+ * spreadsheet rows go through the same parsing, validation and batching as CSV rows:
+ *
+ * <ul>
+ *   <li>the first non-empty row is a header that is ignored, and empty rows are skipped;
+ *   <li>cells formatted as dates are written as ISO dates ({@code YYYY-MM-DD}), counting from 1900
+ *       or, for workbooks saved with the 1904 date system, from 1904; other numbers are written
+ *       in plain notation;
+ *   <li>missing cells are blank fields, and rows are padded to the width of the header.
+ * </ul>
+ *
+ * <p>A zip file can only be read once its central directory at the end is available, so the
+ * upload is first copied to a temporary file in the spool directory, limited to the user's size
+ * quota. POI's zip bomb protection applies when the entries are inflated.
+ */
+public class ExpenseXlsxReader implements ImportRecordReader {
+
+private static final Logger log = LoggerFactory.getLogger(ExpenseXlsxReader.class);
+
+/** Message for files that are not readable XLSX spreadsheets. */
+static final String INVALID_MESSAGE =
+	"Failed to read spreadsheet. Please ensure it is a valid .xlsx file with columns: date,merchant,amount,bank,category";
+
+private static final XMLInputFactory XML_INPUT_FACTORY = XMLHelper.newXMLInputFactory();
+
+private final Path file;
+private final OPCPackage workbook;
+private final ReadOnlySharedStringsTable sharedStrings;
+private final StylesTable styles;
+private final boolean date1904;
+private final InputStream sheet;
+private final XMLStreamReader xml;
+private final List<String> cells = new ArrayList<>();
+private boolean started;
+private List<String> header = List.of();
+private int width;
+private int recordNumber;
+
+private ExpenseXlsxReader(
+	Path file,
+	OPCPackage workbook,
+	ReadOnlySharedStringsTable sharedStrings,
+	StylesTable styles,
+	boolean date1904,
+	InputStream sheet,
+	XMLStreamReader xml) {
+	this.file = file;
+	this.workbook = workbook;
+	this.sharedStrings = sharedStrings;
+	this.styles = styles;
+	this.date1904 = date1904;
+	this.sheet = sheet;
+	this.xml = xml;
+}
+
+/**
+* Returns whether a stream holds a spreadsheet rather than CSV, without consuming it.
+*
+* @param in the upload
+* @return true if the stream starts like a zip file, as XLSX files do
+* @throws CsvImportException if the stream holds a legacy binary Excel (.xls) file
+* @throws IOException if the stream cannot be read
+*/
+static boolean isSpreadsheet(BufferedInputStream in) throws IOException {
+	in.mark(4);
+	byte[] magic = new byte[4];
+	int read = in.readNBytes(magic, 0, magic.length);
+	in.reset();
+	if (read < 4) {
+		return false;
+	}
+
+	int signature =
+		(magic[0] & 0xff) << 24 | (magic[1] & 0xff) << 16 | (magic[2] & 0xff) << 8 | (magic[3] & 0xff);
+	// OLE2 compound document, used by Excel 97-2003
+	if (signature == 0xd0cf11e0) {
+		throw new CsvImportException(
+			"Legacy Excel (.xls) files are not supported. Please save the file as .xlsx or CSV");
+	}
+	// Local file header of a zip archive
+	return signature == 0x504b0304;
+}
+
+/**
+* Opens the first worksheet of an XLSX upload.
+*
+* @param in the upload
+* @param spoolDirectory directory for the temporary copy of the upload
+* @param maxBytes the maximum size of the upload
+* @return the reader
+* @throws IOException if the upload cannot be copied
+* @throws CsvImportException if the upload exceeds {@code maxBytes} or is not a valid XLSX file,
+*     including one that POI's zip bomb protection rejects
+*/
+static ExpenseXlsxReader open(InputStream in, Path spoolDirectory, long maxBytes)
+	throws IOException {
+	Files.createDirectories(spoolDirectory);
+	Path file = Files.createTempFile(spoolDirectory, "import-", ".xlsx");
+	try (InputStream limited = new LimitedInputStream(in, maxBytes)) {
+		Files.copy(limited, file, StandardCopyOption.REPLACE_EXISTING);
+	} catch (IOException | RuntimeException e) {
+		closeQuietly(null, null, file);
+		throw e;
+	}
+
+	OPCPackage workbook = null;
+	InputStream sheet = null;
+	try {
+		workbook = OPCPackage.open(file.toFile(), PackageAccess.READ);
+		XSSFReader reader = new XSSFReader(workbook);
+		ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(workbook);
+		StylesTable styles = reader.getStylesTable();
+		boolean date1904;
+		try (InputStream workbookData = reader.getWorkbookData()) {
+			date1904 = isDate1904(workbookData);
+		}
+		Iterator<InputStream> sheets = reader.getSheetsData();
+		if (!sheets.hasNext()) {
+			throw new CsvImportException(INVALID_MESSAGE);
+		}
+		sheet = sheets.next();
+		XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(sheet);
+		return new ExpenseXlsxReader(file, workbook, sharedStrings, styles, date1904, sheet, xml);
+	} catch (CsvImportException e) {
+		closeQuietly(sheet, workbook, file);
+		throw e;
+	} catch (IOException
+		| OpenXML4JException
+		| SAXException
+		| XMLStreamException
+		| RuntimeException e) {
+		closeQuietly(sheet, workbook, file);
+		throw new CsvImportException(INVALID_MESSAGE, e);
+	}
+}
+
+@Override
+public boolean readRecord(RowChunk chunk) throws IOException {
+	try {
+		if (!started) {
+			started = true;
+			// The header is not validated; it only helps to detect the column order
+			if (!readRow()) {
+				return false;
+			}
+			header = List.copyOf(cells);
+			width = cells.size();
+		}
+		if (!readRow()) {
+			return false;
+		}
+	} catch (XMLStreamException e) {
+		throw new CsvImportException(INVALID_MESSAGE, e);
+	}
+
+	recordNumber++;
+	chunk.startRow(recordNumber);
+	for (int column = 0; column < Math.max(cells.size(), width); column++) {
+		chunk.startField();
+		if (column < cells.size()) {
+			chunk.append(cells.get(column).getBytes(StandardCharsets.UTF_8));
+		}
+		chunk.endField();
+	}
+	chunk.endRow();
+	return true;
+}
+
+@Override
+public List<String> getHeader() {
+	return header;
+}
+
+@Override
+public int getRecordNumber() {
+	return recordNumber;
+}
+
+@Override
+public void close() throws IOException {
+	try {
+		xml.close();
+	} catch (XMLStreamException e) {
+		log.debug("Failed to close spreadsheet parser", e);
+	}
+	closeQuietly(sheet, workbook, file);
+}
+
+/** Reads the next row with at least one non-blank cell into {@link #cells}. */
+private boolean readRow() throws XMLStreamException {
+	while (xml.hasNext()) {
+		if (xml.next() == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("row")) {
+			readCells();
+			if (cells.stream().anyMatch(cell -> !cell.isBlank())) {
+				return true;
+			}
+		}
+	}
+	return false;
+}
+
+/** Reads the cells of the current row, filling skipped columns with blanks. */
+private void readCells() throws XMLStreamException {
+	cells.clear();
+	while (xml.hasNext()) {
+		int event = xml.next();
+		if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("row")) {
+			return;
+		}
+		if (event == XMLStreamConstants.START_ELEMENT && xml.getLocalName().equals("c")) {
+			String reference = xml.getAttributeValue(null, "r");
+			int column = reference != null ? columnOf(reference) : cells.size();
+			while (cells.size() < column) {
+				cells.add("");
+			}
+			cells.add(readCell(xml.getAttributeValue(null, "t"), xml.getAttributeValue(null, "s")));
+		}
+	}
+}
+
+/** Reads a cell up to its end tag and returns its value as text. */
+private String readCell(String type, String style) throws XMLStreamException {
+	String value = null;
+	StringBuilder inlineText = null;
+	while (xml.hasNext()) {
+		int event = xml.next();
+		if (event == XMLStreamConstants.START_ELEMENT) {
+			if (xml.getLocalName().equals("v")) {
+				value = xml.getElementText();
+			} else if (xml.getLocalName().equals("t")) {
+				// Inline string, possibly split into rich text runs
+				if (inlineText == null) {
+					inlineText = new StringBuilder();
+				}
+				inlineText.append(xml.getElementText());
+			}
+		} else if (event == XMLStreamConstants.END_ELEMENT && xml.getLocalName().equals("c")) {
+			break;
+		}
+	}
+
+	if (inlineText != null) {
+		return inlineText.toString();
+	}
+	if (value == null) {
+		return "";
+	}
+	if (type == null || type.equals("n")) {
+		return formatNumber(value, style);
+	}
+	return switch (type) {
+		case "s" -> sharedStrings.getItemAt(Integer.parseInt(value)).getString();
+		case "b" -> value.equals("1") ? "TRUE" : "FALSE";
+		// Inline formula results ("str"), ISO dates ("d") and errors ("e") are already text
+		default -> value;
+	};
+}
+
+/** Formats a numeric cell as an ISO date if its style is a date format, or as a plain number. */
+private String formatNumber(String value, String style) {
+	try {
+		double number = Double.parseDouble(value);
+		if (style != null) {
+			XSSFCellStyle cellStyle = styles.getStyleAt(Integer.parseInt(style));
+			if (cellStyle != null
+				&& DateUtil.isADateFormat(cellStyle.getDataFormat(), cellStyle.getDataFormatString())
+				&& DateUtil.isValidExcelDate(number)) {
+				return DateUtil.getLocalDateTime(number, date1904).toLocalDate().toString();
+			}
+		}
+		return new BigDecimal(value).toPlainString();
+	} catch (NumberFormatException e) {
+		// Left for the row parser to report
+		return value;
+	}
+}
+
+/** Returns whether {@code workbook.xml} selects the 1904 date system with {@code workbookPr}. */
+private static boolean isDate1904(InputStream workbookData) throws XMLStreamException {
+	XMLStreamReader xml = XML_INPUT_FACTORY.createXMLStreamReader(workbookData);
+	try {
+		while (xml.hasNext()) {
+			if (xml.next() == XMLStreamConstants.START_ELEMENT) {
+				if (xml.getLocalName().equals("workbookPr")) {
+					String value = xml.getAttributeValue(null, "date1904");
+					return "1".equals(value) || "true".equals(value);
+				}
+				if (xml.getLocalName().equals("sheets")) {
+					// workbookPr comes before the sheets, if at all
+					return false;
+				}
+			}
+		}
+		return false;
+	} finally {
+		xml.close();
+	}
+}
+
+/** Converts the column letters of a cell reference such as {@code "C12"} to a zero-based index. */
+private static int columnOf(String reference) {
+	int column = 0;
+	for (int i = 0; i < reference.length(); i++) {
+		char c = reference.charAt(i);
+		if (c < 'A' || c > 'Z') {
+			break;
+		}
+		column = column * 26 + (c - 'A' + 1);
+	}
+	return column - 1;
+}
+
+private static void closeQuietly(InputStream sheet, OPCPackage workbook, Path file) {
+	try {
+		if (sheet != null) {
+			sheet.close();
+		}
+	} catch (IOException e) {
+		log.debug("Failed to close worksheet", e);
+	}
+	if (workbook != null) {
+		// Opened read-only; revert closes it without writing anything back
+		workbook.revert();
+	}
+	try {
+		Files.deleteIfExists(file);
+	} catch (IOException e) {
+		log.warn("Failed to delete spreadsheet copy {}", file, e);
+	}
+}
+}
@@ -0,0 +1,9 @@
+package com.tgboyles.frugalfox.expense;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/** Configuration for background expense exports. */
+@Configuration
+@EnableConfigurationProperties(ExportProperties.class)
+public class ExportConfig {}
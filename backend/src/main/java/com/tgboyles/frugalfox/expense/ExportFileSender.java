@@ -0,0 +1,124 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Sends a finished export file, honouring a single {@code Range} request so interrupted downloads
+ * can be resumed.
+ *
+ * <p>The file is handed to the container's sendfile support when it has one (Tomcat's NIO
+ * connector), so the kernel copies it to the socket without it passing through the JVM; otherwise
+ * it is copied with {@link FileChannel#transferTo}. Requests for several ranges, malformed ranges
+ * and ranges whose {@code If-Range} does not match the file get the whole file, which the HTTP
+ * spec allows.
+ */
+final class ExportFileSender {
+
+/** Request attribute set by Tomcat when the connector can send files with sendfile. */
+private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+
+private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+/** Smaller responses are cheaper to copy than to hand to sendfile (Tomcat's own threshold). */
+private static final long SENDFILE_MIN_SIZE = 48 * 1024;
+
+private ExportFileSender() {}
+
+/**
+* Sends a file, or the requested part of it.
+*
+* @param file the file to send; it must not change while it can be downloaded
+* @param length the size of the file in bytes
+* @param etag the strong entity tag identifying the file, including its quotes
+* @param request the request, for the Range and If-Range headers
+* @param response the response, which receives the status, the length and range headers and the
+*     body; content type and disposition must be set by the caller
+* @throws IOException if the file cannot be read or the response cannot be written
+*/
+static void send(
+	Path file, long length, String etag, HttpServletRequest request, HttpServletResponse response)
+	throws IOException {
+	response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+	response.setHeader(HttpHeaders.ETAG, etag);
+
+	long start = 0;
+	long end = length - 1;
+	HttpRange range = requestedRange(request, etag);
+	if (range == null) {
+		response.setStatus(HttpStatus.OK.value());
+	} else {
+		try {
+			start = range.getRangeStart(length);
+			end = range.getRangeEnd(length);
+		} catch (IllegalArgumentException e) {
+			start = length;
+		}
+		if (start > end) {
+			response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+			response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+			return;
+		}
+		response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+		response.setHeader(
+			HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+	}
+
+	long count = end - start + 1;
+	response.setContentLengthLong(count);
+	if (count >= SENDFILE_MIN_SIZE && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+		// The container sends the file after the handler returns
+		request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+		request.setAttribute(SENDFILE_START, start);
+		request.setAttribute(SENDFILE_END, end + 1);
+		return;
+	}
+
+	try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+		WritableByteChannel target = Channels.newChannel(response.getOutputStream());
+		long position = start;
+		while (position <= end) {
+			long sent = channel.transferTo(position, end + 1 - position, target);
+			if (sent <= 0) {
+				throw new IOException("Export file " + file + " is shorter than " + length + " bytes");
+			}
+			position += sent;
+		}
+	}
+}
+
+/**
+* Returns the single range to send, or null to send the whole file.
+*/
+private static HttpRange requestedRange(HttpServletRequest request, String etag) {
+	String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+	if (rangeHeader == null) {
+		return null;
+	}
+	String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+	if (ifRange != null && !ifRange.trim().equals(etag)) {
+		return null;
+	}
+	List<HttpRange> ranges;
+	try {
+		ranges = HttpRange.parseRanges(rangeHeader);
+	} catch (IllegalArgumentException e) {
+		return null;
+	}
+	return ranges.size() == 1 ? ranges.get(0) : null;
+}
+}
@@ -0,0 +1,95 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+
+/** File formats that expenses can be exported in. */
+public enum ExportFormat {
+
+/** Comma-separated values in the import format ({@code date,merchant,amount,bank,category}). */
+CSV("text/csv", "csv") {
+	@Override
+	ExpenseExportWriter open(OutputStream out) throws IOException {
+		return new CsvExpenseExportWriter(out);
+	}
+},
+
+/** Newline-delimited JSON: one compact JSON object per expense and line. */
+NDJSON("application/x-ndjson", "ndjson") {
+	@Override
+	ExpenseExportWriter open(OutputStream out) throws IOException {
+		return new NdjsonExpenseExportWriter(out);
+	}
+};
+
+private final String contentType;
+private final String extension;
+
+ExportFormat(String contentType, String extension) {
+	this.contentType = contentType;
+	this.extension = extension;
+}
+
+/**
+* Returns the content type of exported files.
+*
+* @return the content type
+*/
+public String getContentType() {
+	return contentType;
+}
+
+/**
+* Returns the file name extension of exported files, without a dot.
+*
+* @return the extension
+*/
+public String getExtension() {
+	return extension;
+}
+
+/**
+* Starts writing an export to a stream.
+*
+* @param out the stream to write to; it is not closed by the writer
+* @return the writer
+* @throws IOException if writing the header fails
+*/
+abstract ExpenseExportWriter open(OutputStream out) throws IOException;
+
+/**
+* Resolves the format of an export request. An explicit {@code format} parameter wins; otherwise
+* the first CSV or NDJSON media type in the {@code Accept} header is used, and CSV if there is
+* none.
+*
+* @param format the {@code format} parameter ({@code csv} or {@code ndjson}), or null
+* @param accept the {@code Accept} header, or null
+* @return the export format
+* @throws IllegalArgumentException if the format parameter or the Accept header is invalid
+*/
+public static ExportFormat resolve(String format, String accept) {
+	if (format != null) {
+		for (ExportFormat candidate : values()) {
+			if (candidate.extension.equalsIgnoreCase(format)) {
+				return candidate;
+			}
+		}
+		throw new IllegalArgumentException(
+			"Unsupported export format: " + format + ". Expected csv or ndjson");
+	}
+	if (accept != null) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+		for (MediaType mediaType : mediaTypes) {
+			for (ExportFormat candidate : values()) {
+				if (mediaType.equalsTypeAndSubtype(MediaType.parseMediaType(candidate.contentType))) {
+					return candidate;
+				}
+			}
+		}
+	}
+	return CSV;
+}
+}
@@ -0,0 +1,142 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A background expense export.
+ *
+ * <p>The export is written to a file in {@code frugalfox.export.spool-directory}; once the job has
+ * completed, the file can be downloaded (with {@code Range} requests) until the job expires after
+ * {@code frugalfox.export.retention}.
+ */
+public class ExportJob {
+
+private final String jobId;
+private final Long userId;
+private final ExportFormat format;
+private final Path file;
+private final LocalDateTime createdAt;
+
+private volatile ExportJobStatus status = ExportJobStatus.QUEUED;
+private volatile long rowsWritten;
+private volatile long size;
+private volatile String error;
+private volatile LocalDateTime completedAt;
+private volatile LocalDateTime expiresAt;
+
+/**
+* Creates a queued job writing to the given file.
+*
+* @param userId the ID of the user who owns the job
+* @param format the format of the export file
+* @param file the export file
+*/
+public ExportJob(Long userId, ExportFormat format, Path file) {
+	this.jobId = UUID.randomUUID().toString();
+	this.userId = userId;
+	this.format = format;
+	this.file = file;
+	this.createdAt = LocalDateTime.now();
+}
+
+// State transitions
+
+void markRunning() {
+	status = ExportJobStatus.RUNNING;
+}
+
+void complete(long rowsWritten, long size, Duration retention) {
+	this.rowsWritten = rowsWritten;
+	this.size = size;
+	finish(ExportJobStatus.COMPLETED, retention);
+}
+
+void fail(String error, Duration retention) {
+	this.error = error;
+	finish(ExportJobStatus.FAILED, retention);
+}
+
+private void finish(ExportJobStatus finalStatus, Duration retention) {
+	this.completedAt = LocalDateTime.now();
+	this.expiresAt = completedAt.plus(retention);
+	this.status = finalStatus;
+}
+
+/**
+* Returns whether the job has finished and its retention has passed.
+*
+* @return true if the job and its file should be removed
+*/
+boolean isExpired() {
+	LocalDateTime expiry = expiresAt;
+	return expiry != null && !expiry.isAfter(LocalDateTime.now());
+}
+
+// Getters
+
+public String getJobId() {
+	return jobId;
+}
+
+@JsonIgnore
+public Long getUserId() {
+	return userId;
+}
+
+public ExportFormat getFormat() {
+	return format;
+}
+
+@JsonIgnore
+public Path getFile() {
+	return file;
+}
+
+public ExportJobStatus getStatus() {
+	return status;
+}
+
+/**
+* Returns the number of expenses in the export file.
+*
+* @return the row count, or 0 until the job has completed
+*/
+public long getRowsWritten() {
+	return rowsWritten;
+}
+
+/**
+* Returns the size of the export file in bytes.
+*
+* @return the size, or 0 until the job has completed
+*/
+public long getSize() {
+	return size;
+}
+
+public String getError() {
+	return error;
+}
+
+public LocalDateTime getCreatedAt() {
+	return createdAt;
+}
+
+public LocalDateTime getCompletedAt() {
+	return completedAt;
+}
+
+/**
+* Returns when the job and its file are removed.
+*
+* @return the expiry time, or null until the job has finished
+*/
+public LocalDateTime getExpiresAt() {
+	return expiresAt;
+}
+}
@@ -0,0 +1,11 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an export job is not found, has expired or belongs to another user.
+ */
+public class ExportJobNotFoundException extends RuntimeException {
+
+public ExportJobNotFoundException(String jobId) {
+	super("Export job not found with id: " + jobId);
+}
+}
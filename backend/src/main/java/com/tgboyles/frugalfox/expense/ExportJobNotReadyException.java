@@ -0,0 +1,12 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when the file of an export job is requested before the job has completed, or
+ * after it has failed.
+ */
+public class ExportJobNotReadyException extends RuntimeException {
+
+public ExportJobNotReadyException(String message) {
+	super(message);
+}
+}
@@ -0,0 +1,191 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tgboyles.frugalfox.user.User;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs expense exports in the background.
+ *
+ * <p>Each job streams the matching expenses from the database into a file in
+ * {@code frugalfox.export.spool-directory}. The job holds a database connection only while the
+ * file is written; downloads are served from disk, so a slow client does not keep a connection
+ * or a request thread busy for the length of the export. At most
+ * {@code frugalfox.export.threads} exports run at once and {@code frugalfox.export.max-queued}
+ * wait; further jobs are rejected with {@link ExportRejectedException}.
+ *
+ * <p>Jobs are kept in memory and are scoped to the user who submitted them. Finished jobs and
+ * their files are deleted once they are older than {@code frugalfox.export.retention}.
+ */
+@Service
+public class ExportJobService {
+
+private static final Logger log = LoggerFactory.getLogger(ExportJobService.class);
+
+private static final int FILE_BUFFER_SIZE = 64 * 1024;
+
+private final ExpenseService expenseService;
+private final ExportProperties exportProperties;
+private final ThreadPoolExecutor executor;
+private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+public ExportJobService(ExpenseService expenseService, ExportProperties exportProperties) {
+	this.expenseService = expenseService;
+	this.exportProperties = exportProperties;
+
+	AtomicInteger threadCount = new AtomicInteger();
+	this.executor =
+		new ThreadPoolExecutor(
+			exportProperties.getThreads(),
+			exportProperties.getThreads(),
+			0L,
+			TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(exportProperties.getMaxQueued()),
+			runnable -> {
+				Thread thread = new Thread(runnable, "export-job-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+}
+
+/**
+* Queues an export of the expenses matching the criteria.
+*
+* @param criteria the search criteria to filter expenses
+* @param user the user who owns the expenses
+* @param sort the order to export expenses in
+* @param format the file format to write
+* @return the queued job
+* @throws ExportRejectedException if the export queue is full
+*/
+public ExportJob submit(
+	ExpenseSearchCriteria criteria, User user, Sort sort, ExportFormat format) {
+	Path file;
+	try {
+		Files.createDirectories(exportProperties.getSpoolDirectory());
+		file =
+			Files.createTempFile(
+				exportProperties.getSpoolDirectory(), "export-", "." + format.getExtension());
+	} catch (IOException e) {
+		throw new UncheckedIOException("Failed to create export file", e);
+	}
+
+	ExportJob job = new ExportJob(user.getId(), format, file);
+	jobs.put(job.getJobId(), job);
+	try {
+		executor.execute(() -> run(job, criteria, user, sort));
+	} catch (RejectedExecutionException e) {
+		jobs.remove(job.getJobId());
+		deleteQuietly(file);
+		throw new ExportRejectedException("Too many exports are in progress. Please try again later.");
+	}
+	return job;
+}
+
+/**
+* Retrieves an export job for the given user.
+*
+* @param jobId the job ID
+* @param user the user
+* @return the job
+* @throws ExportJobNotFoundException if the job does not exist, has expired or belongs to another
+*     user
+*/
+public ExportJob getJob(String jobId, User user) {
+	ExportJob job = jobs.get(jobId);
+	if (job == null || !job.getUserId().equals(user.getId()) || job.isExpired()) {
+		throw new ExportJobNotFoundException(jobId);
+	}
+	return job;
+}
+
+/**
+* Retrieves a completed export job whose file can be downloaded.
+*
+* @param jobId the job ID
+* @param user the user
+* @return the job
+* @throws ExportJobNotFoundException if the job does not exist, has expired or belongs to another
+*     user
+* @throws ExportJobNotReadyException if the job is still running or has failed
+*/
+public ExportJob getCompletedJob(String jobId, User user) {
+	ExportJob job = getJob(jobId, user);
+	if (job.getStatus() == ExportJobStatus.FAILED) {
+		throw new ExportJobNotReadyException("Export job " + jobId + " failed: " + job.getError());
+	}
+	if (job.getStatus() != ExportJobStatus.COMPLETED) {
+		throw new ExportJobNotReadyException(
+			"Export job " + jobId + " has not completed yet. Please try again later.");
+	}
+	if (!Files.exists(job.getFile())) {
+		throw new ExportJobNotFoundException(jobId);
+	}
+	return job;
+}
+
+/** Deletes finished jobs and their files once they are older than the configured retention. */
+@Scheduled(fixedDelayString = "${frugalfox.export.eviction-interval:60000}")
+public void evictExpiredJobs() {
+	jobs.values()
+		.removeIf(
+			job -> {
+				if (!job.isExpired()) {
+					return false;
+				}
+				deleteQuietly(job.getFile());
+				return true;
+			});
+}
+
+@PreDestroy
+void shutdown() {
+	executor.shutdownNow();
+	jobs.values().forEach(job -> deleteQuietly(job.getFile()));
+	jobs.clear();
+}
+
+private void run(ExportJob job, ExpenseSearchCriteria criteria, User user, Sort sort) {
+	job.markRunning();
+	try {
+		long rows;
+		try (OutputStream out =
+			new BufferedOutputStream(Files.newOutputStream(job.getFile()), FILE_BUFFER_SIZE)) {
+			rows = expenseService.exportExpenses(criteria, user, sort, job.getFormat(), out);
+		}
+		job.complete(rows, Files.size(job.getFile()), exportProperties.getRetention());
+	} catch (Exception e) {
+		log.error("Export job {} failed", job.getJobId(), e);
+		deleteQuietly(job.getFile());
+		job.fail("An unexpected error occurred", exportProperties.getRetention());
+	}
+}
+
+private void deleteQuietly(Path file) {
+	try {
+		Files.deleteIfExists(file);
+	} catch (IOException e) {
+		log.warn("Failed to delete export file {}", file, e);
+	}
+}
+}
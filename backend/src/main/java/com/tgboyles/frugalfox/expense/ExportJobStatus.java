@@ -0,0 +1,18 @@
+package com.tgboyles.frugalfox.expense;
+
+/** Lifecycle states of a background {@link ExportJob}. */
+public enum ExportJobStatus {
+QUEUED,
+RUNNING,
+COMPLETED,
+FAILED;
+
+/**
+* Returns whether the job has finished and will not change state again.
+*
+* @return true for completed and failed jobs
+*/
+public boolean isTerminal() {
+	return this == COMPLETED || this == FAILED;
+}
+}
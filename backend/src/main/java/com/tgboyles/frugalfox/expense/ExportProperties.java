@@ -0,0 +1,60 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Configuration properties for background expense exports ({@code frugalfox.export.*}).
+ *
+ * <p>Export jobs write their file to the spool directory and hold a database connection only
+ * while they do; downloads are served from disk until the file expires.
+ */
+@ConfigurationProperties(prefix = "frugalfox.export")
+public class ExportProperties {
+
+/** Directory where export files are written. */
+private Path spoolDirectory = Path.of(System.getProperty("java.io.tmpdir"), "frugalfox-exports");
+
+/** How long finished export jobs and their files are kept before they expire. */
+private Duration retention = Duration.ofHours(1);
+
+/** Number of export jobs that run at once, each holding one database connection. */
+private int threads = 2;
+
+/** Number of export jobs that may wait for a thread before new ones are rejected. */
+private int maxQueued = 20;
+
+public Path getSpoolDirectory() {
+	return spoolDirectory;
+}
+
+public void setSpoolDirectory(Path spoolDirectory) {
+	this.spoolDirectory = spoolDirectory;
+}
+
+public Duration getRetention() {
+	return retention;
+}
+
+public void setRetention(Duration retention) {
+	this.retention = retention;
+}
+
+public int getThreads() {
+	return threads;
+}
+
+public void setThreads(int threads) {
+	this.threads = threads;
+}
+
+public int getMaxQueued() {
+	return maxQueued;
+}
+
+public void setMaxQueued(int maxQueued) {
+	this.maxQueued = maxQueued;
+}
+}
@@ -0,0 +1,12 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an export job cannot be accepted right now because the export queue is
+ * full. Clients should retry later.
+ */
+public class ExportRejectedException extends RuntimeException {
+
+public ExportRejectedException(String message) {
+	super(message);
+}
+}
@@ -0,0 +1,146 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.ByteBuffer;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * A set of {@link ExpenseFingerprint} digests, used by dry runs to collect the distinct rows of a
+ * file in memory.
+ *
+ * <p>The raw 32 byte digests are stored inline in an open-addressing table of {@code long}s, four
+ * per digest, instead of as a hex string and a hash node per row, so the 500,000 rows of the
+ * default quota take 16 to 32MB. The all-zero digest marks an empty slot; SHA-256 does not produce
+ * it in practice. Iterating returns the hex form stored in {@code expenses.fingerprint}.
+ *
+ * <p>Not thread-safe; the rows of an import are added in file order by a single thread.
+ */
+final class FingerprintSet implements Iterable<String> {
+
+private static final int DIGEST_LENGTH = 32;
+
+private static final int LONGS_PER_DIGEST = DIGEST_LENGTH / Long.BYTES;
+
+private static final int INITIAL_CAPACITY = 1024;
+
+private static final HexFormat HEX = HexFormat.of();
+
+private long[] table = new long[INITIAL_CAPACITY * LONGS_PER_DIGEST];
+
+private int size;
+
+/**
+* Adds a digest to the set.
+*
+* @param digest the 32 byte SHA-256 digest
+* @return {@code true} if the set did not contain the digest yet
+*/
+boolean add(byte[] digest) {
+	if (digest.length != DIGEST_LENGTH) {
+		throw new IllegalArgumentException("Expected a 32 byte digest, got " + digest.length);
+	}
+	// Keep the table at most half full, so probes stay short
+	if ((size + 1) * 2 > capacity()) {
+		resize();
+	}
+	ByteBuffer buffer = ByteBuffer.wrap(digest);
+	long[] words = new long[LONGS_PER_DIGEST];
+	for (int i = 0; i < LONGS_PER_DIGEST; i++) {
+		words[i] = buffer.getLong();
+	}
+	if (insert(table, words, 0)) {
+		size++;
+		return true;
+	}
+	return false;
+}
+
+/** Returns the number of distinct digests in the set. */
+int size() {
+	return size;
+}
+
+@Override
+public Iterator<String> iterator() {
+	return new Iterator<>() {
+		private int slot = nextOccupied(0);
+
+		@Override
+		public boolean hasNext() {
+			return slot < capacity();
+		}
+
+		@Override
+		public String next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			StringBuilder hex = new StringBuilder(DIGEST_LENGTH * 2);
+			int offset = slot * LONGS_PER_DIGEST;
+			for (int i = 0; i < LONGS_PER_DIGEST; i++) {
+				hex.append(HEX.toHexDigits(table[offset + i]));
+			}
+			slot = nextOccupied(slot + 1);
+			return hex.toString();
+		}
+	};
+}
+
+private int capacity() {
+	return table.length / LONGS_PER_DIGEST;
+}
+
+private int nextOccupied(int slot) {
+	while (slot < capacity() && isEmpty(table, slot * LONGS_PER_DIGEST)) {
+		slot++;
+	}
+	return slot;
+}
+
+private void resize() {
+	long[] grown = new long[table.length * 2];
+	for (int offset = 0; offset < table.length; offset += LONGS_PER_DIGEST) {
+		if (!isEmpty(table, offset)) {
+			insert(grown, table, offset);
+		}
+	}
+	table = grown;
+}
+
+/** Inserts the digest at {@code source[offset]} unless {@code target} already holds it. */
+private static boolean insert(long[] target, long[] source, int offset) {
+	int mask = target.length / LONGS_PER_DIGEST - 1;
+	// SHA-256 output is uniformly distributed, so its first bits are a good enough hash
+	int slot = (int) source[offset] & mask;
+	while (true) {
+		int base = slot * LONGS_PER_DIGEST;
+		if (isEmpty(target, base)) {
+			System.arraycopy(source, offset, target, base, LONGS_PER_DIGEST);
+			return true;
+		}
+		if (matches(target, base, source, offset)) {
+			return false;
+		}
+		slot = (slot + 1) & mask;
+	}
+}
+
+private static boolean isEmpty(long[] table, int base) {
+	for (int i = 0; i < LONGS_PER_DIGEST; i++) {
+		if (table[base + i] != 0) {
+			return false;
+		}
+	}
+	return true;
+}
+
+private static boolean matches(long[] table, int base, long[] source, int offset) {
+	for (int i = 0; i < LONGS_PER_DIGEST; i++) {
+		if (table[base + i] != source[offset + i]) {
+			return false;
+		}
+	}
+	return true;
+}
+}
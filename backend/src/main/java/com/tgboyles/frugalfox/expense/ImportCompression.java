@@ -0,0 +1,176 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+import io.airlift.compress.zstd.ZstdInputStream;
+
+/**
+ * Detects and decompresses gzip and zstd compressed import files.
+ *
+ * <p>The format is recognized from the first bytes of the file, so compressed uploads need no
+ * special content type or parameter. Decompression is streamed straight into the CSV reader. The
+ * compressed input is limited to the same size quota as the CSV, and the decompressed output must
+ * not exceed the configured ratio to the compressed bytes read so far, which stops a small
+ * "zip bomb" from expanding into an unbounded amount of work before the size quota is reached.
+ */
+final class ImportCompression {
+
+/** Compression formats recognized by their magic bytes. */
+enum Format {
+	NONE,
+	GZIP,
+	ZSTD
+}
+
+private static final int BUFFER_SIZE = 8 * 1024;
+
+private static final String CORRUPT_MESSAGE = "Compressed file is corrupt or truncated";
+
+/** Decompressed bytes allowed regardless of the ratio, so tiny files are never rejected. */
+private static final long RATIO_GRACE_BYTES = 1024 * 1024;
+
+private ImportCompression() {}
+
+/**
+* Returns the CSV content of an import file, decompressing it if it starts with a gzip or zstd
+* header.
+*
+* @param in the uploaded file
+* @param maxCompressedBytes the maximum number of compressed bytes to read
+* @param maxRatio the maximum ratio of decompressed to compressed bytes
+* @return the (decompressed) CSV content
+* @throws IOException if the file cannot be read or its compressed header is corrupt
+* @throws CsvImportException if a limit is exceeded while reading
+*/
+static InputStream decompress(InputStream in, long maxCompressedBytes, int maxRatio)
+	throws IOException {
+	BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+	Format format = detect(buffered);
+	if (format == Format.NONE) {
+		return buffered;
+	}
+
+	LimitedInputStream compressed = new LimitedInputStream(buffered, maxCompressedBytes);
+	InputStream decompressed;
+	try {
+		decompressed =
+			format == Format.GZIP
+				? new GZIPInputStream(compressed, BUFFER_SIZE)
+				: new ZstdInputStream(compressed);
+	} catch (ZipException | EOFException e) {
+		throw new CsvImportException(CORRUPT_MESSAGE, e);
+	}
+	return new RatioLimitedInputStream(decompressed, compressed, maxRatio);
+}
+
+/**
+* Checks that a stream starts with the header of the expected format.
+*
+* @param in the stream
+* @param expected the expected format
+* @return the stream, positioned at its start
+* @throws CsvImportException if the stream is in another format
+* @throws IOException if the stream cannot be read
+*/
+static InputStream require(InputStream in, Format expected) throws IOException {
+	BufferedInputStream buffered = new BufferedInputStream(in, BUFFER_SIZE);
+	if (detect(buffered) != expected) {
+		throw new CsvImportException(
+			"Request body is not valid " + expected.name().toLowerCase() + " data");
+	}
+	return buffered;
+}
+
+/** Peeks at the magic bytes of a stream without consuming them. */
+static Format detect(BufferedInputStream in) throws IOException {
+	in.mark(4);
+	byte[] magic = new byte[4];
+	int read = in.readNBytes(magic, 0, magic.length);
+	in.reset();
+
+	if (read >= 2 && (magic[0] & 0xff) == 0x1f && (magic[1] & 0xff) == 0x8b) {
+		return Format.GZIP;
+	}
+	// Zstandard frame magic number 0xFD2FB528, little-endian
+	if (read == 4
+		&& (magic[0] & 0xff) == 0x28
+		&& (magic[1] & 0xff) == 0xb5
+		&& (magic[2] & 0xff) == 0x2f
+		&& (magic[3] & 0xff) == 0xfd) {
+		return Format.ZSTD;
+	}
+	return Format.NONE;
+}
+
+/**
+* Fails once the decompressed bytes read exceed {@code maxRatio} times the compressed bytes
+* consumed.
+*/
+private static final class RatioLimitedInputStream extends FilterInputStream {
+
+	private final LimitedInputStream compressed;
+	private final int maxRatio;
+	private long count;
+
+	RatioLimitedInputStream(InputStream in, LimitedInputStream compressed, int maxRatio) {
+		super(in);
+		this.compressed = compressed;
+		this.maxRatio = maxRatio;
+	}
+
+	@Override
+	public int read() throws IOException {
+		int b;
+		try {
+			b = super.read();
+		} catch (ZipException | EOFException e) {
+			throw new CsvImportException(CORRUPT_MESSAGE, e);
+		}
+		if (b >= 0) {
+			advance(1);
+		}
+		return b;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int read;
+		try {
+			read = super.read(buffer, offset, length);
+		} catch (ZipException | EOFException e) {
+			throw new CsvImportException(CORRUPT_MESSAGE, e);
+		}
+		if (read > 0) {
+			advance(read);
+		}
+		return read;
+	}
+
+	@Override
+	public long skip(long n) throws IOException {
+		long skipped = super.skip(n);
+		advance(skipped);
+		return skipped;
+	}
+
+	@Override
+	public boolean markSupported() {
+		return false;
+	}
+
+	private void advance(long bytes) {
+		count += bytes;
+		if (count > RATIO_GRACE_BYTES && count > compressed.getCount() * maxRatio) {
+			throw new CsvImportException(
+				String.format(
+					"Compressed file expands more than %d times its size and was rejected", maxRatio));
+		}
+	}
+}
+}
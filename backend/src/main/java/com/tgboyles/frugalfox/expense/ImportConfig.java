@@ -0,0 +1,14 @@
+package com.tgboyles.frugalfox.expense;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Configuration for the expense import pipeline. Scheduling is enabled for the eviction of
+ * finished import jobs.
+ */
+@Configuration
+@EnableConfigurationProperties(ImportProperties.class)
+@EnableScheduling
+public class ImportConfig {}
@@ -0,0 +1,80 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Limits the database connections used by imports to
+ * {@code frugalfox.import.scheduler.connections}.
+ *
+ * <p>Imports and interactive requests share one connection pool. Imports only need a connection
+ * while a batch is written, so every batch write runs inside {@link #call}: once the budget is in
+ * use, further batches wait here, with their rows already parsed, instead of taking the pool's
+ * remaining connections from the CRUD and search endpoints. The number of connections in use is
+ * published as the {@code frugalfox.import.connections.active} gauge.
+ */
+@Component
+public class ImportConnectionBudget implements MeterBinder {
+
+private final int connections;
+private final Semaphore permits;
+
+public ImportConnectionBudget(ImportProperties importProperties) {
+	this.connections = importProperties.getScheduler().getConnections();
+	this.permits = new Semaphore(connections, true);
+}
+
+/**
+* Runs a database operation once a connection from the import budget is free.
+*
+* @param operation the operation, which may use one connection
+* @param <T> the result type
+* @return the result of the operation
+* @throws CsvImportException if the thread is interrupted while waiting
+*/
+public <T> T call(Supplier<T> operation) {
+	try {
+		permits.acquire();
+	} catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		throw new CsvImportException("Import was interrupted", e);
+	}
+	try {
+		return operation.get();
+	} finally {
+		permits.release();
+	}
+}
+
+/**
+* Returns the number of connections imports currently hold.
+*
+* @return the connections in use
+*/
+public int getActiveConnections() {
+	return connections - permits.availablePermits();
+}
+
+/**
+* Returns the number of connections imports may hold at once.
+*
+* @return the budget
+*/
+public int getConnections() {
+	return connections;
+}
+
+@Override
+public void bindTo(MeterRegistry registry) {
+	Gauge.builder(
+			"frugalfox.import.connections.active", this, ImportConnectionBudget::getActiveConnections)
+		.description("Database connections held by imports")
+		.register(registry);
+}
+}
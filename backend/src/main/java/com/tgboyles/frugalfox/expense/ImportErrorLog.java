@@ -0,0 +1,144 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVPrinter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Collects the errors of a single import.
+ *
+ * <p>Every failed row is counted by {@link ImportErrorType} and written to an
+ * {@link ImportErrorReport} on disk, but only the first {@code maxMessages} messages are kept in the
+ * {@link ImportResult}, so a file full of bad rows costs no more memory than a good one. The report
+ * file is only created once the first error occurs.
+ *
+ * <p>Not thread-safe; errors are recorded by the import's writer thread.
+ */
+final class ImportErrorLog {
+
+private static final Logger log = LoggerFactory.getLogger(ImportErrorLog.class);
+
+private static final CSVFormat REPORT_FORMAT =
+	CSVFormat.DEFAULT.builder().setHeader("row", "type", "message").build();
+
+private final ImportErrorReportService reportService;
+private final ImportResult result;
+private final User user;
+private final int maxMessages;
+
+private int messages;
+private ImportErrorReport report;
+private CSVPrinter printer;
+private boolean reportFailed;
+
+ImportErrorLog(
+	ImportErrorReportService reportService, ImportResult result, User user, int maxMessages) {
+	this.reportService = reportService;
+	this.result = result;
+	this.user = user;
+	this.maxMessages = maxMessages;
+}
+
+/**
+* Records a row that failed to parse or validate.
+*
+* @param rowNumber the row number in the file
+* @param type the kind of error
+* @param message the error message
+*/
+void rowFailed(int rowNumber, ImportErrorType type, String message) {
+	result.countError(type, 1);
+	keep(message);
+	write(rowNumber, type, message);
+}
+
+/**
+* Records a batch of rows that could not be saved. The message is kept once, but the report lists
+* every row of the batch.
+*
+* @param rowNumbers the row numbers of the batch
+* @param message the error message
+*/
+void batchFailed(List<Integer> rowNumbers, String message) {
+	result.countError(ImportErrorType.BATCH_FAILED, rowNumbers.size());
+	keep(message);
+	for (int rowNumber : rowNumbers) {
+		write(rowNumber, ImportErrorType.BATCH_FAILED, message);
+	}
+}
+
+/** Completes the report and links it from the import result, if any errors were recorded. */
+void finish() {
+	if (report == null) {
+		return;
+	}
+	if (close()) {
+		reportService.publish(report);
+		result.setErrorReportId(report.getReportId());
+	} else {
+		reportService.delete(report);
+	}
+}
+
+/** Deletes the report of an import that failed as a whole. */
+void discard() {
+	if (report != null) {
+		close();
+		reportService.delete(report);
+	}
+}
+
+private void keep(String message) {
+	if (messages < maxMessages) {
+		result.addError(message);
+		messages++;
+	} else {
+		result.setErrorsTruncated(true);
+	}
+}
+
+private void write(int rowNumber, ImportErrorType type, String message) {
+	if (reportFailed) {
+		return;
+	}
+	try {
+		if (printer == null) {
+			report = reportService.create(user);
+			printer =
+				new CSVPrinter(
+					Files.newBufferedWriter(report.getFile(), StandardCharsets.UTF_8), REPORT_FORMAT);
+		}
+		printer.printRecord(rowNumber, type, message);
+	} catch (IOException e) {
+		// The import itself can go on; it just will not have a downloadable report
+		log.warn("Failed to write import error report; continuing without it", e);
+		reportFailed = true;
+	}
+}
+
+/**
+* Closes the report file.
+*
+* @return true if the report was written completely
+*/
+private boolean close() {
+	if (printer != null) {
+		try {
+			printer.close();
+		} catch (IOException e) {
+			log.warn("Failed to write import error report", e);
+			reportFailed = true;
+		}
+		printer = null;
+	}
+	return !reportFailed;
+}
+}
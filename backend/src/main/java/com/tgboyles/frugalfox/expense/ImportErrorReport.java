@@ -0,0 +1,58 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A CSV file listing every row that failed during an import, with its row number, error type and
+ * message. Reports are written to {@code frugalfox.import.spool-directory} while the import runs
+ * and expire after {@code frugalfox.import.errors.retention}.
+ */
+public class ImportErrorReport {
+
+private final String reportId;
+private final Long userId;
+private final Path file;
+private final LocalDateTime createdAt;
+
+/**
+* Creates a report backed by the given file.
+*
+* @param userId the ID of the user who owns the import
+* @param file the report file
+*/
+public ImportErrorReport(Long userId, Path file) {
+	this.reportId = UUID.randomUUID().toString();
+	this.userId = userId;
+	this.file = file;
+	this.createdAt = LocalDateTime.now();
+}
+
+/**
+* Returns whether the report is older than {@code retention}.
+*
+* @param retention how long reports are kept
+* @return true if the report has expired
+*/
+boolean isExpired(Duration retention) {
+	return !createdAt.plus(retention).isAfter(LocalDateTime.now());
+}
+
+public String getReportId() {
+	return reportId;
+}
+
+public Long getUserId() {
+	return userId;
+}
+
+public Path getFile() {
+	return file;
+}
+
+public LocalDateTime getCreatedAt() {
+	return createdAt;
+}
+}
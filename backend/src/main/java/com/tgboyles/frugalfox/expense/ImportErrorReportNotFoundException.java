@@ -0,0 +1,12 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an import error report is not found, has expired or belongs to another
+ * user.
+ */
+public class ImportErrorReportNotFoundException extends RuntimeException {
+
+public ImportErrorReportNotFoundException(String reportId) {
+	super("Import error report not found with id: " + reportId);
+}
+}
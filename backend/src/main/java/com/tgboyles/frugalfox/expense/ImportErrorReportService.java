@@ -0,0 +1,103 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Stores the error reports written by imports.
+ *
+ * <p>Each import that has failed rows writes them to a report file in
+ * {@code frugalfox.import.spool-directory} through an {@link ImportErrorLog}, so the number of
+ * errors an import can report is bounded by disk space rather than heap. Reports are registered
+ * once the import finishes, kept in memory scoped to the importing user, and deleted after
+ * {@code frugalfox.import.errors.retention}.
+ */
+@Service
+public class ImportErrorReportService {
+
+private static final Logger log = LoggerFactory.getLogger(ImportErrorReportService.class);
+
+private final ImportProperties importProperties;
+private final Map<String, ImportErrorReport> reports = new ConcurrentHashMap<>();
+
+public ImportErrorReportService(ImportProperties importProperties) {
+	this.importProperties = importProperties;
+}
+
+/**
+* Starts collecting the errors of one import into {@code result}.
+*
+* @param result the import result that receives the capped error messages and counts
+* @param user the user running the import
+* @return the error log for the import
+*/
+ImportErrorLog newLog(ImportResult result, User user) {
+	return new ImportErrorLog(this, result, user, importProperties.getErrors().getMaxMessages());
+}
+
+/**
+* Retrieves an error report for the given user.
+*
+* @param reportId the report ID
+* @param user the user
+* @return the report
+* @throws ImportErrorReportNotFoundException if the report does not exist, has expired or
+*     belongs to another user
+*/
+public ImportErrorReport getReport(String reportId, User user) {
+	ImportErrorReport report = reports.get(reportId);
+	if (report == null || !report.getUserId().equals(user.getId()) || !Files.exists(report.getFile())) {
+		throw new ImportErrorReportNotFoundException(reportId);
+	}
+	return report;
+}
+
+/** Deletes reports older than the configured retention. */
+@Scheduled(fixedDelayString = "${frugalfox.import.errors.eviction-interval:60000}")
+public void evictExpiredReports() {
+	reports.values()
+		.removeIf(
+			report -> {
+				if (!report.isExpired(importProperties.getErrors().getRetention())) {
+					return false;
+				}
+				delete(report);
+				return true;
+			});
+}
+
+/**
+* Creates an empty report file for a user's import.
+*
+* @throws IOException if the file cannot be created
+*/
+ImportErrorReport create(User user) throws IOException {
+	Files.createDirectories(importProperties.getSpoolDirectory());
+	Path file = Files.createTempFile(importProperties.getSpoolDirectory(), "errors-", ".csv");
+	return new ImportErrorReport(user.getId(), file);
+}
+
+/** Makes a completely written report available for download. */
+void publish(ImportErrorReport report) {
+	reports.put(report.getReportId(), report);
+}
+
+/** Deletes a report file. */
+void delete(ImportErrorReport report) {
+	try {
+		Files.deleteIfExists(report.getFile());
+	} catch (IOException e) {
+		log.warn("Failed to delete import error report {}", report.getFile(), e);
+	}
+}
+}
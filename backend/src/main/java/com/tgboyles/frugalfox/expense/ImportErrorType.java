@@ -0,0 +1,22 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Kinds of row-level import errors. {@link ImportResult#getErrorCounts()} aggregates failed rows by
+ * type so that a file with many bad rows can be summarized without listing every message.
+ */
+public enum ImportErrorType {
+/** The row does not have the expected number of columns. */
+COLUMN_COUNT,
+/** A required field is blank. */
+MISSING_VALUE,
+/** The date is not a valid date in the file's detected format. */
+INVALID_DATE,
+/** The amount is not numeric. */
+INVALID_AMOUNT,
+/** The parsed expense fails validation. */
+VALIDATION,
+/** The row's batch could not be saved. */
+BATCH_FAILED,
+/** Any other error. */
+UNEXPECTED
+}
@@ -0,0 +1,186 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * An asynchronous expense import.
+ *
+ * <p>The uploaded file is spooled to disk and processed on a background executor. The job tracks
+ * progress while it runs and carries the final {@link ImportResult} once it has finished. Jobs are
+ * kept in memory and expire after {@code frugalfox.import.jobs.retention}.
+ */
+public class ImportJob implements ImportProgress {
+
+private final String jobId;
+private final Long userId;
+private final Path file;
+private final ImportOptions options;
+private final LocalDateTime createdAt;
+private final AtomicInteger rowsParsed = new AtomicInteger();
+private final AtomicInteger rowsSaved = new AtomicInteger();
+private final AtomicInteger rowsSkipped = new AtomicInteger();
+private final AtomicInteger rowsFailed = new AtomicInteger();
+
+private volatile ImportJobStatus status = ImportJobStatus.QUEUED;
+private volatile boolean cancelRequested;
+private volatile ImportResult result;
+private volatile String error;
+private volatile LocalDateTime completedAt;
+private volatile ImportScheduler.QueuedImport queuedImport;
+
+/**
+* Creates a queued job for a spooled upload.
+*
+* @param userId the ID of the user who owns the job
+* @param file the spooled upload
+* @param options the import options
+*/
+public ImportJob(Long userId, Path file, ImportOptions options) {
+	this.jobId = UUID.randomUUID().toString();
+	this.userId = userId;
+	this.file = file;
+	this.options = options;
+	this.createdAt = LocalDateTime.now();
+}
+
+// ImportProgress callbacks
+
+@Override
+public void rowParsed() {
+	rowsParsed.incrementAndGet();
+}
+
+@Override
+public void rowsSaved(int count) {
+	rowsSaved.addAndGet(count);
+}
+
+@Override
+public void rowsSkipped(int count) {
+	rowsSkipped.addAndGet(count);
+}
+
+@Override
+public void rowsFailed(int count) {
+	rowsFailed.addAndGet(count);
+}
+
+@Override
+@JsonIgnore
+public boolean isCancelled() {
+	return cancelRequested;
+}
+
+// State transitions
+
+void requestCancel() {
+	cancelRequested = true;
+}
+
+void queued(ImportScheduler.QueuedImport queuedImport) {
+	this.queuedImport = queuedImport;
+}
+
+/** Withdraws the job from the scheduler. Returns false if it has already been started. */
+boolean withdraw() {
+	ImportScheduler.QueuedImport queued = queuedImport;
+	return queued != null && queued.withdraw();
+}
+
+void markRunning() {
+	status = ImportJobStatus.RUNNING;
+}
+
+void complete(ImportResult result) {
+	this.result = result;
+	if (result.isAborted()) {
+		// Failed partway through; the result tells which rows were saved before it stopped
+		this.error = result.getAbortReason();
+		finish(ImportJobStatus.FAILED);
+		return;
+	}
+	// A cancellation that arrived after the whole file had been read changes nothing
+	finish(result.isCancelled() ? ImportJobStatus.CANCELLED : ImportJobStatus.COMPLETED);
+}
+
+void fail(String error) {
+	this.error = error;
+	finish(ImportJobStatus.FAILED);
+}
+
+void cancel() {
+	finish(ImportJobStatus.CANCELLED);
+}
+
+private void finish(ImportJobStatus finalStatus) {
+	this.completedAt = LocalDateTime.now();
+	this.status = finalStatus;
+}
+
+// Getters
+
+public String getJobId() {
+	return jobId;
+}
+
+@JsonIgnore
+public Long getUserId() {
+	return userId;
+}
+
+@JsonIgnore
+public Path getFile() {
+	return file;
+}
+
+public ImportOptions getOptions() {
+	return options;
+}
+
+public ImportJobStatus getStatus() {
+	return status;
+}
+
+public int getRowsParsed() {
+	return rowsParsed.get();
+}
+
+public int getRowsSaved() {
+	return rowsSaved.get();
+}
+
+public int getRowsSkipped() {
+	return rowsSkipped.get();
+}
+
+public int getRowsFailed() {
+	return rowsFailed.get();
+}
+
+/**
+* Returns the result of the import: set once the job has completed or was cancelled, and for a job
+* that failed after saving some rows, whose result is {@link ImportResult#isAborted() aborted}.
+*
+* @return the result, or null
+*/
+public ImportResult getResult() {
+	return result;
+}
+
+public String getError() {
+	return error;
+}
+
+public LocalDateTime getCreatedAt() {
+	return createdAt;
+}
+
+public LocalDateTime getCompletedAt() {
+	return completedAt;
+}
+}
@@ -0,0 +1,11 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an import job is not found or belongs to another user.
+ */
+public class ImportJobNotFoundException extends RuntimeException {
+
+public ImportJobNotFoundException(String jobId) {
+	super("Import job not found with id: " + jobId);
+}
+}
@@ -0,0 +1,229 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import com.tgboyles.frugalfox.user.User;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Runs expense imports in the background.
+ *
+ * <p>Uploads are spooled to {@code frugalfox.import.spool-directory} and processed in the
+ * background, so request threads are released as soon as the file has been received. Jobs are
+ * started by the {@link ImportScheduler}, which limits how many imports run at once and takes
+ * turns between users; when its queue is full, new jobs are rejected with
+ * {@link ImportRejectedException} rather than piling up on disk.
+ *
+ * <p>Jobs are kept in memory and are scoped to the user who submitted them. Finished jobs are
+ * evicted once they are older than the configured retention.
+ */
+@Service
+public class ImportJobService {
+
+private static final Logger log = LoggerFactory.getLogger(ImportJobService.class);
+
+private final ExpenseService expenseService;
+private final ImportProperties importProperties;
+private final ImportScheduler importScheduler;
+private final ExecutorService executor;
+private final Map<String, ImportJob> jobs = new ConcurrentHashMap<>();
+
+public ImportJobService(
+	ExpenseService expenseService,
+	ImportProperties importProperties,
+	ImportScheduler importScheduler) {
+	this.expenseService = expenseService;
+	this.importProperties = importProperties;
+	this.importScheduler = importScheduler;
+
+	// Threads are only needed for jobs the scheduler has started, so the pool stays within its limit
+	AtomicInteger threadCount = new AtomicInteger();
+	this.executor =
+		Executors.newCachedThreadPool(
+			runnable -> {
+				Thread thread = new Thread(runnable, "import-job-" + threadCount.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+}
+
+/**
+* Spools an uploaded file and queues it for import.
+*
+* @param file the uploaded CSV file
+* @param user the user who owns the expenses
+* @param options the import options
+* @return the queued job
+* @throws ImportRejectedException if the import queue is full
+*/
+public ImportJob submit(MultipartFile file, User user, ImportOptions options) {
+	Path spooled;
+	try {
+		Files.createDirectories(importProperties.getSpoolDirectory());
+		spooled = Files.createTempFile(importProperties.getSpoolDirectory(), "import-", ".csv");
+	} catch (IOException e) {
+		throw new UncheckedIOException("Failed to create spool file", e);
+	}
+
+	try {
+		file.transferTo(spooled);
+	} catch (IOException e) {
+		deleteQuietly(spooled);
+		throw new UncheckedIOException("Failed to spool upload", e);
+	}
+
+	try {
+		return submit(spooled, user, options);
+	} catch (ImportRejectedException e) {
+		deleteQuietly(spooled);
+		throw e;
+	}
+}
+
+/**
+* Queues an already spooled file for import. The file is deleted once the job finishes; if the
+* job is rejected, the file is left to the caller. A job that cannot be started once it is its
+* turn is marked failed and its file deleted.
+*
+* @param file the spooled CSV file
+* @param user the user who owns the expenses
+* @param options the import options
+* @return the queued job
+* @throws ImportRejectedException if the import queue is full
+*/
+public ImportJob submit(Path file, User user, ImportOptions options) {
+	ImportJob job = new ImportJob(user.getId(), file, options);
+	jobs.put(job.getJobId(), job);
+
+	try {
+		job.queued(
+			importScheduler.submit(
+				user,
+				slot ->
+					executor.execute(
+						() -> {
+							try (slot) {
+								run(job, user);
+							}
+						}),
+				failure -> {
+					// The executor refused the job, e.g. during shutdown
+					log.error("Import job {} could not be started", job.getJobId(), failure);
+					deleteQuietly(job.getFile());
+					job.fail("The import could not be started. Please try again.");
+				}));
+	} catch (ImportRejectedException e) {
+		jobs.remove(job.getJobId());
+		throw e;
+	}
+
+	return job;
+}
+
+/**
+* Retrieves an import job for the given user.
+*
+* @param jobId the job ID
+* @param user the user
+* @return the job
+* @throws ImportJobNotFoundException if the job does not exist or belongs to another user
+*/
+public ImportJob getJob(String jobId, User user) {
+	ImportJob job = jobs.get(jobId);
+	if (job == null || !job.getUserId().equals(user.getId())) {
+		throw new ImportJobNotFoundException(jobId);
+	}
+	return job;
+}
+
+/**
+* Requests cancellation of an import job. A queued job is withdrawn from the scheduler and
+* cancelled immediately; a running job stops before its next row, keeping the batches it has
+* already saved, and completes normally if it had already read the whole file. Cancelling a
+* finished job has no effect.
+*
+* @param jobId the job ID
+* @param user the user
+* @return the job
+* @throws ImportJobNotFoundException if the job does not exist or belongs to another user
+*/
+public ImportJob cancel(String jobId, User user) {
+	ImportJob job = getJob(jobId, user);
+	job.requestCancel();
+	if (job.withdraw()) {
+		// It will never start, so nothing else removes its file
+		deleteQuietly(job.getFile());
+		job.cancel();
+	}
+	return job;
+}
+
+/** Evicts finished jobs that are older than the configured retention. */
+@Scheduled(fixedDelayString = "${frugalfox.import.jobs.eviction-interval:60000}")
+public void evictExpiredJobs() {
+	LocalDateTime cutoff = LocalDateTime.now().minus(importProperties.getJobs().getRetention());
+	jobs.values()
+		.removeIf(
+			job -> job.getStatus().isTerminal()
+				&& job.getCompletedAt() != null
+				&& job.getCompletedAt().isBefore(cutoff));
+}
+
+@PreDestroy
+void shutdown() {
+	executor.shutdownNow();
+}
+
+private void run(ImportJob job, User user) {
+	if (job.isCancelled()) {
+		deleteQuietly(job.getFile());
+		job.cancel();
+		return;
+	}
+
+	job.markRunning();
+	ImportResult result = null;
+	String error = null;
+	try (InputStream inputStream = Files.newInputStream(job.getFile())) {
+		result = expenseService.importExpenses(inputStream, user, job.getOptions(), job);
+	} catch (CsvImportException e) {
+		error = e.getMessage();
+	} catch (Exception e) {
+		log.error("Import job {} failed", job.getJobId(), e);
+		error = "An unexpected error occurred";
+	}
+
+	// Remove the spooled upload before publishing the final state
+	deleteQuietly(job.getFile());
+	if (error != null) {
+		job.fail(error);
+	} else {
+		job.complete(result);
+	}
+}
+
+private void deleteQuietly(Path file) {
+	try {
+		Files.deleteIfExists(file);
+	} catch (IOException e) {
+		log.warn("Failed to delete spooled import {}", file, e);
+	}
+}
+}
@@ -0,0 +1,19 @@
+package com.tgboyles.frugalfox.expense;
+
+/** Lifecycle states of an asynchronous {@link ImportJob}. */
+public enum ImportJobStatus {
+QUEUED,
+RUNNING,
+COMPLETED,
+FAILED,
+CANCELLED;
+
+/**
+* Returns whether the job has finished and will not change state again.
+*
+* @return true for completed, failed and cancelled jobs
+*/
+public boolean isTerminal() {
+	return this == COMPLETED || this == FAILED || this == CANCELLED;
+}
+}
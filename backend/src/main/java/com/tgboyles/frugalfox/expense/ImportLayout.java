@@ -0,0 +1,145 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.time.LocalDate;
+
+/**
+ * The layout of an import file's columns and values, as detected by {@link ImportLayoutDetector}.
+ *
+ * <p>A layout is decided once per import from a sample of rows and then applied to every row by
+ * {@link ExpenseRowParser}: the column of each field, the date format and the decimal and
+ * grouping separators of amounts are fixed, so rows are decoded without guessing their format.
+ *
+ * @param dateColumn the column holding the date
+ * @param merchantColumn the column holding the merchant
+ * @param amountColumn the column holding the amount
+ * @param bankColumn the column holding the bank
+ * @param categoryColumn the column holding the category
+ * @param dateFormat the format of the dates
+ * @param decimalSeparator the decimal separator of amounts
+ * @param groupingSeparator the thousands separator of amounts, or 0 if amounts are not grouped
+ */
+public record ImportLayout(
+	int dateColumn,
+	int merchantColumn,
+	int amountColumn,
+	int bankColumn,
+	int categoryColumn,
+	DateFormat dateFormat,
+	char decimalSeparator,
+	char groupingSeparator) {
+
+/** Column names of the standard layout, in order. */
+static final String STANDARD_COLUMNS = "date,merchant,amount,bank,category";
+
+/** The standard layout: date,merchant,amount,bank,category with ISO dates and plain decimals. */
+public static final ImportLayout DEFAULT =
+	new ImportLayout(0, 1, 2, 3, 4, DateFormat.ISO, '.', (char) 0);
+
+/**
+* Returns the number of columns a row needs to hold every field.
+*
+* @return the highest field column plus one
+*/
+public int columnCount() {
+	return Math.max(
+			Math.max(dateColumn, merchantColumn),
+			Math.max(amountColumn, Math.max(bankColumn, categoryColumn)))
+		+ 1;
+}
+
+/**
+* Returns whether amounts use the plain decimal notation of {@link java.math.BigDecimal}.
+*
+* @return true if the decimal separator is a point and amounts are not grouped
+*/
+public boolean plainAmounts() {
+	return decimalSeparator == '.' && groupingSeparator == 0;
+}
+
+/**
+* Numeric date formats recognized in import files. Day and month may have one or two digits;
+* the year always has four.
+*/
+public enum DateFormat {
+	ISO("yyyy-MM-dd", '-', Order.YMD),
+	YMD_SLASH("yyyy/MM/dd", '/', Order.YMD),
+	MDY_SLASH("MM/dd/yyyy", '/', Order.MDY),
+	DMY_SLASH("dd/MM/yyyy", '/', Order.DMY),
+	DMY_DOT("dd.MM.yyyy", '.', Order.DMY),
+	MDY_DASH("MM-dd-yyyy", '-', Order.MDY),
+	DMY_DASH("dd-MM-yyyy", '-', Order.DMY);
+
+	private enum Order {
+		YMD,
+		MDY,
+		DMY
+	}
+
+	private final String pattern;
+	private final byte separator;
+	private final Order order;
+
+	DateFormat(String pattern, char separator, Order order) {
+		this.pattern = pattern;
+		this.separator = (byte) separator;
+		this.order = order;
+	}
+
+	/**
+	* Returns the pattern of the format, in {@link java.time.format.DateTimeFormatter} notation.
+	*
+	* @return the pattern
+	*/
+	public String pattern() {
+		return pattern;
+	}
+
+	/**
+	* Decodes a date in this format directly from bytes.
+	*
+	* @param data the bytes
+	* @param start the offset of the first byte (inclusive)
+	* @param end the offset of the last byte (exclusive)
+	* @return the date, or null if the value is not in this format
+	* @throws java.time.DateTimeException if the value is in this format but is not a valid date
+	*/
+	LocalDate decode(byte[] data, int start, int end) {
+		// Three groups of digits; their values and lengths are packed as value * 8 + length
+		int first = -1;
+		int second = -1;
+		int value = 0;
+		int length = 0;
+		for (int i = start; i < end; i++) {
+			byte b = data[i];
+			if (b >= '0' && b <= '9') {
+				if (++length > 4) {
+					return null;
+				}
+				value = value * 10 + (b - '0');
+			} else if (b == separator && length > 0 && second < 0) {
+				if (first < 0) {
+					first = value * 8 + length;
+				} else {
+					second = value * 8 + length;
+				}
+				value = 0;
+				length = 0;
+			} else {
+				return null;
+			}
+		}
+		if (second < 0 || length == 0) {
+			return null;
+		}
+		int third = value * 8 + length;
+
+		int year = order == Order.YMD ? first : third;
+		int month = order == Order.MDY ? first : second;
+		int day = order == Order.YMD ? third : order == Order.MDY ? second : first;
+		if (year % 8 != 4 || month % 8 > 2 || day % 8 > 2) {
+			return null;
+		}
+		return LocalDate.of(year / 8, month / 8, day / 8);
+	}
+}
+}
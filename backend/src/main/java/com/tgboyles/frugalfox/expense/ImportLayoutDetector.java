@@ -0,0 +1,278 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.time.DateTimeException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Detects the {@link ImportLayout} of an import file from its first rows, so that bank exports can
+ * be imported without reformatting them first.
+ *
+ * <p>Detection runs once per import:
+ *
+ * <ul>
+ *   <li>the field delimiter (comma, semicolon, tab or pipe) is the candidate that splits the first
+ *       lines into the same number of fields, before any row is read;
+ *   <li>the column order comes from the header if every field has a recognized column name (such
+ *       as "Transaction Date" or "Description"), otherwise the standard order is kept;
+ *   <li>the date format is the first format, in the order of {@link ImportLayout.DateFormat}, that
+ *       reads every sampled date, so {@code MM/dd/yyyy} wins over {@code dd/MM/yyyy} unless a day
+ *       above 12 rules it out;
+ *   <li>the decimal and grouping separators are taken from the sampled amounts.
+ * </ul>
+ *
+ * <p>When nothing in the sample points elsewhere, the result is {@link ImportLayout#DEFAULT}, so
+ * files in the standard format are imported exactly as before.
+ */
+final class ImportLayoutDetector {
+
+/** Number of bytes sampled to detect the delimiter. */
+static final int DELIMITER_SAMPLE_BYTES = 16 * 1024;
+
+/** Delimiters in order of preference. */
+private static final char[] DELIMITERS = {',', ';', '\t', '|'};
+
+/** Number of lines sampled to detect the delimiter. */
+private static final int DELIMITER_SAMPLE_LINES = 20;
+
+/** Recognized column names, after {@link #normalize} removed case, spaces and punctuation. */
+private static final Map<String, Integer> COLUMN_NAMES =
+	Map.ofEntries(
+		Map.entry("date", 0),
+		Map.entry("transactiondate", 0),
+		Map.entry("transdate", 0),
+		Map.entry("posteddate", 0),
+		Map.entry("postingdate", 0),
+		Map.entry("bookingdate", 0),
+		Map.entry("merchant", 1),
+		Map.entry("description", 1),
+		Map.entry("payee", 1),
+		Map.entry("name", 1),
+		Map.entry("amount", 2),
+		Map.entry("value", 2),
+		Map.entry("bank", 3),
+		Map.entry("account", 3),
+		Map.entry("accountname", 3),
+		Map.entry("institution", 3),
+		Map.entry("category", 4));
+
+private ImportLayoutDetector() {}
+
+/**
+* Detects the field delimiter from the first lines of a file, without consuming them.
+*
+* @param in the file
+* @return the delimiter; a comma if no other delimiter splits the lines consistently
+* @throws IOException if the file cannot be read
+*/
+static char detectDelimiter(BufferedInputStream in) throws IOException {
+	in.mark(DELIMITER_SAMPLE_BYTES);
+	byte[] sample = in.readNBytes(DELIMITER_SAMPLE_BYTES);
+	in.reset();
+
+	List<int[]> lines = countDelimiters(sample, sample.length < DELIMITER_SAMPLE_BYTES);
+	char best = ',';
+	int bestCount = 0;
+	for (int d = 0; d < DELIMITERS.length; d++) {
+		int count = lines.isEmpty() ? 0 : lines.get(0)[d];
+		for (int[] line : lines) {
+			if (line[d] != count) {
+				count = 0;
+				break;
+			}
+		}
+		if (count > bestCount) {
+			best = DELIMITERS[d];
+			bestCount = count;
+		}
+	}
+	return best;
+}
+
+/**
+* Detects the column order and value formats from the header and a sample of rows.
+*
+* @param header the header fields
+* @param sample the first rows of the file
+* @return the layout
+*/
+static ImportLayout detect(List<String> header, RowChunk sample) {
+	int[] columns = columnsFromHeader(header);
+	ImportLayout.DateFormat dateFormat = detectDateFormat(sample, columns[0]);
+	char[] separators = detectSeparators(sample, columns[2]);
+	return new ImportLayout(
+		columns[0], columns[1], columns[2], columns[3], columns[4], dateFormat, separators[0],
+		separators[1]);
+}
+
+/** Counts the delimiter candidates outside quotes on each complete line of the sample. */
+private static List<int[]> countDelimiters(byte[] sample, boolean complete) {
+	List<int[]> lines = new ArrayList<>();
+	int[] counts = new int[DELIMITERS.length];
+	boolean quoted = false;
+	boolean empty = true;
+	for (int i = 0; i < sample.length && lines.size() < DELIMITER_SAMPLE_LINES; i++) {
+		byte b = sample[i];
+		if (b == '"') {
+			quoted = !quoted;
+		} else if (!quoted && (b == '\n' || b == '\r')) {
+			if (!empty) {
+				lines.add(counts);
+				counts = new int[DELIMITERS.length];
+				empty = true;
+			}
+		} else if (!quoted) {
+			empty = false;
+			for (int d = 0; d < DELIMITERS.length; d++) {
+				if (b == DELIMITERS[d]) {
+					counts[d]++;
+				}
+			}
+		}
+	}
+	// The last line is only complete if the whole file fit in the sample
+	if (complete && !empty && lines.size() < DELIMITER_SAMPLE_LINES) {
+		lines.add(counts);
+	}
+	return lines;
+}
+
+/**
+* Maps the header to column indexes for date, merchant, amount, bank and category, or returns
+* the standard order unless every field has exactly one recognized column.
+*/
+private static int[] columnsFromHeader(List<String> header) {
+	int[] columns = {-1, -1, -1, -1, -1};
+	for (int column = 0; column < header.size(); column++) {
+		Integer field = COLUMN_NAMES.get(normalize(header.get(column)));
+		if (field != null) {
+			if (columns[field] >= 0) {
+				return new int[] {0, 1, 2, 3, 4};
+			}
+			columns[field] = column;
+		}
+	}
+	for (int column : columns) {
+		if (column < 0) {
+			return new int[] {0, 1, 2, 3, 4};
+		}
+	}
+	return columns;
+}
+
+private static String normalize(String name) {
+	StringBuilder normalized = new StringBuilder(name.length());
+	for (int i = 0; i < name.length(); i++) {
+		char c = name.charAt(i);
+		if (Character.isLetterOrDigit(c)) {
+			normalized.append(c);
+		}
+	}
+	return normalized.toString().toLowerCase(Locale.ROOT);
+}
+
+/**
+* Returns the first date format that reads every sampled date, or the one that reads most of
+* them. Falls back to ISO if none reads any, so the rows report the usual error.
+*/
+private static ImportLayout.DateFormat detectDateFormat(RowChunk sample, int column) {
+	ImportLayout.DateFormat best = ImportLayout.DateFormat.ISO;
+	int bestMatches = 0;
+	int values = 0;
+	for (ImportLayout.DateFormat format : ImportLayout.DateFormat.values()) {
+		int matches = 0;
+		values = 0;
+		for (int row = 0; row < sample.size(); row++) {
+			if (column >= sample.fieldCount(row) || sample.start(row, column) == sample.end(row, column)) {
+				continue;
+			}
+			values++;
+			try {
+				if (format.decode(sample.data(), sample.start(row, column), sample.end(row, column))
+					!= null) {
+					matches++;
+				}
+			} catch (DateTimeException e) {
+				// In this format's shape, but not a valid date in it
+			}
+		}
+		if (matches == values && values > 0) {
+			return format;
+		}
+		if (matches > bestMatches) {
+			best = format;
+			bestMatches = matches;
+		}
+	}
+	return best;
+}
+
+/**
+* Returns the decimal and grouping separators of the sampled amounts. The last separator in an
+* amount holding both a point and a comma is the decimal separator. An amount with only one kind
+* of separator is grouped if it appears more than once or is followed by exactly three digits
+* in every amount, and decimal otherwise.
+*/
+private static char[] detectSeparators(RowChunk sample, int column) {
+	boolean commaDecimal = false;
+	boolean pointDecimal = false;
+	boolean commaGrouping = false;
+	boolean pointGrouping = false;
+	for (int row = 0; row < sample.size(); row++) {
+		if (column >= sample.fieldCount(row)) {
+			continue;
+		}
+		String amount = sample.text(row, column);
+		int lastComma = amount.lastIndexOf(',');
+		int lastPoint = amount.lastIndexOf('.');
+		if (lastComma >= 0 && lastPoint >= 0) {
+			if (lastComma > lastPoint) {
+				commaDecimal = true;
+				pointGrouping = true;
+			} else {
+				pointDecimal = true;
+				commaGrouping = true;
+			}
+		} else if (lastComma >= 0) {
+			if (isGrouped(amount, ',')) {
+				commaGrouping = true;
+			} else {
+				commaDecimal = true;
+			}
+		} else if (lastPoint >= 0) {
+			if (isGrouped(amount, '.') && amount.indexOf('.') != lastPoint) {
+				pointGrouping = true;
+			} else {
+				pointDecimal = true;
+			}
+		}
+	}
+
+	if (commaDecimal && !pointDecimal && !commaGrouping) {
+		return new char[] {',', pointGrouping ? '.' : (char) 0};
+	}
+	if (pointGrouping && !pointDecimal && !commaGrouping) {
+		// Only grouping points seen, as in "1.234"; the decimal separator must be a comma
+		return new char[] {',', '.'};
+	}
+	return new char[] {'.', commaGrouping && !commaDecimal ? ',' : (char) 0};
+}
+
+/** Returns whether every separator in an amount is followed by exactly three digits. */
+private static boolean isGrouped(String amount, char separator) {
+	for (int i = amount.indexOf(separator); i >= 0; i = amount.indexOf(separator, i + 1)) {
+		int digits = 0;
+		for (int j = i + 1; j < amount.length() && Character.isDigit(amount.charAt(j)); j++) {
+			digits++;
+		}
+		if (digits != 3) {
+			return false;
+		}
+	}
+	return true;
+}
+}
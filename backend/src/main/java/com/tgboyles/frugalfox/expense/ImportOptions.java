@@ -0,0 +1,24 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Options for a single expense import.
+ *
+ * @param skipDuplicates whether to skip rows that match an existing expense (same date, merchant,
+ *     amount and bank), including repeats within the file itself
+ * @param dryRun whether to only parse and validate the file and look for duplicates, without
+ *     saving anything
+ */
+public record ImportOptions(boolean skipDuplicates, boolean dryRun) {
+
+/** Imports every valid row. */
+public static final ImportOptions DEFAULT = new ImportOptions(false, false);
+
+/**
+* Creates options for an import that saves its rows.
+*
+* @param skipDuplicates whether to skip rows that match an existing expense
+*/
+public ImportOptions(boolean skipDuplicates) {
+	this(skipDuplicates, false);
+}
+}
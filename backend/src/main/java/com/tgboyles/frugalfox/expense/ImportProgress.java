@@ -0,0 +1,47 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Callback for observing (and cancelling) a running import.
+ *
+ * <p>{@link ExpenseService#importExpenses(java.io.InputStream, com.tgboyles.frugalfox.user.User,
+ * ImportProgress)} reports every parsed row and every saved, skipped or failed row as it goes, and checks
+ * {@link #isCancelled()} before reading each row.
+ */
+public interface ImportProgress {
+
+/** Progress listener that ignores all events and never cancels. */
+ImportProgress NONE = new ImportProgress() {};
+
+/** Called after a row has been read from the file. */
+default void rowParsed() {}
+
+/**
+* Called after rows have been written to the database.
+*
+* @param count the number of rows saved
+*/
+default void rowsSaved(int count) {}
+
+/**
+* Called after rows have been left out because they duplicate existing expenses.
+*
+* @param count the number of rows skipped
+*/
+default void rowsSkipped(int count) {}
+
+/**
+* Called after rows have been rejected, either during validation or because their batch failed.
+*
+* @param count the number of rows that failed
+*/
+default void rowsFailed(int count) {}
+
+/**
+* Returns whether the import should stop. Rows already written stay committed.
+*
+* @return true if the import has been cancelled
+*/
+default boolean isCancelled() {
+	return false;
+}
+}
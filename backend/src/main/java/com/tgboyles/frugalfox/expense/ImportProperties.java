@@ -0,0 +1,342 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Configuration properties for expense imports ({@code frugalfox.import.*}).
+ *
+ * <p>Imports are streamed, so the quotas exist to bound the work a single upload can cause rather
+ * than to protect the heap. The default quota applies to every user; individual users can be given
+ * a larger (or smaller) quota under {@code frugalfox.import.users.<username>.*}.
+ */
+@ConfigurationProperties(prefix = "frugalfox.import")
+public class ImportProperties {
+
+/** Number of rows written per batch. */
+private int batchSize = 100;
+
+/**
+* Maximum ratio of decompressed to compressed bytes for gzip and zstd uploads. Higher ratios are
+* treated as a decompression bomb.
+*/
+private int maxCompressionRatio = 100;
+
+/** Quota applied to users without an override. */
+private Quota quota = new Quota(500_000, DataSize.ofMegabytes(100));
+
+/** Per-user quota overrides keyed by username. */
+private Map<String, Quota> users = new HashMap<>();
+
+/** Directory where uploads are spooled for background processing. */
+private Path spoolDirectory = Path.of(System.getProperty("java.io.tmpdir"), "frugalfox-imports");
+
+/** Settings for asynchronous import jobs. */
+private Jobs jobs = new Jobs();
+
+/** Limits on how many imports run at once and the database connections they may use. */
+private Scheduler scheduler = new Scheduler();
+
+/** Settings for the parse/validate/write pipeline used by every import. */
+private Pipeline pipeline = new Pipeline();
+
+/** Settings for resumable chunked uploads. */
+private Uploads uploads = new Uploads();
+
+/** Settings for the errors reported by an import. */
+private Errors errors = new Errors();
+
+/**
+* Resolves the effective import quota for a user, falling back to the default quota for any
+* limit the user's override does not set.
+*
+* @param user the user importing expenses
+* @return the effective quota
+*/
+public ImportQuota quotaFor(User user) {
+	Quota override = user != null ? users.get(user.getUsername()) : null;
+	int maxRows = quota.getMaxRows();
+	long maxBytes = quota.getMaxSize().toBytes();
+	if (override != null) {
+		if (override.getMaxRows() != null) {
+			maxRows = override.getMaxRows();
+		}
+		if (override.getMaxSize() != null) {
+			maxBytes = override.getMaxSize().toBytes();
+		}
+	}
+	return new ImportQuota(maxRows, maxBytes);
+}
+
+public int getBatchSize() {
+	return batchSize;
+}
+
+public void setBatchSize(int batchSize) {
+	this.batchSize = batchSize;
+}
+
+public int getMaxCompressionRatio() {
+	return maxCompressionRatio;
+}
+
+public void setMaxCompressionRatio(int maxCompressionRatio) {
+	this.maxCompressionRatio = maxCompressionRatio;
+}
+
+public Quota getQuota() {
+	return quota;
+}
+
+public void setQuota(Quota quota) {
+	this.quota = quota;
+}
+
+public Map<String, Quota> getUsers() {
+	return users;
+}
+
+public void setUsers(Map<String, Quota> users) {
+	this.users = users;
+}
+
+public Path getSpoolDirectory() {
+	return spoolDirectory;
+}
+
+public void setSpoolDirectory(Path spoolDirectory) {
+	this.spoolDirectory = spoolDirectory;
+}
+
+public Jobs getJobs() {
+	return jobs;
+}
+
+public void setJobs(Jobs jobs) {
+	this.jobs = jobs;
+}
+
+public Scheduler getScheduler() {
+	return scheduler;
+}
+
+public void setScheduler(Scheduler scheduler) {
+	this.scheduler = scheduler;
+}
+
+public Pipeline getPipeline() {
+	return pipeline;
+}
+
+public void setPipeline(Pipeline pipeline) {
+	this.pipeline = pipeline;
+}
+
+public Uploads getUploads() {
+	return uploads;
+}
+
+public void setUploads(Uploads uploads) {
+	this.uploads = uploads;
+}
+
+public Errors getErrors() {
+	return errors;
+}
+
+public void setErrors(Errors errors) {
+	this.errors = errors;
+}
+
+/** Row and size limits for a single import. Unset limits inherit the default quota. */
+public static class Quota {
+	private Integer maxRows;
+	private DataSize maxSize;
+
+	public Quota() {}
+
+	public Quota(Integer maxRows, DataSize maxSize) {
+		this.maxRows = maxRows;
+		this.maxSize = maxSize;
+	}
+
+	public Integer getMaxRows() {
+		return maxRows;
+	}
+
+	public void setMaxRows(Integer maxRows) {
+		this.maxRows = maxRows;
+	}
+
+	public DataSize getMaxSize() {
+		return maxSize;
+	}
+
+	public void setMaxSize(DataSize maxSize) {
+		this.maxSize = maxSize;
+	}
+}
+
+/** Settings for asynchronous import jobs. */
+public static class Jobs {
+	/** How long finished jobs (and their results) are kept before they expire. */
+	private Duration retention = Duration.ofHours(1);
+
+	public Duration getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Duration retention) {
+		this.retention = retention;
+	}
+}
+
+/**
+* Settings for {@link ImportScheduler}, which runs synchronous imports and background jobs, and
+* {@link ImportConnectionBudget}, which limits the database connections they use.
+*/
+public static class Scheduler {
+	/** Number of imports, synchronous or background, that run at once across all users. */
+	private int maxConcurrent = 4;
+
+	/** Number of imports that may wait for a free slot before new imports are rejected. */
+	private int maxQueued = 20;
+
+	/** How long a synchronous import waits for a free slot before it is rejected. */
+	private Duration maxWait = Duration.ofSeconds(30);
+
+	/**
+	* Number of database connections imports may hold at once. Keep it below the connection pool
+	* size so the rest of the pool stays free for interactive requests.
+	*/
+	private int connections = 2;
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public void setMaxConcurrent(int maxConcurrent) {
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	public int getMaxQueued() {
+		return maxQueued;
+	}
+
+	public void setMaxQueued(int maxQueued) {
+		this.maxQueued = maxQueued;
+	}
+
+	public Duration getMaxWait() {
+		return maxWait;
+	}
+
+	public void setMaxWait(Duration maxWait) {
+		this.maxWait = maxWait;
+	}
+
+	public int getConnections() {
+		return connections;
+	}
+
+	public void setConnections(int connections) {
+		this.connections = connections;
+	}
+}
+
+/** Concurrency settings for the import pipeline. */
+public static class Pipeline {
+	/** Number of threads shared by all imports for parsing and validating rows. */
+	private int validatorThreads = Runtime.getRuntime().availableProcessors();
+
+	/**
+	* Number of chunks (of {@code batch-size} rows) an import may read ahead of the writer. The
+	* reader blocks once this many chunks are waiting to be written.
+	*/
+	private int chunksInFlight = 16;
+
+	public int getValidatorThreads() {
+		return validatorThreads;
+	}
+
+	public void setValidatorThreads(int validatorThreads) {
+		this.validatorThreads = validatorThreads;
+	}
+
+	public int getChunksInFlight() {
+		return chunksInFlight;
+	}
+
+	public void setChunksInFlight(int chunksInFlight) {
+		this.chunksInFlight = chunksInFlight;
+	}
+}
+
+/** Settings for resumable chunked uploads. */
+public static class Uploads {
+	/** Size of every chunk except the last one. */
+	private DataSize chunkSize = DataSize.ofMegabytes(8);
+
+	/** How long an upload session may go without receiving a chunk before it is discarded. */
+	private Duration expiry = Duration.ofHours(24);
+
+	/** Number of unfinished upload sessions a user may have open at once. */
+	private int maxSessionsPerUser = 5;
+
+	public DataSize getChunkSize() {
+		return chunkSize;
+	}
+
+	public void setChunkSize(DataSize chunkSize) {
+		this.chunkSize = chunkSize;
+	}
+
+	public Duration getExpiry() {
+		return expiry;
+	}
+
+	public void setExpiry(Duration expiry) {
+		this.expiry = expiry;
+	}
+
+	public int getMaxSessionsPerUser() {
+		return maxSessionsPerUser;
+	}
+
+	public void setMaxSessionsPerUser(int maxSessionsPerUser) {
+		this.maxSessionsPerUser = maxSessionsPerUser;
+	}
+}
+
+/** Limits for the errors kept in an import result and the downloadable error report. */
+public static class Errors {
+	/** Number of error messages included in an import result; the rest are only counted. */
+	private int maxMessages = 100;
+
+	/** How long error reports are kept for download before they expire. */
+	private Duration retention = Duration.ofHours(1);
+
+	public int getMaxMessages() {
+		return maxMessages;
+	}
+
+	public void setMaxMessages(int maxMessages) {
+		this.maxMessages = maxMessages;
+	}
+
+	public Duration getRetention() {
+		return retention;
+	}
+
+	public void setRetention(Duration retention) {
+		this.retention = retention;
+	}
+}
+}
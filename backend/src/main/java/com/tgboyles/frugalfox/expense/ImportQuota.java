@@ -0,0 +1,10 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Effective import limits for a single user.
+ *
+ * @param maxRows maximum number of data rows per import
+ * @param maxBytes maximum number of bytes read from the uploaded file, applied to both the
+ *     compressed and the decompressed size of gzip and zstd uploads
+ */
+public record ImportQuota(int maxRows, long maxBytes) {}
@@ -0,0 +1,39 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Reads the data records of an import file into {@link RowChunk}s, one record at a time.
+ *
+ * <p>Implementations keep the header apart from the data records (see {@link #getHeader()}), skip
+ * empty records and number data records from 1, so rows from every supported file format are
+ * parsed, validated and reported the same way.
+ */
+public interface ImportRecordReader extends Closeable {
+
+/**
+* Reads the next data record into a chunk.
+*
+* @param chunk the chunk to append the record to
+* @return false if the end of the file has been reached
+* @throws IOException if reading fails
+* @throws CsvImportException if the file is malformed
+*/
+boolean readRecord(RowChunk chunk) throws IOException;
+
+/**
+* Returns the header of the file, once the first record has been read.
+*
+* @return the header fields, or an empty list if the file has no header
+*/
+List<String> getHeader();
+
+/**
+* Returns the number of data records read so far.
+*
+* @return the record count
+*/
+int getRecordNumber();
+}
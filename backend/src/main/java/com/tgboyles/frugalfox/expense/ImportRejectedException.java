@@ -0,0 +1,12 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an import cannot be accepted right now, for example because the import
+ * queue is full. Clients should retry later.
+ */
+public class ImportRejectedException extends RuntimeException {
+
+public ImportRejectedException(String message) {
+	super(message);
+}
+}
@@ -2,19 +2,36 @@ package com.tgboyles.frugalfox.expense;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * DTO representing the result of a bulk expense import operation.
  *
- * <p>Contains statistics about the import (total, successful, failed) and any error messages.
+ * <p>Contains statistics about the import (total, successful, failed, duplicates skipped) and the
+ * errors it ran into. Only the first {@code frugalfox.import.errors.max-messages} error messages are
+ * included; failed rows are counted by {@link ImportErrorType} and every error is written to a
+ * downloadable error report, identified by {@link #getErrorReportId()}. For a dry run
+ * ({@link #isDryRun()}), the counts describe what the import would have done; nothing was saved.
+ * An import that stopped partway through the file after saving rows is {@link #isAborted()
+ * aborted}, or {@link #isCancelled() cancelled} if the user stopped it; the counts then describe
+ * the rows that were handled before it stopped.
  */
 public class ImportResult {
 
 private int totalRows;
 private int successfulImports;
 private int failedImports;
+private int duplicatesSkipped;
 private List<String> errors;
+private Map<ImportErrorType, Integer> errorCounts = new EnumMap<>(ImportErrorType.class);
+private boolean errorsTruncated;
+private String errorReportId;
+private boolean dryRun;
+private boolean aborted;
+private String abortReason;
+private boolean cancelled;
 
 public ImportResult() {
 	this.errors = new ArrayList<>();
@@ -51,6 +68,14 @@ public void setFailedImports(int failedImports) {
 	this.failedImports = failedImports;
 }
 
+public int getDuplicatesSkipped() {
+	return duplicatesSkipped;
+}
+
+public void setDuplicatesSkipped(int duplicatesSkipped) {
+	this.duplicatesSkipped = duplicatesSkipped;
+}
+
 public List<String> getErrors() {
 	return Collections.unmodifiableList(errors);
 }
@@ -62,4 +87,108 @@ public void setErrors(List<String> errors) {
 public void addError(String error) {
 	this.errors.add(error);
 }
+
+/**
+* Returns the number of failed rows per error type.
+*
+* @return the counts, with error types that did not occur left out
+*/
+public Map<ImportErrorType, Integer> getErrorCounts() {
+	return Collections.unmodifiableMap(errorCounts);
+}
+
+public void setErrorCounts(Map<ImportErrorType, Integer> errorCounts) {
+	this.errorCounts = new EnumMap<>(ImportErrorType.class);
+	if (errorCounts != null) {
+		this.errorCounts.putAll(errorCounts);
+	}
+}
+
+public void countError(ImportErrorType type, int rows) {
+	errorCounts.merge(type, rows, Integer::sum);
+}
+
+/**
+* Returns whether more errors occurred than are listed in {@link #getErrors()}.
+*
+* @return true if some error messages are only available in the error report
+*/
+public boolean isErrorsTruncated() {
+	return errorsTruncated;
+}
+
+public void setErrorsTruncated(boolean errorsTruncated) {
+	this.errorsTruncated = errorsTruncated;
+}
+
+/**
+* Returns the ID of the error report listing every failed row, downloadable under
+* {@code /expenses/import/errors/{reportId}}.
+*
+* @return the report ID, or null if no rows failed
+*/
+public String getErrorReportId() {
+	return errorReportId;
+}
+
+public void setErrorReportId(String errorReportId) {
+	this.errorReportId = errorReportId;
+}
+
+/**
+* Returns whether the file was only validated. Successful imports and skipped duplicates are then
+* the rows that an import with {@code skipDuplicates=true} would insert and skip.
+*
+* @return true if nothing was saved
+*/
+public boolean isDryRun() {
+	return dryRun;
+}
+
+public void setDryRun(boolean dryRun) {
+	this.dryRun = dryRun;
+}
+
+/**
+* Returns whether the import stopped before the end of the file, e.g. because the file exceeds
+* the user's quota or is malformed further down. Batches saved before that stay saved: they are
+* counted in {@link #getSuccessfulImports()}, and rows after {@link #getTotalRows()} were not
+* imported.
+*
+* @return true if only part of the file was imported
+*/
+public boolean isAborted() {
+	return aborted;
+}
+
+public void setAborted(boolean aborted) {
+	this.aborted = aborted;
+}
+
+/**
+* Returns why the import was aborted.
+*
+* @return the reason, or null if the import was not aborted
+*/
+public String getAbortReason() {
+	return abortReason;
+}
+
+public void setAbortReason(String abortReason) {
+	this.abortReason = abortReason;
+}
+
+/**
+* Returns whether the import was cancelled before the end of the file. Batches saved before that
+* stay saved; rows after {@link #getTotalRows()} were not imported.
+*
+* @return true if only part of the file was imported because the import was cancelled
+*/
+public boolean isCancelled() {
+	return cancelled;
+}
+
+public void setCancelled(boolean cancelled) {
+	this.cancelled = cancelled;
+}
 }
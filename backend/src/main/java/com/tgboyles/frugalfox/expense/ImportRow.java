@@ -0,0 +1,30 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Outcome of parsing and validating one CSV row: either an expense ready to be saved or the error
+ * message recorded for the row.
+ *
+ * @param rowNumber the row number in the file
+ * @param expense the parsed expense, or {@code null} if the row failed
+ * @param errorType the kind of error, or {@code null} if the row is valid
+ * @param error the error message, or {@code null} if the row is valid
+ */
+public record ImportRow(int rowNumber, Expense expense, ImportErrorType errorType, String error) {
+
+static ImportRow valid(int rowNumber, Expense expense) {
+	return new ImportRow(rowNumber, expense, null, null);
+}
+
+static ImportRow failed(int rowNumber, ImportErrorType errorType, String error) {
+	return new ImportRow(rowNumber, null, errorType, error);
+}
+
+/**
+* Returns whether the row parsed and validated successfully.
+*
+* @return true if the row holds an expense
+*/
+public boolean isValid() {
+	return expense != null;
+}
+}
@@ -0,0 +1,304 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import com.tgboyles.frugalfox.user.User;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Decides when imports run, so that bulk imports cannot crowd out each other or the rest of the
+ * application.
+ *
+ * <p>Every import, synchronous or background, runs in a {@link Slot}:
+ *
+ * <ul>
+ *   <li>at most {@code frugalfox.import.scheduler.max-concurrent} slots are held at once;
+ *   <li>a user holds at most one slot, so a user's further background jobs wait for the running
+ *       one, and a synchronous import from a user who already has an import running or queued is
+ *       rejected;
+ *   <li>free slots go to waiting users in round-robin order: the user whose turn it is gets one
+ *       import started and then moves to the back of the line, so a user with many queued jobs
+ *       cannot delay other users' imports by more than one import each.
+ * </ul>
+ *
+ * <p>At most {@code frugalfox.import.scheduler.max-queued} imports may wait; beyond that, and for
+ * synchronous imports still waiting after {@code max-wait}, {@link ImportRejectedException} is
+ * thrown (429). The number of running and queued imports is published as the
+ * {@code frugalfox.import.active} and {@code frugalfox.import.queued} gauges and through the
+ * {@code imports} actuator endpoint.
+ */
+@Component
+public class ImportScheduler implements MeterBinder {
+
+private static final Logger log = LoggerFactory.getLogger(ImportScheduler.class);
+
+private final ImportProperties.Scheduler settings;
+
+/** Users holding a slot. */
+private final Set<Long> activeUsers = new HashSet<>();
+
+/** Waiting imports by user, with users in the order of their turn. */
+private final LinkedHashMap<Long, ArrayDeque<Ticket>> waiting = new LinkedHashMap<>();
+
+private int queued;
+
+public ImportScheduler(ImportProperties importProperties) {
+	this.settings = importProperties.getScheduler();
+}
+
+/**
+* Queues a background import. {@code start} is called with the import's slot once it is the
+* user's turn and a slot is free; it must hand the import to another thread and close the slot
+* when the import finishes.
+*
+* <p>{@code start} may run on any thread that frees a slot, including another user's. If it
+* throws, the slot is released and the exception is passed to {@code failed} instead of to that
+* thread.
+*
+* @param user the user who owns the import
+* @param start starts the import
+* @param failed called with the exception if {@code start} fails
+* @return a handle to withdraw the import while it is waiting
+* @throws ImportRejectedException if too many imports are waiting
+*/
+public QueuedImport submit(User user, Consumer<Slot> start, Consumer<RuntimeException> failed) {
+	Ticket ticket = new Ticket(user.getId(), start, failed);
+	List<Ticket> granted;
+	synchronized (this) {
+		enqueue(ticket);
+		granted = dispatch();
+	}
+	startAll(granted);
+	return new QueuedImport(ticket);
+}
+
+/**
+* Waits for a slot to run a synchronous import on the calling thread.
+*
+* @param user the user who owns the import
+* @return the slot, to be closed when the import finishes
+* @throws ImportRejectedException if the user already has an import running or queued, too many
+*     imports are waiting, or no slot became free within {@code max-wait}
+*/
+public Slot acquire(User user) {
+	CompletableFuture<Slot> slot = new CompletableFuture<>();
+	Ticket ticket = new Ticket(user.getId(), slot::complete, slot::completeExceptionally);
+	List<Ticket> granted;
+	synchronized (this) {
+		if (activeUsers.contains(ticket.userId()) || waiting.containsKey(ticket.userId())) {
+			throw new ImportRejectedException(
+				"An import is already in progress for this account. Please wait for it to finish.");
+		}
+		enqueue(ticket);
+		granted = dispatch();
+	}
+	startAll(granted);
+
+	try {
+		return slot.get(settings.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+	} catch (TimeoutException e) {
+		if (withdraw(ticket)) {
+			throw new ImportRejectedException(
+				"Too many imports are in progress. Please try again later.");
+		}
+		// Granted while timing out
+		return slot.join();
+	} catch (InterruptedException e) {
+		Thread.currentThread().interrupt();
+		if (!withdraw(ticket)) {
+			slot.join().close();
+		}
+		throw new ImportRejectedException("Import was interrupted while waiting to start.");
+	} catch (ExecutionException e) {
+		throw new IllegalStateException("Import slot was not granted", e.getCause());
+	}
+}
+
+/**
+* Returns the number of imports holding a slot.
+*
+* @return the running imports
+*/
+public synchronized int getActiveImports() {
+	return activeUsers.size();
+}
+
+/**
+* Returns the number of imports waiting for a slot.
+*
+* @return the queued imports
+*/
+public synchronized int getQueuedImports() {
+	return queued;
+}
+
+/**
+* Returns the number of users with imports waiting for a slot.
+*
+* @return the waiting users
+*/
+public synchronized int getWaitingUsers() {
+	return waiting.size();
+}
+
+@Override
+public void bindTo(MeterRegistry registry) {
+	Gauge.builder("frugalfox.import.active", this, ImportScheduler::getActiveImports)
+		.description("Imports currently running")
+		.register(registry);
+	Gauge.builder("frugalfox.import.queued", this, ImportScheduler::getQueuedImports)
+		.description("Imports waiting for a free slot")
+		.register(registry);
+}
+
+private void enqueue(Ticket ticket) {
+	if (queued >= settings.getMaxQueued()) {
+		throw new ImportRejectedException("Too many imports are in progress. Please try again later.");
+	}
+	waiting.computeIfAbsent(ticket.userId(), userId -> new ArrayDeque<>()).add(ticket);
+	queued++;
+}
+
+/** Removes a ticket that has not been granted yet. Returns false if it was already granted. */
+private synchronized boolean withdraw(Ticket ticket) {
+	ArrayDeque<Ticket> tickets = waiting.get(ticket.userId());
+	if (tickets == null || !tickets.remove(ticket)) {
+		return false;
+	}
+	if (tickets.isEmpty()) {
+		waiting.remove(ticket.userId());
+	}
+	queued--;
+	return true;
+}
+
+/** Hands free slots to waiting users in turn. Must be called while holding the lock. */
+private List<Ticket> dispatch() {
+	List<Ticket> granted = new ArrayList<>();
+	while (activeUsers.size() < settings.getMaxConcurrent()) {
+		Ticket next = null;
+		Iterator<Map.Entry<Long, ArrayDeque<Ticket>>> users = waiting.entrySet().iterator();
+		while (users.hasNext()) {
+			Map.Entry<Long, ArrayDeque<Ticket>> entry = users.next();
+			if (!activeUsers.contains(entry.getKey())) {
+				next = entry.getValue().poll();
+				users.remove();
+				if (!entry.getValue().isEmpty()) {
+					// Back of the line for the user's next import
+					waiting.put(entry.getKey(), entry.getValue());
+				}
+				break;
+			}
+		}
+		if (next == null) {
+			break;
+		}
+		queued--;
+		activeUsers.add(next.userId());
+		granted.add(next);
+	}
+	return granted;
+}
+
+/**
+* Starts granted imports. A failure to start one is reported to its own ticket, never to the
+* calling thread, which may be finishing or submitting an import for another user.
+*/
+private void startAll(List<Ticket> granted) {
+	for (Ticket ticket : granted) {
+		Slot slot = new Slot(ticket.userId());
+		try {
+			ticket.start().accept(slot);
+		} catch (RuntimeException e) {
+			slot.close();
+			try {
+				ticket.failed().accept(e);
+			} catch (RuntimeException reportFailure) {
+				log.error("Failed to report that an import could not be started", reportFailure);
+			}
+		}
+	}
+}
+
+private void release(Long userId) {
+	List<Ticket> granted;
+	synchronized (this) {
+		activeUsers.remove(userId);
+		granted = dispatch();
+	}
+	startAll(granted);
+}
+
+/** An import waiting for a slot. */
+private record Ticket(Long userId, Consumer<Slot> start, Consumer<RuntimeException> failed) {
+	@Override
+	public boolean equals(Object other) {
+		return this == other;
+	}
+
+	@Override
+	public int hashCode() {
+		return System.identityHashCode(this);
+	}
+}
+
+/** A background import submitted to the scheduler. */
+public final class QueuedImport {
+
+	private final Ticket ticket;
+
+	private QueuedImport(Ticket ticket) {
+		this.ticket = ticket;
+	}
+
+	/**
+	* Removes the import from the queue if it has not been started yet, so it never starts.
+	*
+	* @return true if the import was withdrawn, false if it has already been started
+	*/
+	public boolean withdraw() {
+		return ImportScheduler.this.withdraw(ticket);
+	}
+}
+
+/** Permission to run one import. Closing it lets the next import start. */
+public final class Slot implements AutoCloseable {
+
+	private final Long userId;
+	private boolean closed;
+
+	private Slot(Long userId) {
+		this.userId = userId;
+	}
+
+	@Override
+	public void close() {
+		synchronized (this) {
+			if (closed) {
+				return;
+			}
+			closed = true;
+		}
+		release(userId);
+	}
+}
+}
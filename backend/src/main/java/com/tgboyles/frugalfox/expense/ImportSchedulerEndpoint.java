@@ -0,0 +1,65 @@
+package com.tgboyles.frugalfox.expense;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint ({@code /actuator/imports}) reporting the import queue. Only counts are
+ * exposed, no users or files.
+ */
+@Component
+@Endpoint(id = "imports")
+public class ImportSchedulerEndpoint {
+
+private final ImportScheduler importScheduler;
+private final ImportConnectionBudget connectionBudget;
+private final ImportProperties importProperties;
+
+public ImportSchedulerEndpoint(
+	ImportScheduler importScheduler,
+	ImportConnectionBudget connectionBudget,
+	ImportProperties importProperties) {
+	this.importScheduler = importScheduler;
+	this.connectionBudget = connectionBudget;
+	this.importProperties = importProperties;
+}
+
+/**
+* Returns the current state of the import scheduler.
+*
+* @return running and queued imports and connection use
+*/
+@ReadOperation
+public ImportQueueStatus status() {
+	ImportProperties.Scheduler settings = importProperties.getScheduler();
+	return new ImportQueueStatus(
+		importScheduler.getActiveImports(),
+		settings.getMaxConcurrent(),
+		importScheduler.getQueuedImports(),
+		settings.getMaxQueued(),
+		importScheduler.getWaitingUsers(),
+		connectionBudget.getActiveConnections(),
+		connectionBudget.getConnections());
+}
+
+/**
+* State of the import scheduler.
+*
+* @param activeImports imports currently running
+* @param maxConcurrent imports that may run at once
+* @param queuedImports imports waiting for a free slot
+* @param maxQueued imports that may wait before new ones are rejected
+* @param waitingUsers users with imports waiting
+* @param activeConnections database connections held by imports
+* @param connections database connections imports may hold at once
+*/
+public record ImportQueueStatus(
+	int activeImports,
+	int maxConcurrent,
+	int queuedImports,
+	int maxQueued,
+	int waitingUsers,
+	int activeConnections,
+	int connections) {}
+}
@@ -0,0 +1,69 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Input stream that counts the bytes read and fails once a limit is exceeded.
+ *
+ * <p>Used to enforce import size quotas while streaming, without knowing the size of the
+ * upload up front.
+ */
+public class LimitedInputStream extends FilterInputStream {
+
+private final long limit;
+private long count;
+
+public LimitedInputStream(InputStream in, long limit) {
+	super(in);
+	this.limit = limit;
+}
+
+/**
+* Returns the number of bytes read so far.
+*
+* @return the byte count
+*/
+public long getCount() {
+	return count;
+}
+
+@Override
+public int read() throws IOException {
+	int b = super.read();
+	if (b >= 0) {
+		advance(1);
+	}
+	return b;
+}
+
+@Override
+public int read(byte[] buffer, int offset, int length) throws IOException {
+	int read = super.read(buffer, offset, length);
+	if (read > 0) {
+		advance(read);
+	}
+	return read;
+}
+
+@Override
+public long skip(long n) throws IOException {
+	long skipped = super.skip(n);
+	advance(skipped);
+	return skipped;
+}
+
+@Override
+public boolean markSupported() {
+	return false;
+}
+
+private void advance(long bytes) {
+	count += bytes;
+	if (count > limit) {
+		throw new CsvImportException(
+			"File size exceeds maximum limit of " + limit + " bytes.");
+	}
+}
+}
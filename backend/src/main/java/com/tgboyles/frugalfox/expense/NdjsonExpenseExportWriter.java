@@ -0,0 +1,54 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+
+/**
+ * Writes expenses as newline-delimited JSON, one object per line:
+ *
+ * <pre>{"id":1,"date":"2025-01-01","merchant":"Whole Foods","amount":125.50,"bank":"Chase","category":"Groceries"}</pre>
+ *
+ * <p>Objects are written field by field with a streaming {@link JsonGenerator} rather than
+ * serialized through an {@code ObjectMapper}, so no intermediate tree or String is built per
+ * expense. Amounts are written as plain decimal numbers with their scale kept.
+ */
+class NdjsonExpenseExportWriter implements ExpenseExportWriter {
+
+private static final JsonFactory JSON_FACTORY =
+	new JsonFactoryBuilder()
+		.rootValueSeparator((String) null)
+		.disable(StreamWriteFeature.AUTO_CLOSE_TARGET)
+		.enable(StreamWriteFeature.WRITE_BIGDECIMAL_AS_PLAIN)
+		.build();
+
+private final JsonGenerator generator;
+
+NdjsonExpenseExportWriter(OutputStream out) throws IOException {
+	this.generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8);
+}
+
+@Override
+public void write(ExpenseView expense) throws IOException {
+	generator.writeStartObject();
+	generator.writeNumberField("id", expense.id());
+	generator.writeStringField("date", expense.date().toString());
+	generator.writeStringField("merchant", expense.merchant());
+	generator.writeNumberField("amount", expense.amount());
+	generator.writeStringField("bank", expense.bank());
+	generator.writeStringField("category", expense.category());
+	generator.writeEndObject();
+	generator.writeRaw('\n');
+}
+
+@Override
+public void finish() throws IOException {
+	// Not closed: the stream belongs to the caller
+	generator.flush();
+}
+}
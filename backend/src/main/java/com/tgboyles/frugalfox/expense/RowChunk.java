@@ -0,0 +1,192 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A chunk of raw rows read by an {@link ImportRecordReader}.
+ *
+ * <p>Field contents are stored unescaped and trimmed in a single byte array, with the bounds of
+ * every field kept in an int array, so reading a row allocates nothing per field. Fields are only
+ * turned into objects when a row is parsed (see {@link ExpenseRowParser}).
+ *
+ * <p>A chunk is filled by one thread and then handed over whole; it is not safe to read it while it
+ * is still being filled.
+ */
+public class RowChunk {
+
+private byte[] data;
+private int length;
+
+// Start and end offsets of every field, two ints per field
+private int[] fieldBounds;
+private int fieldCount;
+private int fieldStart = -1;
+
+// Per row: row number, index of its first field and number of fields
+private int[] rowNumbers;
+private int[] rowFirstField;
+private int[] rowFieldCounts;
+private int rowCount;
+
+/**
+* Creates an empty chunk sized for the given number of rows.
+*
+* @param expectedRows the number of rows the chunk will usually hold
+*/
+public RowChunk(int expectedRows) {
+	int rows = Math.max(expectedRows, 1);
+	this.data = new byte[rows * 64];
+	this.fieldBounds = new int[rows * 5 * 2];
+	this.rowNumbers = new int[rows];
+	this.rowFirstField = new int[rows];
+	this.rowFieldCounts = new int[rows];
+}
+
+/**
+* Returns the number of rows in the chunk.
+*
+* @return the row count
+*/
+public int size() {
+	return rowCount;
+}
+
+/**
+* Returns whether the chunk holds no rows.
+*
+* @return true if the chunk is empty
+*/
+public boolean isEmpty() {
+	return rowCount == 0;
+}
+
+/**
+* Returns the row number (1-based, excluding the header) of a row in the chunk.
+*
+* @param row the index of the row in the chunk
+* @return the row number in the file
+*/
+public int rowNumber(int row) {
+	return rowNumbers[row];
+}
+
+/**
+* Returns the number of fields in a row.
+*
+* @param row the index of the row in the chunk
+* @return the field count
+*/
+public int fieldCount(int row) {
+	return rowFieldCounts[row];
+}
+
+/**
+* Returns the backing array holding the field contents of every row.
+*
+* @return the field data
+*/
+public byte[] data() {
+	return data;
+}
+
+/**
+* Returns the offset in {@link #data()} where a field starts.
+*
+* @param row the index of the row in the chunk
+* @param field the index of the field in the row
+* @return the start offset (inclusive)
+*/
+public int start(int row, int field) {
+	return fieldBounds[(rowFirstField[row] + field) * 2];
+}
+
+/**
+* Returns the offset in {@link #data()} where a field ends.
+*
+* @param row the index of the row in the chunk
+* @param field the index of the field in the row
+* @return the end offset (exclusive)
+*/
+public int end(int row, int field) {
+	return fieldBounds[(rowFirstField[row] + field) * 2 + 1];
+}
+
+/**
+* Decodes a field as a String.
+*
+* @param row the index of the row in the chunk
+* @param field the index of the field in the row
+* @return the field value
+*/
+public String text(int row, int field) {
+	int start = start(row, field);
+	return new String(data, start, end(row, field) - start, StandardCharsets.UTF_8);
+}
+
+/** Clears the chunk so it can be filled again. */
+void clear() {
+	length = 0;
+	fieldCount = 0;
+	fieldStart = -1;
+	rowCount = 0;
+}
+
+// Filling, used by the ImportRecordReader implementations
+
+void startRow(int rowNumber) {
+	if (rowCount == rowNumbers.length) {
+		int capacity = rowCount * 2;
+		rowNumbers = Arrays.copyOf(rowNumbers, capacity);
+		rowFirstField = Arrays.copyOf(rowFirstField, capacity);
+		rowFieldCounts = Arrays.copyOf(rowFieldCounts, capacity);
+	}
+	rowNumbers[rowCount] = rowNumber;
+	rowFirstField[rowCount] = fieldCount;
+	rowFieldCounts[rowCount] = 0;
+}
+
+void endRow() {
+	rowCount++;
+}
+
+void startField() {
+	fieldStart = length;
+}
+
+void append(int b) {
+	if (length == data.length) {
+		data = Arrays.copyOf(data, data.length * 2);
+	}
+	data[length++] = (byte) b;
+}
+
+void append(byte[] bytes) {
+	if (length + bytes.length > data.length) {
+		data = Arrays.copyOf(data, Math.max(data.length * 2, length + bytes.length));
+	}
+	System.arraycopy(bytes, 0, data, length, bytes.length);
+	length += bytes.length;
+}
+
+/** Ends the current field, trimming leading and trailing control characters and spaces. */
+void endField() {
+	int start = fieldStart;
+	int end = length;
+	while (start < end && (data[start] & 0xff) <= ' ') {
+		start++;
+	}
+	while (end > start && (data[end - 1] & 0xff) <= ' ') {
+		end--;
+	}
+
+	if (fieldCount * 2 == fieldBounds.length) {
+		fieldBounds = Arrays.copyOf(fieldBounds, fieldBounds.length * 2);
+	}
+	fieldBounds[fieldCount * 2] = start;
+	fieldBounds[fieldCount * 2 + 1] = end;
+	fieldCount++;
+	rowFieldCounts[rowCount]++;
+	fieldStart = -1;
+}
+}
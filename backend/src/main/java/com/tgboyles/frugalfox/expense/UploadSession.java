@@ -0,0 +1,257 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.UUID;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+/**
+ * A resumable upload of a CSV file that is sent in fixed-size chunks.
+ *
+ * <p>Chunks are written to their position in a staging file as they arrive, in any order, and can
+ * be re-sent until the upload is completed. The session records which chunks have been received
+ * so a client can resume after a dropped connection by sending only the missing ones. Sessions
+ * are kept in memory and expire after {@code frugalfox.import.uploads.expiry} without activity.
+ */
+public class UploadSession {
+
+private final String uploadId;
+private final Long userId;
+private final Path file;
+private final long totalSize;
+private final int chunkSize;
+private final int chunkCount;
+private final ImportOptions options;
+private final LocalDateTime createdAt;
+private final BitSet receivedChunks;
+private final BitSet writingChunks;
+private final byte[][] checksums;
+
+private volatile LocalDateTime lastActivityAt;
+private boolean completing;
+
+/**
+* Creates a session for a file of {@code totalSize} bytes.
+*
+* @param userId the ID of the user who owns the upload
+* @param file the staging file the chunks are written to
+* @param totalSize the size of the complete file in bytes
+* @param chunkSize the size of every chunk except the last one
+* @param options the options for the import that completes the upload
+*/
+public UploadSession(
+	Long userId, Path file, long totalSize, int chunkSize, ImportOptions options) {
+	this.uploadId = UUID.randomUUID().toString();
+	this.userId = userId;
+	this.file = file;
+	this.totalSize = totalSize;
+	this.chunkSize = chunkSize;
+	this.chunkCount = (int) ((totalSize + chunkSize - 1) / chunkSize);
+	this.options = options;
+	this.createdAt = LocalDateTime.now();
+	this.lastActivityAt = createdAt;
+	this.receivedChunks = new BitSet(chunkCount);
+	this.writingChunks = new BitSet(chunkCount);
+	this.checksums = new byte[chunkCount][];
+}
+
+/** Outcome of {@link #claim(int)}. */
+enum ChunkClaim {
+	/** The caller may write the chunk and must call {@link #release} afterwards. */
+	CLAIMED,
+	/** The chunk has already been received. */
+	RECEIVED,
+	/** Another request is writing the chunk. */
+	IN_PROGRESS,
+	/** The upload is being completed or discarded and accepts no more chunks. */
+	COMPLETING
+}
+
+/**
+* Returns the offset of a chunk in the file.
+*
+* @param index the chunk index
+* @return the position of the chunk's first byte
+*/
+long offsetOf(int index) {
+	return (long) index * chunkSize;
+}
+
+/**
+* Returns the exact length of a chunk; every chunk is {@link #getChunkSize()} bytes except the
+* last, which holds the remainder.
+*
+* @param index the chunk index
+* @return the length of the chunk in bytes
+*/
+int lengthOf(int index) {
+	return (int) Math.min(chunkSize, totalSize - offsetOf(index));
+}
+
+// State transitions
+
+/**
+* Claims a chunk for writing, so that two requests never write the same chunk at once and a
+* received chunk is never overwritten.
+*
+* @param index the chunk index
+* @return whether the caller may write the chunk
+*/
+synchronized ChunkClaim claim(int index) {
+	if (completing) {
+		return ChunkClaim.COMPLETING;
+	}
+	if (receivedChunks.get(index)) {
+		return ChunkClaim.RECEIVED;
+	}
+	if (writingChunks.get(index)) {
+		return ChunkClaim.IN_PROGRESS;
+	}
+	writingChunks.set(index);
+	return ChunkClaim.CLAIMED;
+}
+
+/**
+* Releases a claimed chunk.
+*
+* @param index the chunk index
+* @param checksum the SHA-256 of the chunk if it was written and verified, or null if it has to
+*     be sent again
+*/
+synchronized void release(int index, byte[] checksum) {
+	writingChunks.clear(index);
+	if (checksum != null) {
+		receivedChunks.set(index);
+		checksums[index] = checksum;
+	}
+	touch();
+}
+
+/**
+* Returns the SHA-256 of a received chunk.
+*
+* @param index the chunk index
+* @return the checksum, or null if the chunk has not been received
+*/
+synchronized byte[] checksumOf(int index) {
+	return checksums[index];
+}
+
+/**
+* Starts completing the upload. No further chunks are accepted unless
+* {@link #abortCompletion()} is called.
+*
+* @return false if a chunk is still missing or the upload is already being completed
+*/
+synchronized boolean startCompletion() {
+	if (completing || receivedChunks.cardinality() < chunkCount) {
+		return false;
+	}
+	completing = true;
+	return true;
+}
+
+/**
+* Closes the upload so it can be discarded. Fails while the upload is being completed, since the
+* staging file may already belong to an import job.
+*
+* @return false if the upload is being completed
+*/
+synchronized boolean discard() {
+	if (completing) {
+		return false;
+	}
+	completing = true;
+	return true;
+}
+
+/** Accepts chunks again after the completed file could not be handed over for import. */
+synchronized void abortCompletion() {
+	completing = false;
+	touch();
+}
+
+void touch() {
+	lastActivityAt = LocalDateTime.now();
+}
+
+/**
+* Returns whether the session has been inactive for longer than {@code expiry}.
+*
+* @param expiry the allowed inactivity
+* @return true if the session has expired
+*/
+boolean isExpired(Duration expiry) {
+	return !lastActivityAt.plus(expiry).isAfter(LocalDateTime.now());
+}
+
+// Getters
+
+public String getUploadId() {
+	return uploadId;
+}
+
+@JsonIgnore
+public Long getUserId() {
+	return userId;
+}
+
+@JsonIgnore
+public Path getFile() {
+	return file;
+}
+
+public long getTotalSize() {
+	return totalSize;
+}
+
+public int getChunkSize() {
+	return chunkSize;
+}
+
+public int getChunkCount() {
+	return chunkCount;
+}
+
+public ImportOptions getOptions() {
+	return options;
+}
+
+/**
+* Returns the indexes of the chunks received so far.
+*
+* @return the received chunk indexes in ascending order
+*/
+public synchronized List<Integer> getReceivedChunks() {
+	List<Integer> received = new ArrayList<>(receivedChunks.cardinality());
+	receivedChunks.stream().forEach(received::add);
+	return received;
+}
+
+/**
+* Returns the indexes of the chunks that still have to be sent.
+*
+* @return the missing chunk indexes in ascending order
+*/
+public synchronized List<Integer> getMissingChunks() {
+	List<Integer> missing = new ArrayList<>(chunkCount - receivedChunks.cardinality());
+	for (int index = receivedChunks.nextClearBit(0); index < chunkCount;
+		index = receivedChunks.nextClearBit(index + 1)) {
+		missing.add(index);
+	}
+	return missing;
+}
+
+public LocalDateTime getCreatedAt() {
+	return createdAt;
+}
+
+public LocalDateTime getLastActivityAt() {
+	return lastActivityAt;
+}
+}
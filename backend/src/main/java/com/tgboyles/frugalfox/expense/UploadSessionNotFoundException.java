@@ -0,0 +1,11 @@
+package com.tgboyles.frugalfox.expense;
+
+/**
+ * Exception thrown when an upload session is not found, has expired or belongs to another user.
+ */
+public class UploadSessionNotFoundException extends RuntimeException {
+
+public UploadSessionNotFoundException(String uploadId) {
+	super("Upload session not found with id: " + uploadId);
+}
+}
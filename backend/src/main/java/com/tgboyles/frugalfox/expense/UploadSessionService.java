@@ -0,0 +1,312 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.tgboyles.frugalfox.user.User;
+
+/**
+ * Manages resumable chunked uploads of import files.
+ *
+ * <p>A client opens a session for a file of known size, then sends the file in chunks of
+ * {@code frugalfox.import.uploads.chunk-size} bytes, each with its SHA-256 checksum. Every chunk is
+ * verified and written to its offset in a staging file in {@code frugalfox.import.spool-directory}
+ * with a positional {@link FileChannel} write, so chunks may arrive in any order, in parallel, or
+ * more than once. After a dropped connection the client asks the session which chunks are missing
+ * and sends only those. Completing the session hands the assembled file to
+ * {@link ImportJobService}, which imports it in the background.
+ *
+ * <p>Sessions are kept in memory, scoped to the user who opened them, and are discarded together
+ * with their staging file after {@code frugalfox.import.uploads.expiry} without activity.
+ */
+@Service
+public class UploadSessionService {
+
+private static final Logger log = LoggerFactory.getLogger(UploadSessionService.class);
+
+private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+private final ImportJobService importJobService;
+private final ImportProperties importProperties;
+private final Map<String, UploadSession> sessions = new ConcurrentHashMap<>();
+
+public UploadSessionService(
+	ImportJobService importJobService, ImportProperties importProperties) {
+	this.importJobService = importJobService;
+	this.importProperties = importProperties;
+}
+
+/**
+* Opens an upload session for a file of the given size.
+*
+* @param totalSize the size of the file in bytes
+* @param user the user who owns the upload
+* @param options the options for the import that completes the upload
+* @return the new session
+* @throws CsvImportException if the size is not positive or exceeds the user's quota
+* @throws ImportRejectedException if the user already has too many open sessions
+*/
+public UploadSession open(long totalSize, User user, ImportOptions options) {
+	if (totalSize <= 0) {
+		throw new CsvImportException("File is required and cannot be empty");
+	}
+	long maxFileSizeBytes = importProperties.quotaFor(user).maxBytes();
+	if (totalSize > maxFileSizeBytes) {
+		throw new CsvImportException(
+			String.format(
+				"File size exceeds maximum limit of %d bytes. File size: %d bytes",
+				maxFileSizeBytes, totalSize));
+	}
+
+	ImportProperties.Uploads settings = importProperties.getUploads();
+	long openSessions =
+		sessions.values().stream().filter(session -> session.getUserId().equals(user.getId())).count();
+	if (openSessions >= settings.getMaxSessionsPerUser()) {
+		throw new ImportRejectedException(
+			"Too many uploads are in progress. Complete or cancel an upload and try again.");
+	}
+
+	Path file;
+	try {
+		Files.createDirectories(importProperties.getSpoolDirectory());
+		file = Files.createTempFile(importProperties.getSpoolDirectory(), "upload-", ".csv");
+	} catch (IOException e) {
+		throw new UncheckedIOException("Failed to create upload staging file", e);
+	}
+
+	UploadSession session =
+		new UploadSession(
+			user.getId(), file, totalSize, (int) settings.getChunkSize().toBytes(), options);
+	sessions.put(session.getUploadId(), session);
+	return session;
+}
+
+/**
+* Retrieves an upload session for the given user.
+*
+* @param uploadId the upload ID
+* @param user the user
+* @return the session
+* @throws UploadSessionNotFoundException if the session does not exist, has expired or belongs to
+*     another user
+*/
+public UploadSession getSession(String uploadId, User user) {
+	UploadSession session = sessions.get(uploadId);
+	if (session == null || !session.getUserId().equals(user.getId())) {
+		throw new UploadSessionNotFoundException(uploadId);
+	}
+	return session;
+}
+
+/**
+* Verifies a chunk against its checksum and writes it to its position in the staging file.
+*
+* <p>The chunk must have exactly the expected length: the configured chunk size, or the
+* remainder of the file for the last chunk. A chunk that fails verification is not recorded and
+* can simply be sent again. Sending a chunk that has already been received with the same
+* checksum is accepted without writing it again.
+*
+* @param uploadId the upload ID
+* @param index the zero-based chunk index
+* @param body the chunk content
+* @param sha256 the hex-encoded SHA-256 of the chunk content
+* @param user the user
+* @return the session
+* @throws UploadSessionNotFoundException if the session does not exist or belongs to another user
+* @throws CsvImportException if the index, length or checksum is wrong, the chunk is being sent
+*     by another request, or the upload is already being completed
+*/
+public UploadSession writeChunk(
+	String uploadId, int index, InputStream body, String sha256, User user) {
+	UploadSession session = getSession(uploadId, user);
+	if (index < 0 || index >= session.getChunkCount()) {
+		throw new CsvImportException(
+			String.format(
+				"Chunk index %d is out of range. Expected 0 to %d",
+				index, session.getChunkCount() - 1));
+	}
+	byte[] expectedChecksum = parseChecksum(sha256);
+
+	switch (session.claim(index)) {
+		case RECEIVED -> {
+			if (!MessageDigest.isEqual(expectedChecksum, session.checksumOf(index))) {
+				throw new CsvImportException(
+					String.format("Chunk %d was already received with a different checksum", index));
+			}
+			session.touch();
+			return session;
+		}
+		case IN_PROGRESS ->
+			throw new CsvImportException(
+				String.format("Chunk %d is already being uploaded by another request", index));
+		case COMPLETING -> throw new CsvImportException("Upload is already being completed");
+		case CLAIMED -> {
+			// Write below
+		}
+	}
+
+	byte[] verified = null;
+	try {
+		byte[] checksum = copyChunk(session, index, body);
+		if (!MessageDigest.isEqual(expectedChecksum, checksum)) {
+			throw new CsvImportException(
+				String.format("Checksum mismatch for chunk %d. Please send the chunk again", index));
+		}
+		verified = checksum;
+	} finally {
+		session.release(index, verified);
+	}
+	return session;
+}
+
+/**
+* Completes an upload and queues the assembled file for import.
+*
+* @param uploadId the upload ID
+* @param user the user
+* @return the queued import job
+* @throws UploadSessionNotFoundException if the session does not exist or belongs to another user
+* @throws CsvImportException if chunks are still missing or the upload is already being completed
+* @throws ImportRejectedException if the import queue is full; the session stays open and
+*     completing can be retried later
+*/
+public ImportJob complete(String uploadId, User user) {
+	UploadSession session = getSession(uploadId, user);
+	if (!session.startCompletion()) {
+		List<Integer> missing = session.getMissingChunks();
+		throw new CsvImportException(
+			missing.isEmpty()
+				? "Upload is already being completed"
+				: "Upload is incomplete. Missing chunks: " + missing);
+	}
+
+	ImportJob job;
+	try {
+		job = importJobService.submit(session.getFile(), user, session.getOptions());
+	} catch (RuntimeException e) {
+		session.abortCompletion();
+		throw e;
+	}
+	// The staging file now belongs to the import job
+	sessions.remove(uploadId);
+	return job;
+}
+
+/**
+* Cancels an upload and deletes everything received so far.
+*
+* @param uploadId the upload ID
+* @param user the user
+* @throws UploadSessionNotFoundException if the session does not exist or belongs to another user
+* @throws CsvImportException if the upload is already being completed
+*/
+public void cancel(String uploadId, User user) {
+	UploadSession session = getSession(uploadId, user);
+	if (!session.discard()) {
+		throw new CsvImportException("Upload is already being completed");
+	}
+	sessions.remove(uploadId);
+	deleteQuietly(session.getFile());
+}
+
+/** Discards sessions that have not received a chunk within the configured expiry. */
+@Scheduled(fixedDelayString = "${frugalfox.import.uploads.eviction-interval:60000}")
+public void evictExpiredSessions() {
+	sessions.values()
+		.removeIf(
+			session -> {
+				if (!session.isExpired(importProperties.getUploads().getExpiry()) || !session.discard()) {
+					return false;
+				}
+				deleteQuietly(session.getFile());
+				return true;
+			});
+}
+
+/**
+* Writes a chunk at its offset in the staging file.
+*
+* @return the SHA-256 of the chunk
+* @throws CsvImportException if the chunk does not have the expected length
+*/
+private byte[] copyChunk(UploadSession session, int index, InputStream body) {
+	int expectedLength = session.lengthOf(index);
+	MessageDigest digest = sha256();
+	long received = 0;
+	try (FileChannel channel = FileChannel.open(session.getFile(), StandardOpenOption.WRITE)) {
+		byte[] buffer = new byte[COPY_BUFFER_SIZE];
+		long position = session.offsetOf(index);
+		int read;
+		while ((read = body.read(buffer)) != -1) {
+			received += read;
+			if (received > expectedLength) {
+				throw new CsvImportException(
+					String.format("Chunk %d is larger than %d bytes", index, expectedLength));
+			}
+			digest.update(buffer, 0, read);
+			ByteBuffer bytes = ByteBuffer.wrap(buffer, 0, read);
+			while (bytes.hasRemaining()) {
+				position += channel.write(bytes, position);
+			}
+		}
+	} catch (IOException e) {
+		if (!sessions.containsKey(session.getUploadId())) {
+			throw new UploadSessionNotFoundException(session.getUploadId());
+		}
+		throw new UncheckedIOException("Failed to write chunk " + index, e);
+	}
+
+	if (received != expectedLength) {
+		throw new CsvImportException(
+			String.format(
+				"Chunk %d must be %d bytes, but only %d bytes were received",
+				index, expectedLength, received));
+	}
+	return digest.digest();
+}
+
+private static byte[] parseChecksum(String sha256) {
+	if (sha256 == null || sha256.length() != 64) {
+		throw new CsvImportException("A hex-encoded SHA-256 checksum of the chunk is required");
+	}
+	try {
+		return HexFormat.of().parseHex(sha256);
+	} catch (IllegalArgumentException e) {
+		throw new CsvImportException("A hex-encoded SHA-256 checksum of the chunk is required");
+	}
+}
+
+private static MessageDigest sha256() {
+	try {
+		return MessageDigest.getInstance("SHA-256");
+	} catch (NoSuchAlgorithmException e) {
+		// Every Java platform is required to support SHA-256
+		throw new IllegalStateException("SHA-256 is not available", e);
+	}
+}
+
+private void deleteQuietly(Path file) {
+	try {
+		Files.deleteIfExists(file);
+	} catch (IOException e) {
+		log.warn("Failed to delete upload staging file {}", file, e);
+	}
+}
+}
@@ -0,0 +1,62 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock-free interner for low-cardinality text columns such as bank and category.
+ *
+ * <p>Values are looked up by their UTF-8 bytes, so a repeated value costs no allocation at all. The
+ * table has a fixed size and a short probe sequence; once it is full, new values are simply
+ * returned as fresh Strings, so a file with unexpectedly many distinct values cannot grow it. One
+ * interner is used per import and may be shared by all of the import's validator threads.
+ */
+public class ValueInterner {
+
+private static final int CAPACITY = 1024;
+private static final int MAX_PROBES = 8;
+
+private final AtomicReferenceArray<Entry> table = new AtomicReferenceArray<>(CAPACITY);
+
+/**
+* Returns the String for a UTF-8 encoded value, reusing an earlier instance when possible.
+*
+* @param data the array holding the value
+* @param start the start offset of the value (inclusive)
+* @param end the end offset of the value (exclusive)
+* @return the decoded value
+*/
+public String intern(byte[] data, int start, int end) {
+	int hash = hash(data, start, end);
+	for (int probe = 0; probe < MAX_PROBES; probe++) {
+		int slot = (hash + probe) & (CAPACITY - 1);
+		Entry entry = table.get(slot);
+		if (entry == null) {
+			Entry created =
+				new Entry(
+					Arrays.copyOfRange(data, start, end),
+					new String(data, start, end - start, StandardCharsets.UTF_8));
+			if (table.compareAndSet(slot, null, created)) {
+				return created.value();
+			}
+			// Another thread claimed the slot first; it may hold the same value
+			entry = table.get(slot);
+		}
+		if (Arrays.equals(entry.bytes(), 0, entry.bytes().length, data, start, end)) {
+			return entry.value();
+		}
+	}
+	return new String(data, start, end - start, StandardCharsets.UTF_8);
+}
+
+private static int hash(byte[] data, int start, int end) {
+	int hash = 1;
+	for (int i = start; i < end; i++) {
+		hash = 31 * hash + data[i];
+	}
+	return hash ^ (hash >>> 16);
+}
+
+private record Entry(byte[] bytes, String value) {}
+}
@@ -54,7 +54,8 @@ public SecurityFilterChain filterChain(
 		.cors(cors -> cors.configurationSource(corsConfigurationSource()))
 		.authorizeHttpRequests(
 			auth ->
-				auth.requestMatchers("/auth/**", "/actuator/**", "/")
+				// Only health is public; other actuator endpoints, such as the import queue, need a login
+				auth.requestMatchers("/auth/**", "/actuator/health", "/actuator/health/**", "/")
 					.permitAll()
 					.anyRequest()
 					.authenticated())
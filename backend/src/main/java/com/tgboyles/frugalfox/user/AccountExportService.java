@@ -0,0 +1,89 @@
+package com.tgboyles.frugalfox.user;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.tgboyles.frugalfox.expense.ExpenseSearchCriteria;
+import com.tgboyles.frugalfox.expense.ExpenseService;
+import com.tgboyles.frugalfox.expense.ExportFormat;
+
+/**
+ * Service for exporting everything stored about a user account.
+ *
+ * <p>The archive is a ZIP containing the user's profile ({@code profile.json}) and their expenses
+ * as one CSV per year ({@code expenses/2025.csv}), in the import format. It is written while it
+ * is produced: each year's CSV is streamed from its own database cursor, so memory use does not
+ * depend on the number of expenses and the download starts immediately.
+ */
+@Service
+public class AccountExportService {
+
+	private static final JsonFactory JSON_FACTORY =
+		new JsonFactoryBuilder().disable(StreamWriteFeature.AUTO_CLOSE_TARGET).build();
+
+	private static final Sort EXPENSE_ORDER = Sort.by("date", "id");
+
+	private final ExpenseService expenseService;
+
+	public AccountExportService(ExpenseService expenseService) {
+		this.expenseService = expenseService;
+	}
+
+	/**
+	 * Writes the account archive of a user.
+	 *
+	 * @param user the user whose account is exported
+	 * @param out the stream to write the ZIP to; it is finished but not closed
+	 * @throws IOException if writing the archive fails
+	 */
+	public void writeArchive(User user, OutputStream out) throws IOException {
+		ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+
+		zip.putNextEntry(new ZipEntry("profile.json"));
+		writeProfile(user, zip);
+		zip.closeEntry();
+
+		for (Integer year : expenseService.findExpenseYears(user)) {
+			ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
+			criteria.setStartDate(LocalDate.of(year, 1, 1));
+			criteria.setEndDate(LocalDate.of(year, 12, 31));
+
+			zip.putNextEntry(new ZipEntry("expenses/" + year + ".csv"));
+			expenseService.exportExpenses(criteria, user, EXPENSE_ORDER, ExportFormat.CSV, zip);
+			zip.closeEntry();
+		}
+
+		zip.finish();
+	}
+
+	private static void writeProfile(User user, OutputStream out) throws IOException {
+		try (JsonGenerator generator = JSON_FACTORY.createGenerator(out, JsonEncoding.UTF8)) {
+			generator.useDefaultPrettyPrinter();
+			generator.writeStartObject();
+			generator.writeNumberField("id", user.getId());
+			generator.writeStringField("username", user.getUsername());
+			generator.writeStringField("email", user.getEmail());
+			generator.writeBooleanField("enabled", user.isEnabled());
+			generator.writeStringField("createdAt", format(user.getCreatedAt()));
+			generator.writeStringField("updatedAt", format(user.getUpdatedAt()));
+			generator.writeEndObject();
+		}
+	}
+
+	private static String format(LocalDateTime timestamp) {
+		return timestamp != null ? timestamp.toString() : null;
+	}
+}
@@ -1,5 +1,8 @@
 package com.tgboyles.frugalfox.user;
 
+import java.io.IOException;
+
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -9,6 +12,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 
 /**
@@ -21,9 +25,11 @@ import jakarta.validation.Valid;
 public class SettingsController {
 
 	private final UserService userService;
+	private final AccountExportService accountExportService;
 
-	public SettingsController(UserService userService) {
+	public SettingsController(UserService userService, AccountExportService accountExportService) {
 		this.userService = userService;
+		this.accountExportService = accountExportService;
 	}
 
 	/**
@@ -38,6 +44,28 @@ public class SettingsController {
 		return ResponseEntity.ok(response);
 	}
 
+	/**
+	 * Downloads everything stored about the authenticated user's account as a ZIP archive: the
+	 * profile ({@code profile.json}) and the expenses as one CSV per year
+	 * ({@code expenses/<year>.csv}).
+	 *
+	 * <p>The archive is streamed while it is built, so the download starts immediately and large
+	 * accounts are not held in memory.
+	 *
+	 * @param user the authenticated user
+	 * @param response the response to write the archive to
+	 * @throws IOException if writing the archive fails
+	 */
+	@GetMapping("/export")
+	public void exportAccount(@AuthenticationPrincipal User user, HttpServletResponse response)
+		throws IOException {
+		response.setStatus(HttpStatus.OK.value());
+		response.setHeader("Content-Type", "application/zip");
+		response.setHeader(
+			"Content-Disposition", "attachment; filename=\"frugalfox-account.zip\"");
+		accountExportService.writeArchive(user, response.getOutputStream());
+	}
+
 	/**
 	 * Updates the authenticated user's email address.
 	 *
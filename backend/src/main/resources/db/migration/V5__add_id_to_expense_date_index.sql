@@ -0,0 +1,4 @@
+-- Include the id in the (user, date) index so keyset pagination over (expense_date, id) can both
+-- seek to the cursor and read the page in order from the index, without sorting
+DROP INDEX idx_expenses_user_date;
+CREATE INDEX idx_expenses_user_date ON expenses(user_id, expense_date DESC, id DESC);
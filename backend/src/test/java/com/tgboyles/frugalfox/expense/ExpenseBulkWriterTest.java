@@ -0,0 +1,199 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.tgboyles.frugalfox.user.User;
+import com.tgboyles.frugalfox.user.UserRepository;
+
+/** Data access tests for ExpenseBulkWriter (JDBC batch fallback on H2). */
+@SpringBootTest
+@Transactional
+public class ExpenseBulkWriterTest {
+
+@Autowired private ExpenseBulkWriter expenseBulkWriter;
+
+@Autowired private ExpenseRepository expenseRepository;
+
+@Autowired private ExpenseService expenseService;
+
+@Autowired private UserRepository userRepository;
+
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	testUser = new User();
+	testUser.setUsername("bulkuser");
+	testUser.setPassword("password123");
+	testUser.setEmail("bulk@example.com");
+	testUser.setEnabled(true);
+	testUser = userRepository.save(testUser);
+}
+
+@Test
+public void insert_ValidBatch_PersistsAllRowsWithTimestamps() {
+	// Arrange
+	List<Expense> batch =
+		List.of(
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase",
+				"Groceries"),
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 2), "Joe's \"Diner\", Inc", new BigDecimal("12.34"),
+				"BofA", "Dining"));
+
+	// Act
+	int inserted = expenseBulkWriter.insert(batch, testUser);
+
+	// Assert
+	assertThat(inserted).isEqualTo(2);
+
+	List<Expense> saved = expenseRepository.findByUserAndCategory(testUser, "Dining");
+	assertThat(saved).hasSize(1);
+	assertThat(saved.get(0).getMerchant()).isEqualTo("Joe's \"Diner\", Inc");
+	assertThat(saved.get(0).getAmount()).isEqualByComparingTo(new BigDecimal("12.34"));
+	assertThat(saved.get(0).getCreatedAt()).isNotNull();
+	assertThat(saved.get(0).getUpdatedAt()).isNotNull();
+}
+
+@Test
+public void insert_EmptyBatch_ReturnsZero() {
+	assertThat(expenseBulkWriter.insert(List.of(), testUser)).isZero();
+}
+
+@Test
+public void insert_ConstraintViolation_ThrowsDataAccessException() {
+	// Arrange - merchant exceeds the 255 character column limit
+	List<Expense> batch =
+		List.of(
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 1), "x".repeat(300), new BigDecimal("50.00"), "Chase",
+				"Groceries"));
+
+	// Act & Assert
+	assertThatThrownBy(() -> expenseBulkWriter.insert(batch, testUser))
+		.isInstanceOf(DataAccessException.class);
+}
+
+@Test
+public void insertSkippingDuplicates_RepeatedRows_InsertsEachExpenseOnce() {
+	// Arrange
+	Expense groceries =
+		new Expense(
+			testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase",
+			"Groceries");
+	Expense dining =
+		new Expense(
+			testUser, LocalDate.of(2025, 1, 2), "Cafe", new BigDecimal("12.5"), "BofA", "Dining");
+	expenseBulkWriter.insertSkippingDuplicates(List.of(groceries), testUser);
+
+	// Same amount at a different scale and a new category are still duplicates
+	Expense recategorised =
+		new Expense(
+			testUser, LocalDate.of(2025, 1, 2), "Cafe", new BigDecimal("12.50"), "BofA", "Coffee");
+
+	// Act
+	int inserted =
+		expenseBulkWriter.insertSkippingDuplicates(
+			List.of(groceries, dining, recategorised), testUser);
+
+	// Assert
+	assertThat(inserted).isEqualTo(1);
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Groceries")).hasSize(1);
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Dining"))
+		.singleElement()
+		.satisfies(expense -> assertThat(expense.isDeduplicated()).isTrue());
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Coffee")).isEmpty();
+}
+
+@Test
+public void insertSkippingDuplicates_RowsImportedWithoutOption_AreDuplicates() {
+	// Arrange - plain imports keep true duplicates, but still store their fingerprints
+	List<Expense> batch =
+		List.of(
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase",
+				"Groceries"));
+	expenseBulkWriter.insert(batch, testUser);
+	expenseBulkWriter.insert(batch, testUser);
+
+	// Act
+	int inserted = expenseBulkWriter.insertSkippingDuplicates(batch, testUser);
+
+	// Assert
+	assertThat(inserted).isZero();
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Groceries"))
+		.hasSize(2)
+		.allSatisfy(
+			expense -> {
+				assertThat(expense.getFingerprint())
+					.isEqualTo(new ExpenseFingerprint(testUser.getId()).of(batch.get(0)));
+				assertThat(expense.isDeduplicated()).isFalse();
+			});
+}
+
+@Test
+public void insertSkippingDuplicates_ExpenseCreatedThroughService_IsDuplicate() {
+	// Arrange
+	Expense created =
+		expenseService.createExpense(
+			new Expense(
+				null, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50"), "Chase", "Groceries"),
+			testUser);
+	expenseRepository.flush();
+
+	// Act
+	int inserted =
+		expenseBulkWriter.insertSkippingDuplicates(
+			List.of(
+				new Expense(
+					testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase",
+					"Groceries")),
+			testUser);
+
+	// Assert
+	assertThat(created.getFingerprint()).isNotNull();
+	assertThat(inserted).isZero();
+}
+
+@Test
+public void countExisting_DistinctFingerprints_CountsThoseTheUserHas() {
+	// Arrange - one existing expense, and a file with it and two new rows
+	Expense groceries =
+		new Expense(
+			testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase",
+			"Groceries");
+	expenseBulkWriter.insert(List.of(groceries), testUser);
+
+	ExpenseFingerprint fingerprint = new ExpenseFingerprint(testUser.getId());
+	FingerprintSet fingerprints = new FingerprintSet();
+	fingerprints.add(fingerprint.digest(groceries));
+	fingerprints.add(
+		fingerprint.digest(
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 2), "Cafe", new BigDecimal("12.50"), "BofA", "Dining")));
+	fingerprints.add(
+		fingerprint.digest(
+			new Expense(
+				testUser, LocalDate.of(2025, 1, 3), "Target", new BigDecimal("9.99"), "BofA", "Shopping")));
+
+	// Act
+	int existing = expenseBulkWriter.countExisting(fingerprints, testUser);
+
+	// Assert - nothing is written
+	assertThat(existing).isEqualTo(1);
+	assertThat(expenseRepository.countByUser(testUser)).isEqualTo(1);
+}
+}
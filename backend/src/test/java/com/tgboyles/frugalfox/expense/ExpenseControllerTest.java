@@ -9,13 +9,25 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -29,6 +41,7 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.context.WebApplicationContext;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tgboyles.frugalfox.security.AuthRequest;
 import com.tgboyles.frugalfox.user.User;
@@ -49,6 +62,8 @@ private ObjectMapper objectMapper;
 
 @Autowired private ExpenseRepository expenseRepository;
 
+@Autowired private ImportScheduler importScheduler;
+
 private MockMvc mvc;
 private String authToken;
 private User testUser;
@@ -187,6 +202,15 @@ public void testGetExpenseByIdNotFound() throws Exception {
 		.andExpect(jsonPath("$.message").value("Expense not found with id: 99999"));
 }
 
+@Test
+public void testGetImportJobNotFound() throws Exception {
+	mvc.perform(
+			get("/expenses/import/missing-job")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isNotFound())
+		.andExpect(jsonPath("$.message").value("Import job not found with id: missing-job"));
+}
+
 @Test
 public void testUpdateExpense() throws Exception {
 	// Create expense
@@ -269,6 +293,79 @@ public void testFilterByMerchantPartial() throws Exception {
 		.andExpect(jsonPath("$.content", hasSize(2)));
 }
 
+@Test
+public void testFullTextSearch_RanksMerchantMatchesFirst() throws Exception {
+	createTestExpenseWithBankAndDate("Whole Foods", new BigDecimal("125.50"), "Groceries", "Chase", LocalDate.of(2025, 12, 1));
+	createTestExpenseWithBankAndDate("Target", new BigDecimal("20.00"), "Foods", "BofA", LocalDate.of(2025, 12, 20));
+	createTestExpenseWithBankAndDate("Whole Earth", new BigDecimal("15.00"), "Groceries", "BofA", LocalDate.of(2025, 12, 10));
+	createTestExpenseWithBankAndDate("Shell", new BigDecimal("45.00"), "Transportation", "Chase", LocalDate.of(2025, 12, 15));
+
+	// A merchant match outranks a newer category match
+	mvc.perform(
+			get("/expenses")
+				.param("q", "foods")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(2)))
+		.andExpect(jsonPath("$.content[0].merchant").value("Whole Foods"))
+		.andExpect(jsonPath("$.content[1].merchant").value("Target"))
+		.andExpect(jsonPath("$.totalElements").value(2));
+
+	// Every word must match, in any of merchant, category and bank
+	mvc.perform(
+			get("/expenses")
+				.param("q", "whole chase")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].merchant").value("Whole Foods"));
+
+	// Other filters still apply
+	mvc.perform(
+			get("/expenses")
+				.param("q", "whole")
+				.param("bank", "BofA")
+				.param("pagination", "slice")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].merchant").value("Whole Earth"));
+}
+
+@Test
+public void testFullTextSearchWithCursorPagination_Returns400() throws Exception {
+	mvc.perform(
+			get("/expenses")
+				.param("q", "foods")
+				.param("pagination", "cursor")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest());
+}
+
+@Test
+public void testFilterByMerchantWithWildcardCharacters_MatchesLiterally() throws Exception {
+	createTestExpense("100% Juice", new BigDecimal("5.00"), "Groceries");
+	createTestExpense("1000 Juices", new BigDecimal("6.00"), "Groceries");
+	createTestExpense("Juice_Bar", new BigDecimal("7.00"), "Dining");
+	createTestExpense("Juice Bar", new BigDecimal("8.00"), "Dining");
+
+	mvc.perform(
+			get("/expenses")
+				.param("merchant", "100%")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].merchant").value("100% Juice"));
+
+	mvc.perform(
+			get("/expenses")
+				.param("merchant", "JUICE_")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].merchant").value("Juice_Bar"));
+}
+
 @Test
 public void testFilterByBank() throws Exception {
 	createTestExpenseWithBank("Store1", new BigDecimal("50.00"), "Shopping", "Chase");
@@ -352,6 +449,155 @@ public void testPaginationAndSorting() throws Exception {
 		.andExpect(jsonPath("$.totalPages").value(2));
 }
 
+@Test
+public void testSlicePagination_OmitsTotals() throws Exception {
+	createTestExpenseWithDate("Store1", new BigDecimal("30.00"), "Shopping", LocalDate.of(2025, 12, 24));
+	createTestExpenseWithDate("Store2", new BigDecimal("60.00"), "Shopping", LocalDate.of(2025, 12, 25));
+	createTestExpenseWithDate("Store3", new BigDecimal("90.00"), "Shopping", LocalDate.of(2025, 12, 26));
+
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "slice")
+				.param("page", "0")
+				.param("size", "2")
+				.param("sort", "amount,desc")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(2)))
+		.andExpect(jsonPath("$.content[0].amount").value(90.00))
+		.andExpect(jsonPath("$.last").value(false))
+		.andExpect(jsonPath("$.totalElements").doesNotExist());
+
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "slice")
+				.param("page", "1")
+				.param("size", "2")
+				.param("sort", "amount,desc")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.content[0].amount").value(30.00))
+		.andExpect(jsonPath("$.last").value(true));
+}
+
+@Test
+public void testEstimatedPagination_ReturnsTotals() throws Exception {
+	createTestExpenseWithDate("Store1", new BigDecimal("30.00"), "Shopping", LocalDate.of(2025, 12, 24));
+	createTestExpenseWithDate("Store2", new BigDecimal("60.00"), "Groceries", LocalDate.of(2025, 12, 25));
+	createTestExpenseWithDate("Store3", new BigDecimal("90.00"), "Shopping", LocalDate.of(2025, 12, 26));
+
+	// Without filters, from the user's cached row count
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "estimated")
+				.param("size", "2")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(2)))
+		.andExpect(jsonPath("$.totalElements").value(3))
+		.andExpect(jsonPath("$.totalPages").value(2));
+
+	// With filters, from the planner on PostgreSQL and an exact count elsewhere
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "estimated")
+				.param("category", "Shopping")
+				.param("size", "1")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.content", hasSize(1)))
+		.andExpect(jsonPath("$.totalElements").value(2));
+}
+
+@Test
+public void testCursorPagination_WalksAllPagesInSortOrder() throws Exception {
+	Expense a = createTestExpenseWithDate("Store1", new BigDecimal("10.00"), "Shopping", LocalDate.of(2025, 12, 20));
+	Expense b = createTestExpenseWithDate("Store2", new BigDecimal("20.00"), "Shopping", LocalDate.of(2025, 12, 22));
+	Expense c = createTestExpenseWithDate("Store3", new BigDecimal("30.00"), "Shopping", LocalDate.of(2025, 12, 22));
+	Expense d = createTestExpenseWithDate("Store4", new BigDecimal("40.00"), "Shopping", LocalDate.of(2025, 12, 22));
+	Expense e = createTestExpenseWithDate("Store5", new BigDecimal("50.00"), "Shopping", LocalDate.of(2025, 12, 24));
+
+	// Sorted by date descending, then id descending within the same date
+	List<Long> expected = List.of(e.getId(), d.getId(), c.getId(), b.getId(), a.getId());
+	List<Long> ids = new ArrayList<>();
+	String cursor = null;
+	int pages = 0;
+	do {
+		var request =
+			get("/expenses")
+				.param("pagination", "cursor")
+				.param("size", "2")
+				.param("sort", "date,desc")
+				.header("Authorization", "Bearer " + authToken);
+		if (cursor != null) {
+			request.param("cursor", cursor);
+		}
+		MvcResult result =
+			mvc.perform(request)
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.size").value(2))
+				.andExpect(jsonPath("$.totalElements").doesNotExist())
+				.andReturn();
+
+		JsonNode page = objectMapper.readTree(result.getResponse().getContentAsString());
+		page.get("content").forEach(expense -> ids.add(expense.get("id").asLong()));
+		cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+		pages++;
+	} while (cursor != null);
+
+	assertThat(ids).isEqualTo(expected);
+	assertThat(pages).isEqualTo(3);
+}
+
+@Test
+public void testCursorPagination_CursorFromAnotherSort_Returns400() throws Exception {
+	createTestExpenseWithDate("Store1", new BigDecimal("10.00"), "Shopping", LocalDate.of(2025, 12, 20));
+	createTestExpenseWithDate("Store2", new BigDecimal("20.00"), "Shopping", LocalDate.of(2025, 12, 22));
+
+	MvcResult result =
+		mvc.perform(
+				get("/expenses")
+					.param("pagination", "cursor")
+					.param("size", "1")
+					.param("sort", "amount,desc")
+					.header("Authorization", "Bearer " + authToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.content[0].merchant").value("Store2"))
+			.andExpect(jsonPath("$.hasNext").value(true))
+			.andReturn();
+	String cursor =
+		objectMapper.readTree(result.getResponse().getContentAsString()).get("nextCursor").asText();
+
+	// The cursor holds an amount, so it cannot continue a date-sorted search
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "cursor")
+				.param("cursor", cursor)
+				.param("sort", "date,desc")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("Invalid cursor")));
+
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "cursor")
+				.param("cursor", "not a cursor")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest());
+}
+
+@Test
+public void testCursorPagination_UnsupportedSort_Returns400() throws Exception {
+	mvc.perform(
+			get("/expenses")
+				.param("pagination", "cursor")
+				.param("sort", "createdAt")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("Cannot sort by 'createdAt'")));
+}
+
 @Test
 public void testUserIsolation() throws Exception {
 	// Create expense for testUser
@@ -445,6 +691,283 @@ public void testImportExpensesSuccess() throws Exception {
 		.andExpect(jsonPath("$.content", hasSize(2)));
 }
 
+@Test
+public void testImportExpensesFromRawBody() throws Exception {
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,-75.50,BofA,Shopping
+		""";
+
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.content(csvContent.getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.totalRows").value(2))
+		.andExpect(jsonPath("$.successfulImports").value(1))
+		.andExpect(jsonPath("$.failedImports").value(1))
+		.andExpect(
+			jsonPath("$.errors[0]")
+				.value("Row 2: Validation failed: Amount must be greater than zero"));
+}
+
+@Test
+public void testImportExpensesFromGzipBody() throws Exception {
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		""";
+	ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+		gzip.write(csvContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.header("Content-Encoding", "gzip")
+				.content(compressed.toByteArray())
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.totalRows").value(2))
+		.andExpect(jsonPath("$.successfulImports").value(2));
+
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Shopping")).hasSize(1);
+}
+
+@Test
+public void testImportExpensesDryRun_ReportsDuplicatesWithoutSaving() throws Exception {
+	String imported =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		""";
+	mvc.perform(
+			post("/expenses/import")
+				.param("skipDuplicates", "true")
+				.contentType("text/csv")
+				.content(imported.getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.successfulImports").value(1));
+
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		2025-13-01,Amazon,25.00,Chase,Shopping
+		""";
+	mvc.perform(
+			post("/expenses/import")
+				.param("dryRun", "true")
+				.contentType("text/csv")
+				.content(csvContent.getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.dryRun").value(true))
+		.andExpect(jsonPath("$.totalRows").value(3))
+		.andExpect(jsonPath("$.successfulImports").value(1))
+		.andExpect(jsonPath("$.duplicatesSkipped").value(1))
+		.andExpect(jsonPath("$.failedImports").value(1))
+		.andExpect(jsonPath("$.errorCounts.INVALID_DATE").value(1));
+
+	assertThat(expenseRepository.findByUserAndCategory(testUser, "Shopping")).isEmpty();
+}
+
+@Test
+public void testImportsEndpoint_RequiresAuthenticationUnlikeHealth() throws Exception {
+	mvc.perform(get("/actuator/imports")).andExpect(status().isForbidden());
+	mvc.perform(get("/actuator/imports").header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk());
+	mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+}
+
+@Test
+public void testImportExpenses_UserAlreadyImporting_Returns429() throws Exception {
+	String csvContent = "date,merchant,amount,bank,category\n2025-01-01,Cafe,5.00,Chase,Food\n";
+
+	try (ImportScheduler.Slot running = importScheduler.acquire(testUser)) {
+		mvc.perform(
+				post("/expenses/import")
+					.contentType("text/csv")
+					.content(csvContent.getBytes(StandardCharsets.UTF_8))
+					.header("Authorization", "Bearer " + authToken))
+			.andExpect(status().isTooManyRequests())
+			.andExpect(
+				jsonPath("$.message")
+					.value("An import is already in progress for this account. Please wait for it to finish."));
+	}
+
+	// The next import runs once the first has finished
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.content(csvContent.getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.successfulImports").value(1));
+}
+
+@Test
+public void testImportExpensesGzipFile() throws Exception {
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		""";
+	ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+		gzip.write(csvContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	MockMultipartFile file =
+		new MockMultipartFile(
+			"file", "expenses.csv.gz", "application/gzip", compressed.toByteArray());
+
+	mvc.perform(
+			multipart("/expenses/import")
+				.file(file)
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.totalRows").value(2))
+		.andExpect(jsonPath("$.successfulImports").value(2));
+}
+
+@Test
+public void testImportExpensesGzipFileWithoutContentType() throws Exception {
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		""";
+	ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+		gzip.write(csvContent.getBytes(StandardCharsets.UTF_8));
+	}
+
+	// Browsers send files of unknown type as application/octet-stream; the format is detected
+	MockMultipartFile file =
+		new MockMultipartFile(
+			"file", "expenses.csv.gz", "application/octet-stream", compressed.toByteArray());
+
+	mvc.perform(
+			multipart("/expenses/import")
+				.file(file)
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.successfulImports").value(1));
+}
+
+@Test
+public void testImportExpensesXlsxFile() throws Exception {
+	ByteArrayOutputStream xlsx = new ByteArrayOutputStream();
+	try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+		Sheet sheet = workbook.createSheet();
+		String[][] rows = {
+			{"date", "merchant", "amount", "bank", "category"},
+			{"2025-01-01", "Whole Foods", "50.00", "Chase", "Groceries"},
+			{"2025-13-01", "Target", "75.50", "BofA", "Shopping"}
+		};
+		for (int r = 0; r < rows.length; r++) {
+			Row row = sheet.createRow(r);
+			for (int c = 0; c < rows[r].length; c++) {
+				row.createCell(c).setCellValue(rows[r][c]);
+			}
+		}
+		workbook.write(xlsx);
+	}
+
+	MockMultipartFile file =
+		new MockMultipartFile(
+			"file",
+			"expenses.xlsx",
+			"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+			xlsx.toByteArray());
+
+	mvc.perform(
+			multipart("/expenses/import")
+				.file(file)
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.totalRows").value(2))
+		.andExpect(jsonPath("$.successfulImports").value(1))
+		.andExpect(jsonPath("$.errors[0]").value(containsString("Row 2: Invalid date format")));
+}
+
+@Test
+public void testImportExpensesGzipFileOverDecompressedQuota() throws Exception {
+	// Under the 1MB quota compressed, but over it once decompressed. Long hex merchants keep the
+	// row count under the row quota and the compression ratio under the ratio guard.
+	Random random = new Random(42);
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	while (csvContent.length() <= 1024 * 1024) {
+		csvContent.append("2025-01-01,");
+		for (int i = 0; i < 1000; i++) {
+			csvContent.append(Long.toHexString(random.nextLong()));
+		}
+		csvContent.append(",1.00,Chase,Groceries\n");
+	}
+	ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+		gzip.write(csvContent.toString().getBytes(StandardCharsets.UTF_8));
+	}
+
+	MockMultipartFile file =
+		new MockMultipartFile(
+			"file", "expenses.csv.gz", "application/gzip", compressed.toByteArray());
+
+	mvc.perform(
+			multipart("/expenses/import")
+				.file(file)
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("File size exceeds maximum limit")));
+}
+
+@Test
+public void testImportExpensesFromRawBodyRejectsInvalidBodies() throws Exception {
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.content(new byte[0])
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("File is required and cannot be empty"));
+
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.content(new byte[1024 * 1024 + 1])
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("File size exceeds maximum limit")));
+
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.header("Content-Encoding", "br")
+				.content("date,merchant,amount,bank,category\n".getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("Unsupported Content-Encoding")));
+
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.header("Content-Encoding", "gzip")
+				.content("not gzip".getBytes(StandardCharsets.UTF_8))
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value("Request body is not valid gzip data"));
+}
+
 @Test
 public void testImportExpensesEmptyFile() throws Exception {
 	MockMultipartFile file =
@@ -504,6 +1027,49 @@ public void testImportExpensesInvalidContentType() throws Exception {
 		.andExpect(jsonPath("$.message").value(containsString("Invalid file type")));
 }
 
+@Test
+public void testImportErrorReport_ListsFailedRows() throws Exception {
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-13-01,Target,75.50,BofA,Shopping
+		2025-01-03,Amazon,abc,Chase,Online
+		""";
+
+	MockMultipartFile file =
+		new MockMultipartFile(
+			"file", "expenses.csv", "text/csv", csvContent.getBytes(StandardCharsets.UTF_8));
+
+	MvcResult result =
+		mvc.perform(
+				multipart("/expenses/import")
+					.file(file)
+					.header("Authorization", "Bearer " + authToken))
+			.andExpect(status().isOk())
+			.andExpect(jsonPath("$.errorCounts.INVALID_DATE").value(1))
+			.andExpect(jsonPath("$.errorCounts.INVALID_AMOUNT").value(1))
+			.andExpect(jsonPath("$.errorsTruncated").value(false))
+			.andReturn();
+	String reportId =
+		objectMapper.readTree(result.getResponse().getContentAsString()).get("errorReportId").asText();
+
+	MvcResult report =
+		mvc.perform(
+				get("/expenses/import/errors/" + reportId)
+					.header("Authorization", "Bearer " + authToken))
+			.andExpect(status().isOk())
+			.andReturn();
+	String reportContent = report.getResponse().getContentAsString();
+	assertThat(reportContent).startsWith("row,type,message\r\n2,INVALID_DATE,");
+	assertThat(reportContent).contains("3,INVALID_AMOUNT,");
+
+	mvc.perform(
+			get("/expenses/import/errors/unknown")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isNotFound());
+}
+
 @Test
 public void testImportExpensesPartialSuccess() throws Exception {
 	String csvContent =
@@ -696,6 +1262,194 @@ public void testExportExpensesEmpty() throws Exception {
 	assertThat(csvContent.split("\n")).hasSize(1); // Only header
 }
 
+@Test
+public void testExportExpensesLargerThanFetchSize_StreamsAllRowsInOrder() throws Exception {
+	int count = ExpenseRepositoryCustomImpl.FETCH_SIZE * 2 + 1;
+	for (int i = 0; i < count; i++) {
+		createTestExpenseWithDate(
+			"Merchant " + i, new BigDecimal("10.00"), "Groceries", LocalDate.of(2020, 1, 1).plusDays(i));
+	}
+
+	MvcResult result = mvc.perform(
+			get("/expenses/export")
+				.param("sort", "date,desc")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andReturn();
+
+	String[] lines = result.getResponse().getContentAsString().split("\r\n");
+	assertThat(lines).hasSize(count + 1);
+	assertThat(lines[1]).contains("Merchant " + (count - 1));
+	assertThat(lines[count]).contains("Merchant 0,");
+}
+
+@Test
+public void testExportExpensesNdjsonByAcceptHeader() throws Exception {
+	createTestExpense("Whole Foods", new BigDecimal("125.50"), "Groceries");
+	createTestExpense("Target", new BigDecimal("75.00"), "Shopping");
+
+	MvcResult result = mvc.perform(
+			get("/expenses/export")
+				.param("sort", "merchant")
+				.header("Accept", "application/x-ndjson")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(header().string("Content-Type", "application/x-ndjson"))
+		.andExpect(header().string("Content-Disposition", "attachment; filename=\"expenses.ndjson\""))
+		.andReturn();
+
+	String[] lines = result.getResponse().getContentAsString().split("\n");
+	assertThat(lines).hasSize(2);
+	assertThat(objectMapper.readTree(lines[0]).get("merchant").asText()).isEqualTo("Target");
+	assertThat(objectMapper.readTree(lines[0]).get("amount").decimalValue()).isEqualByComparingTo("75.00");
+	assertThat(objectMapper.readTree(lines[1]).get("merchant").asText()).isEqualTo("Whole Foods");
+	assertThat(objectMapper.readTree(lines[1]).get("date").asText()).isEqualTo("2025-12-26");
+}
+
+@Test
+public void testExportExpensesNdjsonByFormatParameterWithFilters() throws Exception {
+	createTestExpense("Whole Foods", new BigDecimal("125.50"), "Groceries");
+	createTestExpense("Target", new BigDecimal("75.00"), "Shopping");
+
+	MvcResult result = mvc.perform(
+			get("/expenses/export")
+				.param("format", "ndjson")
+				.param("category", "Groceries")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(header().string("Content-Type", "application/x-ndjson"))
+		.andReturn();
+
+	String[] lines = result.getResponse().getContentAsString().split("\n");
+	assertThat(lines).hasSize(1);
+	assertThat(lines[0]).contains("\"merchant\":\"Whole Foods\"");
+}
+
+@Test
+public void testExportExpensesGzip_CompressesResponse() throws Exception {
+	createTestExpense("Whole Foods", new BigDecimal("125.50"), "Groceries");
+	createTestExpense("Target", new BigDecimal("75.00"), "Shopping");
+
+	MvcResult result = mvc.perform(
+			get("/expenses/export")
+				.header("Accept-Encoding", "br;q=1.0, gzip;q=0.8")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(header().string("Content-Type", "text/csv"))
+		.andExpect(header().string("Content-Encoding", "gzip"))
+		.andExpect(header().string("Vary", "Accept-Encoding"))
+		.andReturn();
+
+	byte[] compressed = result.getResponse().getContentAsByteArray();
+	String csvContent;
+	try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+		csvContent = new String(in.readAllBytes(), StandardCharsets.UTF_8);
+	}
+	assertThat(csvContent).startsWith("date,merchant,amount,bank,category\r\n");
+	assertThat(csvContent).contains("Whole Foods");
+	assertThat(csvContent).contains("Target");
+}
+
+@Test
+public void testExportExpensesGzipRefused_IsNotCompressed() throws Exception {
+	createTestExpense("Whole Foods", new BigDecimal("125.50"), "Groceries");
+
+	MvcResult result = mvc.perform(
+			get("/expenses/export")
+				.header("Accept-Encoding", "gzip;q=0")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(header().doesNotExist("Content-Encoding"))
+		.andReturn();
+
+	assertThat(result.getResponse().getContentAsString()).contains("Whole Foods");
+}
+
+@Test
+public void testExportExpensesUnsupportedFormat_Returns400() throws Exception {
+	mvc.perform(
+			get("/expenses/export")
+				.param("format", "xml")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isBadRequest())
+		.andExpect(jsonPath("$.message").value(containsString("Unsupported export format")));
+}
+
+@Test
+public void testExportJob_DownloadsFileWithRanges() throws Exception {
+	// The job runs on its own thread and connection, so it does not see this test's uncommitted
+	// expenses: the file holds only the header
+	String csvHeader = "date,merchant,amount,bank,category\r\n";
+
+	MvcResult started = mvc.perform(
+			post("/expenses/export")
+				.param("category", "Groceries")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isAccepted())
+		.andExpect(header().exists("Location"))
+		.andExpect(jsonPath("$.jobId").isNotEmpty())
+		.andExpect(jsonPath("$.format").value("CSV"))
+		.andReturn();
+	String jobId = objectMapper.readTree(started.getResponse().getContentAsString()).get("jobId").asText();
+
+	awaitExportJob(jobId);
+	mvc.perform(
+			get("/expenses/export/" + jobId)
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.status").value("COMPLETED"))
+		.andExpect(jsonPath("$.rowsWritten").value(0))
+		.andExpect(jsonPath("$.size").value(csvHeader.length()))
+		.andExpect(jsonPath("$.expiresAt").isNotEmpty());
+
+	// Whole file
+	mvc.perform(
+			get("/expenses/export/" + jobId + "/download")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(header().string("Content-Type", "text/csv"))
+		.andExpect(header().string("Accept-Ranges", "bytes"))
+		.andExpect(header().string("ETag", "\"" + jobId + "\""))
+		.andExpect(header().longValue("Content-Length", csvHeader.length()))
+		.andExpect(content().string(csvHeader));
+
+	// Resumed download
+	mvc.perform(
+			get("/expenses/export/" + jobId + "/download")
+				.header("Range", "bytes=5-")
+				.header("If-Range", "\"" + jobId + "\"")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isPartialContent())
+		.andExpect(header().string("Content-Range", "bytes 5-" + (csvHeader.length() - 1) + "/" + csvHeader.length()))
+		.andExpect(content().string(csvHeader.substring(5)));
+
+	// Range beyond the end of the file
+	mvc.perform(
+			get("/expenses/export/" + jobId + "/download")
+				.header("Range", "bytes=1000-")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isRequestedRangeNotSatisfiable())
+		.andExpect(header().string("Content-Range", "bytes */" + csvHeader.length()));
+
+	// A stale If-Range gets the whole file
+	mvc.perform(
+			get("/expenses/export/" + jobId + "/download")
+				.header("Range", "bytes=0-3")
+				.header("If-Range", "\"other\"")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isOk())
+		.andExpect(content().string(csvHeader));
+}
+
+@Test
+public void testExportJob_UnknownJob_Returns404() throws Exception {
+	mvc.perform(
+			get("/expenses/export/missing/download")
+				.header("Authorization", "Bearer " + authToken))
+		.andExpect(status().isNotFound())
+		.andExpect(jsonPath("$.message").value("Export job not found with id: missing"));
+}
+
 @Test
 public void testExportExpensesUnauthorized() throws Exception {
 	mvc.perform(
@@ -765,12 +1519,33 @@ public void testImportExpensesRowLimitExceeded() throws Exception {
 			multipart("/expenses/import")
 				.file(file)
 				.header("Authorization", "Bearer " + authToken))
-		.andExpect(status().isBadRequest())
-		.andExpect(jsonPath("$.message").value(containsString("exceeds maximum row limit of 1000")));
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.aborted").value(true))
+		.andExpect(jsonPath("$.abortReason").value(containsString("exceeds maximum row limit of 1000")))
+		.andExpect(jsonPath("$.totalRows").value(1000))
+		.andExpect(jsonPath("$.successfulImports").value(1000));
+
+	// The batches saved before the limit was reached are kept, and the result says so
+	assertThat(expenseRepository.countByUser(testUser)).isEqualTo(1000);
 }
 
 // Helper methods
 
+private void awaitExportJob(String jobId) throws Exception {
+	long deadline = System.currentTimeMillis() + 5000;
+	while (System.currentTimeMillis() < deadline) {
+		MvcResult result = mvc.perform(
+				get("/expenses/export/" + jobId)
+					.header("Authorization", "Bearer " + authToken))
+			.andReturn();
+		String jobStatus = objectMapper.readTree(result.getResponse().getContentAsString()).get("status").asText();
+		if (!jobStatus.equals("QUEUED") && !jobStatus.equals("RUNNING")) {
+			return;
+		}
+		Thread.sleep(20);
+	}
+}
+
 private Expense createTestExpense(String merchant, BigDecimal amount, String category) {
 	return createTestExpenseWithBankAndDate(merchant, amount, category, "Chase", LocalDate.of(2025, 12, 26));
 }
@@ -0,0 +1,160 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ExpenseCountEstimator. */
+@ExtendWith(MockitoExtension.class)
+public class ExpenseCountEstimatorTest {
+
+@Mock private ExpenseRepository expenseRepository;
+
+@Mock private JdbcTemplate jdbcTemplate;
+
+private ExpenseCountEstimator countEstimator;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	countEstimator = new ExpenseCountEstimator(expenseRepository, jdbcTemplate);
+
+	testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+}
+
+@Test
+public void estimate_NoFilters_CountsOnceUntilExpensesChange() {
+	// Arrange
+	Specification<Expense> spec = (root, query, criteriaBuilder) -> null;
+	when(expenseRepository.countByUser(testUser)).thenReturn(10L, 14L);
+
+	// Act
+	long first = countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+	long cached = countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+	countEstimator.expensesAdded(testUser, 5);
+	countEstimator.expensesRemoved(testUser, 1);
+	long reloaded = countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+
+	// Assert
+	assertThat(first).isEqualTo(10);
+	assertThat(cached).isEqualTo(10);
+	assertThat(reloaded).isEqualTo(14);
+	verify(expenseRepository, times(2)).countByUser(testUser);
+	verify(expenseRepository, never()).count(any(Specification.class));
+}
+
+@Test
+public void estimate_WriteFinishesWhileCounting_DoesNotCacheCount() {
+	// Arrange - an import commits a batch after the first count has read the table
+	Specification<Expense> spec = (root, query, criteriaBuilder) -> null;
+	when(expenseRepository.countByUser(testUser))
+		.thenAnswer(
+			invocation -> {
+				countEstimator.expensesAdded(testUser, 100);
+				return 10L;
+			})
+		.thenReturn(110L);
+
+	// Act
+	long first = countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+	long second = countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+
+	// Assert
+	assertThat(first).isEqualTo(10);
+	assertThat(second).isEqualTo(110);
+	verify(expenseRepository, times(2)).countByUser(testUser);
+}
+
+@Test
+public void expensesAdded_InTransaction_InvalidatesCountWhenTransactionFinishes() {
+	// Arrange
+	Specification<Expense> spec = (root, query, criteriaBuilder) -> null;
+	when(expenseRepository.countByUser(testUser)).thenReturn(10L);
+	TransactionSynchronizationManager.initSynchronization();
+	try {
+		countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+
+		// Act
+		countEstimator.expensesAdded(testUser, 5);
+		countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+		verify(expenseRepository, times(1)).countByUser(testUser);
+		TransactionSynchronizationUtils.invokeAfterCompletion(
+			TransactionSynchronizationManager.getSynchronizations(),
+			TransactionSynchronization.STATUS_ROLLED_BACK);
+		countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+	} finally {
+		TransactionSynchronizationManager.clearSynchronization();
+	}
+
+	// Assert - a rolled back write may have been counted inside its transaction, so it counts again
+	verify(expenseRepository, times(2)).countByUser(testUser);
+}
+
+@Test
+public void estimate_MoreUsersThanCacheHolds_EvictsLeastRecentlyUsedCount() {
+	// Arrange
+	Specification<Expense> spec = (root, query, criteriaBuilder) -> null;
+	when(expenseRepository.countByUser(any())).thenReturn(1L);
+
+	// Act
+	countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+	for (long id = 2; id <= ExpenseCountEstimator.MAX_CACHED_USERS + 1; id++) {
+		User user = new User();
+		user.setId(id);
+		countEstimator.estimate(new ExpenseSearchCriteria(), user, spec);
+	}
+	countEstimator.estimate(new ExpenseSearchCriteria(), testUser, spec);
+
+	// Assert
+	verify(expenseRepository, times(2)).countByUser(testUser);
+}
+
+@Test
+public void expensesAdded_CountNotLoaded_LoadsExactCountLater() {
+	// Arrange
+	when(expenseRepository.countByUser(testUser)).thenReturn(3L);
+
+	// Act
+	countEstimator.expensesAdded(testUser, 2);
+	long estimate =
+		countEstimator.estimate(
+			new ExpenseSearchCriteria(), testUser, (root, query, criteriaBuilder) -> null);
+
+	// Assert
+	assertThat(estimate).isEqualTo(3);
+}
+
+@Test
+public void estimate_FiltersWithoutPlannerEstimate_FallsBackToExactCount() {
+	// Arrange - the mocked connection callback returns null, as on databases other than PostgreSQL
+	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
+	criteria.setCategory("Groceries");
+	Specification<Expense> spec = (root, query, criteriaBuilder) -> null;
+	when(expenseRepository.count(spec)).thenReturn(4L);
+
+	// Act
+	long estimate = countEstimator.estimate(criteria, testUser, spec);
+
+	// Assert
+	assertThat(estimate).isEqualTo(4);
+	verify(expenseRepository, never()).countByUser(any());
+}
+}
@@ -0,0 +1,137 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the commons-csv import path with {@link ExpenseCsvReader} and the byte-level field
+ * parsing in {@link ExpenseRowParser}. Both read the same file and produce the same field values;
+ * Bean Validation is left out as it is identical for both.
+ *
+ * <p>Not a unit test. Run the main method from the IDE, or with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.tgboyles.frugalfox.expense.ExpenseCsvReaderBenchmark}. The GC profiler
+ * reports the allocation rate per operation ({@code gc.alloc.rate.norm}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseCsvReaderBenchmark {
+
+private static final CSVFormat COMMONS_FORMAT =
+	CSVFormat.DEFAULT
+		.builder()
+		.setHeader("date", "merchant", "amount", "bank", "category")
+		.setSkipHeaderRecord(true)
+		.setIgnoreEmptyLines(true)
+		.setTrim(true)
+		.build();
+
+private static final String[] BANKS = {"Chase", "BofA", "Amex", "Wells Fargo", "Citi"};
+private static final String[] CATEGORIES = {
+	"Groceries", "Dining", "Shopping", "Transportation", "Utilities", "Entertainment"
+};
+
+@Param({"10000"})
+public int rows;
+
+private byte[] file;
+
+@Setup
+public void setup() {
+	StringBuilder csv = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 0; i < rows; i++) {
+		csv.append("2025-")
+			.append(String.format("%02d-%02d", i % 12 + 1, i % 28 + 1))
+			.append(i % 10 == 0 ? ",\"Joe's \"\"Diner\"\", Inc\"," : ",Merchant " + i + ",")
+			.append(i % 1000)
+			.append('.')
+			.append(String.format("%02d", i % 100))
+			.append(',')
+			.append(BANKS[i % BANKS.length])
+			.append(',')
+			.append(CATEGORIES[i % CATEGORIES.length])
+			.append('\n');
+	}
+	file = csv.toString().getBytes(StandardCharsets.UTF_8);
+}
+
+@Benchmark
+public void commonsCsv(Blackhole blackhole) throws IOException {
+	try (Reader reader =
+			new InputStreamReader(new ByteArrayInputStream(file), StandardCharsets.UTF_8);
+		CSVParser parser = new CSVParser(reader, COMMONS_FORMAT)) {
+		for (CSVRecord record : parser) {
+			blackhole.consume(LocalDate.parse(record.get("date")));
+			blackhole.consume(record.get("merchant"));
+			blackhole.consume(new BigDecimal(record.get("amount")));
+			blackhole.consume(record.get("bank"));
+			blackhole.consume(record.get("category"));
+		}
+	}
+}
+
+@Benchmark
+public void expenseCsvReader(Blackhole blackhole) throws IOException {
+	ValueInterner interner = new ValueInterner();
+	RowChunk chunk = new RowChunk(100);
+	try (ExpenseCsvReader reader = new ExpenseCsvReader(new ByteArrayInputStream(file))) {
+		while (reader.readRecord(chunk)) {
+			if (chunk.size() == 100) {
+				consume(chunk, interner, blackhole);
+				chunk = new RowChunk(100);
+			}
+		}
+		consume(chunk, interner, blackhole);
+	}
+}
+
+private void consume(RowChunk chunk, ValueInterner interner, Blackhole blackhole) {
+	byte[] data = chunk.data();
+	for (int row = 0; row < chunk.size(); row++) {
+		blackhole.consume(ExpenseRowParser.parseDate(data, chunk.start(row, 0), chunk.end(row, 0)));
+		blackhole.consume(chunk.text(row, 1));
+		blackhole.consume(ExpenseRowParser.parseAmount(data, chunk.start(row, 2), chunk.end(row, 2)));
+		blackhole.consume(interner.intern(data, chunk.start(row, 3), chunk.end(row, 3)));
+		blackhole.consume(interner.intern(data, chunk.start(row, 4), chunk.end(row, 4)));
+	}
+}
+
+public static void main(String[] args) throws RunnerException {
+	new Runner(
+			new OptionsBuilder()
+				.include(ExpenseCsvReaderBenchmark.class.getSimpleName())
+				.addProfiler(GCProfiler.class)
+				.build())
+		.run();
+}
+}
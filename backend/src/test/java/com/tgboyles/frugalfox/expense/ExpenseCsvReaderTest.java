@@ -0,0 +1,151 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+/** Unit tests for ExpenseCsvReader. */
+public class ExpenseCsvReaderTest {
+
+/** The commons-csv format the import used before ExpenseCsvReader. */
+private static final CSVFormat COMMONS_FORMAT =
+	CSVFormat.DEFAULT
+		.builder()
+		.setHeader("date", "merchant", "amount", "bank", "category")
+		.setSkipHeaderRecord(true)
+		.setIgnoreEmptyLines(true)
+		.setTrim(true)
+		.build();
+
+@Test
+public void readRecord_SimpleFile_SkipsHeaderAndNumbersRows() throws IOException {
+	RowChunk chunk =
+		readAll(
+			"date,merchant,amount,bank,category\n"
+				+ "2025-01-01,Whole Foods,50.00,Chase,Groceries\n"
+				+ "2025-01-02,Target,75.50,BofA,Shopping\n");
+
+	assertThat(chunk.size()).isEqualTo(2);
+	assertThat(chunk.rowNumber(0)).isEqualTo(1);
+	assertThat(chunk.rowNumber(1)).isEqualTo(2);
+	assertThat(fields(chunk, 1)).containsExactly("2025-01-02", "Target", "75.50", "BofA", "Shopping");
+}
+
+@Test
+public void readRecord_EmptyFile_ReturnsNoRows() throws IOException {
+	assertThat(readAll("").size()).isZero();
+	assertThat(readAll("date,merchant,amount,bank,category\n").size()).isZero();
+}
+
+@Test
+public void readRecord_ByteOrderMark_IsIgnored() throws IOException {
+	byte[] bom = {(byte) 0xEF, (byte) 0xBB, (byte) 0xBF};
+	byte[] body =
+		"date,merchant,amount,bank,category\n2025-01-01,Cafe,1.00,Chase,Food\n"
+			.getBytes(StandardCharsets.UTF_8);
+	byte[] content = new byte[bom.length + body.length];
+	System.arraycopy(bom, 0, content, 0, bom.length);
+	System.arraycopy(body, 0, content, bom.length, body.length);
+
+	RowChunk chunk = new RowChunk(4);
+	try (ExpenseCsvReader reader = new ExpenseCsvReader(new ByteArrayInputStream(content))) {
+		while (reader.readRecord(chunk)) {
+			// read everything
+		}
+	}
+
+	assertThat(chunk.size()).isEqualTo(1);
+	assertThat(chunk.text(0, 1)).isEqualTo("Cafe");
+}
+
+@Test
+public void readRecord_UnterminatedQuote_ThrowsCsvImportException() {
+	assertThatThrownBy(
+			() -> readAll("date,merchant,amount,bank,category\n2025-01-01,\"Cafe,1.00,Chase,Food\n"))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("Failed to parse CSV file");
+}
+
+@Test
+public void readRecord_TextAfterClosingQuote_ThrowsCsvImportException() {
+	assertThatThrownBy(
+			() -> readAll("date,merchant,amount,bank,category\n2025-01-01,\"Cafe\"x,1.00,Chase,Food\n"))
+		.isInstanceOf(CsvImportException.class);
+}
+
+@ParameterizedTest
+@ValueSource(
+	strings = {
+		"2025-01-01,Whole Foods,50.00,Chase,Groceries\n",
+		"2025-01-01,Whole Foods,50.00,Chase,Groceries",
+		"2025-01-01,Whole Foods,50.00,Chase,Groceries\r\n2025-01-02,Target,1,BofA,Shopping\r\n",
+		"2025-01-01,Whole Foods,50.00,Chase,Groceries\r2025-01-02,Target,1,BofA,Shopping\r",
+		"\n\n2025-01-01,Whole Foods,50.00,Chase,Groceries\n\n\n2025-01-02,Target,1,BofA,Shopping\n",
+		"  2025-01-01 ,\t Whole Foods  ,50.00 , Chase,Groceries  \n",
+		"2025-01-01,\"Joe's \"\"Diner\"\", Inc\",12.34,BofA,Dining\n",
+		"2025-01-01,\"Multi\nLine\r\nMerchant\",12.34,BofA,Dining\n",
+		"2025-01-01,\"  padded  \"  ,12.34,BofA,Dining\n",
+		"2025-01-01,  \"not quoted\",12.34,BofA,Dining\n",
+		"2025-01-01,ab\"c,12.34,BofA,Dining\n",
+		"2025-01-01,Café Zoë,12.34,Crédit Agricole,Épicerie\n",
+		"2025-01-01,Short,12.34\n",
+		"2025-01-01,Long,12.34,BofA,Dining,extra,,\n",
+		"   \n2025-01-01,Trailing,12.34,BofA,\n",
+		",,,,\n"
+	})
+public void readRecord_MatchesCommonsCsv(String rows) throws IOException {
+	String content = "date,merchant,amount,bank,category\n" + rows;
+
+	List<List<String>> expected = new ArrayList<>();
+	List<Long> expectedNumbers = new ArrayList<>();
+	try (CSVParser parser = CSVParser.parse(new StringReader(content), COMMONS_FORMAT)) {
+		for (CSVRecord record : parser) {
+			expected.add(record.toList());
+			expectedNumbers.add(record.getRecordNumber());
+		}
+	}
+
+	RowChunk chunk = readAll(content);
+	List<List<String>> actual = new ArrayList<>();
+	List<Long> actualNumbers = new ArrayList<>();
+	for (int row = 0; row < chunk.size(); row++) {
+		actual.add(fields(chunk, row));
+		actualNumbers.add((long) chunk.rowNumber(row));
+	}
+
+	assertThat(actual).isEqualTo(expected);
+	assertThat(actualNumbers).isEqualTo(expectedNumbers);
+}
+
+private RowChunk readAll(String content) throws IOException {
+	RowChunk chunk = new RowChunk(4);
+	try (ExpenseCsvReader reader =
+			new ExpenseCsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+		while (reader.readRecord(chunk)) {
+			// read everything
+		}
+	}
+	return chunk;
+}
+
+private List<String> fields(RowChunk chunk, int row) {
+	List<String> fields = new ArrayList<>();
+	for (int field = 0; field < chunk.fieldCount(row); field++) {
+		fields.add(chunk.text(row, field));
+	}
+	return fields;
+}
+}
@@ -0,0 +1,232 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ExpenseImportPipeline. */
+public class ExpenseImportPipelineTest {
+
+private ImportProperties importProperties;
+private ExpenseImportPipeline pipeline;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	importProperties = new ImportProperties();
+	importProperties.setBatchSize(10);
+	importProperties.getPipeline().setValidatorThreads(4);
+	importProperties.getPipeline().setChunksInFlight(2);
+	pipeline = new ExpenseImportPipeline(new ExpenseRowParser(new ExpenseValidator()), importProperties);
+
+	testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+}
+
+@AfterEach
+public void tearDown() {
+	pipeline.shutdown();
+}
+
+@Test
+public void run_ManyChunks_DeliversRowsAndErrorsInFileOrder() {
+	// Arrange - every 7th row has an invalid date
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 1; i <= 1000; i++) {
+		String date = i % 7 == 0 ? "not-a-date" : "2025-01-01";
+		csvContent.append(date).append(",Merchant").append(i).append(",10.00,Chase,Category\n");
+	}
+	List<ImportRow> delivered = new ArrayList<>();
+
+	// Act
+	ExpenseImportPipeline.Outcome outcome =
+		pipeline.run(csv(csvContent.toString()), testUser, ImportProgress.NONE, delivered::add);
+
+	// Assert
+	assertThat(outcome.lastRow()).isEqualTo(1000);
+	assertThat(outcome.endOfFile()).isTrue();
+	assertThat(delivered).hasSize(1000);
+	for (int i = 0; i < delivered.size(); i++) {
+		ImportRow row = delivered.get(i);
+		int rowNumber = i + 1;
+		assertThat(row.rowNumber()).isEqualTo(rowNumber);
+		if (rowNumber % 7 == 0) {
+			assertThat(row.isValid()).isFalse();
+			assertThat(row.error()).startsWith("Row " + rowNumber + ": Invalid date format");
+			assertThat(row.errorType()).isEqualTo(ImportErrorType.INVALID_DATE);
+		} else {
+			assertThat(row.isValid()).isTrue();
+			assertThat(row.expense().getMerchant()).isEqualTo("Merchant" + rowNumber);
+		}
+	}
+}
+
+@Test
+public void run_EuropeanBankExport_DetectsLayoutForWholeFile() {
+	// Arrange - the sample chunk holds the first 10 rows; later rows use the same layout
+	StringBuilder csvContent = new StringBuilder("Booking Date;Payee;Amount;Account;Category\n");
+	for (int i = 1; i <= 25; i++) {
+		csvContent.append(String.format("%d.01.2025;Merchant%d;1.%03d,50;Giro;Food%n", i, i, i));
+	}
+	List<ImportRow> delivered = new ArrayList<>();
+
+	// Act
+	pipeline.run(csv(csvContent.toString()), testUser, ImportProgress.NONE, delivered::add);
+
+	// Assert
+	assertThat(delivered).hasSize(25).allMatch(ImportRow::isValid);
+	ImportRow last = delivered.get(24);
+	assertThat(last.expense().getDate()).isEqualTo(LocalDate.of(2025, 1, 25));
+	assertThat(last.expense().getAmount()).isEqualByComparingTo("1025.50");
+	assertThat(last.expense().getBank()).isEqualTo("Giro");
+}
+
+@Test
+public void run_WriterStops_ReturnsWithoutReadingTheRestOfTheFile() {
+	// Arrange
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 1; i <= 1000; i++) {
+		csvContent.append("2025-01-01,Merchant").append(i).append(",10.00,Chase,Category\n");
+	}
+	List<ImportRow> delivered = new ArrayList<>();
+
+	// Act
+	ExpenseImportPipeline.Outcome outcome =
+		pipeline.run(
+			csv(csvContent.toString()),
+			testUser,
+			ImportProgress.NONE,
+			row -> {
+				delivered.add(row);
+				return row.rowNumber() < 25;
+			});
+
+	// Assert
+	assertThat(outcome.lastRow()).isEqualTo(25);
+	assertThat(outcome.endOfFile()).isFalse();
+	assertThat(delivered).hasSize(25);
+}
+
+@Test
+public void run_WriterStopsWhileReaderIsBlocked_ClosesStreamAndWaitsForReader() throws Exception {
+	// Arrange - more than the delimiter sample, after which the upload stalls like a slow client
+	importProperties.getPipeline().setChunksInFlight(20);
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 1; i <= 100; i++) {
+		csvContent
+			.append("2025-01-01,Merchant")
+			.append(i)
+			.append("x".repeat(200))
+			.append(",10.00,Chase,Category\n");
+	}
+	StalledInputStream upload = new StalledInputStream(csvContent.toString());
+
+	// Act - stop once the reader is stuck waiting for more of the upload
+	ExpenseImportPipeline.Outcome outcome =
+		pipeline.run(
+			upload,
+			testUser,
+			ImportProgress.NONE,
+			row -> {
+				try {
+					assertThat(upload.stalled.await(10, TimeUnit.SECONDS)).isTrue();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return false;
+			});
+
+	// Assert - the stream was closed and the reader has let go of it
+	assertThat(outcome.lastRow()).isEqualTo(1);
+	assertThat(upload.closed.getCount()).isZero();
+	assertThat(upload.reading).isFalse();
+}
+
+@Test
+public void run_ExceedsRowLimit_DeliversEarlierRowsThenThrows() {
+	// Arrange
+	importProperties.getQuota().setMaxRows(25);
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 1; i <= 30; i++) {
+		csvContent.append("2025-01-01,Merchant").append(i).append(",10.00,Chase,Category\n");
+	}
+	List<ImportRow> delivered = new ArrayList<>();
+
+	// Act & Assert
+	assertThatThrownBy(
+			() -> pipeline.run(csv(csvContent.toString()), testUser, ImportProgress.NONE, delivered::add))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("exceeds maximum row limit of 25");
+	assertThat(delivered).hasSize(20);
+}
+
+private InputStream csv(String content) {
+	return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+}
+
+/**
+ * Serves its content, then blocks like a servlet request waiting for the client: interrupts are
+ * ignored and only closing the stream ends the read.
+ */
+private static final class StalledInputStream extends InputStream {
+
+	private final InputStream content;
+	private final CountDownLatch stalled = new CountDownLatch(1);
+	private final CountDownLatch closed = new CountDownLatch(1);
+	private volatile boolean reading;
+
+	StalledInputStream(String content) {
+		this.content = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+	}
+
+	@Override
+	public int read() throws IOException {
+		byte[] single = new byte[1];
+		return read(single, 0, 1) < 0 ? -1 : single[0] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) throws IOException {
+		int count = content.read(buffer, offset, length);
+		if (count >= 0) {
+			return count;
+		}
+		reading = true;
+		stalled.countDown();
+		try {
+			while (true) {
+				try {
+					closed.await();
+					break;
+				} catch (InterruptedException e) {
+					// Ignored, like a blocking socket read
+				}
+			}
+		} finally {
+			reading = false;
+		}
+		throw new IOException("Stream closed");
+	}
+
+	@Override
+	public void close() {
+		closed.countDown();
+	}
+}
+}
@@ -0,0 +1,251 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.tgboyles.frugalfox.user.User;
+import com.tgboyles.frugalfox.user.UserRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Tests that large imports commit batch by batch instead of in one long transaction.
+ *
+ * <p>Not {@code @Transactional}: the import must manage its own transactions, and committed rows
+ * are checked from a separate connection while the import is still running.
+ */
+@SpringBootTest(
+	properties = {
+		"frugalfox.import.quota.max-rows=100000",
+		"frugalfox.import.quota.max-size=50MB",
+		"spring.jpa.show-sql=false"
+	})
+public class ExpenseImportTransactionTest {
+
+private static final int ROWS = 50_000;
+
+@Autowired private ExpenseService expenseService;
+
+@Autowired private UserRepository userRepository;
+
+@Autowired private JdbcTemplate jdbcTemplate;
+
+@Autowired private ImportProperties importProperties;
+
+@Autowired private DataSource dataSource;
+
+@Autowired private WebApplicationContext context;
+
+@Autowired private EntityManager entityManager;
+
+@MockitoSpyBean private ImportConnectionBudget connectionBudget;
+
+@MockitoSpyBean private ExpenseBulkWriter expenseBulkWriter;
+
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	testUser = new User();
+	testUser.setUsername("largeimportuser");
+	testUser.setPassword("password123");
+	testUser.setEmail("largeimport@example.com");
+	testUser.setEnabled(true);
+	testUser = userRepository.save(testUser);
+}
+
+@AfterEach
+public void cleanup() {
+	importProperties.getUsers().remove(testUser.getUsername());
+	jdbcTemplate.update("DELETE FROM expenses WHERE user_id = ?", testUser.getId());
+	userRepository.delete(testUser);
+}
+
+@Test
+public void importExpenses_LargeFile_CommitsEachBatchWithEmptyPersistenceContext() {
+	// Arrange - look at the persistence context as each batch transaction commits
+	List<Integer> managedAtCommit = new ArrayList<>();
+	doAnswer(
+			invocation -> {
+				Object inserted = invocation.callRealMethod();
+				TransactionSynchronizationManager.registerSynchronization(
+					new TransactionSynchronization() {
+						@Override
+						public void beforeCommit(boolean readOnly) {
+							managedAtCommit.add(
+								entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+						}
+					});
+				return inserted;
+			})
+		.when(expenseBulkWriter)
+		.insert(any(), any());
+	BatchObserver observer = new BatchObserver();
+
+	// Act
+	ImportResult result = expenseService.importExpenses(new GeneratedCsv(ROWS), testUser, observer);
+
+	// Assert
+	assertThat(result.getSuccessfulImports()).isEqualTo(ROWS);
+	assertThat(result.getFailedImports()).isZero();
+
+	// Every batch was visible to another connection as soon as it was saved, i.e. it had
+	// committed and released its locks before the next batch started
+	assertThat(observer.committedCounts).hasSize(ROWS / 100);
+	for (int i = 0; i < observer.committedCounts.size(); i++) {
+		assertThat(observer.committedCounts.get(i)).isEqualTo((i + 1) * 100L);
+	}
+
+	// Imported rows never became managed entities, so nothing piles up in the persistence context
+	// over the course of the file
+	assertThat(managedAtCommit).hasSize(ROWS / 100).containsOnly(0);
+}
+
+@Test
+public void importExpenses_ExceedsRowQuotaAfterSavingBatches_ReturnsAbortedResultForSavedRows() {
+	// Arrange - rows 1-200 fill two batches, row 251 is over the quota
+	importProperties.getUsers().put(testUser.getUsername(), new ImportProperties.Quota(250, null));
+
+	// Act
+	ImportResult result =
+		expenseService.importExpenses(new GeneratedCsv(251), testUser, ImportProgress.NONE);
+
+	// Assert - the two committed batches are reported instead of a bare failure...
+	assertThat(result.isAborted()).isTrue();
+	assertThat(result.getAbortReason()).contains("exceeds maximum row limit of 250");
+	assertThat(result.getSuccessfulImports()).isEqualTo(200);
+	assertThat(result.getTotalRows()).isEqualTo(200);
+
+	// ...and they are exactly what is in the database; the rows after them were not imported
+	assertThat(
+			jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM expenses WHERE user_id = ?", Long.class, testUser.getId()))
+		.isEqualTo(200L);
+	assertThat(
+			jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM expenses WHERE user_id = ? AND merchant = 'Merchant 200'",
+				Long.class,
+				testUser.getId()))
+		.isZero();
+}
+
+@Test
+public void importEndpoint_ReleasesConnectionBetweenBatches() throws Exception {
+	// Arrange - sample the pool's checked-out connections as soon as each batch write returns
+	HikariPoolMXBean pool = dataSource.unwrap(HikariDataSource.class).getHikariPoolMXBean();
+	List<Integer> activeAfterBatch = new ArrayList<>();
+	doAnswer(
+			invocation -> {
+				Object written = invocation.callRealMethod();
+				activeAfterBatch.add(pool.getActiveConnections());
+				return written;
+			})
+		.when(connectionBudget)
+		.call(any());
+	MockMvc mvc = MockMvcBuilders.webAppContextSetup(context).apply(springSecurity()).build();
+
+	// Act
+	mvc.perform(
+			post("/expenses/import")
+				.contentType("text/csv")
+				.content(new GeneratedCsv(1000).readAllBytes())
+				.with(user(testUser)))
+		.andExpect(status().isOk())
+		.andExpect(jsonPath("$.successfulImports").value(1000));
+
+	// Assert - the request does not keep a connection while the rest of the upload is read, so
+	// imports only hold connections inside the import connection budget
+	assertThat(activeAfterBatch).hasSize(10).containsOnly(0);
+}
+
+/** Records how many rows another connection sees as committed after each batch. */
+private class BatchObserver implements ImportProgress {
+	private final List<Long> committedCounts = new ArrayList<>();
+
+	@Override
+	public void rowsSaved(int count) {
+		committedCounts.add(
+			jdbcTemplate.queryForObject(
+				"SELECT COUNT(*) FROM expenses WHERE user_id = ?", Long.class, testUser.getId()));
+	}
+}
+
+/** Generates CSV rows on demand so the test input itself does not occupy the heap. */
+private static class GeneratedCsv extends InputStream {
+	private final int rows;
+	private int row = -1;
+	private byte[] line = new byte[0];
+	private int position;
+
+	GeneratedCsv(int rows) {
+		this.rows = rows;
+	}
+
+	@Override
+	public int read() {
+		if (!fill()) {
+			return -1;
+		}
+		return line[position++] & 0xff;
+	}
+
+	@Override
+	public int read(byte[] buffer, int offset, int length) {
+		if (length == 0) {
+			return 0;
+		}
+		if (!fill()) {
+			return -1;
+		}
+		int count = Math.min(length, line.length - position);
+		System.arraycopy(line, position, buffer, offset, count);
+		position += count;
+		return count;
+	}
+
+	private boolean fill() {
+		while (position == line.length) {
+			if (row >= rows) {
+				return false;
+			}
+			String text =
+				row < 0
+					? "date,merchant,amount,bank,category\n"
+					: "2025-01-01,Merchant " + row + "," + (row % 500 + 1) + ".25,Chase,Groceries\n";
+			line = text.getBytes(StandardCharsets.UTF_8);
+			position = 0;
+			row++;
+		}
+		return true;
+	}
+}
+}
@@ -0,0 +1,160 @@
+package com.tgboyles.frugalfox.expense;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures merchant search latency on PostgreSQL against the number of rows, with and without the
+ * trigram index of {@code V6__add_merchant_trigram_index.sql}. The queries are the ones the
+ * merchant filter of a search produces: a page of 20 ordered by date, and the count of a regular
+ * search.
+ *
+ * <p>The rows are spread over 10 users and the searched user has a tenth of them. The searched term
+ * matches one row in a thousand, like a merchant visited now and then.
+ *
+ * <p>Not a unit test, and it needs a PostgreSQL database with the {@code pg_trgm} and
+ * {@code btree_gin} extensions available (the {@code docker-compose.yml} one works). The data goes
+ * into its own {@code merchant_search_benchmark} table, which is dropped afterwards. Run the main
+ * method from the IDE, or with {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.tgboyles.frugalfox.expense.ExpenseMerchantSearchBenchmark}; the database
+ * is set with {@code -Dbenchmark.jdbc.url}, {@code -Dbenchmark.jdbc.username} and
+ * {@code -Dbenchmark.jdbc.password}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ExpenseMerchantSearchBenchmark {
+
+private static final String TABLE = "merchant_search_benchmark";
+
+private static final int USERS = 10;
+
+private static final String SEARCH_CONDITION =
+	"user_id = ? AND lower(merchant) LIKE ? ESCAPE '\\'";
+
+private static final String PAGE_SQL =
+	"SELECT id, expense_date, merchant, amount FROM " + TABLE + " WHERE " + SEARCH_CONDITION
+		+ " ORDER BY expense_date DESC, id DESC LIMIT 20";
+
+private static final String COUNT_SQL = "SELECT count(*) FROM " + TABLE + " WHERE " + SEARCH_CONDITION;
+
+/** Merchants of the generated rows; every thousandth row is "Blue Bottle Coffee". */
+private static final String INSERT_SQL =
+	"INSERT INTO " + TABLE + " (user_id, expense_date, merchant, amount) "
+		+ "SELECT g % " + USERS + ", DATE '2020-01-01' + (g % 2000), "
+		+ "CASE WHEN g % 1000 = 0 THEN 'Blue Bottle Coffee' "
+		+ "ELSE (ARRAY['Whole Foods Market', 'Shell', 'Target', 'Amazon', 'Starbucks', "
+		+ "'Trader Joe''s', 'Chipotle', 'Costco', 'Netflix', 'Uber'])[1 + g % 10] || ' #' || (g % 97) END, "
+		+ "(g % 10000) / 100.0 "
+		+ "FROM generate_series(1, ?) g";
+
+@Param({"10000", "100000", "1000000"})
+public int rows;
+
+@Param({"btree", "trigram"})
+public String index;
+
+private Connection connection;
+private PreparedStatement pageQuery;
+private PreparedStatement countQuery;
+
+@Setup(Level.Trial)
+public void setup() throws SQLException {
+	connection =
+		DriverManager.getConnection(
+			System.getProperty("benchmark.jdbc.url", "jdbc:postgresql://localhost:5432/frugalfox"),
+			System.getProperty("benchmark.jdbc.username", "frugalfox"),
+			System.getProperty("benchmark.jdbc.password", "frugalfox"));
+
+	try (Statement statement = connection.createStatement()) {
+		statement.execute("DROP TABLE IF EXISTS " + TABLE);
+		statement.execute(
+			"CREATE TABLE " + TABLE + " (id BIGSERIAL PRIMARY KEY, user_id BIGINT NOT NULL, "
+				+ "expense_date DATE NOT NULL, merchant VARCHAR(255) NOT NULL, amount NUMERIC(12, 2) NOT NULL)");
+	}
+	try (PreparedStatement insert = connection.prepareStatement(INSERT_SQL)) {
+		insert.setInt(1, rows);
+		insert.executeUpdate();
+	}
+	try (Statement statement = connection.createStatement()) {
+		// The indexes of the expenses table that a merchant search could use
+		statement.execute(
+			"CREATE INDEX " + TABLE + "_user_date ON " + TABLE + " (user_id, expense_date DESC, id DESC)");
+		statement.execute("CREATE INDEX " + TABLE + "_merchant ON " + TABLE + " (merchant)");
+		if (index.equals("trigram")) {
+			statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+			statement.execute("CREATE EXTENSION IF NOT EXISTS btree_gin");
+			statement.execute(
+				"CREATE INDEX " + TABLE + "_user_merchant_trgm ON " + TABLE
+					+ " USING gin (user_id, lower(merchant) gin_trgm_ops)");
+		}
+		statement.execute("ANALYZE " + TABLE);
+	}
+
+	pageQuery = connection.prepareStatement(PAGE_SQL);
+	countQuery = connection.prepareStatement(COUNT_SQL);
+	for (PreparedStatement query : new PreparedStatement[] {pageQuery, countQuery}) {
+		query.setLong(1, 1);
+		query.setString(2, "%bottle%");
+	}
+}
+
+@TearDown(Level.Trial)
+public void tearDown() throws SQLException {
+	try (Statement statement = connection.createStatement()) {
+		statement.execute("DROP TABLE IF EXISTS " + TABLE);
+	} finally {
+		connection.close();
+	}
+}
+
+@Benchmark
+public void searchPage(Blackhole blackhole) throws SQLException {
+	try (ResultSet resultSet = pageQuery.executeQuery()) {
+		while (resultSet.next()) {
+			blackhole.consume(resultSet.getLong(1));
+			blackhole.consume(resultSet.getString(3));
+		}
+	}
+}
+
+@Benchmark
+public long countMatches() throws SQLException {
+	try (ResultSet resultSet = countQuery.executeQuery()) {
+		resultSet.next();
+		return resultSet.getLong(1);
+	}
+}
+
+public static void main(String[] args) throws RunnerException {
+	new Runner(
+			new OptionsBuilder().include(ExpenseMerchantSearchBenchmark.class.getSimpleName()).build())
+		.run();
+}
+}
@@ -0,0 +1,159 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ExpenseRowParser. */
+public class ExpenseRowParserTest {
+
+private ExpenseRowParser rowParser;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	rowParser = new ExpenseRowParser(new ExpenseValidator());
+
+	testUser = new User();
+	testUser.setId(1L);
+}
+
+@ParameterizedTest
+@ValueSource(
+	strings = {"0", "50.00", "-0.00", "+12.5", "1.", ".5", "000123.4500", "999999999999999999",
+		"1234567890123456789.01", "1e3", "-1E-2"})
+public void parseAmount_MatchesBigDecimalConstructor(String value) {
+	byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+
+	BigDecimal fast = ExpenseRowParser.parseAmount(bytes, 0, bytes.length);
+
+	// Values outside the fast path fall back to the BigDecimal constructor
+	if (fast != null) {
+		assertThat(fast).isEqualTo(new BigDecimal(value));
+		assertThat(fast.scale()).isEqualTo(new BigDecimal(value).scale());
+	} else {
+		assertThat(value).matches(".*[eE].*|.{19,}");
+	}
+}
+
+@ParameterizedTest
+@ValueSource(strings = {"", "-", ".", "1.2.3", "12a", "1,000"})
+public void parseAmount_NotPlainDecimal_ReturnsNull(String value) {
+	byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+	assertThat(ExpenseRowParser.parseAmount(bytes, 0, bytes.length)).isNull();
+}
+
+@Test
+public void parseAmount_GroupingAndDecimalComma_IsDecoded() {
+	byte[] bytes = "-1.234.567,89".getBytes(StandardCharsets.UTF_8);
+
+	assertThat(ExpenseRowParser.parseAmount(bytes, 0, bytes.length, (byte) ',', (byte) '.'))
+		.isEqualTo(new BigDecimal("-1234567.89"));
+	assertThat(ExpenseRowParser.parseAmount(bytes, 0, bytes.length, (byte) '.', (byte) 0)).isNull();
+}
+
+@Test
+public void parseDate_IsoDate_MatchesLocalDateParse() {
+	byte[] bytes = "2024-02-29".getBytes(StandardCharsets.UTF_8);
+	assertThat(ExpenseRowParser.parseDate(bytes, 0, bytes.length))
+		.isEqualTo(LocalDate.parse("2024-02-29"));
+}
+
+@Test
+public void parseDate_InvalidDate_ThrowsDateTimeException() {
+	byte[] bytes = "2025-02-30".getBytes(StandardCharsets.UTF_8);
+	assertThatThrownBy(() -> ExpenseRowParser.parseDate(bytes, 0, bytes.length))
+		.isInstanceOf(DateTimeException.class);
+}
+
+@Test
+public void parse_ValidRow_InternsBankAndCategory() throws IOException {
+	// Arrange
+	RowChunk chunk =
+		read(
+			"2025-01-01,Whole Foods,50.00,Chase,Groceries\n"
+				+ "2025-01-02,Target,75.50,Chase,Groceries\n");
+	ValueInterner interner = new ValueInterner();
+
+	// Act
+	Expense first = rowParser.parse(chunk, 0, testUser, interner);
+	Expense second = rowParser.parse(chunk, 1, testUser, interner);
+
+	// Assert
+	assertThat(first.getDate()).isEqualTo(LocalDate.of(2025, 1, 1));
+	assertThat(first.getMerchant()).isEqualTo("Whole Foods");
+	assertThat(first.getAmount()).isEqualByComparingTo("50.00");
+	assertThat(second.getBank()).isSameAs(first.getBank());
+	assertThat(second.getCategory()).isSameAs(first.getCategory());
+}
+
+@Test
+public void parse_InvalidValues_ReportsOriginalText() throws IOException {
+	RowChunk chunk =
+		read("2025-13-01,Cafe,1.00,Chase,Food\n2025-01-01,Cafe,abc,Chase,Food\n   ,Cafe,1,Chase,Food\n");
+	ValueInterner interner = new ValueInterner();
+
+	assertThatThrownBy(() -> rowParser.parse(chunk, 0, testUser, interner))
+		.hasMessage("Row 1: Invalid date format '2025-13-01'. Expected ISO format (YYYY-MM-DD)");
+	assertThatThrownBy(() -> rowParser.parse(chunk, 1, testUser, interner))
+		.hasMessage("Row 2: Invalid amount 'abc'. Expected numeric value");
+	assertThatThrownBy(() -> rowParser.parse(chunk, 2, testUser, interner))
+		.hasMessage("Row 3: All fields are required and cannot be null or blank");
+}
+
+@Test
+public void parse_ConstraintViolations_ReportsMessagesInFieldOrder() throws IOException {
+	RowChunk chunk = read("2999-01-01,Cafe,-1.00,Chase,Food\n");
+
+	assertThatThrownBy(() -> rowParser.parse(chunk, 0, testUser, new ValueInterner()))
+		.hasMessage(
+			"Row 1: Validation failed: Date cannot be in the future, Amount must be greater than zero");
+}
+
+@Test
+public void parse_DetectedLayout_ReadsReorderedColumnsAndFormats() throws IOException {
+	// Arrange
+	RowChunk chunk =
+		read(
+			"Food,31.01.2025,Sparkasse,\"1.234,56\",Cafe\n"
+				+ "Food,31.02.2025,Sparkasse,1,Cafe\n");
+	ImportLayout layout = new ImportLayout(1, 4, 3, 2, 0, ImportLayout.DateFormat.DMY_DOT, ',', '.');
+
+	// Act
+	Expense expense = rowParser.parse(chunk, 0, testUser, new ValueInterner(), layout);
+
+	// Assert
+	assertThat(expense.getDate()).isEqualTo(LocalDate.of(2025, 1, 31));
+	assertThat(expense.getMerchant()).isEqualTo("Cafe");
+	assertThat(expense.getAmount()).isEqualByComparingTo("1234.56");
+	assertThat(expense.getBank()).isEqualTo("Sparkasse");
+	assertThat(expense.getCategory()).isEqualTo("Food");
+	assertThatThrownBy(() -> rowParser.parse(chunk, 1, testUser, new ValueInterner(), layout))
+		.hasMessage("Row 2: Invalid date format '31.02.2025'. Expected format dd.MM.yyyy");
+}
+
+private RowChunk read(String rows) throws IOException {
+	String content = "date,merchant,amount,bank,category\n" + rows;
+	RowChunk chunk = new RowChunk(4);
+	try (ExpenseCsvReader reader =
+			new ExpenseCsvReader(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)))) {
+		while (reader.readRecord(chunk)) {
+			// read everything
+		}
+	}
+	return chunk;
+}
+}
@@ -3,39 +3,50 @@ package com.tgboyles.frugalfox.expense;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mock;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.math.BigDecimal;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
 
 import com.tgboyles.frugalfox.user.User;
 
-import jakarta.validation.ConstraintViolation;
-import jakarta.validation.Validator;
+import jakarta.persistence.EntityManager;
 
 /** Unit tests for ExpenseService. */
 @ExtendWith(MockitoExtension.class)
@@ -43,15 +54,48 @@ public class ExpenseServiceTest {
 
 @Mock private ExpenseRepository expenseRepository;
 
-@Mock private Validator validator;
+@Mock private ExpenseBulkWriter expenseBulkWriter;
 
-@InjectMocks private ExpenseService expenseService;
+@Spy private ImportProperties importProperties = new ImportProperties();
+
+@Mock private ExpenseCountEstimator countEstimator;
+
+@Mock private ExpenseFullTextSearch fullTextSearch;
+
+@Mock private EntityManager entityManager;
+
+@Mock private PlatformTransactionManager transactionManager;
+
+@TempDir private Path spoolDirectory;
+
+private ExpenseImportPipeline importPipeline;
+
+private ImportErrorReportService errorReportService;
+
+private ExpenseService expenseService;
 
 private User testUser;
 private Expense testExpense;
+private ExpenseView testView;
 
 @BeforeEach
 public void setup() {
+	importProperties.setSpoolDirectory(spoolDirectory);
+	errorReportService = new ImportErrorReportService(importProperties);
+	importPipeline = new ExpenseImportPipeline(new ExpenseRowParser(new ExpenseValidator()), importProperties);
+	expenseService =
+		new ExpenseService(
+			expenseRepository,
+			expenseBulkWriter,
+			importPipeline,
+			importProperties,
+			errorReportService,
+			new ImportConnectionBudget(importProperties),
+			countEstimator,
+			fullTextSearch,
+			entityManager,
+			transactionManager);
+
 	testUser = new User();
 	testUser.setId(1L);
 	testUser.setUsername("testuser");
@@ -65,6 +109,14 @@ public void setup() {
 	testExpense.setBank("Chase");
 	testExpense.setCategory("Groceries");
 	testExpense.setUser(testUser);
+
+	testView =
+		createView(1L, LocalDate.of(2025, 12, 26), "Whole Foods", new BigDecimal("125.50"), "Chase", "Groceries");
+}
+
+@AfterEach
+public void tearDown() {
+	importPipeline.shutdown();
 }
 
 @Test
@@ -85,7 +137,9 @@ public void createExpense_ValidInput_SetsUserAndSavesExpense() {
 	// Assert
 	assertThat(result).isNotNull();
 	assertThat(result.getUser()).isEqualTo(testUser);
+	assertThat(newExpense.getFingerprint()).isEqualTo(new ExpenseFingerprint(1L).of(newExpense));
 	verify(expenseRepository).save(any(Expense.class));
+	verify(countEstimator).expensesAdded(testUser, 1);
 }
 
 @Test
@@ -177,18 +231,18 @@ public void searchExpenses_SingleCriteria_ReturnsMatchingExpenses() {
 	criteria.setCategory("Groceries");
 
 	Pageable pageable = PageRequest.of(0, 20);
-	Page<Expense> expectedPage = new PageImpl<>(Arrays.asList(testExpense));
+	Page<ExpenseView> expectedPage = new PageImpl<>(Arrays.asList(testView));
 
-	when(expenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+	when(expenseRepository.findViews(any(Specification.class), any(Pageable.class)))
 		.thenReturn(expectedPage);
 
 	// Act
-	Page<Expense> result = expenseService.searchExpenses(criteria, testUser, pageable);
+	Page<ExpenseView> result = expenseService.searchExpenses(criteria, testUser, pageable);
 
 	// Assert
 	assertThat(result).isNotNull();
 	assertThat(result.getContent()).hasSize(1);
-	assertThat(result.getContent().get(0)).isEqualTo(testExpense);
+	assertThat(result.getContent().get(0)).isEqualTo(testView);
 	verify(expenseRepository).findAll(any(Specification.class), any(Pageable.class));
 }
 
@@ -202,19 +256,154 @@ public void searchExpenses_MultipleCriteria_ReturnsMatchingExpenses() {
 	criteria.setMaxAmount(new BigDecimal("200.00"));
 
 	Pageable pageable = PageRequest.of(0, 20);
-	Page<Expense> expectedPage = new PageImpl<>(Arrays.asList(testExpense));
+	Page<ExpenseView> expectedPage = new PageImpl<>(Arrays.asList(testView));
 
-	when(expenseRepository.findAll(any(Specification.class), any(Pageable.class)))
+	when(expenseRepository.findViews(any(Specification.class), any(Pageable.class)))
 		.thenReturn(expectedPage);
 
 	// Act
-	Page<Expense> result = expenseService.searchExpenses(criteria, testUser, pageable);
+	Page<ExpenseView> result = expenseService.searchExpenses(criteria, testUser, pageable);
 
 	// Assert
 	assertThat(result).isNotNull();
 	verify(expenseRepository).findAll(any(Specification.class), any(Pageable.class));
 }
 
+@Test
+public void searchExpenses_FullTextQuery_UsesFullTextSearch() {
+	// Arrange
+	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
+	criteria.setQuery("whole foods");
+	Pageable pageable = PageRequest.of(0, 20);
+	Page<ExpenseView> expectedPage = new PageImpl<>(List.of(testView));
+	when(fullTextSearch.search(criteria, testUser, pageable)).thenReturn(expectedPage);
+
+	// Act
+	Page<ExpenseView> result = expenseService.searchExpenses(criteria, testUser, pageable);
+
+	// Assert
+	assertThat(result).isSameAs(expectedPage);
+	verify(expenseRepository, never()).findAll(any(Specification.class), any(Pageable.class));
+}
+
+@Test
+public void searchExpenses_FullTextQueryWithCursor_ThrowsIllegalArgumentException() {
+	// Arrange
+	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
+	criteria.setQuery("whole foods");
+
+	// Act & Assert
+	assertThatThrownBy(
+			() -> expenseService.searchExpenses(criteria, testUser, Sort.by("date"), 20, null))
+		.isInstanceOf(IllegalArgumentException.class)
+		.hasMessageContaining("cursor pagination");
+}
+
+@Test
+public void searchExpensesSlice_DoesNotCount() {
+	// Arrange
+	Pageable pageable = PageRequest.of(0, 20);
+	when(expenseRepository.findViewSlice(any(Specification.class), eq(pageable)))
+		.thenReturn(new SliceImpl<>(List.of(testView), pageable, false));
+
+	// Act
+	Slice<ExpenseView> result =
+		expenseService.searchExpensesSlice(new ExpenseSearchCriteria(), testUser, pageable);
+
+	// Assert
+	assertThat(result.getContent()).containsExactly(testView);
+	assertThat(result.hasNext()).isFalse();
+	verify(expenseRepository, never()).count(any(Specification.class));
+}
+
+@Test
+public void searchExpensesWithEstimatedCount_LastPage_ReturnsExactTotalWithoutEstimating() {
+	// Arrange
+	Pageable pageable = PageRequest.of(2, 10);
+	when(expenseRepository.findViewSlice(any(Specification.class), eq(pageable)))
+		.thenReturn(new SliceImpl<>(List.of(testView), pageable, false));
+
+	// Act
+	Page<ExpenseView> result =
+		expenseService.searchExpensesWithEstimatedCount(
+			new ExpenseSearchCriteria(), testUser, pageable);
+
+	// Assert
+	assertThat(result.getTotalElements()).isEqualTo(21);
+	verify(countEstimator, never()).estimate(any(), any(), any());
+}
+
+@Test
+public void searchExpensesWithEstimatedCount_MorePages_ReturnsEstimateAboveRowsSeen() {
+	// Arrange
+	Pageable pageable = PageRequest.of(1, 1);
+	when(expenseRepository.findViewSlice(any(Specification.class), eq(pageable)))
+		.thenReturn(new SliceImpl<>(List.of(testView), pageable, true));
+	when(countEstimator.estimate(any(), eq(testUser), any())).thenReturn(1L);
+
+	// Act
+	Page<ExpenseView> result =
+		expenseService.searchExpensesWithEstimatedCount(
+			new ExpenseSearchCriteria(), testUser, pageable);
+
+	// Assert - a stale estimate still shows that there is a next page
+	assertThat(result.getTotalElements()).isEqualTo(3);
+	assertThat(result.hasNext()).isTrue();
+}
+
+@Test
+public void searchExpenses_Cursor_FetchesOneExtraRowAndReturnsNextCursor() {
+	// Arrange
+	ExpenseView older =
+		createView(2L, LocalDate.of(2025, 12, 20), "Target", new BigDecimal("75.50"), "BofA", "Shopping");
+	Sort keysetSort = Sort.by(Sort.Direction.DESC, "date").and(Sort.by(Sort.Direction.DESC, "id"));
+	when(expenseRepository.findTopViews(any(Specification.class), eq(keysetSort), eq(2)))
+		.thenReturn(List.of(testView, older));
+
+	// Act
+	CursorPage<ExpenseView> result =
+		expenseService.searchExpenses(
+			new ExpenseSearchCriteria(), testUser, Sort.by(Sort.Direction.DESC, "date"), 1, null);
+
+	// Assert
+	assertThat(result.content()).containsExactly(testView);
+	assertThat(result.hasNext()).isTrue();
+	assertThat(result.nextCursor()).isEqualTo(ExpenseCursor.encode(keysetSort, testView));
+}
+
+@Test
+public void searchExpenses_CursorLastPage_ReturnsNoNextCursor() {
+	// Arrange
+	Sort sort = Sort.by("date");
+	String cursor = ExpenseCursor.encode(ExpenseCursor.keysetSort(sort), testView);
+	when(expenseRepository.findTopViews(any(Specification.class), any(Sort.class), eq(21)))
+		.thenReturn(List.of(testView));
+
+	// Act
+	CursorPage<ExpenseView> result =
+		expenseService.searchExpenses(new ExpenseSearchCriteria(), testUser, sort, 20, cursor);
+
+	// Assert
+	assertThat(result.content()).hasSize(1);
+	assertThat(result.hasNext()).isFalse();
+	assertThat(result.nextCursor()).isNull();
+}
+
+@Test
+public void searchExpenses_CursorForAnotherSort_ThrowsIllegalArgumentException() {
+	// Arrange
+	String cursor = ExpenseCursor.encode(ExpenseCursor.keysetSort(Sort.by("amount")), testView);
+
+	// Act & Assert
+	assertThatThrownBy(
+			() ->
+				expenseService.searchExpenses(
+					new ExpenseSearchCriteria(), testUser, Sort.by("date"), 20, cursor))
+		.isInstanceOf(IllegalArgumentException.class)
+		.hasMessageContaining("Invalid cursor");
+	verify(expenseRepository, never()).findTopViews(any(), any(), eq(21));
+}
+
 @Test
 public void importExpenses_ValidCsvData_ImportsSuccessfully() {
 	// Arrange
@@ -227,8 +416,8 @@ public void importExpenses_ValidCsvData_ImportsSuccessfully() {
 
 	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
 
-	when(validator.validate(any(Expense.class))).thenReturn(Collections.emptySet());
-	when(expenseRepository.saveAll(any())).thenReturn(Collections.emptyList());
+	when(expenseBulkWriter.insert(any(), any()))
+		.thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
 
 	// Act
 	ImportResult result = expenseService.importExpenses(inputStream, testUser);
@@ -241,7 +430,7 @@ public void importExpenses_ValidCsvData_ImportsSuccessfully() {
 
 	// Capture and verify the expenses that were saved
 	ArgumentCaptor<List<Expense>> expenseListCaptor = ArgumentCaptor.forClass(List.class);
-	verify(expenseRepository).saveAll(expenseListCaptor.capture());
+	verify(expenseBulkWriter).insert(expenseListCaptor.capture(), eq(testUser));
 
 	List<Expense> savedExpenses = expenseListCaptor.getValue();
 	assertThat(savedExpenses).hasSize(2);
@@ -268,6 +457,7 @@ public void importExpenses_ValidCsvData_ImportsSuccessfully() {
 @Test
 public void importExpenses_ExceedsRowLimit_ThrowsCsvImportException() {
 	// Arrange
+	importProperties.getQuota().setMaxRows(1000);
 	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
 	for (int i = 0; i < 1001; i++) {
 	csvContent.append("2025-01-01,Merchant,10.00,Chase,Category\n");
@@ -282,6 +472,47 @@ public void importExpenses_ExceedsRowLimit_ThrowsCsvImportException() {
 		.hasMessageContaining("exceeds maximum row limit of 1000");
 }
 
+@Test
+public void importExpenses_UserQuotaOverride_AppliesUserRowLimit() {
+	// Arrange
+	importProperties.getQuota().setMaxRows(1000);
+	importProperties.getUsers().put("testuser", new ImportProperties.Quota(2, null));
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		2025-01-03,Amazon,25.00,Chase,Online
+		""";
+
+	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
+
+
+	// Act & Assert
+	assertThatThrownBy(() -> expenseService.importExpenses(inputStream, testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("exceeds maximum row limit of 2");
+}
+
+@Test
+public void importExpenses_ExceedsSizeQuota_ThrowsCsvImportException() {
+	// Arrange
+	importProperties.getQuota().setMaxSize(DataSize.ofBytes(64));
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		""";
+
+	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
+
+	// Act & Assert
+	assertThatThrownBy(() -> expenseService.importExpenses(inputStream, testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("File size exceeds maximum limit of 64 bytes");
+}
+
 @Test
 public void importExpenses_InvalidDateFormat_ReturnsImportResultWithErrors() {
 	// Arrange
@@ -304,6 +535,39 @@ public void importExpenses_InvalidDateFormat_ReturnsImportResultWithErrors() {
 	assertThat(result.getErrors().get(0)).contains("Invalid date format");
 }
 
+@Test
+public void importExpenses_ManyFailedRows_CapsMessagesAndWritesErrorReport() throws Exception {
+	// Arrange
+	importProperties.getErrors().setMaxMessages(2);
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-13-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,abc,BofA,Shopping
+		2025-01-03,Amazon,25.00,Chase,Online
+		2025-14-01,Costco,10.00,Chase,Groceries
+		""";
+
+	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
+
+	// Act
+	ImportResult result = expenseService.importExpenses(inputStream, testUser);
+
+	// Assert
+	assertThat(result.getFailedImports()).isEqualTo(3);
+	assertThat(result.getErrors()).hasSize(2);
+	assertThat(result.isErrorsTruncated()).isTrue();
+	assertThat(result.getErrorCounts())
+		.containsExactlyInAnyOrderEntriesOf(
+			Map.of(ImportErrorType.INVALID_DATE, 2, ImportErrorType.INVALID_AMOUNT, 1));
+
+	ImportErrorReport report = errorReportService.getReport(result.getErrorReportId(), testUser);
+	List<String> lines = Files.readAllLines(report.getFile(), StandardCharsets.UTF_8);
+	assertThat(lines).hasSize(4);
+	assertThat(lines.get(0)).isEqualTo("row,type,message");
+	assertThat(lines.get(3)).startsWith("4,INVALID_DATE,Row 4: Invalid date format");
+}
+
 @Test
 public void importExpenses_InvalidAmountFormat_ReturnsImportResultWithErrors() {
 	// Arrange
@@ -371,7 +635,6 @@ public void importExpenses_BlankFields_ReturnsImportResultWithErrors() {
 }
 
 @Test
-@SuppressWarnings("unchecked")
 public void importExpenses_ValidationFailure_ReturnsImportResultWithErrors() {
 	// Arrange
 	String csvContent =
@@ -382,13 +645,6 @@ public void importExpenses_ValidationFailure_ReturnsImportResultWithErrors() {
 
 	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
 
-	ConstraintViolation<Expense> mockViolation = mock(ConstraintViolation.class);
-	when(mockViolation.getMessage()).thenReturn("Amount must be greater than zero");
-
-	Set<ConstraintViolation<Expense>> violations = Set.of(mockViolation);
-
-	when(validator.validate(any(Expense.class))).thenReturn(violations);
-
 	// Act
 	ImportResult result = expenseService.importExpenses(inputStream, testUser);
 
@@ -397,7 +653,80 @@ public void importExpenses_ValidationFailure_ReturnsImportResultWithErrors() {
 	assertThat(result.getSuccessfulImports()).isEqualTo(0);
 	assertThat(result.getFailedImports()).isEqualTo(1);
 	assertThat(result.getErrors()).hasSize(1);
-	assertThat(result.getErrors().get(0)).contains("Validation failed");
+	assertThat(result.getErrors().get(0))
+		.isEqualTo("Row 1: Validation failed: Amount must be greater than zero");
+}
+
+@Test
+public void importExpenses_SkipDuplicates_CountsRowsLeftOutByDatabase() {
+	// Arrange
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		2025-01-03,Amazon,25.00,Chase,Online
+		""";
+
+	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
+
+	// The first two rows were imported before
+	when(expenseBulkWriter.insertSkippingDuplicates(any(), eq(testUser))).thenReturn(1);
+	ImportJob job = new ImportJob(testUser.getId(), null, new ImportOptions(true));
+
+	// Act
+	ImportResult result =
+		expenseService.importExpenses(inputStream, testUser, job.getOptions(), job);
+
+	// Assert
+	assertThat(result.getTotalRows()).isEqualTo(3);
+	assertThat(result.getSuccessfulImports()).isEqualTo(1);
+	assertThat(result.getDuplicatesSkipped()).isEqualTo(2);
+	assertThat(result.getFailedImports()).isZero();
+	assertThat(job.getRowsSaved()).isEqualTo(1);
+	assertThat(job.getRowsSkipped()).isEqualTo(2);
+	verify(expenseBulkWriter, never()).insert(any(), any());
+}
+
+@Test
+public void importExpenses_DryRun_ReportsErrorsAndDuplicatesWithoutSaving() {
+	// Arrange - row 1 was imported before, row 3 repeats row 2 and row 4 has a bad date
+	String csvContent =
+		"""
+		date,merchant,amount,bank,category
+		2025-01-01,Whole Foods,50.00,Chase,Groceries
+		2025-01-02,Target,75.50,BofA,Shopping
+		2025-01-02,Target,75.5,BofA,Household
+		2025-13-01,Amazon,25.00,Chase,Online
+		""";
+
+	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
+
+	// The user already has one of the two distinct valid rows
+	when(expenseBulkWriter.countExisting(any(), eq(testUser))).thenReturn(1);
+	ImportJob job = new ImportJob(testUser.getId(), null, new ImportOptions(false, true));
+
+	// Act
+	ImportResult result =
+		expenseService.importExpenses(inputStream, testUser, job.getOptions(), job);
+
+	// Assert
+	assertThat(result.isDryRun()).isTrue();
+	assertThat(result.getTotalRows()).isEqualTo(4);
+	assertThat(result.getSuccessfulImports()).isEqualTo(1);
+	assertThat(result.getDuplicatesSkipped()).isEqualTo(2);
+	assertThat(result.getFailedImports()).isEqualTo(1);
+	assertThat(result.getErrors()).singleElement().asString().startsWith("Row 4: Invalid date format");
+
+	assertThat(job.getRowsSaved()).isEqualTo(1);
+	assertThat(job.getRowsSkipped()).isEqualTo(2);
+
+	// The distinct fingerprints are looked up once, and nothing is saved
+	ArgumentCaptor<FingerprintSet> fingerprints = ArgumentCaptor.forClass(FingerprintSet.class);
+	verify(expenseBulkWriter, times(1)).countExisting(fingerprints.capture(), eq(testUser));
+	assertThat(fingerprints.getValue().size()).isEqualTo(2);
+	verify(expenseBulkWriter, never()).insert(any(), any());
+	verify(expenseBulkWriter, never()).insertSkippingDuplicates(any(), any());
 }
 
 @Test
@@ -413,8 +742,8 @@ public void importExpenses_PartialSuccess_ReturnsImportResultWithMixedResults()
 
 	InputStream inputStream = new ByteArrayInputStream(csvContent.getBytes(StandardCharsets.UTF_8));
 
-	when(validator.validate(any(Expense.class))).thenReturn(Collections.emptySet());
-	when(expenseRepository.saveAll(any())).thenReturn(Collections.emptyList());
+	when(expenseBulkWriter.insert(any(), any()))
+		.thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
 
 	// Act
 	ImportResult result = expenseService.importExpenses(inputStream, testUser);
@@ -438,8 +767,8 @@ public void importExpenses_BatchProcessing_ProcessesInMultipleBatches() {
 	InputStream inputStream =
 		new ByteArrayInputStream(csvContent.toString().getBytes(StandardCharsets.UTF_8));
 
-	when(validator.validate(any(Expense.class))).thenReturn(Collections.emptySet());
-	when(expenseRepository.saveAll(any())).thenReturn(Collections.emptyList());
+	when(expenseBulkWriter.insert(any(), any()))
+		.thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
 
 	// Act
 	ImportResult result = expenseService.importExpenses(inputStream, testUser);
@@ -450,90 +779,188 @@ public void importExpenses_BatchProcessing_ProcessesInMultipleBatches() {
 	assertThat(result.getFailedImports()).isEqualTo(0);
 	assertThat(result.getErrors()).isEmpty();
 
-	// Verify saveAll was called 3 times (100 + 100 + 50)
-	verify(expenseRepository, times(3)).saveAll(any());
+	// Verify the bulk writer was called 3 times (100 + 100 + 50)
+	verify(expenseBulkWriter, times(3)).insert(any(), eq(testUser));
+
+	// Verify every batch committed in its own transaction with the persistence context cleared
+	verify(transactionManager, times(3)).commit(any());
+	verify(entityManager, times(3)).clear();
+}
+
+@Test
+public void importExpenses_WithProgress_ReportsRowsAndStopsWhenCancelled() {
+	// Arrange - cancel once the first batch of 100 has been saved, long before the reader can
+	// reach the end of the file
+	importProperties.getPipeline().setChunksInFlight(2);
+	StringBuilder csvContent = new StringBuilder("date,merchant,amount,bank,category\n");
+	for (int i = 0; i < 5000; i++) {
+		csvContent.append("2025-01-01,Merchant").append(i).append(",10.00,Chase,Category\n");
+	}
+
+	InputStream inputStream =
+		new ByteArrayInputStream(csvContent.toString().getBytes(StandardCharsets.UTF_8));
+
+	when(expenseBulkWriter.insert(any(), any()))
+		.thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+	ImportJob job = new ImportJob(testUser.getId(), null, ImportOptions.DEFAULT);
+	ImportProgress progress =
+		new ImportProgress() {
+			@Override
+			public void rowParsed() {
+				job.rowParsed();
+			}
+
+			@Override
+			public void rowsSaved(int count) {
+				job.rowsSaved(count);
+				job.requestCancel();
+			}
+
+			@Override
+			public boolean isCancelled() {
+				return job.isCancelled();
+			}
+		};
+
+	// Act
+	ImportResult result = expenseService.importExpenses(inputStream, testUser, progress);
+
+	// Assert - the first batch stays saved, nothing after the cancellation is written, and the
+	// total covers the saved batch only. The reader may have read ahead of the writer, so more rows
+	// can have been parsed than saved.
+	assertThat(job.getRowsParsed()).isGreaterThanOrEqualTo(100);
+	assertThat(job.getRowsSaved()).isEqualTo(100);
+	assertThat(result.getSuccessfulImports()).isEqualTo(100);
+	assertThat(result.isCancelled()).isTrue();
+	assertThat(result.getTotalRows()).isEqualTo(100);
+	verify(expenseBulkWriter, times(1)).insert(any(), eq(testUser));
 }
 
 @Test
-public void exportExpensesToCsv_ValidExpenses_ReturnsCsvString() throws Exception {
+public void exportExpenses_Csv_ValidExpenses_WritesCsv() throws Exception {
 	// Arrange
 	User testUser = new User();
 	testUser.setId(1L);
 	testUser.setUsername("testuser");
 
-	List<Expense> expenses = Arrays.asList(
-		createExpense(1L, testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase", "Groceries"),
-		createExpense(2L, testUser, LocalDate.of(2025, 1, 2), "Target", new BigDecimal("75.50"), "BofA", "Shopping")
+	List<ExpenseView> expenses = Arrays.asList(
+		createView(1L, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase", "Groceries"),
+		createView(2L, LocalDate.of(2025, 1, 2), "Target", new BigDecimal("75.50"), "BofA", "Shopping")
 	);
 
-	when(expenseRepository.findAll(any(Specification.class), any(org.springframework.data.domain.Sort.class)))
-		.thenReturn(expenses);
+	when(expenseRepository.streamViews(any(Specification.class), any(Sort.class)))
+		.thenReturn(expenses.stream());
 
 	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
-	Pageable pageable = PageRequest.of(0, 20);
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 	// Act
-	String csv = expenseService.exportExpensesToCsv(criteria, testUser, pageable);
+	expenseService.exportExpenses(criteria, testUser, Sort.by("date"), ExportFormat.CSV, out);
 
 	// Assert
-	assertThat(csv).isNotNull();
-	assertThat(csv).contains("date,merchant,amount,bank,category");
-	assertThat(csv).contains("2025-01-01,Whole Foods,50.00,Chase,Groceries");
-	assertThat(csv).contains("2025-01-02,Target,75.50,BofA,Shopping");
+	String csv = out.toString(StandardCharsets.UTF_8);
+	assertThat(csv).isEqualTo(
+		"date,merchant,amount,bank,category\r\n"
+			+ "2025-01-01,Whole Foods,50.00,Chase,Groceries\r\n"
+			+ "2025-01-02,Target,75.50,BofA,Shopping\r\n");
 }
 
 @Test
-public void exportExpensesToCsv_WithFilters_ReturnsCsvString() throws Exception {
+public void exportExpenses_Csv_WithFilters_WritesCsv() throws Exception {
 	// Arrange
 	User testUser = new User();
 	testUser.setId(1L);
 	testUser.setUsername("testuser");
 
-	List<Expense> expenses = Arrays.asList(
-		createExpense(1L, testUser, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase", "Groceries")
+	List<ExpenseView> expenses = Arrays.asList(
+		createView(1L, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase", "Groceries")
 	);
 
-	when(expenseRepository.findAll(any(Specification.class), any(org.springframework.data.domain.Sort.class)))
-		.thenReturn(expenses);
+	when(expenseRepository.streamViews(any(Specification.class), any(Sort.class)))
+		.thenReturn(expenses.stream());
 
 	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
 	criteria.setCategory("Groceries");
-	Pageable pageable = PageRequest.of(0, 20);
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 	// Act
-	String csv = expenseService.exportExpensesToCsv(criteria, testUser, pageable);
+	expenseService.exportExpenses(criteria, testUser, Sort.by("date"), ExportFormat.CSV, out);
 
 	// Assert
-	assertThat(csv).isNotNull();
+	String csv = out.toString(StandardCharsets.UTF_8);
 	assertThat(csv).contains("date,merchant,amount,bank,category");
 	assertThat(csv).contains("2025-01-01,Whole Foods,50.00,Chase,Groceries");
 }
 
 @Test
-public void exportExpensesToCsv_EmptyExpenseList_ReturnsHeaderOnly() throws Exception {
+public void exportExpenses_Csv_EmptyExpenseList_WritesHeaderOnly() throws Exception {
 	// Arrange
 	User testUser = new User();
 	testUser.setId(1L);
 	testUser.setUsername("testuser");
 
-	when(expenseRepository.findAll(any(Specification.class), any(org.springframework.data.domain.Sort.class)))
-		.thenReturn(Collections.emptyList());
+	when(expenseRepository.streamViews(any(Specification.class), any(Sort.class)))
+		.thenReturn(Stream.empty());
 
 	ExpenseSearchCriteria criteria = new ExpenseSearchCriteria();
-	Pageable pageable = PageRequest.of(0, 20);
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
 
 	// Act
-	String csv = expenseService.exportExpensesToCsv(criteria, testUser, pageable);
+	expenseService.exportExpenses(criteria, testUser, Sort.by("date"), ExportFormat.CSV, out);
 
 	// Assert
-	assertThat(csv).isNotNull();
+	String csv = out.toString(StandardCharsets.UTF_8);
 	assertThat(csv).contains("date,merchant,amount,bank,category");
 	assertThat(csv.split("\n")).hasSize(1); // Only header row
 }
 
-private Expense createExpense(Long id, User user, LocalDate date, String merchant, BigDecimal amount, String bank, String category) {
-	Expense expense = new Expense(user, date, merchant, amount, bank, category);
-	expense.setId(id);
-	return expense;
+@Test
+public void exportExpenses_Ndjson_WritesOneObjectPerLine() throws Exception {
+	// Arrange
+	User testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+
+	List<ExpenseView> expenses = Arrays.asList(
+		createView(1L, LocalDate.of(2025, 1, 1), "Whole Foods", new BigDecimal("50.00"), "Chase", "Groceries"),
+		createView(2L, LocalDate.of(2025, 1, 2), "Joe's \"Diner\"", new BigDecimal("75.50"), "BofA", "Dining")
+	);
+
+	when(expenseRepository.streamViews(any(Specification.class), any(Sort.class)))
+		.thenReturn(expenses.stream());
+
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+	// Act
+	expenseService.exportExpenses(
+		new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.NDJSON, out);
+
+	// Assert
+	assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(
+		"{\"id\":1,\"date\":\"2025-01-01\",\"merchant\":\"Whole Foods\",\"amount\":50.00,\"bank\":\"Chase\",\"category\":\"Groceries\"}\n"
+			+ "{\"id\":2,\"date\":\"2025-01-02\",\"merchant\":\"Joe's \\\"Diner\\\"\",\"amount\":75.50,\"bank\":\"BofA\",\"category\":\"Dining\"}\n");
+}
+
+@Test
+public void exportExpenses_Csv_ClosesCursor() throws Exception {
+	// Arrange
+	User testUser = new User();
+	testUser.setId(1L);
+
+	AtomicBoolean closed = new AtomicBoolean();
+	when(expenseRepository.streamViews(any(Specification.class), any(Sort.class)))
+		.thenReturn(Stream.<ExpenseView>empty().onClose(() -> closed.set(true)));
+
+	// Act
+	expenseService.exportExpenses(
+		new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV, new ByteArrayOutputStream());
+
+	// Assert
+	assertThat(closed).isTrue();
+}
+
+private ExpenseView createView(Long id, LocalDate date, String merchant, BigDecimal amount, String bank, String category) {
+	return new ExpenseView(id, date, merchant, amount, bank, category, null, null);
 }
 }
@@ -0,0 +1,125 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+
+import com.tgboyles.frugalfox.user.User;
+
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+
+/** Conformance tests for ExpenseValidator against Bean Validation. */
+public class ExpenseValidatorTest {
+
+private static final LocalDate TODAY = LocalDate.now();
+private static final BigDecimal AMOUNT = new BigDecimal("50.00");
+
+private static ValidatorFactory validatorFactory;
+private static Validator beanValidator;
+
+private final ExpenseValidator expenseValidator = new ExpenseValidator();
+
+@BeforeAll
+public static void setupValidator() {
+	validatorFactory = Validation.buildDefaultValidatorFactory();
+	beanValidator = validatorFactory.getValidator();
+}
+
+@AfterAll
+public static void closeValidator() {
+	validatorFactory.close();
+}
+
+static Stream<Arguments> expenses() {
+	return Stream.of(
+		Arguments.of("valid", expense(TODAY.minusDays(1), "Whole Foods", AMOUNT, "Chase", "Groceries")),
+		Arguments.of("today", expense(TODAY, "Whole Foods", AMOUNT, "Chase", "Groceries")),
+		Arguments.of("tomorrow", expense(TODAY.plusDays(1), "Whole Foods", AMOUNT, "Chase", "Groceries")),
+		Arguments.of("all null", expense(null, null, null, null, null)),
+		Arguments.of("empty strings", expense(TODAY, "", AMOUNT, "", "")),
+		Arguments.of("whitespace", expense(TODAY, "   ", AMOUNT, "\t", "\n\r")),
+		Arguments.of("control characters", expense(TODAY, "\u0000\u001f", AMOUNT, "Chase", "Food")),
+		Arguments.of("unicode spaces", expense(TODAY, "\u2003", AMOUNT, "\u00a0", "\u3000")),
+		Arguments.of("zero amount", expense(TODAY, "Cafe", BigDecimal.ZERO, "Chase", "Food")),
+		Arguments.of("zero with scale", expense(TODAY, "Cafe", new BigDecimal("0.00"), "Chase", "Food")),
+		Arguments.of("negative amount", expense(TODAY, "Cafe", new BigDecimal("-0.01"), "Chase", "Food")),
+		Arguments.of("tiny amount", expense(TODAY, "Cafe", new BigDecimal("1E-10"), "Chase", "Food")),
+		Arguments.of("max lengths", expense(TODAY, "m".repeat(255), AMOUNT, "b".repeat(100), "c".repeat(100))),
+		Arguments.of(
+			"over max lengths", expense(TODAY, "m".repeat(256), AMOUNT, "b".repeat(101), "c".repeat(101))),
+		Arguments.of("blank and too long", expense(TODAY, " ".repeat(256), AMOUNT, " ".repeat(101), "Food")),
+		Arguments.of("surrogate pairs", expense(TODAY, "\uD83D\uDE00".repeat(128), AMOUNT, "Chase", "Food")),
+		Arguments.of(
+			"everything wrong",
+			expense(TODAY.plusYears(1), " ".repeat(300), new BigDecimal("-5"), null, "c".repeat(101))));
+}
+
+@ParameterizedTest(name = "{0}")
+@MethodSource("expenses")
+public void validate_MatchesBeanValidation(String description, Expense expense) {
+	Set<List<String>> expected =
+		beanValidator.validate(expense).stream()
+			.map(violation -> List.of(violation.getPropertyPath().toString(), violation.getMessage()))
+			.collect(Collectors.toSet());
+
+	Errors errors = new BeanPropertyBindingResult(expense, "expense");
+	expenseValidator.validate(expense, errors);
+	Set<List<String>> actual =
+		errors.getFieldErrors().stream()
+			.map(error -> List.of(error.getField(), error.getDefaultMessage()))
+			.collect(Collectors.toSet());
+
+	assertThat(actual).isEqualTo(expected);
+	assertThat(errors.getFieldErrorCount()).isEqualTo(expected.size());
+	assertThat(expenseValidator.isValid(expense)).isEqualTo(expected.isEmpty());
+	assertThat(new HashSet<>(expenseValidator.violationMessages(expense)))
+		.isEqualTo(expected.stream().map(violation -> violation.get(1)).collect(Collectors.toSet()));
+}
+
+@Test
+public void violationMessages_ListsMessagesInFieldOrder() {
+	Expense expense = expense(TODAY.plusDays(1), "", new BigDecimal("-1"), "Chase", null);
+
+	assertThat(expenseValidator.violationMessages(expense))
+		.containsExactly(
+			"Date cannot be in the future",
+			"Merchant is required",
+			"Amount must be greater than zero",
+			"Category is required");
+}
+
+@Test
+public void violationMessages_ValidExpense_ReturnsEmptyList() {
+	Expense expense = expense(TODAY, "Cafe", AMOUNT, "Chase", "Food");
+
+	assertThat(expenseValidator.violationMessages(expense)).isEmpty();
+}
+
+@Test
+public void supports_OnlyExpense() {
+	assertThat(expenseValidator.supports(Expense.class)).isTrue();
+	assertThat(expenseValidator.supports(User.class)).isFalse();
+}
+
+private static Expense expense(
+	LocalDate date, String merchant, BigDecimal amount, String bank, String category) {
+	return new Expense(new User(), date, merchant, amount, bank, category);
+}
+}
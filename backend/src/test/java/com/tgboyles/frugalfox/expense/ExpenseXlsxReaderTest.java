@@ -0,0 +1,162 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/** Unit tests for ExpenseXlsxReader. */
+public class ExpenseXlsxReaderTest {
+
+@TempDir private Path spoolDirectory;
+
+@Test
+public void readRecord_Spreadsheet_ReadsRowsAsText() throws IOException {
+	// Arrange
+	byte[] xlsx;
+	try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("m/d/yy"));
+		Sheet sheet = workbook.createSheet("Expenses");
+		header(sheet.createRow(0));
+
+		Row first = sheet.createRow(1);
+		first.createCell(0).setCellValue(LocalDate.of(2025, 1, 1));
+		first.getCell(0).setCellStyle(dateStyle);
+		first.createCell(1).setCellValue("Whole Foods");
+		first.createCell(2).setCellValue(50.5);
+		first.createCell(3).setCellValue("Chase");
+		first.createCell(4).setCellValue("Groceries");
+
+		// Row 3 is left empty and skipped; row 4 has no merchant or category cell
+		Row second = sheet.createRow(3);
+		second.createCell(0).setCellValue("2025-01-02");
+		second.createCell(2).setCellValue(75);
+		second.createCell(3).setCellValue("BofA");
+
+		xlsx = write(workbook);
+	}
+
+	// Act
+	RowChunk chunk = readAll(xlsx);
+
+	// Assert
+	assertThat(chunk.size()).isEqualTo(2);
+	assertThat(chunk.rowNumber(0)).isEqualTo(1);
+	assertThat(fields(chunk, 0)).containsExactly("2025-01-01", "Whole Foods", "50.5", "Chase", "Groceries");
+	assertThat(chunk.rowNumber(1)).isEqualTo(2);
+	assertThat(fields(chunk, 1)).containsExactly("2025-01-02", "", "75", "BofA", "");
+	try (var files = Files.list(spoolDirectory)) {
+		assertThat(files).isEmpty();
+	}
+}
+
+@Test
+public void readRecord_Date1904Workbook_ReadsDatesFrom1904() throws IOException {
+	// Arrange - date serials of a workbook saved on the 1904 date system are 1462 days smaller
+	byte[] xlsx;
+	try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+		workbook.getCTWorkbook().getWorkbookPr().setDate1904(true);
+		CellStyle dateStyle = workbook.createCellStyle();
+		dateStyle.setDataFormat(workbook.createDataFormat().getFormat("m/d/yy"));
+		Sheet sheet = workbook.createSheet("Expenses");
+		header(sheet.createRow(0));
+
+		Row row = sheet.createRow(1);
+		row.createCell(0).setCellValue(LocalDate.of(2025, 1, 1));
+		row.getCell(0).setCellStyle(dateStyle);
+		row.createCell(1).setCellValue("Whole Foods");
+		row.createCell(2).setCellValue(50.5);
+		row.createCell(3).setCellValue("Chase");
+		row.createCell(4).setCellValue("Groceries");
+
+		xlsx = write(workbook);
+	}
+
+	// Act
+	RowChunk chunk = readAll(xlsx);
+
+	// Assert
+	assertThat(chunk.size()).isEqualTo(1);
+	assertThat(fields(chunk, 0)).containsExactly("2025-01-01", "Whole Foods", "50.5", "Chase", "Groceries");
+}
+
+@Test
+public void isSpreadsheet_DetectsXlsxAndRejectsLegacyXls() throws IOException {
+	byte[] xlsx;
+	try (XSSFWorkbook workbook = new XSSFWorkbook()) {
+		header(workbook.createSheet().createRow(0));
+		xlsx = write(workbook);
+	}
+	byte[] xls = {(byte) 0xd0, (byte) 0xcf, 0x11, (byte) 0xe0, (byte) 0xa1, (byte) 0xb1, 0x1a, (byte) 0xe1};
+	byte[] csv = "date,merchant,amount,bank,category\n".getBytes(StandardCharsets.UTF_8);
+
+	assertThat(ExpenseXlsxReader.isSpreadsheet(buffered(xlsx))).isTrue();
+	assertThat(ExpenseXlsxReader.isSpreadsheet(buffered(csv))).isFalse();
+	assertThatThrownBy(() -> ExpenseXlsxReader.isSpreadsheet(buffered(xls)))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("Legacy Excel (.xls) files are not supported");
+}
+
+@Test
+public void open_CorruptSpreadsheet_IsRejected() {
+	byte[] corrupt = {0x50, 0x4b, 0x03, 0x04, 1, 2, 3, 4, 5, 6, 7, 8};
+
+	assertThatThrownBy(
+			() -> ExpenseXlsxReader.open(new ByteArrayInputStream(corrupt), spoolDirectory, 1024))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage(ExpenseXlsxReader.INVALID_MESSAGE);
+}
+
+private RowChunk readAll(byte[] xlsx) throws IOException {
+	RowChunk chunk = new RowChunk(10);
+	try (ExpenseXlsxReader reader =
+			ExpenseXlsxReader.open(new ByteArrayInputStream(xlsx), spoolDirectory, xlsx.length)) {
+		while (reader.readRecord(chunk)) {
+			// Read every record into the chunk
+		}
+	}
+	return chunk;
+}
+
+private static void header(Row row) {
+	String[] columns = {"date", "merchant", "amount", "bank", "category"};
+	for (int i = 0; i < columns.length; i++) {
+		row.createCell(i).setCellValue(columns[i]);
+	}
+}
+
+private static byte[] write(XSSFWorkbook workbook) throws IOException {
+	ByteArrayOutputStream out = new ByteArrayOutputStream();
+	workbook.write(out);
+	return out.toByteArray();
+}
+
+private static BufferedInputStream buffered(byte[] content) {
+	return new BufferedInputStream(new ByteArrayInputStream(content));
+}
+
+private static List<String> fields(RowChunk chunk, int row) {
+	List<String> fields = new ArrayList<>();
+	for (int field = 0; field < chunk.fieldCount(row); field++) {
+		fields.add(chunk.text(row, field));
+	}
+	return fields;
+}
+}
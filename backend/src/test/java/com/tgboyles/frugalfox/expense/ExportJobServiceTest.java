@@ -0,0 +1,197 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Sort;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ExportJobService. */
+public class ExportJobServiceTest {
+
+private static final String CSV = "date,merchant,amount,bank,category\r\n2025-01-01,Target,75.50,BofA,Shopping\r\n";
+
+@TempDir private Path spoolDirectory;
+
+private ExpenseService expenseService;
+private ExportProperties exportProperties;
+private ExportJobService exportJobService;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	expenseService = mock(ExpenseService.class);
+
+	exportProperties = new ExportProperties();
+	exportProperties.setSpoolDirectory(spoolDirectory);
+	exportProperties.setThreads(1);
+	exportProperties.setMaxQueued(1);
+	exportJobService = new ExportJobService(expenseService, exportProperties);
+
+	testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+}
+
+@AfterEach
+public void tearDown() {
+	exportJobService.shutdown();
+}
+
+@Test
+public void submit_ExportSucceeds_CompletesWithFileRowCountAndSize() throws Exception {
+	// Arrange
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), eq(ExportFormat.CSV), any()))
+		.thenAnswer(
+			invocation -> {
+				OutputStream out = invocation.getArgument(4);
+				out.write(CSV.getBytes(StandardCharsets.UTF_8));
+				return 1L;
+			});
+
+	// Act
+	ExportJob job =
+		exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ExportJobStatus.COMPLETED);
+	assertThat(job.getRowsWritten()).isEqualTo(1);
+	assertThat(job.getSize()).isEqualTo(CSV.length());
+	assertThat(job.getExpiresAt()).isAfter(job.getCompletedAt());
+	assertThat(job.getFile()).hasContent(CSV);
+	assertThat(exportJobService.getCompletedJob(job.getJobId(), testUser)).isSameAs(job);
+}
+
+@Test
+public void submit_ExportFails_MarksJobFailedAndDeletesFile() throws Exception {
+	// Arrange
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), any(), any()))
+		.thenThrow(new IllegalStateException("connection lost"));
+
+	// Act
+	ExportJob job =
+		exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ExportJobStatus.FAILED);
+	assertThat(job.getError()).isEqualTo("An unexpected error occurred");
+	assertThat(job.getFile()).doesNotExist();
+	assertThatThrownBy(() -> exportJobService.getCompletedJob(job.getJobId(), testUser))
+		.isInstanceOf(ExportJobNotReadyException.class)
+		.hasMessageContaining("failed");
+}
+
+@Test
+public void getCompletedJob_StillRunning_ThrowsExportJobNotReadyException() throws Exception {
+	// Arrange - block the export until the assertions are done
+	CountDownLatch release = new CountDownLatch(1);
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), any(), any()))
+		.thenAnswer(
+			invocation -> {
+				release.await(5, TimeUnit.SECONDS);
+				return 0L;
+			});
+	ExportJob job =
+		exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+
+	// Act & Assert
+	try {
+		assertThatThrownBy(() -> exportJobService.getCompletedJob(job.getJobId(), testUser))
+			.isInstanceOf(ExportJobNotReadyException.class)
+			.hasMessageContaining("has not completed yet");
+	} finally {
+		release.countDown();
+	}
+}
+
+@Test
+public void submit_QueueFull_ThrowsExportRejectedException() throws Exception {
+	// Arrange - one worker blocked on the first job, one queued job filling the queue
+	CountDownLatch release = new CountDownLatch(1);
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), any(), any()))
+		.thenAnswer(
+			invocation -> {
+				release.await(5, TimeUnit.SECONDS);
+				return 0L;
+			});
+	exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+	exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+
+	// Act & Assert
+	try {
+		assertThatThrownBy(
+				() ->
+					exportJobService.submit(
+						new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV))
+			.isInstanceOf(ExportRejectedException.class);
+		// The rejected job leaves no file behind
+		try (var files = Files.list(spoolDirectory)) {
+			assertThat(files).hasSize(2);
+		}
+	} finally {
+		release.countDown();
+	}
+}
+
+@Test
+public void evictExpiredJobs_RetentionPassed_DeletesJobAndFile() throws Exception {
+	// Arrange
+	exportProperties.setRetention(Duration.ZERO);
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), any(), any())).thenReturn(0L);
+	ExportJob job =
+		exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.NDJSON);
+	awaitTerminal(job);
+	assertThat(job.getFile()).exists();
+
+	// Act
+	exportJobService.evictExpiredJobs();
+
+	// Assert
+	assertThat(job.getFile()).doesNotExist();
+	assertThatThrownBy(() -> exportJobService.getJob(job.getJobId(), testUser))
+		.isInstanceOf(ExportJobNotFoundException.class);
+}
+
+@Test
+public void getJob_OtherUser_ThrowsExportJobNotFoundException() throws Exception {
+	// Arrange
+	when(expenseService.exportExpenses(any(), eq(testUser), any(), any(), any())).thenReturn(0L);
+	ExportJob job =
+		exportJobService.submit(new ExpenseSearchCriteria(), testUser, Sort.by("date"), ExportFormat.CSV);
+
+	User otherUser = new User();
+	otherUser.setId(2L);
+
+	// Act & Assert
+	assertThat(exportJobService.getJob(job.getJobId(), testUser)).isSameAs(job);
+	assertThatThrownBy(() -> exportJobService.getJob(job.getJobId(), otherUser))
+		.isInstanceOf(ExportJobNotFoundException.class)
+		.hasMessage("Export job not found with id: " + job.getJobId());
+}
+
+private void awaitTerminal(ExportJob job) throws InterruptedException {
+	long deadline = System.currentTimeMillis() + 5000;
+	while (!job.getStatus().isTerminal() && System.currentTimeMillis() < deadline) {
+		Thread.sleep(10);
+	}
+}
+}
@@ -0,0 +1,56 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for FingerprintSet. */
+public class FingerprintSetTest {
+
+private final ExpenseFingerprint fingerprint = new ExpenseFingerprint(1L);
+
+@Test
+public void add_RepeatedDigest_IsAddedOnce() {
+	// Arrange
+	FingerprintSet fingerprints = new FingerprintSet();
+	Expense expense = expense(0);
+
+	// Act
+	boolean first = fingerprints.add(fingerprint.digest(expense));
+	boolean second = fingerprints.add(fingerprint.digest(expense));
+
+	// Assert
+	assertThat(first).isTrue();
+	assertThat(second).isFalse();
+	assertThat(fingerprints).containsExactly(fingerprint.of(expense));
+}
+
+@Test
+public void add_MoreDigestsThanInitialCapacity_KeepsEveryDigest() {
+	// Arrange
+	FingerprintSet fingerprints = new FingerprintSet();
+	List<String> expected = new ArrayList<>();
+
+	// Act - enough rows to grow the table several times, each added twice
+	for (int i = 0; i < 5000; i++) {
+		Expense expense = expense(i);
+		fingerprints.add(fingerprint.digest(expense));
+		fingerprints.add(fingerprint.digest(expense));
+		expected.add(fingerprint.of(expense));
+	}
+
+	// Assert
+	assertThat(fingerprints.size()).isEqualTo(5000);
+	assertThat(fingerprints).containsExactlyInAnyOrderElementsOf(expected);
+}
+
+private static Expense expense(int day) {
+	return new Expense(
+		null, LocalDate.of(2025, 1, 1).plusDays(day), "Cafe", new BigDecimal("12.50"), "BofA", "Dining");
+}
+}
@@ -0,0 +1,91 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.Test;
+
+import io.airlift.compress.zstd.ZstdCompressor;
+
+/** Unit tests for ImportCompression. */
+public class ImportCompressionTest {
+
+private static final byte[] CSV =
+	"date,merchant,amount,bank,category\n2025-01-01,Whole Foods,50.00,Chase,Groceries\n"
+		.getBytes(StandardCharsets.UTF_8);
+
+@Test
+public void decompress_PlainCsv_IsPassedThrough() throws IOException {
+	InputStream in = ImportCompression.decompress(new ByteArrayInputStream(CSV), 1024, 100);
+
+	assertThat(in.readAllBytes()).isEqualTo(CSV);
+}
+
+@Test
+public void decompress_GzipAndZstd_AreDetectedFromMagicBytes() throws IOException {
+	assertThat(
+			ImportCompression.decompress(new ByteArrayInputStream(gzip(CSV)), 1024, 100)
+				.readAllBytes())
+		.isEqualTo(CSV);
+	assertThat(
+			ImportCompression.decompress(new ByteArrayInputStream(zstd(CSV)), 1024, 100)
+				.readAllBytes())
+		.isEqualTo(CSV);
+}
+
+@Test
+public void decompress_HighRatio_IsRejected() throws IOException {
+	// 8MB of zeros compress to a few KB
+	byte[] bomb = gzip(new byte[8 * 1024 * 1024]);
+	InputStream in = ImportCompression.decompress(new ByteArrayInputStream(bomb), bomb.length, 100);
+
+	assertThatThrownBy(in::readAllBytes)
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Compressed file expands more than 100 times its size and was rejected");
+}
+
+@Test
+public void decompress_CompressedSizeOverLimit_IsRejected() throws IOException {
+	byte[] compressed = gzip(CSV);
+	InputStream in =
+		ImportCompression.decompress(new ByteArrayInputStream(compressed), compressed.length - 1, 100);
+
+	assertThatThrownBy(in::readAllBytes)
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("File size exceeds maximum limit");
+}
+
+@Test
+public void decompress_TruncatedGzip_IsRejected() throws IOException {
+	byte[] compressed = gzip(CSV);
+	byte[] truncated = Arrays.copyOf(compressed, compressed.length - 8);
+	InputStream in = ImportCompression.decompress(new ByteArrayInputStream(truncated), 1024, 100);
+
+	assertThatThrownBy(in::readAllBytes)
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Compressed file is corrupt or truncated");
+}
+
+private static byte[] gzip(byte[] content) throws IOException {
+	ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+	try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+		gzip.write(content);
+	}
+	return compressed.toByteArray();
+}
+
+private static byte[] zstd(byte[] content) {
+	ZstdCompressor compressor = new ZstdCompressor();
+	byte[] compressed = new byte[compressor.maxCompressedLength(content.length)];
+	int length = compressor.compress(content, 0, content.length, compressed, 0, compressed.length);
+	return Arrays.copyOf(compressed, length);
+}
+}
@@ -0,0 +1,263 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ImportJobService. */
+public class ImportJobServiceTest {
+
+@TempDir private Path spoolDirectory;
+
+private ExpenseService expenseService;
+private ImportJobService importJobService;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	expenseService = mock(ExpenseService.class);
+
+	ImportProperties importProperties = new ImportProperties();
+	importProperties.setSpoolDirectory(spoolDirectory);
+	importProperties.getScheduler().setMaxConcurrent(1);
+	importProperties.getScheduler().setMaxQueued(1);
+	importJobService =
+		new ImportJobService(expenseService, importProperties, new ImportScheduler(importProperties));
+
+	testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+}
+
+@AfterEach
+public void tearDown() {
+	importJobService.shutdown();
+}
+
+@Test
+public void submit_ValidFile_CompletesWithResultAndDeletesSpoolFile() throws Exception {
+	// Arrange
+	ImportResult result = new ImportResult();
+	result.setTotalRows(2);
+	result.setSuccessfulImports(2);
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any())).thenReturn(result);
+	Path file = spool("date,merchant,amount,bank,category\n");
+
+	// Act
+	ImportJob job = importJobService.submit(file, testUser, ImportOptions.DEFAULT);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+	assertThat(job.getResult()).isSameAs(result);
+	assertThat(job.getCompletedAt()).isNotNull();
+	assertThat(file).doesNotExist();
+}
+
+@Test
+public void submit_ImportFails_MarksJobFailed() throws Exception {
+	// Arrange
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any()))
+		.thenThrow(new CsvImportException("File exceeds maximum row limit of 10. Found at least 11 rows."));
+	Path file = spool("date,merchant,amount,bank,category\n");
+
+	// Act
+	ImportJob job = importJobService.submit(file, testUser, ImportOptions.DEFAULT);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.FAILED);
+	assertThat(job.getError()).contains("maximum row limit");
+	assertThat(file).doesNotExist();
+}
+
+@Test
+public void submit_ImportAbortedAfterSavingRows_MarksJobFailedWithResult() throws Exception {
+	// Arrange
+	ImportResult result = new ImportResult();
+	result.setTotalRows(200);
+	result.setSuccessfulImports(200);
+	result.setAborted(true);
+	result.setAbortReason("File exceeds maximum row limit of 200. Found at least 201 rows.");
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any())).thenReturn(result);
+
+	// Act
+	ImportJob job =
+		importJobService.submit(spool("date,merchant,amount,bank,category\n"), testUser, ImportOptions.DEFAULT);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.FAILED);
+	assertThat(job.getError()).contains("maximum row limit");
+	assertThat(job.getResult()).isSameAs(result);
+}
+
+@Test
+public void submit_ExecutorShutDown_MarksJobFailedInsteadOfThrowing() throws Exception {
+	// Arrange
+	importJobService.shutdown();
+	Path file = spool("date,merchant,amount,bank,category\n");
+
+	// Act
+	ImportJob job = importJobService.submit(file, testUser, ImportOptions.DEFAULT);
+
+	// Assert - the job could not start, and its slot is free for the next import
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.FAILED);
+	assertThat(job.getError()).isEqualTo("The import could not be started. Please try again.");
+	assertThat(file).doesNotExist();
+	assertThat(importJobService.submit(spool("b"), testUser, ImportOptions.DEFAULT).getStatus())
+		.isEqualTo(ImportJobStatus.FAILED);
+}
+
+@Test
+public void submit_QueueFull_ThrowsImportRejectedException() throws Exception {
+	// Arrange - one worker blocked on the first job, one queued job filling the queue
+	CountDownLatch release = new CountDownLatch(1);
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any()))
+		.thenAnswer(
+			invocation -> {
+				release.await(5, TimeUnit.SECONDS);
+				return new ImportResult();
+			});
+	importJobService.submit(spool("a"), testUser, ImportOptions.DEFAULT);
+	importJobService.submit(spool("b"), testUser, ImportOptions.DEFAULT);
+	Path rejected = spool("c");
+
+	// Act & Assert
+	try {
+		assertThatThrownBy(() -> importJobService.submit(rejected, testUser, ImportOptions.DEFAULT))
+			.isInstanceOf(ImportRejectedException.class);
+		// The caller still owns the file and may retry
+		assertThat(rejected).exists();
+	} finally {
+		release.countDown();
+	}
+}
+
+@Test
+public void cancel_QueuedJob_CancelsWithoutImporting() throws Exception {
+	// Arrange - block the only worker so the second job stays queued
+	CountDownLatch release = new CountDownLatch(1);
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any()))
+		.thenAnswer(
+			invocation -> {
+				release.await(5, TimeUnit.SECONDS);
+				return new ImportResult();
+			});
+	ImportJob running = importJobService.submit(spool("a"), testUser, ImportOptions.DEFAULT);
+	Path queuedFile = spool("b");
+	ImportJob queued = importJobService.submit(queuedFile, testUser, ImportOptions.DEFAULT);
+
+	// Act
+	importJobService.cancel(queued.getJobId(), testUser);
+
+	// Assert - cancelled while the first job is still running
+	try {
+		assertThat(queued.getStatus()).isEqualTo(ImportJobStatus.CANCELLED);
+		assertThat(queued.getCompletedAt()).isNotNull();
+		assertThat(queued.getResult()).isNull();
+		assertThat(queuedFile).doesNotExist();
+	} finally {
+		release.countDown();
+	}
+	awaitTerminal(running);
+	verify(expenseService, never()).importExpenses(any(), eq(testUser), any(), eq(queued));
+}
+
+@Test
+public void cancel_AfterWholeFileWasRead_CompletesJob() throws Exception {
+	// Arrange - the cancellation arrives once the import has read every row
+	ImportResult result = new ImportResult();
+	result.setTotalRows(2);
+	result.setSuccessfulImports(2);
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any()))
+		.thenAnswer(
+			invocation -> {
+				invocation.<ImportJob>getArgument(3).requestCancel();
+				return result;
+			});
+
+	// Act
+	ImportJob job =
+		importJobService.submit(spool("date,merchant,amount,bank,category\n"), testUser, ImportOptions.DEFAULT);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.COMPLETED);
+	assertThat(job.getResult()).isSameAs(result);
+}
+
+@Test
+public void cancel_RunningJobStoppedPartway_CancelsJobWithResult() throws Exception {
+	// Arrange
+	ImportResult result = new ImportResult();
+	result.setTotalRows(100);
+	result.setSuccessfulImports(100);
+	result.setCancelled(true);
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any())).thenReturn(result);
+
+	// Act
+	ImportJob job =
+		importJobService.submit(spool("date,merchant,amount,bank,category\n"), testUser, ImportOptions.DEFAULT);
+	awaitTerminal(job);
+
+	// Assert
+	assertThat(job.getStatus()).isEqualTo(ImportJobStatus.CANCELLED);
+	assertThat(job.getResult()).isSameAs(result);
+}
+
+@Test
+public void getJob_OtherUser_ThrowsImportJobNotFoundException() throws Exception {
+	// Arrange
+	when(expenseService.importExpenses(any(), eq(testUser), any(), any())).thenReturn(new ImportResult());
+	ImportJob job = importJobService.submit(spool("a"), testUser, ImportOptions.DEFAULT);
+
+	User otherUser = new User();
+	otherUser.setId(2L);
+
+	// Act & Assert
+	assertThat(importJobService.getJob(job.getJobId(), testUser)).isSameAs(job);
+	assertThatThrownBy(() -> importJobService.getJob(job.getJobId(), otherUser))
+		.isInstanceOf(ImportJobNotFoundException.class);
+	assertThatThrownBy(() -> importJobService.cancel(job.getJobId(), otherUser))
+		.isInstanceOf(ImportJobNotFoundException.class);
+}
+
+@Test
+public void getJob_UnknownId_ThrowsImportJobNotFoundException() {
+	assertThatThrownBy(() -> importJobService.getJob("missing", testUser))
+		.isInstanceOf(ImportJobNotFoundException.class)
+		.hasMessage("Import job not found with id: missing");
+}
+
+private Path spool(String content) throws IOException {
+	Path file = Files.createTempFile(spoolDirectory, "import-", ".csv");
+	Files.writeString(file, content);
+	return file;
+}
+
+private void awaitTerminal(ImportJob job) throws InterruptedException {
+	long deadline = System.currentTimeMillis() + 5000;
+	while (!job.getStatus().isTerminal() && System.currentTimeMillis() < deadline) {
+		Thread.sleep(10);
+	}
+}
+}
@@ -0,0 +1,106 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+/** Unit tests for ImportLayoutDetector. */
+public class ImportLayoutDetectorTest {
+
+@Test
+public void detect_StandardFile_ReturnsDefaultLayout() throws IOException {
+	ImportLayout layout =
+		detect(
+			"date,merchant,amount,bank,category\n"
+				+ "2025-01-01,Whole Foods,50.00,Chase,Groceries\n"
+				+ "2025-01-02,\"Target; Store\",75.50,BofA,Shopping\n");
+
+	assertThat(layout).isEqualTo(ImportLayout.DEFAULT);
+}
+
+@Test
+public void detect_EuropeanFile_DetectsDelimiterDatesAndSeparators() throws IOException {
+	// Arrange
+	String content =
+		"date;merchant;amount;bank;category\n"
+			+ "31.01.2025;\"Cafe, Bar\";1.234,56;Sparkasse;Food\n"
+			+ "01.02.2025;Bakery;12,50;Sparkasse;Food\n";
+
+	// Act
+	ImportLayout layout = detect(content);
+
+	// Assert
+	assertThat(delimiter(content)).isEqualTo(';');
+	assertThat(layout.dateFormat()).isEqualTo(ImportLayout.DateFormat.DMY_DOT);
+	assertThat(layout.decimalSeparator()).isEqualTo(',');
+	assertThat(layout.groupingSeparator()).isEqualTo('.');
+}
+
+@Test
+public void detect_BankExportHeader_MapsColumnsByName() throws IOException {
+	ImportLayout layout =
+		detect(
+			"Transaction Date,Description,Category,Amount,Account\n"
+				+ "01/31/2025,Cafe,Food,\"1,234.56\",Chase\n"
+				+ "02/01/2025,Bakery,Food,12.50,Chase\n");
+
+	assertThat(layout.dateColumn()).isZero();
+	assertThat(layout.merchantColumn()).isEqualTo(1);
+	assertThat(layout.categoryColumn()).isEqualTo(2);
+	assertThat(layout.amountColumn()).isEqualTo(3);
+	assertThat(layout.bankColumn()).isEqualTo(4);
+	assertThat(layout.dateFormat()).isEqualTo(ImportLayout.DateFormat.MDY_SLASH);
+	assertThat(layout.groupingSeparator()).isEqualTo(',');
+}
+
+@Test
+public void detect_DayAboveTwelve_PrefersDayFirstDates() throws IOException {
+	ImportLayout layout =
+		detect(
+			"date\tmerchant\tamount\tbank\tcategory\n"
+				+ "02/01/2025\tCafe\t1.50\tChase\tFood\n"
+				+ "13/01/2025\tCafe\t2.50\tChase\tFood\n");
+
+	assertThat(layout.dateFormat()).isEqualTo(ImportLayout.DateFormat.DMY_SLASH);
+}
+
+@Test
+public void detect_UnknownOrDuplicateHeaders_KeepsStandardColumnOrder() throws IOException {
+	ImportLayout layout =
+		detect(
+			"Datum,Payee,Description,Amount,Category\n2025-01-01,Cafe,Coffee,1.00,Food\n");
+
+	assertThat(layout).isEqualTo(ImportLayout.DEFAULT);
+}
+
+@Test
+public void detectDelimiter_DoesNotConsumeInput() throws IOException {
+	byte[] content = "a|b|c\n1|2|3\n".getBytes(StandardCharsets.UTF_8);
+	BufferedInputStream in = new BufferedInputStream(new ByteArrayInputStream(content));
+
+	assertThat(ImportLayoutDetector.detectDelimiter(in)).isEqualTo('|');
+	assertThat(in.readAllBytes()).isEqualTo(content);
+}
+
+private static char delimiter(String content) throws IOException {
+	return ImportLayoutDetector.detectDelimiter(
+		new BufferedInputStream(new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8))));
+}
+
+private static ImportLayout detect(String content) throws IOException {
+	RowChunk chunk = new RowChunk(4);
+	try (ExpenseCsvReader reader =
+			new ExpenseCsvReader(
+				new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8)), delimiter(content))) {
+		while (reader.readRecord(chunk)) {
+			// read everything
+		}
+		return ImportLayoutDetector.detect(reader.getHeader(), chunk);
+	}
+}
+}
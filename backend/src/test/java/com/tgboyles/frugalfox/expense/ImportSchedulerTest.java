@@ -0,0 +1,173 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for ImportScheduler. */
+public class ImportSchedulerTest {
+
+private ImportProperties importProperties;
+private ImportScheduler importScheduler;
+private final List<String> started = new ArrayList<>();
+private final List<ImportScheduler.Slot> running = new ArrayList<>();
+
+@BeforeEach
+public void setup() {
+	importProperties = new ImportProperties();
+	importProperties.getScheduler().setMaxConcurrent(1);
+	importProperties.getScheduler().setMaxWait(Duration.ofMillis(50));
+	importScheduler = new ImportScheduler(importProperties);
+}
+
+@Test
+public void submit_ManyJobsFromOneUser_TakesTurnsWithOtherUsers() {
+	// Arrange - user 1 holds the only slot and queues three more jobs before users 2 and 3
+	ImportScheduler.Slot first = importScheduler.acquire(user(1L));
+	submit(1L, "a1");
+	submit(1L, "a2");
+	submit(1L, "a3");
+	submit(2L, "b1");
+	submit(3L, "c1");
+	assertThat(importScheduler.getQueuedImports()).isEqualTo(5);
+	assertThat(importScheduler.getWaitingUsers()).isEqualTo(3);
+
+	// Act - finish every import as soon as it starts
+	first.close();
+	while (!running.isEmpty()) {
+		running.remove(0).close();
+	}
+
+	// Assert
+	assertThat(started).containsExactly("a1", "b1", "c1", "a2", "a3");
+	assertThat(importScheduler.getActiveImports()).isZero();
+	assertThat(importScheduler.getQueuedImports()).isZero();
+}
+
+@Test
+public void submit_SameUser_RunsOneImportAtATime() {
+	importProperties.getScheduler().setMaxConcurrent(2);
+
+	submit(1L, "a1");
+	submit(1L, "a2");
+	submit(2L, "b1");
+
+	assertThat(started).containsExactly("a1", "b1");
+	assertThat(importScheduler.getActiveImports()).isEqualTo(2);
+	assertThat(importScheduler.getQueuedImports()).isEqualTo(1);
+
+	running.get(0).close();
+	assertThat(started).containsExactly("a1", "b1", "a2");
+}
+
+@Test
+public void acquire_UserAlreadyImporting_IsRejected() {
+	// Arrange
+	ImportScheduler.Slot slot = importScheduler.acquire(user(1L));
+
+	// Act & Assert
+	assertThatThrownBy(() -> importScheduler.acquire(user(1L)))
+		.isInstanceOf(ImportRejectedException.class)
+		.hasMessage("An import is already in progress for this account. Please wait for it to finish.");
+
+	// Closing a slot twice releases it once
+	slot.close();
+	slot.close();
+	importScheduler.acquire(user(1L)).close();
+	assertThat(importScheduler.getActiveImports()).isZero();
+}
+
+@Test
+public void acquire_NoSlotWithinMaxWait_IsRejected() {
+	// Arrange
+	ImportScheduler.Slot slot = importScheduler.acquire(user(1L));
+
+	// Act & Assert
+	assertThatThrownBy(() -> importScheduler.acquire(user(2L)))
+		.isInstanceOf(ImportRejectedException.class)
+		.hasMessage("Too many imports are in progress. Please try again later.");
+	assertThat(importScheduler.getQueuedImports()).isZero();
+
+	slot.close();
+	importScheduler.acquire(user(2L)).close();
+}
+
+@Test
+public void submit_QueueFull_IsRejected() {
+	importProperties.getScheduler().setMaxQueued(1);
+	submit(1L, "a1");
+	submit(2L, "b1");
+
+	assertThatThrownBy(() -> submit(3L, "c1")).isInstanceOf(ImportRejectedException.class);
+	assertThat(started).containsExactly("a1");
+}
+
+@Test
+public void release_NextImportFailsToStart_ReportsFailureToThatImportOnly() {
+	// Arrange - user 2's job is queued behind user 1's import, and its executor is gone
+	ImportScheduler.Slot first = importScheduler.acquire(user(1L));
+	List<RuntimeException> failures = new ArrayList<>();
+	importScheduler.submit(
+		user(2L),
+		slot -> {
+			throw new RejectedExecutionException("executor shut down");
+		},
+		failures::add);
+	submit(3L, "c1");
+
+	// Act - user 1's thread finishes and hands the slot on
+	first.close();
+
+	// Assert - user 1 does not see user 2's failure, and the slot moves on to user 3
+	assertThat(failures).singleElement().isInstanceOf(RejectedExecutionException.class);
+	assertThat(started).containsExactly("c1");
+	assertThat(importScheduler.getActiveImports()).isEqualTo(1);
+	assertThat(importScheduler.getQueuedImports()).isZero();
+}
+
+@Test
+public void withdraw_QueuedImport_NeverStartsAndFreesItsPlace() {
+	// Arrange
+	importProperties.getScheduler().setMaxQueued(1);
+	ImportScheduler.Slot first = importScheduler.acquire(user(1L));
+	ImportScheduler.QueuedImport queued = submit(2L, "b1");
+
+	// Act
+	boolean withdrawn = queued.withdraw();
+	submit(3L, "c1");
+	first.close();
+
+	// Assert - a started import can no longer be withdrawn
+	assertThat(withdrawn).isTrue();
+	assertThat(started).containsExactly("c1");
+	assertThat(importScheduler.getQueuedImports()).isZero();
+	assertThat(queued.withdraw()).isFalse();
+}
+
+private ImportScheduler.QueuedImport submit(Long userId, String name) {
+	return importScheduler.submit(
+		user(userId),
+		slot -> {
+			started.add(name);
+			running.add(slot);
+		},
+		failure -> {
+			throw new AssertionError("Import " + name + " failed to start", failure);
+		});
+}
+
+private static User user(Long id) {
+	User user = new User();
+	user.setId(id);
+	return user;
+}
+}
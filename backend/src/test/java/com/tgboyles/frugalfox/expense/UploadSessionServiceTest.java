@@ -0,0 +1,239 @@
+package com.tgboyles.frugalfox.expense;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import com.tgboyles.frugalfox.user.User;
+
+/** Unit tests for UploadSessionService. */
+public class UploadSessionServiceTest {
+
+private static final byte[] CONTENT =
+	"date,merchant,amount,bank,category\n2025-01-01,Cafe,1.00,Chase,Food\n"
+		.getBytes(StandardCharsets.UTF_8);
+
+@TempDir private Path spoolDirectory;
+
+private ImportJobService importJobService;
+private ImportProperties importProperties;
+private UploadSessionService uploadSessionService;
+private User testUser;
+
+@BeforeEach
+public void setup() {
+	importJobService = mock(ImportJobService.class);
+
+	importProperties = new ImportProperties();
+	importProperties.setSpoolDirectory(spoolDirectory);
+	importProperties.getUploads().setChunkSize(DataSize.ofBytes(16));
+	importProperties.getUploads().setMaxSessionsPerUser(2);
+	uploadSessionService = new UploadSessionService(importJobService, importProperties);
+
+	testUser = new User();
+	testUser.setId(1L);
+	testUser.setUsername("testuser");
+}
+
+@Test
+public void writeChunk_ChunksOutOfOrder_AssembleFileForImport() throws Exception {
+	// Arrange
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	assertThat(session.getChunkCount()).isEqualTo(5);
+	ImportJob job = new ImportJob(testUser.getId(), session.getFile(), ImportOptions.DEFAULT);
+	when(importJobService.submit(eq(session.getFile()), eq(testUser), eq(ImportOptions.DEFAULT)))
+		.thenReturn(job);
+
+	// Act
+	for (int index : new int[] {4, 1, 3, 0, 2}) {
+		send(session, index);
+	}
+	ImportJob submitted = uploadSessionService.complete(session.getUploadId(), testUser);
+
+	// Assert
+	assertThat(submitted).isSameAs(job);
+	assertThat(Files.readAllBytes(session.getFile())).isEqualTo(CONTENT);
+	assertThatThrownBy(() -> uploadSessionService.getSession(session.getUploadId(), testUser))
+		.isInstanceOf(UploadSessionNotFoundException.class);
+}
+
+@Test
+public void writeChunk_ChecksumMismatch_ChunkStaysMissing() throws Exception {
+	// Arrange
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	byte[] chunk = chunk(session, 0);
+	byte[] corrupted = chunk.clone();
+	corrupted[0] ^= 1;
+
+	// Act & Assert
+	assertThatThrownBy(
+			() ->
+				uploadSessionService.writeChunk(
+					session.getUploadId(), 0, new ByteArrayInputStream(corrupted), sha256(chunk), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("Checksum mismatch for chunk 0");
+	assertThat(session.getMissingChunks()).contains(0);
+
+	// Sending the chunk again succeeds
+	send(session, 0);
+	assertThat(session.getReceivedChunks()).containsExactly(0);
+}
+
+@Test
+public void writeChunk_WrongLength_IsRejected() {
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	byte[] tooShort = Arrays.copyOf(CONTENT, 10);
+	byte[] tooLong = Arrays.copyOf(CONTENT, 17);
+
+	assertThatThrownBy(
+			() ->
+				uploadSessionService.writeChunk(
+					session.getUploadId(), 0, new ByteArrayInputStream(tooShort), sha256(tooShort), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Chunk 0 must be 16 bytes, but only 10 bytes were received");
+	assertThatThrownBy(
+			() ->
+				uploadSessionService.writeChunk(
+					session.getUploadId(), 0, new ByteArrayInputStream(tooLong), sha256(tooLong), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Chunk 0 is larger than 16 bytes");
+	assertThatThrownBy(
+			() ->
+				uploadSessionService.writeChunk(
+					session.getUploadId(), 5, new ByteArrayInputStream(tooShort), sha256(tooShort), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Chunk index 5 is out of range. Expected 0 to 4");
+	assertThat(session.getReceivedChunks()).isEmpty();
+}
+
+@Test
+public void writeChunk_ResentChunk_IsAcceptedOnlyWithSameChecksum() throws Exception {
+	// Arrange
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	send(session, 1);
+	byte[] other = new byte[16];
+
+	// Act & Assert
+	send(session, 1);
+	assertThatThrownBy(
+			() ->
+				uploadSessionService.writeChunk(
+					session.getUploadId(), 1, new ByteArrayInputStream(other), sha256(other), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Chunk 1 was already received with a different checksum");
+	assertThat(session.getReceivedChunks()).containsExactly(1);
+}
+
+@Test
+public void complete_MissingChunks_ListsMissingChunks() throws Exception {
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	send(session, 0);
+	send(session, 2);
+
+	assertThatThrownBy(() -> uploadSessionService.complete(session.getUploadId(), testUser))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessage("Upload is incomplete. Missing chunks: [1, 3, 4]");
+}
+
+@Test
+public void complete_ImportRejected_KeepsUploadForRetry() throws Exception {
+	// Arrange
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	for (int index = 0; index < session.getChunkCount(); index++) {
+		send(session, index);
+	}
+	ImportJob job = new ImportJob(testUser.getId(), session.getFile(), ImportOptions.DEFAULT);
+	when(importJobService.submit(any(Path.class), eq(testUser), any()))
+		.thenThrow(new ImportRejectedException("Too many imports are in progress. Please try again later."))
+		.thenReturn(job);
+
+	// Act & Assert
+	assertThatThrownBy(() -> uploadSessionService.complete(session.getUploadId(), testUser))
+		.isInstanceOf(ImportRejectedException.class);
+	assertThat(session.getFile()).exists();
+	assertThat(uploadSessionService.complete(session.getUploadId(), testUser)).isSameAs(job);
+}
+
+@Test
+public void open_SizeOverQuotaOrTooManySessions_IsRejected() {
+	importProperties.getQuota().setMaxSize(DataSize.ofBytes(100));
+
+	assertThatThrownBy(() -> uploadSessionService.open(101, testUser, ImportOptions.DEFAULT))
+		.isInstanceOf(CsvImportException.class)
+		.hasMessageContaining("File size exceeds maximum limit of 100 bytes");
+	assertThatThrownBy(() -> uploadSessionService.open(0, testUser, ImportOptions.DEFAULT))
+		.isInstanceOf(CsvImportException.class);
+
+	uploadSessionService.open(100, testUser, ImportOptions.DEFAULT);
+	uploadSessionService.open(100, testUser, ImportOptions.DEFAULT);
+	assertThatThrownBy(() -> uploadSessionService.open(100, testUser, ImportOptions.DEFAULT))
+		.isInstanceOf(ImportRejectedException.class);
+}
+
+@Test
+public void cancel_OtherUser_ThrowsNotFoundAndOwnerDeletesFile() {
+	// Arrange
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+	User otherUser = new User();
+	otherUser.setId(2L);
+
+	// Act & Assert
+	assertThatThrownBy(() -> uploadSessionService.getSession(session.getUploadId(), otherUser))
+		.isInstanceOf(UploadSessionNotFoundException.class);
+	assertThatThrownBy(() -> uploadSessionService.cancel(session.getUploadId(), otherUser))
+		.isInstanceOf(UploadSessionNotFoundException.class);
+
+	uploadSessionService.cancel(session.getUploadId(), testUser);
+	assertThat(session.getFile()).doesNotExist();
+	assertThatThrownBy(() -> uploadSessionService.getSession(session.getUploadId(), testUser))
+		.isInstanceOf(UploadSessionNotFoundException.class);
+}
+
+@Test
+public void evictExpiredSessions_InactiveSession_IsDiscarded() {
+	importProperties.getUploads().setExpiry(Duration.ZERO);
+	UploadSession session = uploadSessionService.open(CONTENT.length, testUser, ImportOptions.DEFAULT);
+
+	uploadSessionService.evictExpiredSessions();
+
+	assertThat(session.getFile()).doesNotExist();
+	assertThatThrownBy(() -> uploadSessionService.getSession(session.getUploadId(), testUser))
+		.isInstanceOf(UploadSessionNotFoundException.class);
+}
+
+private void send(UploadSession session, int index) throws Exception {
+	byte[] chunk = chunk(session, index);
+	uploadSessionService.writeChunk(
+		session.getUploadId(), index, new ByteArrayInputStream(chunk), sha256(chunk), testUser);
+}
+
+private static byte[] chunk(UploadSession session, int index) {
+	int start = (int) session.offsetOf(index);
+	return Arrays.copyOfRange(CONTENT, start, start + session.lengthOf(index));
+}
+
+private static String sha256(byte[] content) {
+	try {
+		return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+	} catch (Exception e) {
+		throw new IllegalStateException(e);
+	}
+}
+}
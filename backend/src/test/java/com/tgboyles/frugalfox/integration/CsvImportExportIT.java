@@ -3,6 +3,8 @@ package com.tgboyles.frugalfox.integration;
 import static io.restassured.RestAssured.given;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import java.io.File;
 import java.io.FileWriter;
@@ -11,6 +13,7 @@ import java.io.IOException;
 import org.junit.jupiter.api.Test;
 
 import io.restassured.http.ContentType;
+import io.restassured.response.Response;
 
 /**
  * Integration tests for CSV import and export functionality.
@@ -53,6 +56,155 @@ public class CsvImportExportIT extends BaseIntegrationTest {
 		csvFile.delete();
 	}
 
+	@Test
+	public void testImportOverlappingFileWithSkipDuplicates_SkipsImportedRows() throws IOException {
+		String username = generateUniqueUsername();
+		String token = registerAndGetToken(username, "password123", username + "@example.com");
+
+		File firstFile = createCsvFile("statement_1.csv",
+			"date,merchant,amount,bank,category\n" +
+			"2025-12-26,Whole Foods,125.50,Chase,Groceries\n" +
+			"2025-12-27,Target,200.00,Amex,Shopping\n");
+		File overlappingFile = createCsvFile("statement_2.csv",
+			"date,merchant,amount,bank,category\n" +
+			"2025-12-27,Target,200.00,Amex,Shopping\n" +
+			"2025-12-28,Shell,45.00,Chase,Gas\n");
+
+		given()
+			.header("Authorization", "Bearer " + token)
+			.multiPart("file", firstFile, "text/csv")
+			.queryParam("skipDuplicates", true)
+			.when()
+			.post("/expenses/import")
+			.then()
+			.statusCode(200)
+			.body("successfulImports", equalTo(2))
+			.body("duplicatesSkipped", equalTo(0));
+
+		given()
+			.header("Authorization", "Bearer " + token)
+			.multiPart("file", overlappingFile, "text/csv")
+			.queryParam("skipDuplicates", true)
+			.when()
+			.post("/expenses/import")
+			.then()
+			.statusCode(200)
+			.body("totalRows", equalTo(2))
+			.body("successfulImports", equalTo(1))
+			.body("duplicatesSkipped", equalTo(1))
+			.body("failedImports", equalTo(0));
+
+		given()
+			.header("Authorization", "Bearer " + token)
+			.when()
+			.get("/expenses")
+			.then()
+			.statusCode(200)
+			.body("totalElements", equalTo(3));
+
+		firstFile.delete();
+		overlappingFile.delete();
+	}
+
+	@Test
+	public void testAsyncImport_CompletesAndReportsProgress() throws Exception {
+		String username = generateUniqueUsername();
+		String token = registerAndGetToken(username, "password123", username + "@example.com");
+
+		File csvFile = createCsvFile("async_import.csv",
+			"date,merchant,amount,bank,category\n" +
+			"2025-12-26,Whole Foods,125.50,Chase,Groceries\n" +
+			"invalid-date,Target,200.00,Amex,Shopping\n" +
+			"2025-12-28,Shell,45.00,Chase,Gas\n");
+
+		Response response = given()
+			.header("Authorization", "Bearer " + token)
+			.multiPart("file", csvFile, "text/csv")
+			.queryParam("async", true)
+			.when()
+			.post("/expenses/import")
+			.then()
+			.statusCode(202)
+			.header("Location", containsString("/expenses/import/"))
+			.body("jobId", notNullValue())
+			.extract()
+			.response();
+
+		String location = response.header("Location");
+
+		// Poll until the job has finished
+		String status = null;
+		for (int attempt = 0; attempt < 50; attempt++) {
+			status = given()
+				.header("Authorization", "Bearer " + token)
+				.when()
+				.get(location)
+				.then()
+				.statusCode(200)
+				.extract()
+				.path("status");
+			if (!"QUEUED".equals(status) && !"RUNNING".equals(status)) {
+				break;
+			}
+			Thread.sleep(100);
+		}
+		assertEquals("COMPLETED", status);
+
+		given()
+			.header("Authorization", "Bearer " + token)
+			.when()
+			.get(location)
+			.then()
+			.statusCode(200)
+			.body("rowsParsed", equalTo(3))
+			.body("rowsSaved", equalTo(2))
+			.body("rowsFailed", equalTo(1))
+			.body("result.totalRows", equalTo(3))
+			.body("result.successfulImports", equalTo(2))
+			.body("result.failedImports", equalTo(1));
+
+		csvFile.delete();
+	}
+
+	@Test
+	public void testGetImportJob_OtherUser_NotFound() throws IOException {
+		String ownerName = generateUniqueUsername();
+		String ownerToken = registerAndGetToken(ownerName, "password123", ownerName + "@example.com");
+		String otherName = generateUniqueUsername();
+		String otherToken = registerAndGetToken(otherName, "password123", otherName + "@example.com");
+
+		File csvFile = createCsvFile("async_isolation.csv",
+			"date,merchant,amount,bank,category\n" +
+			"2025-12-26,Whole Foods,125.50,Chase,Groceries\n");
+
+		String location = given()
+			.header("Authorization", "Bearer " + ownerToken)
+			.multiPart("file", csvFile, "text/csv")
+			.queryParam("async", true)
+			.when()
+			.post("/expenses/import")
+			.then()
+			.statusCode(202)
+			.extract()
+			.header("Location");
+
+		given()
+			.header("Authorization", "Bearer " + otherToken)
+			.when()
+			.get(location)
+			.then()
+			.statusCode(404);
+
+		given()
+			.header("Authorization", "Bearer " + otherToken)
+			.when()
+			.delete(location)
+			.then()
+			.statusCode(404);
+
+		csvFile.delete();
+	}
+
 	@Test
 	public void testImportCsvWithValidationErrors_PartialSuccess() throws IOException {
 		String username = generateUniqueUsername();
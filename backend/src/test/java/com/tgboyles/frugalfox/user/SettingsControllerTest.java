@@ -1,14 +1,23 @@
 package com.tgboyles.frugalfox.user;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -62,6 +71,20 @@ public class SettingsControllerTest {
 		return jsonNode.get("token").asText();
 	}
 
+	private void createExpense(String token, String date, String merchant, String amount)
+		throws Exception {
+		String body =
+			String.format(
+				"{\"date\":\"%s\",\"merchant\":\"%s\",\"amount\":%s,\"bank\":\"Chase\",\"category\":\"Groceries\"}",
+				date, merchant, amount);
+		mvc.perform(
+				post("/expenses")
+					.header("Authorization", "Bearer " + token)
+					.contentType(MediaType.APPLICATION_JSON)
+					.content(body))
+			.andExpect(status().isCreated());
+	}
+
 	@Test
 	public void testGetCurrentUserSuccess() throws Exception {
 		String token = registerAndGetToken("testuser", "password123", "test@example.com");
@@ -213,6 +236,75 @@ public class SettingsControllerTest {
 			.andExpect(status().isForbidden());
 	}
 
+	@Test
+	public void testExportAccount_ZipWithProfileAndOneCsvPerYear() throws Exception {
+		String token = registerAndGetToken("testuser7", "password123", "test7@example.com");
+		createExpense(token, "2025-02-01", "Target", "75.50");
+		createExpense(token, "2024-03-15", "Whole Foods", "125.50");
+		createExpense(token, "2025-01-10", "Shell", "45.00");
+
+		MvcResult result =
+			mvc.perform(
+					get("/settings/export")
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", "application/zip"))
+				.andExpect(
+					header().string(
+						"Content-Disposition", "attachment; filename=\"frugalfox-account.zip\""))
+				.andReturn();
+
+		Map<String, String> entries = new LinkedHashMap<>();
+		try (ZipInputStream zip =
+			new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+				entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+			}
+		}
+
+		assertThat(entries.keySet())
+			.containsExactly("profile.json", "expenses/2024.csv", "expenses/2025.csv");
+
+		JsonNode profile = objectMapper.readTree(entries.get("profile.json"));
+		assertThat(profile.get("username").asText()).isEqualTo("testuser7");
+		assertThat(profile.get("email").asText()).isEqualTo("test7@example.com");
+		assertThat(profile.has("password")).isFalse();
+
+		assertThat(entries.get("expenses/2024.csv"))
+			.isEqualTo(
+				"date,merchant,amount,bank,category\r\n"
+					+ "2024-03-15,Whole Foods,125.50,Chase,Groceries\r\n");
+		assertThat(entries.get("expenses/2025.csv"))
+			.isEqualTo(
+				"date,merchant,amount,bank,category\r\n"
+					+ "2025-01-10,Shell,45.00,Chase,Groceries\r\n"
+					+ "2025-02-01,Target,75.50,Chase,Groceries\r\n");
+	}
+
+	@Test
+	public void testExportAccount_NoExpenses_ContainsOnlyProfile() throws Exception {
+		String token = registerAndGetToken("testuser8", "password123", "test8@example.com");
+
+		MvcResult result =
+			mvc.perform(
+					get("/settings/export")
+						.header("Authorization", "Bearer " + token))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		try (ZipInputStream zip =
+			new ZipInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray()))) {
+			assertThat(zip.getNextEntry().getName()).isEqualTo("profile.json");
+			assertThat(zip.getNextEntry()).isNull();
+		}
+	}
+
+	@Test
+	public void testExportAccountUnauthorized() throws Exception {
+		mvc.perform(get("/settings/export"))
+			.andExpect(status().isForbidden());
+	}
+
 	@Test
 	public void testDeleteUserSuccess() throws Exception {
 		String token = registerAndGetToken("testuser6", "password123", "test6@example.com");
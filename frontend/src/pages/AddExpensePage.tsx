@@ -21,6 +21,17 @@ type ExpenseFormData = {
 // Constants
 const REDIRECT_DELAY_MS = 1000;
 const BYTES_PER_KB = 1024;
+// CSV and Excel files, optionally gzip or zstd compressed, as accepted by the import endpoint
+const IMPORT_FILE_TYPES = [
+  '.csv',
+  'text/csv',
+  '.xlsx',
+  'application/vnd.openxmlformats-officedocument.spreadsheetml.sheet',
+  '.gz',
+  'application/gzip',
+  '.zst',
+  'application/zstd',
+].join(',');
 
 export default function AddExpensePage() {
   const queryClient = useQueryClient();
@@ -262,9 +273,10 @@ export default function AddExpensePage() {
                 </TooltipTrigger>
                 <TooltipContent className="max-w-sm">
                   <div className="space-y-2">
-                    <p className="font-semibold">CSV Format Requirements:</p>
+                    <p className="font-semibold">File Format Requirements:</p>
                     <p className="text-xs">
-                      Your CSV file must include a header row with these columns:
+                      Your file must include a header row. Common bank export column names are
+                      recognized; otherwise the columns are read in this order:
                     </p>
                     <p className="text-xs">
                       <strong>Example CSV file content:</strong>
@@ -275,25 +287,32 @@ export default function AddExpensePage() {
 2024-01-16,Amazon,29.99,Chase,Shopping`}
                     </code>
                     <ul className="list-inside list-disc space-y-1 text-xs">
-                      <li>Date format: YYYY-MM-DD</li>
-                      <li>Amount: positive decimal number</li>
-                      <li>Max file size: 1MB</li>
-                      <li>Max rows: 1000</li>
+                      <li>
+                        Date format: YYYY-MM-DD, YYYY/MM/DD, MM/DD/YYYY, DD/MM/YYYY, DD.MM.YYYY,
+                        MM-DD-YYYY or DD-MM-YYYY, detected from the file
+                      </li>
+                      <li>Delimiter: comma, semicolon, tab or pipe</li>
+                      <li>Amount: positive number, such as 1,234.56 or 1.234,56</li>
+                      <li>
+                        File type: CSV or Excel (.xlsx), optionally gzip (.gz) or zstd (.zst)
+                        compressed
+                      </li>
+                      <li>File size and row limits depend on your account</li>
                     </ul>
                   </div>
                 </TooltipContent>
               </Tooltip>
             </CardTitle>
-            <CardDescription>Upload a CSV file with multiple expenses</CardDescription>
+            <CardDescription>Upload a CSV or Excel file with multiple expenses</CardDescription>
           </CardHeader>
           <CardContent className="space-y-4">
             <div className="space-y-2">
-              <Label htmlFor="csv-file">Select CSV File</Label>
+              <Label htmlFor="csv-file">Select CSV or Excel File</Label>
               <div className="flex gap-2">
                 <Input
                   id="csv-file"
                   type="file"
-                  accept=".csv,text/csv"
+                  accept={IMPORT_FILE_TYPES}
                   onChange={handleFileChange}
                   className="flex-1"
                 />